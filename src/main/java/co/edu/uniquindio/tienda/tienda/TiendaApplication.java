@@ -1,9 +1,12 @@
 package co.edu.uniquindio.tienda.tienda;
 
+import co.edu.uniquindio.tienda.tienda.controller.ModelFactoryController;
+import co.edu.uniquindio.tienda.tienda.util.Alertas;
 import co.edu.uniquindio.tienda.tienda.viewController.BarraOpcionesController;
 import co.edu.uniquindio.tienda.tienda.viewController.VentanaInicioController;
 import co.edu.uniquindio.tienda.tienda.viewController.VentanaProductosController;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
 import javafx.scene.layout.AnchorPane;
@@ -29,9 +32,33 @@ public class TiendaApplication extends Application {
         this.stage=stage;
         this.stage.setTitle("Tienda Abuelita");
         this.stage.setResizable(false);
+        Thread.currentThread().setUncaughtExceptionHandler((hilo, error) -> mostrarErrorNoManejado(error));
         mostrarVentanaInicio();
     }
 
+    /**
+     * Muestra al usuario los cambios que la tienda rechaza en el hilo de la interfaz, como los que se
+     * hacen mientras se cargan los datos o después de que el registro de transacciones falló.
+     * Los demás errores solo se imprimen.
+     *
+     * @param error El error que llegó sin manejar al hilo de la interfaz.
+     */
+    private void mostrarErrorNoManejado(Throwable error) {
+        for (Throwable causa = error; causa != null; causa = causa.getCause()) {
+            if (causa instanceof IllegalStateException) {
+                String mensaje = causa.getMessage();
+                Platform.runLater(() -> Alertas.mostrarAlertaError(mensaje));
+                return;
+            }
+        }
+        error.printStackTrace();
+    }
+
+    @Override
+    public void stop() {
+        ModelFactoryController.getInstance().cerrar();
+    }
+
     public void mostrarVentanaInicio() {
         try{
             FXMLLoader loader = new FXMLLoader(TiendaApplication.class.getResource("ventanas/VentanaInicio.fxml"));
@@ -46,6 +73,7 @@ public class TiendaApplication extends Application {
             controlador.setVentana(stage);
             controlador.mostrarPanelDerecho();
             controlador.mostrarBarraOpciones();
+            controlador.precargarPaneles();
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
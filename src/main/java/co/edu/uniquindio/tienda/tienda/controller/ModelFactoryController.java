@@ -3,32 +3,246 @@ package co.edu.uniquindio.tienda.tienda.controller;
 
 
 
+import co.edu.uniquindio.tienda.tienda.exception.AlmacenamientoException;
 import co.edu.uniquindio.tienda.tienda.exception.ClienteException;
 import co.edu.uniquindio.tienda.tienda.exception.ClienteNoEncontradoException;
+import co.edu.uniquindio.tienda.tienda.exception.InventarioInsuficienteException;
 import co.edu.uniquindio.tienda.tienda.exception.ProductoException;
 import co.edu.uniquindio.tienda.tienda.exception.ProductoNoEncontradoException;
 import co.edu.uniquindio.tienda.tienda.model.*;
+import co.edu.uniquindio.tienda.tienda.model.services.IAlmacenamiento;
+import co.edu.uniquindio.tienda.tienda.model.services.ITienda;
+import co.edu.uniquindio.tienda.tienda.persistencia.AlmacenamientoJdbc;
+import co.edu.uniquindio.tienda.tienda.persistencia.CatalogoBinario;
+import co.edu.uniquindio.tienda.tienda.persistencia.CompactadorRegistro;
+import co.edu.uniquindio.tienda.tienda.persistencia.ExportadorVentas;
+import co.edu.uniquindio.tienda.tienda.persistencia.ImportadorCambiosProductos;
+import co.edu.uniquindio.tienda.tienda.persistencia.InstantaneaTienda;
+import co.edu.uniquindio.tienda.tienda.persistencia.RegistroTransacciones;
+import co.edu.uniquindio.tienda.tienda.persistencia.ResultadoCarga;
+import co.edu.uniquindio.tienda.tienda.util.ContadorFrecuentes;
+import co.edu.uniquindio.tienda.tienda.util.IndiceBusqueda;
+import co.edu.uniquindio.tienda.tienda.util.IndiceTexto;
 import co.edu.uniquindio.tienda.tienda.util.TiendaUtils;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @SuppressWarnings("ALL")
 public class ModelFactoryController {
 
-    private Tienda tienda;
+    private static final String RUTA_PRODUCTOS = "src/main/resources/co/edu/uniquindio/tienda/tienda/txt/productos.txt";
+    private static final String RUTA_CLIENTES = "src/main/resources/co/edu/uniquindio/tienda/tienda/txt/clientes.txt";
+    private static final String RUTA_PRODUCTOS_BINARIO = "datos/productos.bin";
+    private static final String RUTA_CLIENTES_BINARIO = "datos/clientes.bin";
+    private static final String DIRECTORIO_DATOS = "datos";
+    private static final String RUTA_INSTANTANEA = "datos/instantanea.dat";
+    private static final long MINUTOS_ENTRE_INSTANTANEAS = Long.getLong("tienda.minutosEntreInstantaneas", 10);
+    private static final String ALMACENAMIENTO = System.getProperty("tienda.almacenamiento");
+    private static final int CONEXIONES_ALMACENAMIENTO = Integer.getInteger("tienda.almacenamiento.conexiones", 4);
+    private static final String DRIVER_ALMACENAMIENTO = System.getProperty("tienda.almacenamiento.driver");
+
+    private volatile ITienda tienda;
+    private volatile RegistroTransacciones registroTransacciones;
+    private volatile long segmentoInicial;
+    private volatile boolean instantaneaVigente;
+    private volatile Throwable errorRegistro;
+    private volatile IAlmacenamiento almacenamiento;
+    private volatile EstadisticasVentas estadisticas = new EstadisticasVentas();
+    private ScheduledExecutorService programadorInstantaneas;
+    private final ReadWriteLock bloqueoInstantanea = new ReentrantReadWriteLock();
+    private final CompletableFuture<Void> inicializacion;
+    private final ObservadoresCambios<Producto> cambiosProductos = new ObservadoresCambios<>();
+    private final ObservadoresCambios<Cliente> cambiosClientes = new ObservadoresCambios<>();
+    private final ObservadoresCambios<Venta> cambiosVentas = new ObservadoresCambios<>();
+    private final IndiceBusqueda<Producto> indiceProductos = new IndiceBusqueda<>(Producto::getCodigo);
+    private final IndiceBusqueda<Cliente> indiceClientes = new IndiceBusqueda<>(Cliente::getNumIdentificacion);
+    private final IndiceTexto<String> nombresClientes = new IndiceTexto<>();
 
     public ModelFactoryController() {
-        cargarDatosPrueba();
+        tienda = crearTienda();
+        conectarCambios(tienda);
+        cambiosProductos.suscribir(indiceProductos::aplicar);
+        cambiosClientes.suscribir(indiceClientes::aplicar);
+        cambiosClientes.suscribir(this::indexarNombreCliente);
+        inicializacion = cargarDatosPrueba();
     }
 
-    private void cargarDatosPrueba() {
-        tienda = cargarProductos();
+    /**
+     * Inicia la carga de los datos de la tienda en un hilo en segundo plano, para no bloquear
+     * el hilo de la interfaz. Mientras la carga no termina se muestra una tienda vacía y no se
+     * aceptan cambios (ver {@link #verificarCarga()}). La tienda cargada reemplaza a la
+     * vacía con el bloqueo de escritura tomado y con el registro de transacciones ya abierto, así
+     * que ningún cambio queda en la tienda vacía ni sin registrar.
+     *
+     * @return Un futuro que se completa cuando la tienda cargada reemplaza a la tienda vacía, o
+     * excepcionalmente si la carga falla.
+     */
+    private CompletableFuture<Void> cargarDatosPrueba() {
+        ExecutorService ejecutor = Executors.newSingleThreadExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "carga-tienda");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        CompletableFuture<Void> carga = CompletableFuture.supplyAsync(this::cargarProductos, ejecutor)
+                .thenAccept(tiendaCargada -> {
+                    // La tienda cargada aún no se publica, así que nadie agrega ventas mientras se lee su historial
+                    EstadisticasVentas estadisticasCargadas = EstadisticasVentas.calcular(tiendaCargada.obtenerHistoricoVentas());
+                    indiceProductos.limpiar();
+                    tiendaCargada.recorrerProductos(indiceProductos::agregar);
+                    indiceClientes.limpiar();
+                    nombresClientes.limpiar();
+                    for (Cliente cliente : tiendaCargada.obtenerListaClientes()) {
+                        indiceClientes.agregar(cliente);
+                        nombresClientes.actualizar(cliente.getNumIdentificacion(), cliente.getNombre());
+                    }
+                    bloqueoInstantanea.writeLock().lock();
+                    try {
+                        estadisticas = estadisticasCargadas;
+                        conectarCambios(tiendaCargada);
+                        tienda = tiendaCargada;
+                        abrirRegistroTransacciones();
+                    } finally {
+                        bloqueoInstantanea.writeLock().unlock();
+                    }
+                });
+        ejecutor.shutdown();
+        return carga;
+    }
+
+    /**
+     * Reenvía los cambios de una tienda a los observadores del controlador. Así las vistas se
+     * suscriben una sola vez aunque la tienda vacía del arranque se reemplace por la cargada; los
+     * datos que trae la carga no generan eventos, pues la tienda se conecta cuando ya está llena.
+     *
+     * @param tienda La tienda cuyos cambios se reenvían.
+     */
+    private void conectarCambios(ITienda tienda) {
+        tienda.getCambiosProductos().suscribir(cambiosProductos::publicar);
+        tienda.getCambiosClientes().suscribir(cambiosClientes::publicar);
+        tienda.getCambiosVentas().suscribir(cambiosVentas::publicar);
+    }
+
+    /**
+     * Mantiene el índice de nombres de clientes al día con los cambios de la tienda.
+     *
+     * @param evento El cambio de un cliente.
+     */
+    private void indexarNombreCliente(EventoCambio<Cliente> evento) {
+        switch (evento.getTipo()) {
+            case AGREGADO -> nombresClientes.actualizar(evento.getElemento().getNumIdentificacion(), evento.getElemento().getNombre());
+            case ACTUALIZADO -> {
+                nombresClientes.eliminar(evento.getAnterior().getNumIdentificacion());
+                nombresClientes.actualizar(evento.getElemento().getNumIdentificacion(), evento.getElemento().getNombre());
+            }
+            case ELIMINADO -> nombresClientes.eliminar(evento.getElemento().getNumIdentificacion());
+        }
+    }
+
+    /**
+     * Registra un observador de los productos agregados, actualizados y eliminados, incluidos los
+     * cambios de inventario por ventas. Los eventos llegan en el hilo que hizo el cambio.
+     *
+     * @param observador La acción que recibe cada cambio.
+     * @return Una acción que cancela la suscripción.
+     */
+    public Runnable suscribirCambiosProductos(Consumer<? super EventoCambio<Producto>> observador) {
+        return cambiosProductos.suscribir(observador);
+    }
+
+    /**
+     * Registra un observador de los clientes agregados, actualizados y eliminados.
+     * Los eventos llegan en el hilo que hizo el cambio.
+     *
+     * @param observador La acción que recibe cada cambio.
+     * @return Una acción que cancela la suscripción.
+     */
+    public Runnable suscribirCambiosClientes(Consumer<? super EventoCambio<Cliente>> observador) {
+        return cambiosClientes.suscribir(observador);
+    }
+
+    /**
+     * Registra un observador de las ventas agregadas al historial.
+     * Los eventos llegan en el hilo que hizo el cambio.
+     *
+     * @param observador La acción que recibe cada cambio.
+     * @return Una acción que cancela la suscripción.
+     */
+    public Runnable suscribirCambiosVentas(Consumer<? super EventoCambio<Venta>> observador) {
+        return cambiosVentas.suscribir(observador);
+    }
+
+    /**
+     * Obtiene el futuro que se completa cuando termina la carga inicial de los datos de la tienda.
+     *
+     * @return El futuro de la carga inicial.
+     */
+    public CompletableFuture<Void> getInicializacion() {
+        return inicializacion;
+    }
+
+    /**
+     * Indica si la carga inicial de los datos de la tienda ya terminó.
+     *
+     * @return true si los datos ya están cargados.
+     */
+    public boolean estaInicializado() {
+        return inicializacion.isDone();
+    }
+
+    /**
+     * Registra una acción a ejecutar cuando termine la carga inicial de los datos, haya salido bien
+     * o no, para que las vistas se refresquen en los dos casos. Si la carga ya terminó, la acción se
+     * ejecuta de inmediato. La acción puede ejecutarse en el hilo de carga, por lo que las vistas
+     * deben pasarla al hilo de la interfaz.
+     *
+     * @param accion La acción a ejecutar.
+     */
+    public void alCompletarCarga(Runnable accion) {
+        inicializacion.whenComplete((resultado, error) -> accion.run());
+    }
+
+    /**
+     * Indica si la carga inicial de los datos de la tienda falló; en ese caso no se aceptan cambios.
+     *
+     * @return true si la carga terminó con un error.
+     */
+    public boolean cargaFallida() {
+        return inicializacion.isCompletedExceptionally();
+    }
+
+    /**
+     * Registra una acción a ejecutar si la carga inicial de los datos falla. Si la carga ya falló,
+     * la acción se ejecuta de inmediato. La acción puede ejecutarse en el hilo de carga, por lo que
+     * las vistas deben pasarla al hilo de la interfaz.
+     *
+     * @param accion La acción que recibe la causa del error.
+     */
+    public void alFallarCarga(Consumer<? super Throwable> accion) {
+        inicializacion.whenComplete((resultado, error) -> {
+            if (error != null) {
+                accion.accept(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+            }
+        });
     }
 
 
@@ -39,7 +253,39 @@ public class ModelFactoryController {
      * @return Una lista de clientes de la tienda.
      */
     public List<Cliente> obtenerListaClientes() {
-        return new ArrayList<>(tienda.getListClientes().values());
+        return tienda.obtenerListaClientes();
+    }
+
+    /**
+     * Busca los clientes cuya identificación empieza por el texto y, después, los que tienen un
+     * nombre parecido según el índice de texto. Se debe hacer fuera del hilo de la interfaz; los
+     * clientes se obtienen después con {@link #obtenerClientes(List)}.
+     *
+     * @param texto  El texto a buscar.
+     * @param limite La cantidad máxima de clientes a devolver.
+     * @return Las identificaciones de los clientes encontrados, primero las que coinciden por identificación.
+     */
+    public List<String> buscarClientes(String texto, int limite) {
+        return combinarResultados(indiceClientes.buscar(texto, limite), nombresClientes.buscar(texto, limite), limite);
+    }
+
+    /**
+     * Obtiene los clientes actuales de la tienda a partir de sus identificaciones, en el mismo orden.
+     * Los que ya no existen se omiten. Se debe invocar desde el hilo de la interfaz.
+     *
+     * @param identificaciones Las identificaciones de los clientes.
+     * @return Los clientes encontrados.
+     */
+    public List<Cliente> obtenerClientes(List<String> identificaciones) {
+        List<Cliente> clientes = new ArrayList<>(identificaciones.size());
+        for (String identificacion : identificaciones) {
+            try {
+                clientes.add(tienda.buscarCliente(identificacion));
+            } catch (ClienteNoEncontradoException e) {
+                // Se eliminó después de la búsqueda
+            }
+        }
+        return clientes;
     }
 
     /**
@@ -59,7 +305,8 @@ public class ModelFactoryController {
      * @throws ClienteException Si hay un error al agregar el cliente.
      */
     public boolean agregarCliente(Cliente cliente) throws ClienteException {
-        return tienda.agregarCliente(cliente);
+        return modificar(() -> tienda.agregarCliente(cliente),
+                registro -> registro.registrarClienteGuardado(cliente.getNumIdentificacion(), cliente));
     }
 
     /**
@@ -71,7 +318,8 @@ public class ModelFactoryController {
      * @throws ClienteException Si hay un error al editar el cliente.
      */
     public boolean editarCliente(Cliente cliente, Cliente clienteSeleccionado) throws ClienteException {
-        return tienda.editarCliente(cliente, clienteSeleccionado);
+        return modificar(() -> tienda.editarCliente(cliente, clienteSeleccionado),
+                registro -> registro.registrarClienteGuardado(clienteSeleccionado.getNumIdentificacion(), cliente));
     }
 
     /**
@@ -82,7 +330,8 @@ public class ModelFactoryController {
      * @throws ClienteNoEncontradoException Si el cliente seleccionado no se encuentra en la tienda.
      */
     public boolean eliminarCliente(Cliente clienteSeleccionado) throws ClienteNoEncontradoException {
-        return tienda.eliminarCliente(clienteSeleccionado.getNumIdentificacion());
+        return modificar(() -> tienda.eliminarCliente(clienteSeleccionado.getNumIdentificacion()),
+                registro -> registro.registrarClienteEliminado(clienteSeleccionado.getNumIdentificacion()));
     }
 
     /**
@@ -97,12 +346,23 @@ public class ModelFactoryController {
     }
 
     /**
-     * Obtiene la lista de productos de la tienda ordenada alfabéticamente por nombre.
+     * Obtiene una página de los productos de la tienda, para mostrarlos en una tabla sin copiarlos todos.
      *
-     * @return Una lista de productos de la tienda ordenada alfabéticamente por nombre.
+     * @param inicio   La posición del primer producto de la página.
+     * @param cantidad La cantidad máxima de productos.
+     * @return Los productos de la página.
      */
-    public List<Producto> obtenerListaProductos() {
-        return new ArrayList<>(tienda.obtenerProductosConInventarioBajo());
+    public List<Producto> obtenerPaginaProductos(int inicio, int cantidad) {
+        return tienda.obtenerPaginaProductos(inicio, cantidad);
+    }
+
+    /**
+     * Obtiene la cantidad de productos de la tienda.
+     *
+     * @return La cantidad de productos.
+     */
+    public int contarProductos() {
+        return tienda.contarProductos();
     }
 
     /**
@@ -114,7 +374,8 @@ public class ModelFactoryController {
      * @throws ProductoException Si hay un error al editar el producto.
      */
     public boolean editarProducto(Producto producto, Producto productoSeleccionado) throws ProductoException {
-        return tienda.editarProducto(producto, productoSeleccionado);
+        return modificar(() -> tienda.editarProducto(producto, productoSeleccionado),
+                registro -> registro.registrarProductoGuardado(productoSeleccionado.getCodigo(), producto));
     }
 
     /**
@@ -125,7 +386,8 @@ public class ModelFactoryController {
      * @throws ProductoNoEncontradoException Si el producto seleccionado no se encuentra en la tienda.
      */
     public boolean eliminarProducto(Producto productoSeleccionado) throws ProductoNoEncontradoException {
-        return tienda.eliminarProducto(productoSeleccionado.getCodigo());
+        return modificar(() -> tienda.eliminarProducto(productoSeleccionado.getCodigo()),
+                registro -> registro.registrarProductoEliminado(productoSeleccionado.getCodigo()));
     }
 
     /**
@@ -139,6 +401,64 @@ public class ModelFactoryController {
         return tienda.buscarProducto(codigo);
     }
 
+    /**
+     * Busca los productos cuyo código empieza por el texto y, después, los que tienen un nombre
+     * parecido según el índice de texto de la tienda. Se debe hacer fuera del hilo de la interfaz;
+     * los productos se obtienen después con {@link #obtenerProductos(List)}.
+     *
+     * @param texto  El texto a buscar.
+     * @param limite La cantidad máxima de productos a devolver.
+     * @return Los códigos de los productos encontrados, primero los que coinciden por código.
+     */
+    public List<String> buscarProductos(String texto, int limite) {
+        return combinarResultados(indiceProductos.buscar(texto, limite), tienda.buscarCodigosPorNombre(texto, limite), limite);
+    }
+
+    /**
+     * Une las claves encontradas por prefijo con las encontradas por nombre, sin repetir y sin pasar del límite.
+     */
+    private static List<String> combinarResultados(List<String> porClave, List<String> porNombre, int limite) {
+        LinkedHashSet<String> claves = new LinkedHashSet<>(porClave);
+        for (String clave : porNombre) {
+            if (claves.size() >= limite) {
+                break;
+            }
+            claves.add(clave);
+        }
+        return new ArrayList<>(claves);
+    }
+
+    /**
+     * Obtiene los productos actuales de la tienda a partir de sus códigos, en el mismo orden.
+     * Los que ya no existen se omiten. Se debe invocar desde el hilo de la interfaz.
+     *
+     * @param codigos Los códigos de los productos.
+     * @return Los productos encontrados.
+     */
+    public List<Producto> obtenerProductos(List<String> codigos) {
+        List<Producto> productos = new ArrayList<>(codigos.size());
+        for (String codigo : codigos) {
+            Producto producto = tienda.obtenerProducto(codigo);
+            if (producto != null) {
+                productos.add(producto);
+            }
+        }
+        return productos;
+    }
+
+    /**
+     * Busca productos por nombre sin importar tildes, mayúsculas ni pequeños errores de digitación,
+     * usando el índice de texto de la tienda. Se debe hacer fuera del hilo de la interfaz; los
+     * productos se obtienen después con {@link #obtenerProductos(List)}.
+     *
+     * @param texto  El nombre o parte del nombre buscado.
+     * @param limite La cantidad máxima de productos a devolver.
+     * @return Los códigos de los productos encontrados, del más al menos parecido.
+     */
+    public List<String> buscarProductosPorNombre(String texto, int limite) {
+        return tienda.buscarCodigosPorNombre(texto, limite);
+    }
+
     /**
      * Agrega un nuevo producto a la tienda.
      *
@@ -147,16 +467,82 @@ public class ModelFactoryController {
      * @throws ProductoException Si hay un error al agregar el producto.
      */
     public boolean agregarProducto(Producto producto) throws ProductoException {
-        return tienda.agregarProducto(producto);
+        return modificar(() -> tienda.agregarProducto(producto),
+                registro -> registro.registrarProductoGuardado(producto.getCodigo(), producto));
     }
 
     /**
-     * Obtiene la lista de ventas en el historial de la tienda.
+     * Importa un archivo de novedades de productos de un proveedor sin recargar la tienda.
+     * El archivo se lee por partes y cada lote de cambios se aplica sobre los productos actuales y
+     * se escribe en el registro de transacciones con los datos que quedaron en cada producto; al
+     * terminar se toma una instantánea para no tener que reproducir todo el archivo al reiniciar.
      *
-     * @return Una lista de ventas en el historial de la tienda.
+     * @param ruta La ruta del archivo de novedades.
+     * @return La cantidad de productos creados, actualizados y rechazados.
+     * @throws IOException Si el archivo no se puede leer.
      */
-    public List<Venta> obtenerListaVentas() {
-        return tienda.obtenerHistoricoVentas();
+    public ResumenImportacion importarCambiosProductos(Path ruta) throws IOException {
+        ResumenImportacion resumen = new ResumenImportacion();
+        ImportadorCambiosProductos.importar(ruta, resumen, cambios -> modificar(() -> {
+            tienda.aplicarCambiosProductos(cambios, resumen);
+            return null;
+        }, registro -> {
+            List<CompletableFuture<Void>> registros = new ArrayList<>(cambios.size());
+            for (CambioProducto cambio : cambios) {
+                Producto producto = tienda.obtenerProducto(cambio.getCodigo());
+                if (producto != null) {
+                    registros.add(registro.registrarProductoGuardado(producto.getCodigo(), producto));
+                }
+            }
+            return CompletableFuture.allOf(registros.toArray(CompletableFuture<?>[]::new));
+        }));
+        if (resumen.getInsertados() + resumen.getActualizados() > 0) {
+            tomarInstantanea();
+        }
+        return resumen;
+    }
+
+    /**
+     * Obtiene una página del historial de ventas, de la más reciente a la más antigua.
+     *
+     * @param inicio   La posición de la primera venta de la página.
+     * @param cantidad La cantidad máxima de ventas.
+     * @return Las ventas de la página.
+     */
+    public List<Venta> obtenerPaginaVentas(int inicio, int cantidad) {
+        return tienda.obtenerPaginaHistoricoVentas(inicio, cantidad);
+    }
+
+    /**
+     * Obtiene la cantidad de ventas del historial.
+     *
+     * @return La cantidad de ventas.
+     */
+    public int contarVentas() {
+        return tienda.contarVentas();
+    }
+
+    /**
+     * Obtiene las ventas realizadas entre dos fechas, ambas incluidas.
+     *
+     * @param desde La fecha inicial del periodo.
+     * @param hasta La fecha final del periodo.
+     * @return Una lista de ventas del periodo ordenada por fecha.
+     */
+    public List<Venta> obtenerVentasEntreFechas(LocalDate desde, LocalDate hasta) {
+        return tienda.obtenerVentasEntreFechas(desde, hasta);
+    }
+
+    /**
+     * Obtiene las ventas realizadas a un cliente entre dos fechas, ambas incluidas.
+     *
+     * @param idCliente El ID del cliente.
+     * @param desde     La fecha inicial del periodo.
+     * @param hasta     La fecha final del periodo.
+     * @return Una lista de ventas del cliente en el periodo ordenada por fecha.
+     */
+    public List<Venta> obtenerVentasClienteEntreFechas(String idCliente, LocalDate desde, LocalDate hasta) {
+        return tienda.obtenerVentasClienteEntreFechas(idCliente, desde, hasta);
     }
 
     /**
@@ -169,6 +555,94 @@ public class ModelFactoryController {
         return tienda.buscarVenta(codigo);
     }
 
+    /**
+     * Obtiene los acumulados de ventas de la tienda: totales por producto, ingresos por día y
+     * mejores clientes. Se actualizan con cada venta, por lo que consultarlos no recorre el historial.
+     *
+     * @return Los acumulados de ventas.
+     */
+    public EstadisticasVentas obtenerEstadisticas() {
+        return estadisticas;
+    }
+
+    /**
+     * Obtiene los productos más vendidos según el contador de memoria acotada de la tienda.
+     *
+     * @param cantidad La cantidad máxima de productos a devolver.
+     * @return Los códigos de los productos con sus unidades estimadas, de mayor a menor.
+     */
+    public List<ContadorFrecuentes.Frecuencia<String>> obtenerProductosFrecuentes(int cantidad) {
+        return tienda.obtenerProductosFrecuentes(cantidad);
+    }
+
+    /**
+     * Recalcula los acumulados de ventas desde el historial y los compara con los que se han
+     * actualizado venta a venta. Las operaciones que modifican la tienda esperan mientras se recalcula.
+     *
+     * @return true si los acumulados incrementales coinciden con los recalculados.
+     */
+    public boolean validarEstadisticas() {
+        bloqueoInstantanea.writeLock().lock();
+        try {
+            return estadisticas.coincideCon(EstadisticasVentas.calcular(tienda.obtenerHistoricoVentas()));
+        } finally {
+            bloqueoInstantanea.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Exporta todo el historial de ventas a un archivo CSV, una fila por detalle de venta.
+     *
+     * @param ruta La ruta del archivo a escribir.
+     * @return La cantidad de ventas exportadas.
+     * @throws IOException Si el archivo no se puede escribir.
+     */
+    public int exportarVentasCsv(Path ruta) throws IOException {
+        return exportarVentas(ExportadorVentas.csv(ruta));
+    }
+
+    /**
+     * Exporta todo el historial de ventas a un archivo binario por columnas, pensado para análisis.
+     *
+     * @param ruta La ruta del archivo a escribir.
+     * @return La cantidad de ventas exportadas.
+     * @throws IOException Si el archivo no se puede escribir.
+     */
+    public int exportarVentasColumnar(Path ruta) throws IOException {
+        return exportarVentas(ExportadorVentas.columnar(ruta));
+    }
+
+    /**
+     * Escribe el historial de ventas en orden de fecha con el exportador. Con el bloqueo de
+     * escritura solo se copian las referencias a las ventas, que no cambian una vez registradas;
+     * el archivo se escribe después, sin detener las operaciones que modifican la tienda. La copia
+     * ocupa una referencia por venta, mucho menos que las filas exportadas, a cambio de no
+     * detener las ventas mientras se escribe el archivo.
+     *
+     * @param exportador El exportador abierto.
+     * @return La cantidad de ventas exportadas.
+     * @throws IOException Si el archivo no se puede escribir.
+     */
+    private int exportarVentas(ExportadorVentas exportador) throws IOException {
+        try (exportador) {
+            List<Venta> ventas;
+            bloqueoInstantanea.writeLock().lock();
+            try {
+                ventas = new ArrayList<>(tienda.contarVentas());
+                tienda.recorrerHistoricoVentas(ventas::add);
+            } finally {
+                bloqueoInstantanea.writeLock().unlock();
+            }
+            try {
+                ventas.forEach(exportador);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            exportador.terminar();
+            return exportador.getVentasExportadas();
+        }
+    }
+
     /**
      * Obtiene un producto de la tienda por su código.
      *
@@ -186,15 +660,18 @@ public class ModelFactoryController {
      * @param cantidad       La cantidad del producto a agregar al carrito.
      */
     public void agregarProductoCarrito(String codigoProducto, int cantidad) {
-        tienda.agregarProductoCarrito(codigoProducto,cantidad);
+        modificar(() -> {
+            tienda.agregarProductoCarrito(codigoProducto, cantidad);
+            return null;
+        }, registro -> registro.registrarCarrito(ITienda.SESION_PRINCIPAL, codigoProducto, cantidad));
     }
 
     /**
      * Obtiene el contenido actual del carrito de compras.
      *
-     * @return Un mapa que contiene los productos en el carrito y sus cantidades.
+     * @return El carrito de compras, con los productos y sus cantidades.
      */
-    public HashMap<String,Integer> obtenerCarrito() {
+    public CarritoCompras obtenerCarrito() {
         return tienda.obtenerCarrito();
     }
 
@@ -205,14 +682,94 @@ public class ModelFactoryController {
      * @return true si la venta se agregó correctamente al historial, false de lo contrario.
      */
     public boolean agregarVenta(Venta venta) {
-        return tienda.agregarVentaAlHistorico(venta);
+        boolean agregada;
+        CompletableFuture<Void> registro = null;
+        verificarCarga();
+        bloqueoInstantanea.readLock().lock();
+        try {
+            agregada = tienda.agregarVentaAlHistorico(venta);
+            if (agregada) {
+                estadisticas.registrarVenta(venta);
+            }
+            if (agregada && registroTransacciones != null) {
+                registro = registroTransacciones.registrarVenta(venta);
+            }
+        } finally {
+            bloqueoInstantanea.readLock().unlock();
+        }
+        esperarRegistro(registro);
+        return agregada;
+    }
+
+    /**
+     * Realiza la compra de una venta cuyo inventario ya está reservado: agrega la venta al historial
+     * y confirma la reserva bajo el mismo bloqueo, y registra las dos cosas en una sola entrada del
+     * registro de transacciones, para que al reproducirlo nunca aparezca la venta sin su descuento
+     * de inventario ni al revés. Si la venta no se agrega, la reserva se libera.
+     *
+     * @param venta   La venta a agregar al historial.
+     * @param reserva La reserva del inventario de la venta.
+     * @return true si la venta se agregó y la reserva se confirmó, false si la venta no se agregó.
+     */
+    public boolean realizarCompra(Venta venta, ReservaInventario reserva) {
+        boolean agregada;
+        CompletableFuture<Void> registro = null;
+        verificarCarga();
+        bloqueoInstantanea.readLock().lock();
+        try {
+            agregada = tienda.agregarVentaAlHistorico(venta);
+            if (agregada) {
+                tienda.confirmarReserva(reserva);
+                estadisticas.registrarVenta(venta);
+                if (registroTransacciones != null) {
+                    registro = registroTransacciones.registrarCompra(venta);
+                }
+            } else {
+                tienda.liberarReserva(reserva);
+            }
+        } finally {
+            bloqueoInstantanea.readLock().unlock();
+        }
+        esperarRegistro(registro);
+        return agregada;
+    }
+
+    /**
+     * Realiza un lote de ventas, por ejemplo las que llegan de las cajas sin conexión.
+     * Valida el inventario de todo el lote, lo descuenta y agrega las ventas al historial en una sola pasada.
+     *
+     * @param ventas Las ventas a realizar.
+     * @return La cantidad de ventas realizadas.
+     * @throws InventarioInsuficienteException Si el inventario no alcanza para el lote; en ese caso no se realiza ninguna venta.
+     */
+    public int realizarVentas(List<Venta> ventas) throws InventarioInsuficienteException {
+        int realizadas;
+        List<CompletableFuture<Void>> registros = new ArrayList<>();
+        verificarCarga();
+        bloqueoInstantanea.readLock().lock();
+        try {
+            realizadas = tienda.realizarVentas(ventas);
+            estadisticas.registrarVentas(ventas);
+            if (registroTransacciones != null) {
+                for (Venta venta : ventas) {
+                    registros.add(registroTransacciones.registrarCompra(venta));
+                }
+            }
+        } finally {
+            bloqueoInstantanea.readLock().unlock();
+        }
+        esperarRegistro(CompletableFuture.allOf(registros.toArray(CompletableFuture<?>[]::new)));
+        return realizadas;
     }
 
     /**
      * Vacía el contenido del carrito de compras.
      */
     public void vaciarCarrito() {
-        tienda.vaciarCarrito();
+        modificar(() -> {
+            tienda.vaciarCarrito();
+            return null;
+        }, registro -> registro.registrarCarritoVaciado(ITienda.SESION_PRINCIPAL));
     }
 
     /**
@@ -221,7 +778,260 @@ public class ModelFactoryController {
      * @param detallesVenta Los detalles de la venta que afectarán al inventario.
      */
     public void actulizarInventario(List<DetalleVenta> detallesVenta) {
-        tienda.actualizarInventario(detallesVenta);
+        CompletableFuture<Void> registro = null;
+        verificarCarga();
+        bloqueoInstantanea.readLock().lock();
+        try {
+            tienda.actualizarInventario(detallesVenta);
+            if (registroTransacciones != null) {
+                registro = registroTransacciones.registrarInventario(detallesVenta);
+            }
+        } finally {
+            bloqueoInstantanea.readLock().unlock();
+        }
+        esperarRegistro(registro);
+    }
+
+    /**
+     * Reserva el inventario necesario para los detalles de una venta.
+     *
+     * @param detallesVenta Los detalles de la venta a reservar.
+     * @return La reserva creada.
+     * @throws InventarioInsuficienteException Si algún producto no tiene unidades disponibles suficientes.
+     */
+    public ReservaInventario reservarInventario(List<DetalleVenta> detallesVenta) throws InventarioInsuficienteException {
+        return modificar(() -> tienda.reservarInventario(detallesVenta));
+    }
+
+    /**
+     * Confirma una reserva descontando del inventario las unidades reservadas.
+     *
+     * @param reserva La reserva a confirmar.
+     */
+    public void confirmarReserva(ReservaInventario reserva) {
+        CompletableFuture<Void> registro = null;
+        verificarCarga();
+        bloqueoInstantanea.readLock().lock();
+        try {
+            boolean activa = reserva.isActiva();
+            tienda.confirmarReserva(reserva);
+            if (activa && registroTransacciones != null) {
+                registro = registroTransacciones.registrarInventario(reserva.getDetallesVenta());
+            }
+        } finally {
+            bloqueoInstantanea.readLock().unlock();
+        }
+        esperarRegistro(registro);
+    }
+
+    /**
+     * Libera una reserva devolviendo sus unidades al inventario disponible.
+     *
+     * @param reserva La reserva a liberar.
+     */
+    public void liberarReserva(ReservaInventario reserva) {
+        modificar(() -> {
+            tienda.liberarReserva(reserva);
+            return null;
+        });
+    }
+
+    /**
+     * Toma una instantánea de la tienda y elimina los segmentos del registro de transacciones que
+     * quedan incluidos en ella. Las operaciones que modifican la tienda solo se detienen mientras se
+     * pasa a un segmento nuevo del registro; ese es el corte de la instantánea. La instantánea nueva
+     * se escribe después, sin bloquearlas, a partir de la anterior y de los segmentos cerrados, sin
+     * reconstruir la tienda en memoria. Solo si la tienda no salió de una instantánea, o la última
+     * no se pudo escribir, se copia la tienda en uso mientras están detenidas.
+     *
+     * @return true si la instantánea se escribió correctamente.
+     */
+    public synchronized boolean tomarInstantanea() {
+        RegistroTransacciones registro = registroTransacciones;
+        if (registro == null) {
+            return false;
+        }
+        Path ruta = Path.of(RUTA_INSTANTANEA);
+        boolean compactar = instantaneaVigente;
+        InstantaneaTienda instantanea = null;
+        CompletableFuture<Long> rotacion;
+        bloqueoInstantanea.writeLock().lock();
+        try {
+            if (!compactar) {
+                instantanea = InstantaneaTienda.capturar(tienda);
+            }
+            rotacion = registro.rotar();
+        } finally {
+            bloqueoInstantanea.writeLock().unlock();
+        }
+        try {
+            long segmento = rotacion.join();
+            if (compactar) {
+                instantanea = compactarRegistro(ruta, segmento);
+            } else {
+                instantanea.escribir(ruta, segmento);
+            }
+            instantaneaVigente = true;
+            guardarEnAlmacenamiento(instantanea);
+            RegistroTransacciones.eliminarSegmentosAnteriores(Path.of(DIRECTORIO_DATOS), segmento);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            instantaneaVigente = false;
+            System.out.println("Error al tomar la instantánea de la tienda: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Escribe la instantánea con el estado de la tienda al pasar a un segmento del registro, a partir
+     * de la instantánea anterior y de los segmentos que ya están cerrados.
+     *
+     * @param ruta     La ruta de la instantánea anterior, donde queda la nueva.
+     * @param segmento El primer segmento que no se incluye.
+     * @return La instantánea escrita, que lee sus datos del archivo.
+     * @throws IOException Si la instantánea anterior o algún segmento no se pueden leer, o la nueva no se puede escribir.
+     */
+    private InstantaneaTienda compactarRegistro(Path ruta, long segmento) throws IOException {
+        return CompactadorRegistro.compactar(ruta, Path.of(DIRECTORIO_DATOS), segmento);
+    }
+
+    /**
+     * Toma una última instantánea y cierra el registro de transacciones, escribiendo en el disco
+     * las entradas pendientes. Se debe invocar al cerrar la aplicación.
+     */
+    public void cerrar() {
+        if (programadorInstantaneas != null) {
+            programadorInstantaneas.shutdownNow();
+        }
+        tomarInstantanea();
+        RegistroTransacciones registro = registroTransacciones;
+        registroTransacciones = null;
+        if (registro != null) {
+            try {
+                registro.cerrar();
+            } catch (IOException e) {
+                System.out.println("Error al cerrar el registro de transacciones: " + e.getMessage());
+            }
+        }
+        IAlmacenamiento almacenamientoAbierto = almacenamiento;
+        almacenamiento = null;
+        if (almacenamientoAbierto != null) {
+            try {
+                almacenamientoAbierto.close();
+            } catch (AlmacenamientoException e) {
+                System.out.println("Error al cerrar el almacenamiento: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Copia en el almacenamiento configurado el estado capturado en una instantánea, de modo que
+     * la base de datos quede al día con el archivo de la instantánea.
+     *
+     * @param instantanea La instantánea ya escrita.
+     */
+    private void guardarEnAlmacenamiento(InstantaneaTienda instantanea) {
+        IAlmacenamiento almacenamientoAbierto = almacenamiento;
+        if (almacenamientoAbierto == null) {
+            return;
+        }
+        try {
+            almacenamientoAbierto.sincronizar(instantanea.getProductos(), instantanea.getClientes(), instantanea.getVentas());
+        } catch (AlmacenamientoException e) {
+            System.out.println("Error al guardar la tienda en el almacenamiento: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Espera a que una entrada del registro de transacciones quede escrita en el disco,
+     * de modo que una operación solo termina cuando ya es durable. Si la entrada no se pudo
+     * escribir, el cambio ya está en la tienda pero no se recuperaría tras un cierre, así que se
+     * avisa a quien lo hizo y desde ese momento no se aceptan más cambios.
+     *
+     * @param registro El futuro de la entrada registrada.
+     * @throws IllegalStateException Si la entrada no se pudo escribir.
+     */
+    private void esperarRegistro(CompletableFuture<Void> registro) {
+        if (registro == null) {
+            return;
+        }
+        try {
+            registro.join();
+        } catch (CompletionException e) {
+            errorRegistro = e.getCause();
+            throw new IllegalStateException("El cambio no se pudo guardar en el registro de transacciones: "
+                    + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * Comprueba que la carga inicial terminó antes de un cambio, para que el cambio se aplique sobre
+     * la tienda cargada y quede en el registro de transacciones. No espera a la carga, pues los
+     * cambios llegan desde el hilo de la interfaz: las vistas deshabilitan sus controles hasta que
+     * la carga termina. Si la carga falló no se aceptan cambios: se harían sobre la tienda vacía y
+     * no se podrían guardar. Tampoco se aceptan si el registro de transacciones ya falló al escribir.
+     *
+     * @throws IllegalStateException Si la carga inicial no ha terminado o falló, o si el registro falló.
+     */
+    private void verificarCarga() {
+        if (errorRegistro != null) {
+            throw new IllegalStateException("El registro de transacciones no se pudo escribir; no se aceptan cambios", errorRegistro);
+        }
+        if (!inicializacion.isDone()) {
+            throw new IllegalStateException("Los datos de la tienda aún se están cargando; no se aceptan cambios");
+        }
+        if (inicializacion.isCompletedExceptionally()) {
+            throw new IllegalStateException("Los datos de la tienda no se pudieron cargar; no se aceptan cambios", inicializacion.exceptionNow());
+        }
+    }
+
+    /**
+     * Operación sobre la tienda que puede lanzar una excepción.
+     */
+    @FunctionalInterface
+    private interface OperacionTienda<T, E extends Exception> {
+        T ejecutar() throws E;
+    }
+
+    /**
+     * Ejecuta una operación que modifica la tienda, impidiendo que se tome una instantánea a la mitad.
+     * Si la carga inicial no ha terminado o falló, la operación se rechaza.
+     *
+     * @param operacion La operación a ejecutar.
+     * @return El resultado de la operación.
+     * @throws E Si la operación falla.
+     */
+    private <T, E extends Exception> T modificar(OperacionTienda<T, E> operacion) throws E {
+        return modificar(operacion, null);
+    }
+
+    /**
+     * Ejecuta una operación que modifica la tienda y, si termina sin errores, registra el cambio en
+     * el registro de transacciones antes de soltar el bloqueo, para que quede en el mismo segmento
+     * que corresponde al estado de la tienda. Al terminar espera a que el cambio sea durable.
+     *
+     * @param operacion La operación a ejecutar.
+     * @param registrar La función que escribe el cambio en el registro, o null si no se registra.
+     * @return El resultado de la operación.
+     * @throws E Si la operación falla; en ese caso no se registra nada.
+     */
+    private <T, E extends Exception> T modificar(OperacionTienda<T, E> operacion,
+                                                 Function<RegistroTransacciones, CompletableFuture<Void>> registrar) throws E {
+        verificarCarga();
+        T resultado;
+        CompletableFuture<Void> registro = null;
+        bloqueoInstantanea.readLock().lock();
+        try {
+            resultado = operacion.ejecutar();
+            RegistroTransacciones registroAbierto = registroTransacciones;
+            if (registrar != null && registroAbierto != null) {
+                registro = registrar.apply(registroAbierto);
+            }
+        } finally {
+            bloqueoInstantanea.readLock().unlock();
+        }
+        esperarRegistro(registro);
+        return resultado;
     }
     /*
     -----------------------------------------------------------------------------------------------------------
@@ -249,54 +1059,258 @@ public class ModelFactoryController {
 
 
     /**
-     * Carga los productos y clientes desde archivos de texto y los devuelve en una instancia de Tienda.
+     * Crea la implementación de la tienda a utilizar. Si la propiedad del sistema
+     * {@code tienda.concurrente} es true se usa una tienda segura para varias terminales;
+     * si la propiedad {@code tienda.columnar} es true se usa una tienda que guarda los productos
+     * por columnas, pensada para catálogos muy grandes.
      *
-     * @return Una instancia de Tienda con los productos y clientes cargados desde archivos de texto.
+     * @return Una instancia vacía de la tienda.
      */
-    private Tienda cargarProductos() {
-        Tienda tienda = new Tienda();
-        HashMap<String,Producto> productos = new HashMap<>();
+    private ITienda crearTienda() {
+        if (Boolean.getBoolean("tienda.concurrente")) {
+            return new TiendaConcurrente();
+        }
+        if (Boolean.getBoolean("tienda.columnar")) {
+            return new TiendaColumnar();
+        }
+        return new Tienda();
+    }
 
-        // Cargar productos desde el archivo productos.txt
-        try (BufferedReader br = new BufferedReader(new FileReader("src/main/resources/co/edu/uniquindio/tienda/tienda/txt/productos.txt"))) {
-            String linea;
-            while ((linea = br.readLine()) != null) {
-                String[] partes = linea.split(",");
-                String nombre = partes[0].trim();
-                String codigo = partes[1].trim();
-                double precio = Double.parseDouble(partes[2].trim());
-                int cantidad = Integer.parseInt(partes[3].trim());
-                Producto producto = new Producto(nombre, codigo, precio, cantidad);
-                productos.put(codigo, producto);
+    /**
+     * Crea el almacenamiento indicado en la propiedad del sistema {@code tienda.almacenamiento}:
+     * {@code memoria} para guardar los datos en memoria, o una URL JDBC, por ejemplo
+     * {@code jdbc:h2:./datos/tienda}, para guardarlos en una base de datos embebida. Sin la
+     * propiedad, la tienda solo se guarda en la instantánea y el registro de transacciones.
+     * <p>
+     * La aplicación no depende de ningún motor: el driver JDBC se busca al conectarse entre los que
+     * estén en la ruta de módulos o de clases, o se carga por su nombre si se indica en la
+     * propiedad {@code tienda.almacenamiento.driver}.
+     *
+     * @return El almacenamiento abierto, o null si no se configuró o no se pudo abrir.
+     */
+    private IAlmacenamiento crearAlmacenamiento() {
+        if (ALMACENAMIENTO == null || ALMACENAMIENTO.isBlank()) {
+            return null;
+        }
+        if (ALMACENAMIENTO.equals("memoria")) {
+            return new AlmacenamientoMemoria();
+        }
+        try {
+            if (DRIVER_ALMACENAMIENTO != null && !DRIVER_ALMACENAMIENTO.isBlank()) {
+                Class.forName(DRIVER_ALMACENAMIENTO);
             }
-        } catch (IOException e) {
-            System.out.println("Error al leer el archivo de productos: " + e.getMessage());
-        } finally {
-            tienda.setListProductos(productos);
-        }
-
-        HashMap<String,Cliente> clientes = new HashMap<>();
-
-        // Cargar clientes desde el archivo clientes.txt
-        try (BufferedReader br = new BufferedReader(new FileReader("src/main/resources/co/edu/uniquindio/tienda/tienda/txt/clientes.txt"))) {
-            String linea;
-            while ((linea = br.readLine()) != null) {
-                String[] partes = linea.split(",");
-                if (partes.length == 3) { // nombre, código, precio, cantidad
-                    String nombre = partes[0].trim();
-                    String id = partes[1].trim();
-                    String direccion = partes[2].trim();
-                    Cliente cliente = new Cliente(nombre, id, direccion);
-                    clientes.put(id,cliente);
+            return new AlmacenamientoJdbc(ALMACENAMIENTO, CONEXIONES_ALMACENAMIENTO);
+        } catch (ClassNotFoundException e) {
+            System.out.println("No se encontró el driver del almacenamiento: " + e.getMessage());
+            return null;
+        } catch (AlmacenamientoException e) {
+            System.out.println("Error al abrir el almacenamiento: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Recupera la tienda desde la última instantánea; si no hay ninguna, desde el almacenamiento
+     * configurado o, si está vacío, desde los catálogos de texto. Después le aplica los segmentos
+     * del registro de transacciones posteriores.
+     *
+     * @return Una instancia de la tienda con el estado que tenía al cerrarse.
+     */
+    private ITienda cargarProductos() {
+        almacenamiento = crearAlmacenamiento();
+        ITienda tienda = crearTienda();
+        long segmento = cargarInstantanea(tienda);
+        instantaneaVigente = segmento >= 0;
+        if (segmento < 0) {
+            tienda = crearTienda();
+            if (!cargarAlmacenamiento(tienda)) {
+                tienda = crearTienda();
+                cargarCatalogos(tienda);
+            }
+            segmento = 0;
+        }
+        segmentoInicial = reproducirRegistroTransacciones(tienda, segmento);
+        return tienda;
+    }
+
+    /**
+     * Carga la última instantánea de la tienda, si existe.
+     *
+     * @param tienda La tienda vacía en la que se cargan los datos.
+     * @return El primer segmento del registro de transacciones a reproducir, o -1 si no hay instantánea.
+     */
+    private long cargarInstantanea(ITienda tienda) {
+        try {
+            return InstantaneaTienda.cargar(Path.of(RUTA_INSTANTANEA), tienda);
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Error al leer la instantánea de la tienda: " + e.getMessage());
+            return -1;
+        }
+    }
+
+    /**
+     * Carga los productos, clientes y ventas guardados en el almacenamiento configurado.
+     *
+     * @param tienda La tienda vacía en la que se cargan los datos.
+     * @return true si el almacenamiento tenía productos y se cargaron; false si no hay almacenamiento,
+     * está vacío o no se pudo leer.
+     */
+    private boolean cargarAlmacenamiento(ITienda tienda) {
+        if (almacenamiento == null) {
+            return false;
+        }
+        try {
+            List<Producto> productos = almacenamiento.obtenerProductos();
+            if (productos.isEmpty()) {
+                return false;
+            }
+            for (Producto producto : productos) {
+                tienda.agregarProducto(producto);
+            }
+            for (Cliente cliente : almacenamiento.obtenerClientes()) {
+                tienda.agregarCliente(cliente);
+            }
+            for (Venta venta : almacenamiento.obtenerVentas()) {
+                tienda.agregarVentaAlHistorico(venta);
+            }
+            return true;
+        } catch (AlmacenamientoException | ProductoException | ClienteException e) {
+            System.out.println("Error al cargar la tienda desde el almacenamiento: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Carga los productos y clientes desde los catálogos binarios. Si un catálogo binario no existe
+     * o es más antiguo que su archivo de texto, primero se convierte el archivo de texto; las líneas
+     * que no se pueden interpretar se reportan en la consola. Los dos catálogos se preparan en
+     * paralelo y después sus registros se leen uno a uno del archivo mapeado y se agregan a la
+     * tienda, sin armar antes una lista con todo el catálogo.
+     *
+     * @param tienda La tienda en la que se cargan los productos y clientes.
+     */
+    private void cargarCatalogos(ITienda tienda) {
+        CompletableFuture<CatalogoBinario> productos = CompletableFuture.supplyAsync(() -> abrirCatalogo("productos",
+                RUTA_PRODUCTOS, RUTA_PRODUCTOS_BINARIO, CatalogoBinario::convertirProductos));
+        CompletableFuture<CatalogoBinario> clientes = CompletableFuture.supplyAsync(() -> abrirCatalogo("clientes",
+                RUTA_CLIENTES, RUTA_CLIENTES_BINARIO, CatalogoBinario::convertirClientes));
+
+        CatalogoBinario catalogoProductos = productos.join();
+        try {
+            for (int i = 0; catalogoProductos != null && i < catalogoProductos.getCantidad(); i++) {
+                Producto producto = catalogoProductos.leerProducto(i);
+                try {
+                    tienda.agregarProducto(producto);
+                } catch (ProductoException e) {
+                    System.out.println("Producto repetido en el archivo de productos: " + producto.getCodigo());
+                }
+            }
+        } catch (RuntimeException e) {
+            System.out.println("Error al leer el catálogo de productos: " + e.getMessage());
+        }
+
+        CatalogoBinario catalogoClientes = clientes.join();
+        try {
+            for (int i = 0; catalogoClientes != null && i < catalogoClientes.getCantidad(); i++) {
+                Cliente cliente = catalogoClientes.leerCliente(i);
+                try {
+                    tienda.agregarCliente(cliente);
+                } catch (ClienteException e) {
+                    System.out.println("Cliente repetido en el archivo de clientes: " + cliente.getNumIdentificacion());
                 }
             }
+        } catch (RuntimeException e) {
+            System.out.println("Error al leer el catálogo de clientes: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Aplica sobre la tienda recién cargada las ventas y los cambios de inventario guardados en
+     * los segmentos del registro de transacciones, recuperando el estado que tenía al cerrarse.
+     * Los segmentos anteriores al indicado ya están incluidos en la instantánea y se eliminan.
+     *
+     * @param tienda   La tienda cargada.
+     * @param segmento El primer segmento a reproducir.
+     * @return El número del segmento en el que se deben escribir las operaciones nuevas.
+     */
+    private long reproducirRegistroTransacciones(ITienda tienda, long segmento) {
+        Path directorio = Path.of(DIRECTORIO_DATOS);
+        long siguiente = segmento;
+        try {
+            RegistroTransacciones.eliminarSegmentosAnteriores(directorio, segmento);
+            for (long existente : RegistroTransacciones.listarSegmentos(directorio)) {
+                RegistroTransacciones.reproducir(RegistroTransacciones.rutaSegmento(directorio, existente), tienda);
+                siguiente = existente + 1;
+            }
         } catch (IOException e) {
-            System.out.println("Error al leer el archivo de clientes: " + e.getMessage());
-        } finally {
-            tienda.setListClientes(clientes);
+            System.out.println("Error al leer el registro de transacciones: " + e.getMessage());
         }
+        return siguiente;
+    }
 
-        return tienda;
+    /**
+     * Abre el registro de transacciones en un segmento nuevo y programa las instantáneas periódicas.
+     */
+    private void abrirRegistroTransacciones() {
+        try {
+            registroTransacciones = new RegistroTransacciones(Path.of(DIRECTORIO_DATOS), segmentoInicial);
+        } catch (IOException e) {
+            System.out.println("Error al abrir el registro de transacciones: " + e.getMessage());
+            return;
+        }
+        programadorInstantaneas = Executors.newSingleThreadScheduledExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "instantanea-tienda");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        programadorInstantaneas.scheduleWithFixedDelay(this::tomarInstantanea,
+                MINUTOS_ENTRE_INSTANTANEAS, MINUTOS_ENTRE_INSTANTANEAS, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Función que convierte un archivo de texto del catálogo a un catálogo binario.
+     */
+    @FunctionalInterface
+    private interface ConvertidorCatalogo<T> {
+        ResultadoCarga<T> convertir(Path texto, Path binario) throws IOException;
+    }
+
+    /**
+     * Abre un catálogo binario mapeado en memoria, convirtiéndolo antes desde su archivo de texto si
+     * hace falta, y reporta en la consola si no se pudo abrir.
+     *
+     * @param archivo      El nombre del catálogo.
+     * @param rutaTexto    La ruta del archivo de texto.
+     * @param rutaBinario  La ruta del catálogo binario.
+     * @param convertidor  La función que convierte el archivo de texto.
+     * @return El catálogo abierto, o null si no se pudo abrir.
+     */
+    private <T> CatalogoBinario abrirCatalogo(String archivo, String rutaTexto, String rutaBinario,
+                                              ConvertidorCatalogo<T> convertidor) {
+        Path texto = Path.of(rutaTexto);
+        Path binario = Path.of(rutaBinario);
+        try {
+            if (!Files.exists(binario) || (Files.exists(texto)
+                    && Files.getLastModifiedTime(texto).compareTo(Files.getLastModifiedTime(binario)) > 0)) {
+                reportarErrores(archivo, convertidor.convertir(texto, binario));
+            }
+            return CatalogoBinario.abrir(binario);
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Error al leer el catálogo de " + archivo + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Muestra en la consola las líneas de un archivo del catálogo que no se pudieron interpretar.
+     *
+     * @param archivo   El nombre del archivo.
+     * @param resultado El resultado de la carga.
+     */
+    private void reportarErrores(String archivo, ResultadoCarga<?> resultado) {
+        for (String error : resultado.getErrores()) {
+            System.out.println("Línea inválida en el archivo de " + archivo + ": " + error);
+        }
     }
 
 
@@ -0,0 +1,11 @@
+package co.edu.uniquindio.tienda.tienda.exception;
+
+public class AlmacenamientoException extends Exception {
+    public AlmacenamientoException(String s) {
+        super(s);
+    }
+
+    public AlmacenamientoException(String s, Throwable causa) {
+        super(s, causa);
+    }
+}
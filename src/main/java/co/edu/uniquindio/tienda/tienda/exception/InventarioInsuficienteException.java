@@ -0,0 +1,7 @@
+package co.edu.uniquindio.tienda.tienda.exception;
+
+public class InventarioInsuficienteException extends Exception {
+    public InventarioInsuficienteException(String s) {
+        super(s);
+    }
+}
@@ -0,0 +1,208 @@
+package co.edu.uniquindio.tienda.tienda.model;
+
+
+import co.edu.uniquindio.tienda.tienda.model.services.IAlmacenamiento;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Almacenamiento que guarda copias de los registros en memoria. Sirve para ejecutar la tienda
+ * sin base de datos y como referencia del comportamiento esperado de {@link IAlmacenamiento}.
+ * Las ventas se indexan además por fecha para resolver las consultas por periodo.
+ */
+@SuppressWarnings("ALL")
+public class AlmacenamientoMemoria implements IAlmacenamiento {
+
+    private final Map<String, Producto> productos = new HashMap<>();
+    private final Map<String, Cliente> clientes = new HashMap<>();
+    private final Map<String, Venta> ventas = new LinkedHashMap<>();
+    private final TreeMap<LocalDate, List<Venta>> ventasPorFecha = new TreeMap<>();
+
+    /*
+    -----------------------------------------------------------------------------------------------------------
+    ----------------------------PRODUCTOS----------------------------------------------------------------------
+    */
+
+    @Override
+    public synchronized void guardarProductos(Collection<Producto> productos) {
+        for (Producto producto : productos) {
+            this.productos.put(producto.getCodigo(), copiar(producto));
+        }
+    }
+
+    @Override
+    public synchronized boolean eliminarProducto(String codigoProducto) {
+        return productos.remove(codigoProducto) != null;
+    }
+
+    @Override
+    public synchronized Producto buscarProducto(String codigoProducto) {
+        Producto producto = productos.get(codigoProducto);
+        return producto == null ? null : copiar(producto);
+    }
+
+    @Override
+    public synchronized List<Producto> obtenerProductos() {
+        List<Producto> lista = new ArrayList<>(productos.size());
+        for (Producto producto : productos.values()) {
+            lista.add(copiar(producto));
+        }
+        return lista;
+    }
+
+    /*
+    -----------------------------------------------------------------------------------------------------------
+    ----------------------------CLIENTES-----------------------------------------------------------------------
+    */
+
+    @Override
+    public synchronized void guardarClientes(Collection<Cliente> clientes) {
+        for (Cliente cliente : clientes) {
+            this.clientes.put(cliente.getNumIdentificacion(), copiar(cliente));
+        }
+    }
+
+    @Override
+    public synchronized boolean eliminarCliente(String idCliente) {
+        return clientes.remove(idCliente) != null;
+    }
+
+    @Override
+    public synchronized Cliente buscarCliente(String idCliente) {
+        Cliente cliente = clientes.get(idCliente);
+        return cliente == null ? null : copiar(cliente);
+    }
+
+    @Override
+    public synchronized List<Cliente> obtenerClientes() {
+        List<Cliente> lista = new ArrayList<>(clientes.size());
+        for (Cliente cliente : clientes.values()) {
+            lista.add(copiar(cliente));
+        }
+        return lista;
+    }
+
+    /*
+    -----------------------------------------------------------------------------------------------------------
+    ----------------------------VENTAS-------------------------------------------------------------------------
+    */
+
+    /**
+     * Guarda las ventas. Las ventas no cambian una vez registradas, por lo que se conservan por referencia.
+     *
+     * @param ventas Las ventas a guardar.
+     */
+    @Override
+    public synchronized void guardarVentas(Collection<Venta> ventas) {
+        for (Venta venta : ventas) {
+            Venta anterior = this.ventas.put(venta.getCodigo(), venta);
+            if (anterior != null) {
+                quitarDeFecha(anterior);
+            }
+            ventasPorFecha.computeIfAbsent(venta.getFecha(), fecha -> new ArrayList<>()).add(venta);
+        }
+    }
+
+    @Override
+    public synchronized Venta buscarVenta(String codigo) {
+        return ventas.get(codigo);
+    }
+
+    @Override
+    public synchronized List<Venta> obtenerVentas() {
+        return new ArrayList<>(ventas.values());
+    }
+
+    @Override
+    public synchronized List<Venta> obtenerVentasEntreFechas(LocalDate desde, LocalDate hasta) {
+        List<Venta> lista = new ArrayList<>();
+        if (desde.isAfter(hasta)) {
+            return lista;
+        }
+        for (List<Venta> ventasDia : ventasPorFecha.subMap(desde, true, hasta, true).values()) {
+            lista.addAll(ventasDia);
+        }
+        return lista;
+    }
+
+    @Override
+    public synchronized List<Venta> obtenerVentasCliente(String idCliente) {
+        List<Venta> lista = new ArrayList<>();
+        for (Venta venta : ventas.values()) {
+            if (venta.getCliente() != null && idCliente.equals(venta.getCliente().getNumIdentificacion())) {
+                lista.add(venta);
+            }
+        }
+        return lista;
+    }
+
+    /*
+    -----------------------------------------------------------------------------------------------------------
+    ----------------------------OTROS METODOS------------------------------------------------------------------
+    */
+
+    /**
+     * Deja el almacenamiento con los registros recibidos. Solo se copian los productos y clientes
+     * que cambiaron y las ventas nuevas, y se quitan los registros que ya no están.
+     */
+    @Override
+    public synchronized void sincronizar(Collection<Producto> productos, Collection<Cliente> clientes, Collection<Venta> ventas) {
+        Map<String, Producto> productosAnteriores = new HashMap<>(this.productos);
+        for (Producto producto : productos) {
+            if (!producto.equals(productosAnteriores.remove(producto.getCodigo()))) {
+                this.productos.put(producto.getCodigo(), copiar(producto));
+            }
+        }
+        this.productos.keySet().removeAll(productosAnteriores.keySet());
+
+        Map<String, Cliente> clientesAnteriores = new HashMap<>(this.clientes);
+        for (Cliente cliente : clientes) {
+            if (!cliente.equals(clientesAnteriores.remove(cliente.getNumIdentificacion()))) {
+                this.clientes.put(cliente.getNumIdentificacion(), copiar(cliente));
+            }
+        }
+        this.clientes.keySet().removeAll(clientesAnteriores.keySet());
+
+        Map<String, Venta> ventasAnteriores = new HashMap<>(this.ventas);
+        List<Venta> nuevas = new ArrayList<>();
+        for (Venta venta : ventas) {
+            if (ventasAnteriores.remove(venta.getCodigo()) == null) {
+                nuevas.add(venta);
+            }
+        }
+        for (Venta venta : ventasAnteriores.values()) {
+            this.ventas.remove(venta.getCodigo());
+            quitarDeFecha(venta);
+        }
+        guardarVentas(nuevas);
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private void quitarDeFecha(Venta venta) {
+        List<Venta> ventasDia = ventasPorFecha.get(venta.getFecha());
+        if (ventasDia != null) {
+            ventasDia.remove(venta);
+            if (ventasDia.isEmpty()) {
+                ventasPorFecha.remove(venta.getFecha());
+            }
+        }
+    }
+
+    private static Producto copiar(Producto producto) {
+        return new Producto(producto.getNombre(), producto.getCodigo(), producto.getPrecio(), producto.getCantidadInventario());
+    }
+
+    private static Cliente copiar(Cliente cliente) {
+        return new Cliente(cliente.getNombre(), cliente.getNumIdentificacion(), cliente.getDireccion());
+    }
+}
@@ -0,0 +1,54 @@
+package co.edu.uniquindio.tienda.tienda.model;
+
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Cambio de un producto recibido en un archivo de novedades de un proveedor. Los campos nulos
+ * conservan el valor actual del producto; para crear un producto nuevo todos son obligatorios.
+ */
+@Getter
+@AllArgsConstructor
+@SuppressWarnings("ALL")
+public class CambioProducto {
+
+    private final String codigo;
+    private final String nombre;
+    private final Double precio;
+    private final Integer cantidadInventario;
+
+    /**
+     * Indica si el cambio tiene todos los datos necesarios para crear un producto nuevo.
+     *
+     * @return true si el nombre, el precio y la cantidad están presentes.
+     */
+    public boolean estaCompleto() {
+        return nombre != null && precio != null && cantidadInventario != null;
+    }
+
+    /**
+     * Crea un producto con los datos del cambio. Solo se debe invocar si el cambio está completo.
+     *
+     * @return El producto nuevo.
+     */
+    public Producto crearProducto() {
+        return new Producto(nombre, codigo, precio, cantidadInventario);
+    }
+
+    /**
+     * Aplica el nombre y el precio del cambio a un producto, conservando los que vengan vacíos.
+     * El inventario no se modifica aquí porque cambia la posición del producto en el índice de
+     * inventario de la tienda.
+     *
+     * @param producto El producto a modificar.
+     */
+    public void aplicarDatos(Producto producto) {
+        if (nombre != null) {
+            producto.setNombre(nombre);
+        }
+        if (precio != null) {
+            producto.setPrecio(precio);
+        }
+    }
+}
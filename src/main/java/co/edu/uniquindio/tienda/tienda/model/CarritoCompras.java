@@ -3,38 +3,37 @@ package co.edu.uniquindio.tienda.tienda.model;
 
 import co.edu.uniquindio.tienda.tienda.exception.ProductoException;
 import co.edu.uniquindio.tienda.tienda.exception.VaciarCarritoComprasException;
-import lombok.AllArgsConstructor;
-import lombok.Data;
+import co.edu.uniquindio.tienda.tienda.util.MapaObjetoEntero;
+import lombok.Getter;
 
-import java.util.HashSet;
-import java.util.Random;
+import java.util.ArrayList;
+import java.util.List;
 
-@Data
-@AllArgsConstructor
 @SuppressWarnings("ALL")
 //"Besos"
 public class CarritoCompras {
 
-    public HashSet<String> productosCarrito;
+    // Solo se usa bajo el monitor del carrito; para leerlo desde afuera se usa copiarProductos()
+    private final MapaObjetoEntero<String> productosCarrito;
+    @Getter
+    private volatile long ultimoAcceso;
 
     public CarritoCompras() {
-        this.productosCarrito = new HashSet<>();
+        this.productosCarrito = new MapaObjetoEntero<>();
+        this.ultimoAcceso = System.currentTimeMillis();
     }
 
 
 
-    // Método para agregar un producto al carrito
-    public Boolean agregarProducto(String codigoProducto) throws ProductoException {
-        if(productosCarrito.add(codigoProducto)){
-            return true;
-        }else {
-            throw new ProductoException("Error al  agregar el producto");
-        }
+    // Método para agregar un producto al carrito con la cantidad indicada
+    public synchronized Boolean agregarProducto(String codigoProducto, int cantidad) {
+        productosCarrito.poner(codigoProducto, cantidad);
+        return true;
     }
 
     // Método para eliminar un producto del carrito
-    public Boolean eliminarProducto(String codigoProducto) throws ProductoException {
-        if(productosCarrito.remove(codigoProducto)){
+    public synchronized Boolean eliminarProducto(String codigoProducto) throws ProductoException {
+        if(productosCarrito.eliminar(codigoProducto)){
             return true;
         }else {
             throw new ProductoException("Error al  eliminar el producto");
@@ -42,13 +41,47 @@ public class CarritoCompras {
     }
 
     // Método para vaciar el carrito
-    public Boolean vaciarCarrito() throws VaciarCarritoComprasException {
-        productosCarrito.clear();
+    public synchronized Boolean vaciarCarrito() throws VaciarCarritoComprasException {
+        limpiar();
 
-        if (productosCarrito.isEmpty()){
+        if (productosCarrito.estaVacio()){
             return true;
         }else{
             throw new VaciarCarritoComprasException("Error al eliminar los elementos del carrito");
         }
     }
+
+    // Método para quitar todos los productos del carrito
+    public synchronized void limpiar() {
+        productosCarrito.limpiar();
+    }
+
+    // Método para obtener la cantidad de un producto, o 0 si no está en el carrito
+    public synchronized int obtenerCantidad(String codigoProducto) {
+        return productosCarrito.obtener(codigoProducto, 0);
+    }
+
+    // Método para obtener los códigos de los productos del carrito, en el orden en que se agregaron
+    public synchronized List<String> obtenerCodigos() {
+        List<String> codigos = new ArrayList<>(productosCarrito.tamanio());
+        for (int i = 0; i < productosCarrito.tamanio(); i++) {
+            codigos.add(productosCarrito.clave(i));
+        }
+        return codigos;
+    }
+
+    // Método para obtener una copia de las cantidades del carrito
+    public synchronized MapaObjetoEntero<String> copiarProductos() {
+        return productosCarrito.copiar();
+    }
+
+    // Método para saber si el carrito no tiene productos
+    public synchronized boolean estaVacio() {
+        return productosCarrito.estaVacio();
+    }
+
+    // Método para registrar que el carrito fue usado
+    public void registrarAcceso() {
+        ultimoAcceso = System.currentTimeMillis();
+    }
 }
@@ -0,0 +1,330 @@
+package co.edu.uniquindio.tienda.tienda.model;
+
+
+import co.edu.uniquindio.tienda.tienda.util.ContadorFrecuentes;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Acumulados de las ventas para los tableros de la gerencia: unidades e ingresos por producto,
+ * ingresos por día y total comprado por cliente.
+ * <p>
+ * Los acumulados se actualizan con cada venta registrada, por lo que consultar el total de un
+ * producto, un día o un cliente es una búsqueda en un mapa y no un recorrido del historial. Los
+ * contadores son {@link LongAdder} y {@link DoubleAdder} en mapas concurrentes, así que registrar
+ * ventas desde varios hilos no pasa por un bloqueo común; las consultas ven los acumulados de
+ * las ventas ya registradas y pueden incluir o no las que se registran al mismo tiempo. Los
+ * productos más vendidos se consultan en {@link ContadorFrecuentes}, que usa memoria acotada.
+ * <p>
+ * {@link #calcular(Collection)} recalcula todos los acumulados desde cero con flujos paralelos;
+ * junto con {@link #coincideCon(EstadisticasVentas)} sirve para validar los acumulados incrementales.
+ */
+@SuppressWarnings("ALL")
+public class EstadisticasVentas {
+
+    private static final double TOLERANCIA = 1e-6;
+
+    private static final Comparator<TotalCliente> MEJORES_CLIENTES = Comparator
+            .comparingDouble(TotalCliente::getTotal).reversed()
+            .thenComparing(TotalCliente::getIdCliente);
+
+    private final ConcurrentHashMap<String, AcumuladoProducto> productos = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, AcumuladoCliente> clientes = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<LocalDate, DoubleAdder> ingresosPorDia = new ConcurrentSkipListMap<>();
+    private final DoubleAdder ingresosTotales = new DoubleAdder();
+    private final LongAdder ventas = new LongAdder();
+
+    /**
+     * Unidades vendidas e ingresos de un producto.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class TotalProducto {
+        private final String codigo;
+        private final long unidades;
+        private final double ingresos;
+    }
+
+    /**
+     * Cantidad de compras y total comprado por un cliente.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class TotalCliente {
+        private final String idCliente;
+        private final long compras;
+        private final double total;
+    }
+
+    private static class AcumuladoProducto {
+        private final LongAdder unidades = new LongAdder();
+        private final DoubleAdder ingresos = new DoubleAdder();
+    }
+
+    private static class AcumuladoCliente {
+        private final LongAdder compras = new LongAdder();
+        private final DoubleAdder total = new DoubleAdder();
+    }
+
+    /*
+    -----------------------------------------------------------------------------------------------------------
+    ----------------------------REGISTRAR----------------------------------------------------------------------
+    */
+
+    /**
+     * Suma una venta a los acumulados. Los detalles sin producto solo cuentan en los ingresos de la venta.
+     *
+     * @param venta La venta registrada.
+     */
+    public void registrarVenta(Venta venta) {
+        double ingresos = ingresosVenta(venta);
+        ventas.increment();
+        ingresosTotales.add(ingresos);
+        ingresosPorDia.computeIfAbsent(venta.getFecha(), fecha -> new DoubleAdder()).add(ingresos);
+
+        if (venta.getDetallesVenta() != null) {
+            for (DetalleVenta detalleVenta : venta.getDetallesVenta()) {
+                if (detalleVenta.getProducto() == null) {
+                    continue;
+                }
+                AcumuladoProducto acumulado = productos.computeIfAbsent(detalleVenta.getProducto().getCodigo(),
+                        codigo -> new AcumuladoProducto());
+                acumulado.unidades.add(detalleVenta.getCantidad());
+                acumulado.ingresos.add(ingresosDetalle(detalleVenta));
+            }
+        }
+
+        if (venta.getCliente() != null) {
+            AcumuladoCliente acumulado = clientes.computeIfAbsent(venta.getCliente().getNumIdentificacion(),
+                    idCliente -> new AcumuladoCliente());
+            acumulado.compras.increment();
+            acumulado.total.add(ingresos);
+        }
+    }
+
+    /**
+     * Suma varias ventas a los acumulados.
+     *
+     * @param ventas Las ventas registradas.
+     */
+    public void registrarVentas(Collection<Venta> ventas) {
+        for (Venta venta : ventas) {
+            registrarVenta(venta);
+        }
+    }
+
+    /*
+    -----------------------------------------------------------------------------------------------------------
+    ----------------------------CONSULTAR----------------------------------------------------------------------
+    */
+
+    /**
+     * Obtiene los clientes que más han comprado, conservando solo los mejores mientras se recorren.
+     *
+     * @param cantidad La cantidad máxima de clientes a devolver.
+     * @return Los clientes de mayor a menor total comprado.
+     */
+    public List<TotalCliente> obtenerMejoresClientes(int cantidad) {
+        List<TotalCliente> lista = new ArrayList<>();
+        if (cantidad <= 0) {
+            return lista;
+        }
+        PriorityQueue<TotalCliente> mejores = new PriorityQueue<>(MEJORES_CLIENTES.reversed());
+        clientes.forEach((idCliente, acumulado) -> {
+            mejores.add(new TotalCliente(idCliente, acumulado.compras.sum(), acumulado.total.sum()));
+            if (mejores.size() > cantidad) {
+                mejores.poll();
+            }
+        });
+        while (!mejores.isEmpty()) {
+            lista.add(mejores.poll());
+        }
+        return lista.reversed();
+    }
+
+    /**
+     * Obtiene las unidades vendidas e ingresos de un producto.
+     *
+     * @param codigoProducto El código del producto.
+     * @return Los totales del producto, en cero si no se ha vendido.
+     */
+    public TotalProducto obtenerTotalProducto(String codigoProducto) {
+        AcumuladoProducto acumulado = productos.get(codigoProducto);
+        return acumulado == null ? new TotalProducto(codigoProducto, 0, 0)
+                : new TotalProducto(codigoProducto, acumulado.unidades.sum(), acumulado.ingresos.sum());
+    }
+
+    /**
+     * Obtiene el total comprado por un cliente.
+     *
+     * @param idCliente El ID del cliente.
+     * @return Los totales del cliente, en cero si no ha comprado.
+     */
+    public TotalCliente obtenerTotalCliente(String idCliente) {
+        AcumuladoCliente acumulado = clientes.get(idCliente);
+        return acumulado == null ? new TotalCliente(idCliente, 0, 0)
+                : new TotalCliente(idCliente, acumulado.compras.sum(), acumulado.total.sum());
+    }
+
+    /**
+     * Obtiene los ingresos de un día.
+     *
+     * @param fecha El día.
+     * @return Los ingresos del día, o 0 si no hubo ventas.
+     */
+    public double obtenerIngresosDia(LocalDate fecha) {
+        DoubleAdder ingresos = ingresosPorDia.get(fecha);
+        return ingresos == null ? 0 : ingresos.sum();
+    }
+
+    /**
+     * Obtiene los ingresos de cada día con ventas en un periodo, ambas fechas incluidas.
+     *
+     * @param desde La fecha inicial del periodo.
+     * @param hasta La fecha final del periodo.
+     * @return Los ingresos por día, ordenados por fecha.
+     */
+    public TreeMap<LocalDate, Double> obtenerIngresosPorDia(LocalDate desde, LocalDate hasta) {
+        TreeMap<LocalDate, Double> ingresos = new TreeMap<>();
+        if (desde.isAfter(hasta)) {
+            return ingresos;
+        }
+        ingresosPorDia.subMap(desde, true, hasta, true).forEach((fecha, ingresosDia) -> ingresos.put(fecha, ingresosDia.sum()));
+        return ingresos;
+    }
+
+    public double getIngresosTotales() {
+        return ingresosTotales.sum();
+    }
+
+    public long getVentas() {
+        return ventas.sum();
+    }
+
+    /*
+    -----------------------------------------------------------------------------------------------------------
+    ----------------------------RECALCULAR---------------------------------------------------------------------
+    */
+
+    /**
+     * Calcula los acumulados de un conjunto de ventas desde cero, agrupando en paralelo.
+     *
+     * @param ventas Las ventas del historial.
+     * @return Los acumulados calculados.
+     */
+    public static EstadisticasVentas calcular(Collection<Venta> ventas) {
+        ConcurrentMap<String, List<DetalleVenta>> detallesPorProducto = ventas.parallelStream()
+                .filter(venta -> venta.getDetallesVenta() != null)
+                .flatMap(venta -> venta.getDetallesVenta().stream())
+                .filter(detalleVenta -> detalleVenta.getProducto() != null)
+                .collect(Collectors.groupingByConcurrent(detalleVenta -> detalleVenta.getProducto().getCodigo()));
+        ConcurrentMap<String, List<Venta>> ventasPorCliente = ventas.parallelStream()
+                .filter(venta -> venta.getCliente() != null)
+                .collect(Collectors.groupingByConcurrent(venta -> venta.getCliente().getNumIdentificacion()));
+        ConcurrentMap<LocalDate, Double> ingresosPorDia = ventas.parallelStream()
+                .collect(Collectors.toConcurrentMap(Venta::getFecha, EstadisticasVentas::ingresosVenta, Double::sum));
+
+        EstadisticasVentas estadisticas = new EstadisticasVentas();
+        estadisticas.ventas.add(ventas.size());
+        estadisticas.ingresosTotales.add(ventas.parallelStream().mapToDouble(EstadisticasVentas::ingresosVenta).sum());
+        ingresosPorDia.forEach((fecha, ingresos) -> estadisticas.ingresosPorDia.computeIfAbsent(fecha, f -> new DoubleAdder()).add(ingresos));
+        detallesPorProducto.forEach((codigo, detalles) -> {
+            AcumuladoProducto acumulado = new AcumuladoProducto();
+            for (DetalleVenta detalleVenta : detalles) {
+                acumulado.unidades.add(detalleVenta.getCantidad());
+                acumulado.ingresos.add(ingresosDetalle(detalleVenta));
+            }
+            estadisticas.productos.put(codigo, acumulado);
+        });
+        ventasPorCliente.forEach((idCliente, ventasCliente) -> {
+            AcumuladoCliente acumulado = new AcumuladoCliente();
+            for (Venta venta : ventasCliente) {
+                acumulado.compras.increment();
+                acumulado.total.add(ingresosVenta(venta));
+            }
+            estadisticas.clientes.put(idCliente, acumulado);
+        });
+        return estadisticas;
+    }
+
+    /**
+     * Compara estos acumulados con otros. Los montos se comparan con una tolerancia relativa,
+     * porque sumar en otro orden cambia el redondeo. Para que la comparación sea exacta no se
+     * deben registrar ventas en ninguno de los dos mientras se compara.
+     *
+     * @param otras Los acumulados a comparar, por ejemplo los recalculados con {@link #calcular(Collection)}.
+     * @return true si ambos tienen los mismos productos, días y clientes con los mismos totales.
+     */
+    public boolean coincideCon(EstadisticasVentas otras) {
+        if (ventas.sum() != otras.ventas.sum() || !iguales(ingresosTotales.sum(), otras.ingresosTotales.sum())
+                || productos.size() != otras.productos.size() || clientes.size() != otras.clientes.size()
+                || ingresosPorDia.size() != otras.ingresosPorDia.size()) {
+            return false;
+        }
+        for (Map.Entry<String, AcumuladoProducto> producto : productos.entrySet()) {
+            AcumuladoProducto otro = otras.productos.get(producto.getKey());
+            if (otro == null || otro.unidades.sum() != producto.getValue().unidades.sum()
+                    || !iguales(otro.ingresos.sum(), producto.getValue().ingresos.sum())) {
+                return false;
+            }
+        }
+        for (Map.Entry<String, AcumuladoCliente> cliente : clientes.entrySet()) {
+            AcumuladoCliente otro = otras.clientes.get(cliente.getKey());
+            if (otro == null || otro.compras.sum() != cliente.getValue().compras.sum()
+                    || !iguales(otro.total.sum(), cliente.getValue().total.sum())) {
+                return false;
+            }
+        }
+        for (Map.Entry<LocalDate, DoubleAdder> dia : ingresosPorDia.entrySet()) {
+            DoubleAdder otro = otras.ingresosPorDia.get(dia.getKey());
+            if (otro == null || !iguales(otro.sum(), dia.getValue().sum())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /*
+    -----------------------------------------------------------------------------------------------------------
+    ----------------------------OTROS METODOS------------------------------------------------------------------
+    */
+
+    /**
+     * Obtiene los ingresos de una venta: su total o, si no lo tiene, la suma de sus subtotales.
+     */
+    private static double ingresosVenta(Venta venta) {
+        if (venta.getTotal() != null) {
+            return venta.getTotal();
+        }
+        double ingresos = 0;
+        if (venta.getDetallesVenta() != null) {
+            for (DetalleVenta detalleVenta : venta.getDetallesVenta()) {
+                ingresos += ingresosDetalle(detalleVenta);
+            }
+        }
+        return ingresos;
+    }
+
+    private static double ingresosDetalle(DetalleVenta detalleVenta) {
+        return detalleVenta.getSubTotal() == null ? 0 : detalleVenta.getSubTotal();
+    }
+
+    private static boolean iguales(double a, double b) {
+        return Math.abs(a - b) <= TOLERANCIA * Math.max(1, Math.max(Math.abs(a), Math.abs(b)));
+    }
+}
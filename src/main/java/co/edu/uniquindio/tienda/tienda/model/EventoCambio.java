@@ -0,0 +1,31 @@
+package co.edu.uniquindio.tienda.tienda.model;
+
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Cambio de un elemento de la tienda (producto, cliente o venta) que se notifica a los
+ * observadores, para que puedan aplicar solo ese cambio en lugar de volver a consultar todo.
+ *
+ * @param <T> El tipo del elemento que cambió.
+ */
+@Getter
+@AllArgsConstructor
+@SuppressWarnings("ALL")
+public class EventoCambio<T> {
+
+    public enum Tipo {
+        AGREGADO,
+        ACTUALIZADO,
+        ELIMINADO
+    }
+
+    private final Tipo tipo;
+    private final T elemento;
+    /**
+     * El elemento antes del cambio cuando la actualización lo reemplazó por otro objeto; si el
+     * elemento se modificó en el lugar, o el cambio no es una actualización, es el mismo {@link #elemento}.
+     */
+    private final T anterior;
+}
@@ -0,0 +1,218 @@
+package co.edu.uniquindio.tienda.tienda.model;
+
+
+import co.edu.uniquindio.tienda.tienda.util.MapaObjetoEntero;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+/**
+ * Almacén de productos organizado por columnas. Cada producto ocupa una posición: el código y
+ * el nombre se guardan en arreglos de cadenas, y el precio y el inventario en columnas de
+ * primitivos fuera del heap. Un {@link MapaObjetoEntero} relaciona cada código con su posición
+ * sin crear entradas ni enteros envueltos, por lo que cada producto cuesta unos pocos bytes
+ * además de sus textos.
+ * <p>
+ * Los objetos {@link Producto} solo se crean cuando se solicitan, como copias del estado actual.
+ * No es seguro para varios hilos.
+ */
+@SuppressWarnings("ALL")
+public class InventarioColumnar {
+
+    private static final int CAPACIDAD_INICIAL = 16;
+    private static final int VACIO = -1;
+
+    private String[] codigos;
+    private String[] nombres;
+    private DoubleBuffer precios;
+    private IntBuffer cantidades;
+    private int tamanio;
+
+    private final MapaObjetoEntero<String> indice;
+
+    public InventarioColumnar() {
+        this(CAPACIDAD_INICIAL);
+    }
+
+    public InventarioColumnar(int capacidad) {
+        int inicial = Math.max(CAPACIDAD_INICIAL, capacidad);
+        codigos = new String[inicial];
+        nombres = new String[inicial];
+        precios = crearColumna(inicial * Double.BYTES).asDoubleBuffer();
+        cantidades = crearColumna(inicial * Integer.BYTES).asIntBuffer();
+        indice = new MapaObjetoEntero<>(inicial);
+    }
+
+    /*
+    -----------------------------------------------------------------------------------------------------------
+    ----------------------------PRODUCTOS----------------------------------------------------------------------
+    */
+
+    /**
+     * Agrega un producto al final de las columnas.
+     *
+     * @param producto El producto a agregar.
+     * @return La posición asignada, o -1 si ya existe un producto con el mismo código.
+     */
+    public int agregar(Producto producto) {
+        String codigo = producto.getCodigo().intern();
+        if (posicion(codigo) != VACIO) {
+            return VACIO;
+        }
+        asegurarCapacidad(tamanio + 1);
+        int posicion = tamanio++;
+        codigos[posicion] = codigo;
+        escribir(posicion, producto);
+        indice.poner(codigo, posicion);
+        return posicion;
+    }
+
+    /**
+     * Elimina un producto. La última posición se mueve a la posición liberada para que las
+     * columnas sigan siendo contiguas.
+     *
+     * @param codigo El código del producto.
+     * @return true si el producto existía.
+     */
+    public boolean eliminar(String codigo) {
+        int posicion = posicion(codigo);
+        if (posicion == VACIO) {
+            return false;
+        }
+        indice.eliminar(codigo);
+        int ultima = --tamanio;
+        if (posicion != ultima) {
+            codigos[posicion] = codigos[ultima];
+            nombres[posicion] = nombres[ultima];
+            precios.put(posicion, precios.get(ultima));
+            cantidades.put(posicion, cantidades.get(ultima));
+            indice.poner(codigos[posicion], posicion);
+        }
+        codigos[ultima] = null;
+        nombres[ultima] = null;
+        return true;
+    }
+
+    /**
+     * Reemplaza los datos de un producto. Si el código cambia, el producto se reindexa.
+     *
+     * @param codigo   El código actual del producto.
+     * @param producto Los datos nuevos.
+     * @return true si el producto existía y el código nuevo no pertenece a otro producto.
+     */
+    public boolean reemplazar(String codigo, Producto producto) {
+        int posicion = posicion(codigo);
+        if (posicion == VACIO) {
+            return false;
+        }
+        String codigoNuevo = producto.getCodigo().intern();
+        if (!codigoNuevo.equals(codigo)) {
+            if (posicion(codigoNuevo) != VACIO) {
+                return false;
+            }
+            indice.eliminar(codigo);
+            codigos[posicion] = codigoNuevo;
+            indice.poner(codigoNuevo, posicion);
+        }
+        escribir(posicion, producto);
+        return true;
+    }
+
+    /**
+     * Obtiene la posición de un producto.
+     *
+     * @param codigo El código del producto.
+     * @return La posición del producto, o -1 si no existe.
+     */
+    public int posicion(String codigo) {
+        return indice.obtener(codigo, VACIO);
+    }
+
+    /**
+     * Crea una copia del producto en una posición.
+     *
+     * @param posicion La posición del producto.
+     * @return Un producto con los datos actuales de la posición.
+     */
+    public Producto obtener(int posicion) {
+        return new Producto(nombres[posicion], codigos[posicion], precios.get(posicion), cantidades.get(posicion));
+    }
+
+    /**
+     * Crea una copia de un producto a partir de su código.
+     *
+     * @param codigo El código del producto.
+     * @return El producto, o null si no existe.
+     */
+    public Producto obtener(String codigo) {
+        int posicion = posicion(codigo);
+        return posicion == VACIO ? null : obtener(posicion);
+    }
+
+    public int getCantidadInventario(int posicion) {
+        return cantidades.get(posicion);
+    }
+
+    public void setCantidadInventario(int posicion, int cantidad) {
+        cantidades.put(posicion, cantidad);
+    }
+
+    public int getTamanio() {
+        return tamanio;
+    }
+
+    /**
+     * Obtiene las posiciones de los productos con inventario menor a un umbral, recorriendo
+     * únicamente la columna de inventario.
+     *
+     * @param umbral La cantidad mínima de inventario que se considera suficiente.
+     * @return Las posiciones encontradas.
+     */
+    public int[] posicionesInventarioMenorA(int umbral) {
+        int[] encontradas = new int[CAPACIDAD_INICIAL];
+        int cantidad = 0;
+        for (int i = 0; i < tamanio; i++) {
+            if (cantidades.get(i) < umbral) {
+                if (cantidad == encontradas.length) {
+                    encontradas = Arrays.copyOf(encontradas, cantidad * 2);
+                }
+                encontradas[cantidad++] = i;
+            }
+        }
+        return Arrays.copyOf(encontradas, cantidad);
+    }
+
+    private void escribir(int posicion, Producto producto) {
+        nombres[posicion] = producto.getNombre();
+        precios.put(posicion, producto.getPrecio());
+        cantidades.put(posicion, producto.getCantidadInventario());
+    }
+
+    /*
+    -----------------------------------------------------------------------------------------------------------
+    ----------------------------CAPACIDAD----------------------------------------------------------------------
+    */
+
+    private void asegurarCapacidad(int requerida) {
+        if (requerida > codigos.length) {
+            int capacidad = Math.max(requerida, codigos.length * 2);
+            codigos = Arrays.copyOf(codigos, capacidad);
+            nombres = Arrays.copyOf(nombres, capacidad);
+
+            DoubleBuffer nuevosPrecios = crearColumna(capacidad * Double.BYTES).asDoubleBuffer();
+            nuevosPrecios.put(precios.duplicate().position(0).limit(tamanio));
+            precios = nuevosPrecios.clear();
+
+            IntBuffer nuevasCantidades = crearColumna(capacidad * Integer.BYTES).asIntBuffer();
+            nuevasCantidades.put(cantidades.duplicate().position(0).limit(tamanio));
+            cantidades = nuevasCantidades.clear();
+        }
+    }
+
+    private static ByteBuffer crearColumna(int bytes) {
+        return ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+    }
+}
@@ -0,0 +1,69 @@
+package co.edu.uniquindio.tienda.tienda.model;
+
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Lista de observadores de los cambios de un tipo de elemento de la tienda. Los eventos se
+ * entregan en el hilo que hizo el cambio, mientras la tienda aún lo está aplicando, por lo que
+ * los observadores deben ser rápidos y pasar a su propio hilo lo que tarde.
+ * <p>
+ * Quien publica puede consultar {@link #hayObservadores()} para no construir eventos que nadie
+ * va a recibir, por ejemplo durante la carga inicial.
+ *
+ * @param <T> El tipo de los elementos observados.
+ */
+@SuppressWarnings("ALL")
+public class ObservadoresCambios<T> {
+
+    private final CopyOnWriteArrayList<Consumer<? super EventoCambio<T>>> observadores = new CopyOnWriteArrayList<>();
+
+    /**
+     * Registra un observador.
+     *
+     * @param observador La acción que recibe cada cambio.
+     * @return Una acción que cancela la suscripción.
+     */
+    public Runnable suscribir(Consumer<? super EventoCambio<T>> observador) {
+        observadores.add(observador);
+        return () -> observadores.remove(observador);
+    }
+
+    public boolean hayObservadores() {
+        return !observadores.isEmpty();
+    }
+
+    public void publicarAgregado(T elemento) {
+        if (hayObservadores()) {
+            publicar(new EventoCambio<>(EventoCambio.Tipo.AGREGADO, elemento, elemento));
+        }
+    }
+
+    public void publicarActualizado(T elemento) {
+        publicarActualizado(elemento, elemento);
+    }
+
+    public void publicarActualizado(T elemento, T anterior) {
+        if (hayObservadores()) {
+            publicar(new EventoCambio<>(EventoCambio.Tipo.ACTUALIZADO, elemento, anterior));
+        }
+    }
+
+    public void publicarEliminado(T elemento) {
+        if (hayObservadores()) {
+            publicar(new EventoCambio<>(EventoCambio.Tipo.ELIMINADO, elemento, elemento));
+        }
+    }
+
+    /**
+     * Entrega un evento a todos los observadores.
+     *
+     * @param evento El evento a entregar.
+     */
+    public void publicar(EventoCambio<T> evento) {
+        for (Consumer<? super EventoCambio<T>> observador : observadores) {
+            observador.accept(evento);
+        }
+    }
+}
@@ -18,9 +18,17 @@ public class Producto implements Comparable<Producto> {
 
 
 
+    /**
+     * Compara los productos por cantidad en inventario y, a igual cantidad, por código,
+     * para que los conjuntos ordenados no descarten productos con el mismo inventario.
+     */
     @Override
     public int compareTo(Producto o) {
-        return Integer.compare(getCantidadInventario(), o.getCantidadInventario());
+        int comparacion = Integer.compare(getCantidadInventario(), o.getCantidadInventario());
+        if (comparacion != 0) {
+            return comparacion;
+        }
+        return getCodigo().compareTo(o.getCodigo());
     }
 
 
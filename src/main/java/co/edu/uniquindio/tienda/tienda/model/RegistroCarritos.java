@@ -0,0 +1,103 @@
+package co.edu.uniquindio.tienda.tienda.model;
+
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Registro de carritos de compras abiertos, uno por sesión o terminal de venta.
+ * Los carritos que no se usan durante el tiempo máximo de inactividad se eliminan
+ * automáticamente; la limpieza se hace al acceder al registro, como máximo una vez
+ * por intervalo, por lo que no requiere hilos adicionales.
+ */
+@SuppressWarnings("ALL")
+public class RegistroCarritos {
+
+    public static final long INACTIVIDAD_POR_DEFECTO = TimeUnit.MINUTES.toMillis(30);
+
+    private final ConcurrentHashMap<String, CarritoCompras> carritos;
+    private final long tiempoMaximoInactividad;
+    private final AtomicLong ultimaLimpieza;
+
+    public RegistroCarritos() {
+        this(INACTIVIDAD_POR_DEFECTO);
+    }
+
+    public RegistroCarritos(long tiempoMaximoInactividad) {
+        this.carritos = new ConcurrentHashMap<>();
+        this.tiempoMaximoInactividad = tiempoMaximoInactividad;
+        this.ultimaLimpieza = new AtomicLong(System.currentTimeMillis());
+    }
+
+    /**
+     * Obtiene el carrito de una sesión, creándolo si no existe, y registra su uso.
+     *
+     * @param idSesion El identificador de la sesión o terminal.
+     * @return El carrito de la sesión.
+     */
+    public CarritoCompras obtenerCarrito(String idSesion) {
+        limpiarSiCorresponde();
+        return carritos.compute(idSesion, (id, carrito) -> {
+            CarritoCompras actual = carrito != null ? carrito : new CarritoCompras();
+            actual.registrarAcceso();
+            return actual;
+        });
+    }
+
+    /**
+     * Elimina el carrito de una sesión.
+     *
+     * @param idSesion El identificador de la sesión o terminal.
+     * @return El carrito eliminado, o null si la sesión no tenía carrito.
+     */
+    public CarritoCompras eliminarCarrito(String idSesion) {
+        return carritos.remove(idSesion);
+    }
+
+    /**
+     * Obtiene los carritos abiertos indexados por sesión.
+     *
+     * @return Una vista de solo lectura de los carritos abiertos.
+     */
+    public Map<String, CarritoCompras> obtenerCarritos() {
+        return Collections.unmodifiableMap(carritos);
+    }
+
+    /**
+     * Elimina los carritos que no se han usado durante el tiempo máximo de inactividad. La última
+     * fecha de acceso se vuelve a revisar dentro de {@code computeIfPresent}, con la entrada
+     * bloqueada, así que un carrito que se acaba de obtener no se elimina.
+     *
+     * @return La cantidad de carritos eliminados.
+     */
+    public int eliminarCarritosInactivos() {
+        long limite = System.currentTimeMillis() - tiempoMaximoInactividad;
+        int eliminados = 0;
+        for (String idSesion : carritos.keySet()) {
+            boolean[] eliminado = new boolean[1];
+            carritos.computeIfPresent(idSesion, (id, carrito) -> {
+                eliminado[0] = carrito.getUltimoAcceso() < limite;
+                return eliminado[0] ? null : carrito;
+            });
+            if (eliminado[0]) {
+                eliminados++;
+            }
+        }
+        return eliminados;
+    }
+
+    /**
+     * Ejecuta la limpieza de carritos inactivos si ya pasó el intervalo desde la última limpieza.
+     * Solo un hilo ejecuta la limpieza en cada intervalo.
+     */
+    private void limpiarSiCorresponde() {
+        long ahora = System.currentTimeMillis();
+        long ultima = ultimaLimpieza.get();
+        if (ahora - ultima >= tiempoMaximoInactividad && ultimaLimpieza.compareAndSet(ultima, ahora)) {
+            eliminarCarritosInactivos();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package co.edu.uniquindio.tienda.tienda.model;
+
+
+import co.edu.uniquindio.tienda.tienda.util.MapaObjetoEntero;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Unidades de inventario apartadas para una venta. Una reserva se confirma, descontando
+ * definitivamente el inventario, o se libera, devolviendo las unidades; solo una de las dos
+ * operaciones tiene efecto y únicamente la primera vez que se invoca.
+ */
+@Getter
+@SuppressWarnings("ALL")
+public class ReservaInventario {
+
+    private final List<DetalleVenta> detallesVenta;
+    private final MapaObjetoEntero<String> cantidadesPorProducto;
+    private final AtomicBoolean activa;
+
+    public ReservaInventario(List<DetalleVenta> detallesVenta) {
+        this.detallesVenta = detallesVenta;
+        this.cantidadesPorProducto = agruparCantidades(detallesVenta);
+        this.activa = new AtomicBoolean(true);
+    }
+
+    /**
+     * Indica si la reserva aún no ha sido confirmada ni liberada.
+     *
+     * @return true si la reserva sigue activa.
+     */
+    public boolean isActiva() {
+        return activa.get();
+    }
+
+    /**
+     * Marca la reserva como finalizada.
+     *
+     * @return true si la reserva estaba activa y esta llamada la finalizó, false si ya estaba finalizada.
+     */
+    public boolean finalizar() {
+        return activa.compareAndSet(true, false);
+    }
+
+    /**
+     * Suma las cantidades de los detalles de venta que corresponden al mismo producto.
+     * Los detalles sin producto no tienen inventario que apartar y se omiten.
+     *
+     * @param detallesVenta Los detalles de la venta.
+     * @return Un mapa con la cantidad total reservada por código de producto, en el orden de los detalles.
+     */
+    public static MapaObjetoEntero<String> agruparCantidades(List<DetalleVenta> detallesVenta) {
+        MapaObjetoEntero<String> cantidades = new MapaObjetoEntero<>(detallesVenta.size());
+        for (DetalleVenta detalleVenta : detallesVenta) {
+            if (detalleVenta.getProducto() == null) {
+                continue;
+            }
+            cantidades.sumar(detalleVenta.getProducto().getCodigo(), detalleVenta.getCantidad());
+        }
+        return cantidades;
+    }
+}
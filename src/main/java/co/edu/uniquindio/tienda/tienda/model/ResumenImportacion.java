@@ -0,0 +1,50 @@
+package co.edu.uniquindio.tienda.tienda.model;
+
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Resultado de importar un archivo de novedades de productos: cuántos productos se crearon,
+ * cuántos se actualizaron y cuántos registros se rechazaron, con el motivo de los primeros
+ * rechazos. Solo se conservan {@value #MAXIMO_ERRORES} mensajes para que un archivo muy dañado
+ * no llene la memoria.
+ */
+@Getter
+@SuppressWarnings("ALL")
+public class ResumenImportacion {
+
+    public static final int MAXIMO_ERRORES = 1000;
+
+    private int insertados;
+    private int actualizados;
+    private int rechazados;
+    private final List<String> errores = new ArrayList<>();
+
+    public void registrarInsertado() {
+        insertados++;
+    }
+
+    public void registrarActualizado() {
+        actualizados++;
+    }
+
+    /**
+     * Registra un registro rechazado.
+     *
+     * @param motivo La descripción del registro y del motivo del rechazo.
+     */
+    public void registrarRechazado(String motivo) {
+        rechazados++;
+        if (errores.size() < MAXIMO_ERRORES) {
+            errores.add(motivo);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Insertados: " + insertados + ", actualizados: " + actualizados + ", rechazados: " + rechazados;
+    }
+}
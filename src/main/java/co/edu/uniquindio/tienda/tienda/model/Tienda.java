@@ -3,14 +3,19 @@ package co.edu.uniquindio.tienda.tienda.model;
 
 import co.edu.uniquindio.tienda.tienda.exception.ClienteException;
 import co.edu.uniquindio.tienda.tienda.exception.ClienteNoEncontradoException;
+import co.edu.uniquindio.tienda.tienda.exception.InventarioInsuficienteException;
 import co.edu.uniquindio.tienda.tienda.exception.ProductoException;
 import co.edu.uniquindio.tienda.tienda.exception.ProductoNoEncontradoException;
 import co.edu.uniquindio.tienda.tienda.model.services.ITienda;
+import co.edu.uniquindio.tienda.tienda.util.ContadorFrecuentes;
+import co.edu.uniquindio.tienda.tienda.util.IndiceTexto;
+import co.edu.uniquindio.tienda.tienda.util.MapaObjetoEntero;
 import lombok.Data;
 
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 
@@ -24,16 +29,32 @@ public class Tienda implements ITienda {
 
     private HashMap<String, Producto> listProductos;
     private HashMap<String, Cliente> listClientes;
-    private HashMap<String, Integer> productosCarrito;
-    private LinkedList<Venta> historicoVentas;
+    private RegistroCarritos carritos;
+    private ArrayList<Venta> historicoVentas;
+    private HashMap<String, Venta> indiceVentas;
+    private HashMap<String, ArrayList<Venta>> ventasPorCliente;
     private TreeSet<Producto> inventarioProductos;
+    private MapaObjetoEntero<String> inventarioReservado;
+    private ContadorFrecuentes<String> productosFrecuentes;
+    private IndiceTexto<String> indiceNombres;
+    private ObservadoresCambios<Producto> cambiosProductos;
+    private ObservadoresCambios<Cliente> cambiosClientes;
+    private ObservadoresCambios<Venta> cambiosVentas;
 
     public Tienda() {
         this.listProductos = new HashMap<>();
         this.listClientes = new HashMap<>();
-        this.historicoVentas = new LinkedList<>();
+        this.historicoVentas = new ArrayList<>();
+        this.indiceVentas = new HashMap<>();
+        this.ventasPorCliente = new HashMap<>();
         this.inventarioProductos = new TreeSet<>();
-        this.productosCarrito = new HashMap<>();
+        this.inventarioReservado = new MapaObjetoEntero<>();
+        this.carritos = new RegistroCarritos();
+        this.productosFrecuentes = new ContadorFrecuentes<>(PRODUCTOS_FRECUENTES_VIGILADOS);
+        this.indiceNombres = new IndiceTexto<>();
+        this.cambiosProductos = new ObservadoresCambios<>();
+        this.cambiosClientes = new ObservadoresCambios<>();
+        this.cambiosVentas = new ObservadoresCambios<>();
     }
 
 
@@ -56,6 +77,9 @@ public class Tienda implements ITienda {
             throw new ProductoException("El codigo del producto ya se encuentra registrado");
         } else {
             listProductos.put(producto.getCodigo(), producto);
+            inventarioProductos.add(producto);
+            indiceNombres.actualizar(producto.getCodigo(), producto.getNombre());
+            cambiosProductos.publicarAgregado(producto);
             return true;
         }
     }
@@ -70,7 +94,10 @@ public class Tienda implements ITienda {
     @Override
     public Boolean eliminarProducto(String codigoProducto) throws ProductoNoEncontradoException {
         if (listProductos.containsKey(codigoProducto)) {
-            listProductos.remove(codigoProducto);
+            Producto producto = listProductos.remove(codigoProducto);
+            inventarioProductos.remove(producto);
+            indiceNombres.eliminar(codigoProducto);
+            cambiosProductos.publicarEliminado(producto);
             return true;
         } else {
             throw new ProductoNoEncontradoException("El producto con el código " + codigoProducto + " no existe en el inventario.");
@@ -104,12 +131,54 @@ public class Tienda implements ITienda {
     @Override
     public boolean editarProducto(Producto producto, Producto productoSeleccionado) throws ProductoException {
         if (listProductos.replace(productoSeleccionado.getCodigo(), productoSeleccionado, producto)) {
+            inventarioProductos.remove(productoSeleccionado);
+            inventarioProductos.add(producto);
+            indiceNombres.actualizar(productoSeleccionado.getCodigo(), producto.getNombre());
+            cambiosProductos.publicarActualizado(producto, productoSeleccionado);
             return true;
         } else {
             throw new ProductoException("Error al actualizar el producto");
         }
     }
 
+    /**
+     * Aplica un lote de cambios de productos: actualiza en el lugar los productos existentes y
+     * agrega los nuevos, manteniendo el índice de inventario. Un producto solo se reubica en el
+     * índice si su inventario cambia.
+     *
+     * @param cambios Los cambios a aplicar.
+     * @param resumen El resumen en el que se cuentan los productos creados, actualizados y rechazados.
+     */
+    @Override
+    public void aplicarCambiosProductos(List<CambioProducto> cambios, ResumenImportacion resumen) {
+        for (CambioProducto cambio : cambios) {
+            Producto producto = listProductos.get(cambio.getCodigo());
+            if (producto == null) {
+                if (!cambio.estaCompleto()) {
+                    resumen.registrarRechazado("Producto " + cambio.getCodigo() + ": faltan datos para crearlo");
+                    continue;
+                }
+                producto = cambio.crearProducto();
+                listProductos.put(producto.getCodigo(), producto);
+                inventarioProductos.add(producto);
+                indiceNombres.actualizar(producto.getCodigo(), producto.getNombre());
+                cambiosProductos.publicarAgregado(producto);
+                resumen.registrarInsertado();
+                continue;
+            }
+            cambio.aplicarDatos(producto);
+            Integer cantidad = cambio.getCantidadInventario();
+            if (cantidad != null && cantidad != producto.getCantidadInventario()) {
+                inventarioProductos.remove(producto);
+                producto.setCantidadInventario(cantidad);
+                inventarioProductos.add(producto);
+            }
+            indiceNombres.actualizar(producto.getCodigo(), producto.getNombre());
+            cambiosProductos.publicarActualizado(producto);
+            resumen.registrarActualizado();
+        }
+    }
+
     /*
     -----------------------------------------------------------------------------------------------------------
     ----------------------------METODOS GESTIONAR CLIENTES-----------------------------------------------------
@@ -128,6 +197,7 @@ public class Tienda implements ITienda {
             throw new ClienteException("El cliente con el ID " + cliente.getNumIdentificacion() + " ya está registrado.");
         } else {
             listClientes.put(cliente.getNumIdentificacion(), cliente);
+            cambiosClientes.publicarAgregado(cliente);
             return true;
         }
     }
@@ -142,13 +212,23 @@ public class Tienda implements ITienda {
     @Override
     public Boolean eliminarCliente(String idCliente) throws ClienteNoEncontradoException {
         if (listClientes.containsKey(idCliente)) {
-            listClientes.remove(idCliente);
+            cambiosClientes.publicarEliminado(listClientes.remove(idCliente));
             return true;
         } else {
             throw new ClienteNoEncontradoException("El cliente con el ID " + idCliente + " no existe.");
         }
     }
 
+    /**
+     * Obtiene la lista de clientes registrados en el sistema.
+     *
+     * @return Una lista con los clientes registrados.
+     */
+    @Override
+    public List<Cliente> obtenerListaClientes() {
+        return new ArrayList<>(listClientes.values());
+    }
+
     /**
      * Edita los datos de un cliente en el sistema.
      *
@@ -160,6 +240,7 @@ public class Tienda implements ITienda {
     @Override
     public boolean editarCliente(Cliente cliente, Cliente clienteSeleccionado) throws ClienteException {
         if (listClientes.replace(clienteSeleccionado.getNumIdentificacion(), clienteSeleccionado, cliente)) {
+            cambiosClientes.publicarActualizado(cliente, clienteSeleccionado);
             return true;
         } else {
             throw new ClienteException("Error al actualizar el cliente");
@@ -189,14 +270,47 @@ public class Tienda implements ITienda {
     */
 
     /**
-     * Obtiene la lista de ventas realizadas a un cliente específico.
+     * Obtiene la lista de ventas realizadas a un cliente específico, ordenada por fecha.
      *
      * @param idCliente El ID del cliente del cual se desean obtener las ventas.
      * @return La lista de ventas del cliente especificado.
      */
     @Override
     public List<Venta> obtenerVentasCliente(String idCliente) {
-        return listClientes.get(idCliente).getListaCompras();
+        ArrayList<Venta> ventas = ventasPorCliente.get(idCliente);
+        if (ventas == null) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(ventas);
+    }
+
+    /**
+     * Obtiene las ventas realizadas entre dos fechas, ambas incluidas, ordenadas por fecha.
+     *
+     * @param desde La fecha inicial del periodo.
+     * @param hasta La fecha final del periodo.
+     * @return Las ventas del periodo especificado.
+     */
+    @Override
+    public List<Venta> obtenerVentasEntreFechas(LocalDate desde, LocalDate hasta) {
+        return obtenerRango(historicoVentas, desde, hasta);
+    }
+
+    /**
+     * Obtiene las ventas realizadas a un cliente entre dos fechas, ambas incluidas, ordenadas por fecha.
+     *
+     * @param idCliente El ID del cliente del cual se desean obtener las ventas.
+     * @param desde     La fecha inicial del periodo.
+     * @param hasta     La fecha final del periodo.
+     * @return Las ventas del cliente en el periodo especificado.
+     */
+    @Override
+    public List<Venta> obtenerVentasClienteEntreFechas(String idCliente, LocalDate desde, LocalDate hasta) {
+        ArrayList<Venta> ventas = ventasPorCliente.get(idCliente);
+        if (ventas == null) {
+            return Collections.emptyList();
+        }
+        return obtenerRango(ventas, desde, hasta);
     }
 
     /**
@@ -207,43 +321,269 @@ public class Tienda implements ITienda {
      */
     @Override
     public Boolean realizarVenta(Venta venta) {
-        inventarioProductos = obtenerProductosConInventarioBajo();
         return agregarVentaAlHistorico(venta);
     }
 
     /**
-     * Agrega una venta al historial de ventas.
+     * Realiza un lote de ventas en una sola pasada. Primero se valida que el inventario alcance
+     * para todo el lote; si no alcanza no se aplica ninguna venta. Luego se descuenta una sola vez
+     * la cantidad total de cada producto y las ventas se agregan en bloque al historial y a los índices.
+     *
+     * @param ventas Las ventas a realizar.
+     * @return La cantidad de ventas realizadas.
+     * @throws InventarioInsuficienteException Si algún producto no tiene unidades disponibles suficientes para el lote.
+     */
+    @Override
+    public int realizarVentas(List<Venta> ventas) throws InventarioInsuficienteException {
+        List<DetalleVenta> detallesVenta = new ArrayList<>();
+        for (Venta venta : ventas) {
+            detallesVenta.addAll(venta.getDetallesVenta());
+        }
+        MapaObjetoEntero<String> cantidades = ReservaInventario.agruparCantidades(detallesVenta);
+        for (int i = 0; i < cantidades.tamanio(); i++) {
+            if (inventarioDisponible(cantidades.clave(i)) < cantidades.valor(i)) {
+                throw new InventarioInsuficienteException("No hay inventario suficiente del producto " + cantidades.clave(i));
+            }
+        }
+
+        for (int i = 0; i < cantidades.tamanio(); i++) {
+            descontarInventario(cantidades.clave(i), null, cantidades.valor(i));
+        }
+
+        List<Venta> ordenadas = new ArrayList<>(ventas);
+        ordenadas.sort(Comparator.comparing(Venta::getFecha));
+        HashMap<String, List<Venta>> ordenadasPorCliente = new HashMap<>();
+        for (Venta venta : ordenadas) {
+            indiceVentas.putIfAbsent(venta.getCodigo(), venta);
+            if (venta.getCliente() != null) {
+                ordenadasPorCliente.computeIfAbsent(venta.getCliente().getNumIdentificacion(), id -> new ArrayList<>()).add(venta);
+            }
+        }
+        agregarOrdenadas(historicoVentas, ordenadas);
+        for (Venta venta : ventas) {
+            registrarProductosVendidos(venta);
+            cambiosVentas.publicarAgregado(venta);
+        }
+        for (Map.Entry<String, List<Venta>> ventasCliente : ordenadasPorCliente.entrySet()) {
+            agregarOrdenadas(ventasPorCliente.computeIfAbsent(ventasCliente.getKey(), id -> new ArrayList<>()), ventasCliente.getValue());
+        }
+        return ventas.size();
+    }
+
+    /**
+     * Agrega una venta al historial de ventas y la registra en el índice por código.
+     * El historial se mantiene ordenado por fecha: la venta se inserta después de todas
+     * las ventas con la misma fecha o anterior, por lo que las ventas del día se agregan al final.
      *
      * @param venta La venta a agregar.
      * @return true si la venta se agregó correctamente al historial, false de lo contrario.
      */
     @Override
     public boolean agregarVentaAlHistorico(Venta venta) {
-        return historicoVentas.add(venta);
+        historicoVentas.add(posicionInsercion(historicoVentas, venta.getFecha()), venta);
+        indiceVentas.putIfAbsent(venta.getCodigo(), venta);
+        if (venta.getCliente() != null) {
+            ArrayList<Venta> ventasCliente = ventasPorCliente.computeIfAbsent(venta.getCliente().getNumIdentificacion(), id -> new ArrayList<>());
+            ventasCliente.add(posicionInsercion(ventasCliente, venta.getFecha()), venta);
+        }
+        registrarProductosVendidos(venta);
+        cambiosVentas.publicarAgregado(venta);
+        return true;
     }
 
     /**
      * Obtiene el historial de ventas ordenado por fecha en orden descendente.
+     * Devuelve una vista de solo lectura del historial en orden inverso, sin copiarlo ni reordenarlo.
+     * La vista sigue al historial, así que quien la lee debe impedir que se agreguen ventas mientras
+     * la usa (el controlador la lee con el bloqueo de escritura); para mostrar el historial se usa
+     * {@link #obtenerPaginaHistoricoVentas(int, int)}.
      *
      * @return La lista de ventas del historial, ordenada por fecha de manera descendente.
      */
     @Override
     public List<Venta> obtenerHistoricoVentas() {
-        return getHistoricoVentas().stream().sorted().toList().reversed();
+        return Collections.unmodifiableList(historicoVentas).reversed();
     }
 
+    /**
+     * Obtiene una página del historial de ventas en el mismo orden de {@link #obtenerHistoricoVentas()}.
+     * Solo se copian las ventas de la página, leyéndolas por posición en el historial.
+     *
+     * @param inicio   La posición de la primera venta, empezando por la más reciente.
+     * @param cantidad La cantidad máxima de ventas.
+     * @return Las ventas de la página; vacía si el inicio está después del final del historial.
+     */
+    @Override
+    public List<Venta> obtenerPaginaHistoricoVentas(int inicio, int cantidad) {
+        int total = historicoVentas.size();
+        int fin = Math.min(total, inicio + cantidad);
+        List<Venta> pagina = new ArrayList<>(Math.max(0, fin - inicio));
+        for (int i = inicio; i < fin; i++) {
+            pagina.add(historicoVentas.get(total - 1 - i));
+        }
+        return pagina;
+    }
+
+    /**
+     * Obtiene la cantidad de ventas del historial.
+     *
+     * @return La cantidad de ventas.
+     */
+    @Override
+    public int contarVentas() {
+        return historicoVentas.size();
+    }
+
+    /**
+     * Recorre el historial de ventas por fecha en orden ascendente, sin copiarlo.
+     * Quien lo invoca debe impedir que se agreguen ventas durante el recorrido.
+     *
+     * @param accion La acción a aplicar a cada venta.
+     */
+    @Override
+    public void recorrerHistoricoVentas(Consumer<? super Venta> accion) {
+        historicoVentas.forEach(accion);
+    }
 
     /**
-     * Busca una venta en el historial de ventas por su código.
+     * Calcula la posición en la que se debe insertar una venta con la fecha dada para que
+     * la lista siga ordenada por fecha. Si la fecha no es anterior a la última venta, la
+     * posición es el final de la lista; en otro caso se hace una búsqueda binaria.
+     *
+     * @param ventas La lista de ventas ordenada por fecha de manera ascendente.
+     * @param fecha  La fecha de la venta a insertar.
+     * @return El índice del primer elemento con fecha posterior a la dada.
+     */
+    private int posicionInsercion(List<Venta> ventas, LocalDate fecha) {
+        int fin = ventas.size();
+        if (fin == 0 || !ventas.get(fin - 1).getFecha().isAfter(fecha)) {
+            return fin;
+        }
+        return buscarLimite(ventas, fecha, true);
+    }
+
+    /**
+     * Agrega un bloque de ventas ordenado por fecha a una lista también ordenada por fecha.
+     * Si el bloque es posterior a la última venta se agrega al final; en otro caso las dos
+     * listas se mezclan desde el final en una sola pasada. A igual fecha, las ventas existentes
+     * quedan antes que las nuevas.
+     *
+     * @param ventas  La lista de ventas ordenada por fecha de manera ascendente.
+     * @param nuevas  Las ventas a agregar, ordenadas por fecha de manera ascendente.
+     */
+    private void agregarOrdenadas(ArrayList<Venta> ventas, List<Venta> nuevas) {
+        if (nuevas.isEmpty()) {
+            return;
+        }
+        int existentes = ventas.size();
+        if (existentes == 0 || !ventas.get(existentes - 1).getFecha().isAfter(nuevas.get(0).getFecha())) {
+            ventas.addAll(nuevas);
+            return;
+        }
+        ventas.addAll(nuevas);
+        int i = existentes - 1;
+        int j = nuevas.size() - 1;
+        int k = ventas.size() - 1;
+        while (j >= 0) {
+            if (i >= 0 && ventas.get(i).getFecha().isAfter(nuevas.get(j).getFecha())) {
+                ventas.set(k--, ventas.get(i--));
+            } else {
+                ventas.set(k--, nuevas.get(j--));
+            }
+        }
+    }
+
+    /**
+     * Obtiene la porción de una lista ordenada por fecha comprendida entre dos fechas, ambas incluidas.
+     *
+     * @param ventas La lista de ventas ordenada por fecha de manera ascendente.
+     * @param desde  La fecha inicial del periodo.
+     * @param hasta  La fecha final del periodo.
+     * @return Una vista de solo lectura con las ventas del periodo.
+     */
+    private List<Venta> obtenerRango(List<Venta> ventas, LocalDate desde, LocalDate hasta) {
+        if (desde.isAfter(hasta)) {
+            return Collections.emptyList();
+        }
+        int inicio = buscarLimite(ventas, desde, false);
+        int fin = buscarLimite(ventas, hasta, true);
+        return Collections.unmodifiableList(ventas.subList(inicio, fin));
+    }
+
+    /**
+     * Busca mediante búsqueda binaria el límite de una fecha en una lista ordenada por fecha.
+     *
+     * @param ventas          La lista de ventas ordenada por fecha de manera ascendente.
+     * @param fecha           La fecha a buscar.
+     * @param incluirIguales  true para obtener el índice del primer elemento con fecha posterior,
+     *                        false para obtener el índice del primer elemento con fecha igual o posterior.
+     * @return El índice del límite encontrado.
+     */
+    private int buscarLimite(List<Venta> ventas, LocalDate fecha, boolean incluirIguales) {
+        int inicio = 0;
+        int fin = ventas.size();
+        while (inicio < fin) {
+            int medio = (inicio + fin) >>> 1;
+            int comparacion = ventas.get(medio).getFecha().compareTo(fecha);
+            if (comparacion > 0 || (comparacion == 0 && !incluirIguales)) {
+                fin = medio;
+            } else {
+                inicio = medio + 1;
+            }
+        }
+        return inicio;
+    }
+
+
+    /**
+     * Busca una venta en el historial de ventas por su código usando el índice de ventas.
      *
      * @param codigo El código de la venta a buscar.
      * @return La venta encontrada, o null si no se encuentra ninguna venta con el código especificado.
      */
+    @Override
     public Venta buscarVenta(String codigo) {
-        return (Venta) historicoVentas.stream()
-                .filter(venta -> venta.getCodigo().equals(codigo))
-                .findFirst()
-                .orElse(null);
+        return indiceVentas.get(codigo);
+    }
+
+    /**
+     * Obtiene los productos más vendidos según las unidades de las ventas registradas. La consulta
+     * usa un contador de memoria acotada, por lo que no recorre el historial; las unidades de cada
+     * producto pueden estar sobrestimadas a lo sumo en el error que se reporta con ellas.
+     *
+     * @param cantidad La cantidad máxima de productos a devolver.
+     * @return Los códigos de los productos con sus unidades estimadas, de mayor a menor.
+     */
+    @Override
+    public List<ContadorFrecuentes.Frecuencia<String>> obtenerProductosFrecuentes(int cantidad) {
+        return productosFrecuentes.obtenerMasFrecuentes(cantidad);
+    }
+
+    /**
+     * Busca productos por nombre en el índice de texto, sin importar tildes, mayúsculas ni
+     * pequeños errores de digitación. Solo se consulta el índice, que admite consultas desde otros
+     * hilos; los productos se obtienen después con {@link #obtenerProducto(String)}.
+     *
+     * @param texto  El nombre o parte del nombre buscado.
+     * @param limite La cantidad máxima de productos a devolver.
+     * @return Los códigos de los productos encontrados, del más al menos parecido.
+     */
+    @Override
+    public List<String> buscarCodigosPorNombre(String texto, int limite) {
+        return indiceNombres.buscar(texto, limite);
+    }
+
+    /**
+     * Registra las unidades vendidas de cada producto de una venta en el contador de productos frecuentes.
+     *
+     * @param venta La venta registrada.
+     */
+    private void registrarProductosVendidos(Venta venta) {
+        for (DetalleVenta detalle : venta.getDetallesVenta()) {
+            if (detalle.getProducto() != null) {
+                productosFrecuentes.agregar(detalle.getProducto().getCodigo(), detalle.getCantidad());
+            }
+        }
     }
 
 
@@ -255,12 +595,72 @@ public class Tienda implements ITienda {
 
     /**
      * Obtiene un conjunto ordenado de productos con inventario bajo.
+     * El índice de inventario se mantiene actualizado en cada cambio de existencias,
+     * por lo que no se reconstruye en cada llamada; se entrega una vista de solo lectura para que
+     * nadie lo desordene desde afuera.
+     *
+     * @return Una vista ordenada y de solo lectura de los productos con inventario bajo.
+     */
+    @Override
+    public SortedSet<Producto> obtenerProductosConInventarioBajo() {
+        return Collections.unmodifiableSortedSet(inventarioProductos);
+    }
+
+    /**
+     * Obtiene los productos cuya cantidad en inventario es menor al umbral indicado,
+     * ordenados de menor a mayor inventario.
+     *
+     * @param umbral La cantidad mínima de inventario que se considera suficiente.
+     * @return Una vista ordenada de los productos con inventario menor al umbral.
+     */
+    @Override
+    public SortedSet<Producto> obtenerProductosInventarioMenorA(int umbral) {
+        return Collections.unmodifiableSortedSet(inventarioProductos.headSet(new Producto("", "", 0, umbral), false));
+    }
+
+    /**
+     * Obtiene una página de los productos en el orden de {@link #obtenerProductosConInventarioBajo()}.
+     * Se recorre el índice de inventario hasta la página y solo se copian sus referencias.
+     *
+     * @param inicio   La posición del primer producto.
+     * @param cantidad La cantidad máxima de productos.
+     * @return Los productos de la página; vacía si el inicio está después del último producto.
+     */
+    @Override
+    public List<Producto> obtenerPaginaProductos(int inicio, int cantidad) {
+        List<Producto> pagina = new ArrayList<>(cantidad);
+        Iterator<Producto> productos = inventarioProductos.iterator();
+        for (int i = 0; i < inicio && productos.hasNext(); i++) {
+            productos.next();
+        }
+        while (pagina.size() < cantidad && productos.hasNext()) {
+            pagina.add(productos.next());
+        }
+        return pagina;
+    }
+
+    /**
+     * Obtiene la cantidad de productos de la tienda.
      *
-     * @return Un conjunto ordenado de productos con inventario bajo.
+     * @return La cantidad de productos.
      */
     @Override
-    public TreeSet<Producto> obtenerProductosConInventarioBajo() {
-        return new TreeSet<>(listProductos.values());
+    public int contarProductos() {
+        return listProductos.size();
+    }
+
+    /**
+     * Reemplaza los productos de la tienda y reconstruye los índices de inventario y de nombres.
+     *
+     * @param listProductos Los productos indexados por código.
+     */
+    public void setListProductos(HashMap<String, Producto> listProductos) {
+        this.listProductos = listProductos;
+        this.inventarioProductos = new TreeSet<>(listProductos.values());
+        indiceNombres.limpiar();
+        for (Producto producto : listProductos.values()) {
+            indiceNombres.actualizar(producto.getCodigo(), producto.getNombre());
+        }
     }
 
     /**
@@ -268,6 +668,7 @@ public class Tienda implements ITienda {
      *
      * @return Una lista de nombres de clientes disponibles para selección.
      */
+    @Override
     public List<String> obtenerClientes() {
         List<Cliente> listClientes = new ArrayList<>(getListClientes().values());
         List<String> list = new ArrayList<>();
@@ -284,42 +685,68 @@ public class Tienda implements ITienda {
      * @param codigoProducto El código del producto a obtener.
      * @return El producto correspondiente al código especificado, o null si no se encuentra.
      */
+    @Override
     public Producto obtenerProducto(String codigoProducto) {
-        List<Producto> list = new ArrayList<>(listProductos.values());
-
-        for(Producto producto: list){
-            if (producto.getCodigo().equals(codigoProducto)){
-                return producto;
-            }
-        }
+        return listProductos.get(codigoProducto);
+    }
 
-        return null;
+    /**
+     * Recorre todos los productos de la tienda, sin copiarlos y sin un orden definido.
+     * Quien lo invoca debe impedir que se agreguen o eliminen productos durante el recorrido.
+     *
+     * @param accion La acción a aplicar a cada producto.
+     */
+    @Override
+    public void recorrerProductos(Consumer<? super Producto> accion) {
+        listProductos.values().forEach(accion);
     }
 
     /**
-     * Agrega un producto al carrito de compras con la cantidad especificada.
+     * Agrega un producto al carrito de compras de una sesión con la cantidad especificada.
      *
+     * @param idSesion       El identificador de la sesión o terminal.
      * @param codigoProducto El código del producto a agregar al carrito.
      * @param cantidad       La cantidad del producto a agregar al carrito.
      */
-    public void agregarProductoCarrito(String codigoProducto, int cantidad) {
-        productosCarrito.put(codigoProducto,cantidad);
+    @Override
+    public void agregarProductoCarrito(String idSesion, String codigoProducto, int cantidad) {
+        carritos.obtenerCarrito(idSesion).agregarProducto(codigoProducto, cantidad);
     }
 
     /**
-     * Obtiene el contenido actual del carrito de compras.
+     * Obtiene el contenido actual del carrito de compras de una sesión.
      *
-     * @return Un mapa que contiene los productos en el carrito y sus cantidades.
+     * @param idSesion El identificador de la sesión o terminal.
+     * @return El carrito de la sesión, con los productos y sus cantidades.
      */
-    public HashMap<String,Integer> obtenerCarrito() {
-        return productosCarrito;
+    @Override
+    public CarritoCompras obtenerCarrito(String idSesion) {
+        return carritos.obtenerCarrito(idSesion);
     }
 
     /**
-     * Vacía el contenido del carrito de compras.
+     * Obtiene una copia del contenido de los carritos abiertos de todas las sesiones.
+     *
+     * @return Un mapa con los productos y cantidades del carrito de cada sesión.
      */
-    public void vaciarCarrito() {
-        productosCarrito.clear();
+    @Override
+    public Map<String, MapaObjetoEntero<String>> obtenerCarritos() {
+        Map<String, MapaObjetoEntero<String>> copia = new HashMap<>();
+        carritos.obtenerCarritos().forEach((idSesion, carrito) -> copia.put(idSesion, carrito.copiarProductos()));
+        return copia;
+    }
+
+    /**
+     * Vacía el contenido del carrito de compras de una sesión y lo retira del registro.
+     *
+     * @param idSesion El identificador de la sesión o terminal.
+     */
+    @Override
+    public void vaciarCarrito(String idSesion) {
+        CarritoCompras carrito = carritos.eliminarCarrito(idSesion);
+        if (carrito != null) {
+            carrito.limpiar();
+        }
     }
 
     /**
@@ -327,13 +754,107 @@ public class Tienda implements ITienda {
      *
      * @param detallesVenta Los detalles de la venta que afectarán al inventario.
      */
+    @Override
     public void actualizarInventario(List<DetalleVenta> detallesVenta) {
         for (DetalleVenta detalleVenta: detallesVenta){
-            Producto producto = detalleVenta.getProducto();
-            int cantidadVendida = detalleVenta.getCantidad();
-            int cantidadActual = producto.getCantidadInventario();
-            producto.setCantidadInventario(cantidadActual - cantidadVendida);
+            if (detalleVenta.getProducto() == null) {
+                continue;
+            }
+            descontarInventario(detalleVenta.getProducto().getCodigo(), detalleVenta.getProducto(), detalleVenta.getCantidad());
+        }
+    }
+
+    /**
+     * Descuenta unidades del inventario de un producto, manteniendo actualizado el índice de inventario.
+     *
+     * @param codigo        El código del producto.
+     * @param productoVenta El producto de la venta, que se actualiza si el código no está en la tienda; puede ser null.
+     * @param cantidad      Las unidades a descontar.
+     */
+    protected void descontarInventario(String codigo, Producto productoVenta, int cantidad) {
+        Producto producto = listProductos.getOrDefault(codigo, productoVenta);
+        if (producto == null) {
+            return;
+        }
+        boolean indexado = inventarioProductos.remove(producto);
+        producto.setCantidadInventario(producto.getCantidadInventario() - cantidad);
+        if (indexado) {
+            inventarioProductos.add(producto);
+            cambiosProductos.publicarActualizado(producto);
+        }
+    }
+
+    /**
+     * Obtiene las unidades de un producto que no están reservadas.
+     *
+     * @param codigo El código del producto.
+     * @return Las unidades disponibles, o 0 si el producto no existe.
+     */
+    protected int inventarioDisponible(String codigo) {
+        Producto producto = listProductos.get(codigo);
+        return producto == null ? 0 : producto.getCantidadInventario() - inventarioReservado.obtener(codigo, 0);
+    }
+
+    /**
+     * Reserva el inventario de todos los detalles de una venta. Si algún producto no tiene
+     * unidades disponibles suficientes no se reserva nada.
+     *
+     * @param detallesVenta Los detalles de la venta a reservar.
+     * @return La reserva creada.
+     * @throws InventarioInsuficienteException Si algún producto no tiene unidades disponibles suficientes.
+     */
+    @Override
+    public ReservaInventario reservarInventario(List<DetalleVenta> detallesVenta) throws InventarioInsuficienteException {
+        ReservaInventario reserva = new ReservaInventario(detallesVenta);
+        MapaObjetoEntero<String> cantidades = reserva.getCantidadesPorProducto();
+        for (int i = 0; i < cantidades.tamanio(); i++) {
+            if (inventarioDisponible(cantidades.clave(i)) < cantidades.valor(i)) {
+                throw new InventarioInsuficienteException("No hay inventario suficiente del producto " + cantidades.clave(i));
+            }
+        }
+        for (int i = 0; i < cantidades.tamanio(); i++) {
+            inventarioReservado.sumar(cantidades.clave(i), cantidades.valor(i));
+        }
+        return reserva;
+    }
+
+    /**
+     * Confirma una reserva descontando del inventario las unidades reservadas.
+     *
+     * @param reserva La reserva a confirmar.
+     */
+    @Override
+    public void confirmarReserva(ReservaInventario reserva) {
+        if (reserva.finalizar()) {
+            devolverReservado(reserva);
+            actualizarInventario(reserva.getDetallesVenta());
+        }
+    }
+
+    /**
+     * Libera una reserva devolviendo las unidades reservadas al inventario disponible.
+     *
+     * @param reserva La reserva a liberar.
+     */
+    @Override
+    public void liberarReserva(ReservaInventario reserva) {
+        if (reserva.finalizar()) {
+            devolverReservado(reserva);
+        }
+    }
+
+    /**
+     * Descuenta las cantidades de una reserva del inventario reservado.
+     *
+     * @param reserva La reserva finalizada.
+     */
+    private void devolverReservado(ReservaInventario reserva) {
+        MapaObjetoEntero<String> cantidades = reserva.getCantidadesPorProducto();
+        for (int i = 0; i < cantidades.tamanio(); i++) {
+            if (inventarioReservado.sumar(cantidades.clave(i), -cantidades.valor(i)) <= 0) {
+                inventarioReservado.eliminar(cantidades.clave(i));
+            }
         }
     }
 
-}
+}
\ No newline at end of file
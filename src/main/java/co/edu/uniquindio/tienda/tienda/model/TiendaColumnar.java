@@ -0,0 +1,278 @@
+package co.edu.uniquindio.tienda.tienda.model;
+
+
+import co.edu.uniquindio.tienda.tienda.exception.ProductoException;
+import co.edu.uniquindio.tienda.tienda.exception.ProductoNoEncontradoException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+
+/**
+ * Tienda para catálogos muy grandes. Los productos se guardan en un {@link InventarioColumnar}
+ * en lugar de un mapa de objetos {@link Producto}; los clientes, el historial de ventas, los
+ * carritos y las reservas se manejan igual que en {@link Tienda}.
+ * <p>
+ * Los productos que devuelve esta tienda son copias creadas al consultarlos: para cambiar un
+ * producto se usa {@link #editarProducto(Producto, Producto)} y para cambiar su inventario,
+ * las operaciones de venta.
+ */
+@SuppressWarnings("ALL")
+public class TiendaColumnar extends Tienda {
+
+    private final InventarioColumnar inventario;
+
+    public TiendaColumnar() {
+        this.inventario = new InventarioColumnar();
+    }
+
+    /*
+    -----------------------------------------------------------------------------------------------------------
+    ----------------------------METODOS GESTIONAR PRODUCTOS----------------------------------------------------
+    */
+
+    /**
+     * Agrega un producto al inventario.
+     *
+     * @param producto El producto a agregar.
+     * @return true si el producto se agregó correctamente.
+     * @throws ProductoException Si el código del producto ya se encuentra registrado en el inventario.
+     */
+    @Override
+    public Boolean agregarProducto(Producto producto) throws ProductoException {
+        if (inventario.agregar(producto) < 0) {
+            throw new ProductoException("El codigo del producto ya se encuentra registrado");
+        }
+        getIndiceNombres().actualizar(producto.getCodigo(), producto.getNombre());
+        getCambiosProductos().publicarAgregado(producto);
+        return true;
+    }
+
+    /**
+     * Elimina un producto del inventario.
+     *
+     * @param codigoProducto El código del producto a eliminar.
+     * @return true si el producto se eliminó correctamente.
+     * @throws ProductoNoEncontradoException Si el producto con el código especificado no existe en el inventario.
+     */
+    @Override
+    public Boolean eliminarProducto(String codigoProducto) throws ProductoNoEncontradoException {
+        Producto producto = getCambiosProductos().hayObservadores() ? inventario.obtener(codigoProducto) : null;
+        if (!inventario.eliminar(codigoProducto)) {
+            throw new ProductoNoEncontradoException("El producto con el código " + codigoProducto + " no existe en el inventario.");
+        }
+        getIndiceNombres().eliminar(codigoProducto);
+        if (producto != null) {
+            getCambiosProductos().publicarEliminado(producto);
+        }
+        return true;
+    }
+
+    /**
+     * Busca un producto en el inventario según su código.
+     *
+     * @param codigoProducto El código del producto a buscar.
+     * @return Una copia del producto encontrado.
+     * @throws ProductoNoEncontradoException Si el producto con el código especificado no existe en el inventario.
+     */
+    @Override
+    public Producto buscarProducto(String codigoProducto) throws ProductoNoEncontradoException {
+        Producto producto = inventario.obtener(codigoProducto);
+        if (producto == null) {
+            throw new ProductoNoEncontradoException("El producto con el código " + codigoProducto + " no existe en el inventario.");
+        }
+        return producto;
+    }
+
+    /**
+     * Edita un producto en el inventario.
+     *
+     * @param producto             El nuevo producto con los datos actualizados.
+     * @param productoSeleccionado El producto a editar.
+     * @return true si el producto se editó correctamente.
+     * @throws ProductoException Si el producto no existe o su código nuevo ya está registrado.
+     */
+    @Override
+    public boolean editarProducto(Producto producto, Producto productoSeleccionado) throws ProductoException {
+        if (!inventario.reemplazar(productoSeleccionado.getCodigo(), producto)) {
+            throw new ProductoException("Error al actualizar el producto");
+        }
+        if (!producto.getCodigo().equals(productoSeleccionado.getCodigo())) {
+            getIndiceNombres().eliminar(productoSeleccionado.getCodigo());
+        }
+        getIndiceNombres().actualizar(producto.getCodigo(), producto.getNombre());
+        getCambiosProductos().publicarActualizado(producto, productoSeleccionado);
+        return true;
+    }
+
+    /**
+     * Obtiene un producto por su código.
+     *
+     * @param codigoProducto El código del producto a obtener.
+     * @return Una copia del producto, o null si no se encuentra.
+     */
+    @Override
+    public Producto obtenerProducto(String codigoProducto) {
+        return inventario.obtener(codigoProducto);
+    }
+
+    /**
+     * Recorre todos los productos en el orden de las columnas. Cada producto es una copia que se
+     * crea al visitarlo, así que nunca hay más de una a la vez.
+     *
+     * @param accion La acción a aplicar a cada producto.
+     */
+    @Override
+    public void recorrerProductos(Consumer<? super Producto> accion) {
+        for (int i = 0; i < inventario.getTamanio(); i++) {
+            accion.accept(inventario.obtener(i));
+        }
+    }
+
+    /**
+     * Aplica un lote de cambios de productos directamente sobre las columnas del inventario.
+     *
+     * @param cambios Los cambios a aplicar.
+     * @param resumen El resumen en el que se cuentan los productos creados, actualizados y rechazados.
+     */
+    @Override
+    public void aplicarCambiosProductos(List<CambioProducto> cambios, ResumenImportacion resumen) {
+        for (CambioProducto cambio : cambios) {
+            int posicion = inventario.posicion(cambio.getCodigo());
+            if (posicion < 0) {
+                if (!cambio.estaCompleto()) {
+                    resumen.registrarRechazado("Producto " + cambio.getCodigo() + ": faltan datos para crearlo");
+                    continue;
+                }
+                Producto producto = cambio.crearProducto();
+                inventario.agregar(producto);
+                getIndiceNombres().actualizar(producto.getCodigo(), producto.getNombre());
+                getCambiosProductos().publicarAgregado(producto);
+                resumen.registrarInsertado();
+                continue;
+            }
+            if (cambio.getNombre() != null || cambio.getPrecio() != null) {
+                Producto producto = inventario.obtener(posicion);
+                cambio.aplicarDatos(producto);
+                inventario.reemplazar(producto.getCodigo(), producto);
+                getIndiceNombres().actualizar(producto.getCodigo(), producto.getNombre());
+            }
+            if (cambio.getCantidadInventario() != null) {
+                inventario.setCantidadInventario(posicion, cambio.getCantidadInventario());
+            }
+            publicarActualizado(posicion);
+            resumen.registrarActualizado();
+        }
+    }
+
+    /*
+    -----------------------------------------------------------------------------------------------------------
+    ----------------------------INVENTARIO---------------------------------------------------------------------
+    */
+
+    /**
+     * Obtiene todos los productos ordenados de menor a mayor inventario. Las copias se crean en
+     * cada llamada, por lo que conviene usar {@link #obtenerProductosInventarioMenorA(int)} cuando
+     * solo interesan los productos con poco inventario.
+     *
+     * @return Un conjunto ordenado con copias de todos los productos.
+     */
+    @Override
+    public TreeSet<Producto> obtenerProductosConInventarioBajo() {
+        TreeSet<Producto> productos = new TreeSet<>();
+        for (int i = 0; i < inventario.getTamanio(); i++) {
+            productos.add(inventario.obtener(i));
+        }
+        return productos;
+    }
+
+    /**
+     * Obtiene los productos cuya cantidad en inventario es menor al umbral indicado. Solo se
+     * recorre la columna de inventario y se crean copias de los productos encontrados.
+     *
+     * @param umbral La cantidad mínima de inventario que se considera suficiente.
+     * @return Los productos con inventario menor al umbral, ordenados de menor a mayor inventario.
+     */
+    @Override
+    public SortedSet<Producto> obtenerProductosInventarioMenorA(int umbral) {
+        TreeSet<Producto> productos = new TreeSet<>();
+        for (int posicion : inventario.posicionesInventarioMenorA(umbral)) {
+            productos.add(inventario.obtener(posicion));
+        }
+        return Collections.unmodifiableSortedSet(productos);
+    }
+
+    /**
+     * Obtiene una página de los productos en el orden de las columnas. Solo se crean copias de los
+     * productos de la página, leyéndolos por posición.
+     *
+     * @param inicio   La posición del primer producto.
+     * @param cantidad La cantidad máxima de productos.
+     * @return Los productos de la página; vacía si el inicio está después del último producto.
+     */
+    @Override
+    public List<Producto> obtenerPaginaProductos(int inicio, int cantidad) {
+        int fin = Math.min(inventario.getTamanio(), inicio + cantidad);
+        List<Producto> pagina = new ArrayList<>(Math.max(0, fin - inicio));
+        for (int i = inicio; i < fin; i++) {
+            pagina.add(inventario.obtener(i));
+        }
+        return pagina;
+    }
+
+    @Override
+    public int contarProductos() {
+        return inventario.getTamanio();
+    }
+
+    /**
+     * Reemplaza los productos de la tienda.
+     *
+     * @param listProductos Los productos indexados por código.
+     */
+    @Override
+    public void setListProductos(HashMap<String, Producto> listProductos) {
+        for (int i = inventario.getTamanio() - 1; i >= 0; i--) {
+            inventario.eliminar(inventario.obtener(i).getCodigo());
+        }
+        getIndiceNombres().limpiar();
+        for (Producto producto : listProductos.values()) {
+            inventario.agregar(producto);
+            getIndiceNombres().actualizar(producto.getCodigo(), producto.getNombre());
+        }
+    }
+
+    @Override
+    protected void descontarInventario(String codigo, Producto productoVenta, int cantidad) {
+        int posicion = inventario.posicion(codigo);
+        if (posicion < 0) {
+            if (productoVenta != null) {
+                productoVenta.setCantidadInventario(productoVenta.getCantidadInventario() - cantidad);
+            }
+            return;
+        }
+        inventario.setCantidadInventario(posicion, inventario.getCantidadInventario(posicion) - cantidad);
+        publicarActualizado(posicion);
+    }
+
+    /**
+     * Notifica la actualización de un producto. La copia del producto solo se crea si hay observadores.
+     *
+     * @param posicion La posición del producto en el inventario.
+     */
+    private void publicarActualizado(int posicion) {
+        if (getCambiosProductos().hayObservadores()) {
+            getCambiosProductos().publicarActualizado(inventario.obtener(posicion));
+        }
+    }
+
+    @Override
+    protected int inventarioDisponible(String codigo) {
+        int posicion = inventario.posicion(codigo);
+        return posicion < 0 ? 0 : inventario.getCantidadInventario(posicion) - getInventarioReservado().obtener(codigo, 0);
+    }
+}
@@ -0,0 +1,977 @@
+package co.edu.uniquindio.tienda.tienda.model;
+
+
+import co.edu.uniquindio.tienda.tienda.exception.ClienteException;
+import co.edu.uniquindio.tienda.tienda.exception.ClienteNoEncontradoException;
+import co.edu.uniquindio.tienda.tienda.exception.InventarioInsuficienteException;
+import co.edu.uniquindio.tienda.tienda.exception.ProductoException;
+import co.edu.uniquindio.tienda.tienda.exception.ProductoNoEncontradoException;
+import co.edu.uniquindio.tienda.tienda.model.services.ITienda;
+import co.edu.uniquindio.tienda.tienda.util.ContadorFrecuentes;
+import co.edu.uniquindio.tienda.tienda.util.IndiceTexto;
+import co.edu.uniquindio.tienda.tienda.util.MapaObjetoEntero;
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Implementación de {@link ITienda} segura para ser compartida por varias terminales de venta.
+ * Los productos, clientes y el carrito se guardan en mapas concurrentes; los cambios de inventario
+ * de un producto se serializan con un bloqueo por franjas según su código, de modo que las ventas
+ * de productos distintos no se bloquean entre sí. El historial de ventas se guarda en un mapa
+ * concurrente ordenado por fecha, donde cada día es una cola sin bloqueos.
+ * Cada producto tiene además un contador atómico de unidades disponibles para reservar, que
+ * permite apartar el inventario de una venta con operaciones de comparar e intercambiar.
+ */
+@SuppressWarnings("ALL")
+@Getter
+public class TiendaConcurrente implements ITienda {
+
+    private final String nombre = "Tienda de la abuela";
+    private final String direccion = "mi casa";
+    private final String nit = "1010";
+
+    private final ConcurrentHashMap<String, Producto> listProductos;
+    private final ConcurrentHashMap<String, Cliente> listClientes;
+    private final RegistroCarritos carritos;
+    private final ConcurrentSkipListMap<LocalDate, ConcurrentLinkedDeque<Venta>> historicoVentas;
+    private final ConcurrentHashMap<LocalDate, AtomicInteger> cantidadVentasDia;
+    private final AtomicInteger cantidadVentas;
+    private final ConcurrentHashMap<String, Venta> indiceVentas;
+    private final ConcurrentHashMap<String, ConcurrentSkipListMap<LocalDate, ConcurrentLinkedDeque<Venta>>> ventasPorCliente;
+    private final ConcurrentSkipListSet<Producto> inventarioProductos;
+    private final ConcurrentHashMap<String, AtomicInteger> inventarioDisponible;
+    private final ReentrantLock[] bloqueosProductos;
+    private final ContadorFrecuentes<String> productosFrecuentes;
+    private final IndiceTexto<String> indiceNombres;
+    private final ObservadoresCambios<Producto> cambiosProductos;
+    private final ObservadoresCambios<Cliente> cambiosClientes;
+    private final ObservadoresCambios<Venta> cambiosVentas;
+
+    public TiendaConcurrente() {
+        this.listProductos = new ConcurrentHashMap<>();
+        this.listClientes = new ConcurrentHashMap<>();
+        this.carritos = new RegistroCarritos();
+        this.historicoVentas = new ConcurrentSkipListMap<>();
+        this.cantidadVentasDia = new ConcurrentHashMap<>();
+        this.cantidadVentas = new AtomicInteger();
+        this.indiceVentas = new ConcurrentHashMap<>();
+        this.ventasPorCliente = new ConcurrentHashMap<>();
+        this.inventarioProductos = new ConcurrentSkipListSet<>();
+        this.inventarioDisponible = new ConcurrentHashMap<>();
+        this.bloqueosProductos = crearBloqueos(Runtime.getRuntime().availableProcessors() * 4);
+        this.productosFrecuentes = new ContadorFrecuentes<>(PRODUCTOS_FRECUENTES_VIGILADOS, Runtime.getRuntime().availableProcessors());
+        this.indiceNombres = new IndiceTexto<>();
+        this.cambiosProductos = new ObservadoresCambios<>();
+        this.cambiosClientes = new ObservadoresCambios<>();
+        this.cambiosVentas = new ObservadoresCambios<>();
+    }
+
+
+
+    /*
+    -----------------------------------------------------------------------------------------------------------
+    ----------------------------METODOS GESTIONAR PRODUCTOS----------------------------------------------------
+    */
+
+    /**
+     * Agrega un producto al inventario.
+     *
+     * @param producto El producto a agregar.
+     * @return true si el producto se agregó correctamente, false de lo contrario.
+     * @throws ProductoException Si el código del producto ya se encuentra registrado en el inventario.
+     */
+    @Override
+    public Boolean agregarProducto(Producto producto) throws ProductoException {
+        ReentrantLock bloqueo = bloqueoProducto(producto.getCodigo());
+        bloqueo.lock();
+        try {
+            if (listProductos.putIfAbsent(producto.getCodigo(), producto) != null) {
+                throw new ProductoException("El codigo del producto ya se encuentra registrado");
+            }
+            inventarioProductos.add(producto);
+            inventarioDisponible.put(producto.getCodigo(), new AtomicInteger(producto.getCantidadInventario()));
+            indiceNombres.actualizar(producto.getCodigo(), producto.getNombre());
+            cambiosProductos.publicarAgregado(producto);
+            return true;
+        } finally {
+            bloqueo.unlock();
+        }
+    }
+
+    /**
+     * Elimina un producto del inventario.
+     *
+     * @param codigoProducto El código del producto a eliminar.
+     * @return true si el producto se eliminó correctamente, false de lo contrario.
+     * @throws ProductoNoEncontradoException Si el producto con el código especificado no existe en el inventario.
+     */
+    @Override
+    public Boolean eliminarProducto(String codigoProducto) throws ProductoNoEncontradoException {
+        ReentrantLock bloqueo = bloqueoProducto(codigoProducto);
+        bloqueo.lock();
+        try {
+            Producto producto = listProductos.remove(codigoProducto);
+            if (producto == null) {
+                throw new ProductoNoEncontradoException("El producto con el código " + codigoProducto + " no existe en el inventario.");
+            }
+            inventarioProductos.remove(producto);
+            inventarioDisponible.remove(codigoProducto);
+            indiceNombres.eliminar(codigoProducto);
+            cambiosProductos.publicarEliminado(producto);
+            return true;
+        } finally {
+            bloqueo.unlock();
+        }
+    }
+
+    /**
+     * Busca un producto en el inventario según su código.
+     *
+     * @param codigoProducto El código del producto a buscar.
+     * @return El producto encontrado.
+     * @throws ProductoNoEncontradoException Si el producto con el código especificado no existe en el inventario.
+     */
+    @Override
+    public Producto buscarProducto(String codigoProducto) throws ProductoNoEncontradoException {
+        Producto producto = listProductos.get(codigoProducto);
+        if (producto == null) {
+            throw new ProductoNoEncontradoException("El producto con el código " + codigoProducto + " no existe en el inventario.");
+        }
+        return producto;
+    }
+
+    /**
+     * Obtiene un producto por su código.
+     *
+     * @param codigoProducto El código del producto a obtener.
+     * @return El producto correspondiente al código especificado, o null si no se encuentra.
+     */
+    @Override
+    public Producto obtenerProducto(String codigoProducto) {
+        return listProductos.get(codigoProducto);
+    }
+
+    /**
+     * Recorre todos los productos de la tienda, sin copiarlos y sin un orden definido. El recorrido
+     * puede incluir o no los productos que se agreguen o eliminen mientras avanza.
+     *
+     * @param accion La acción a aplicar a cada producto.
+     */
+    @Override
+    public void recorrerProductos(Consumer<? super Producto> accion) {
+        listProductos.values().forEach(accion);
+    }
+
+    /**
+     * Busca productos por nombre en el índice de texto, sin importar tildes, mayúsculas ni
+     * pequeños errores de digitación. Solo se consulta el índice, que admite consultas desde otros
+     * hilos; los productos se obtienen después con {@link #obtenerProducto(String)}.
+     *
+     * @param texto  El nombre o parte del nombre buscado.
+     * @param limite La cantidad máxima de productos a devolver.
+     * @return Los códigos de los productos encontrados, del más al menos parecido.
+     */
+    @Override
+    public List<String> buscarCodigosPorNombre(String texto, int limite) {
+        return indiceNombres.buscar(texto, limite);
+    }
+
+    /**
+     * Edita un producto en el inventario.
+     *
+     * @param producto             El nuevo producto con los datos actualizados.
+     * @param productoSeleccionado El producto a editar.
+     * @return true si el producto se editó correctamente, false de lo contrario.
+     * @throws ProductoException Si hay un error al actualizar el producto.
+     */
+    @Override
+    public boolean editarProducto(Producto producto, Producto productoSeleccionado) throws ProductoException {
+        ReentrantLock bloqueo = bloqueoProducto(productoSeleccionado.getCodigo());
+        bloqueo.lock();
+        try {
+            if (listProductos.replace(productoSeleccionado.getCodigo(), productoSeleccionado, producto)) {
+                inventarioProductos.remove(productoSeleccionado);
+                inventarioProductos.add(producto);
+                AtomicInteger disponible = inventarioDisponible.get(productoSeleccionado.getCodigo());
+                if (disponible != null) {
+                    disponible.addAndGet(producto.getCantidadInventario() - productoSeleccionado.getCantidadInventario());
+                }
+                indiceNombres.actualizar(productoSeleccionado.getCodigo(), producto.getNombre());
+                cambiosProductos.publicarActualizado(producto, productoSeleccionado);
+                return true;
+            } else {
+                throw new ProductoException("Error al actualizar el producto");
+            }
+        } finally {
+            bloqueo.unlock();
+        }
+    }
+
+    /**
+     * Aplica un lote de cambios de productos: actualiza en el lugar los productos existentes y
+     * agrega los nuevos. Cada cambio toma solo el bloqueo de su producto, por lo que las ventas
+     * de los demás productos continúan mientras se aplica el lote. Si el inventario cambia, las
+     * unidades disponibles se ajustan en la misma diferencia para respetar las reservas.
+     *
+     * @param cambios Los cambios a aplicar.
+     * @param resumen El resumen en el que se cuentan los productos creados, actualizados y rechazados.
+     */
+    @Override
+    public void aplicarCambiosProductos(List<CambioProducto> cambios, ResumenImportacion resumen) {
+        for (CambioProducto cambio : cambios) {
+            ReentrantLock bloqueo = bloqueoProducto(cambio.getCodigo());
+            bloqueo.lock();
+            try {
+                Producto producto = listProductos.get(cambio.getCodigo());
+                if (producto == null) {
+                    if (!cambio.estaCompleto()) {
+                        resumen.registrarRechazado("Producto " + cambio.getCodigo() + ": faltan datos para crearlo");
+                        continue;
+                    }
+                    producto = cambio.crearProducto();
+                    listProductos.put(producto.getCodigo(), producto);
+                    inventarioProductos.add(producto);
+                    inventarioDisponible.put(producto.getCodigo(), new AtomicInteger(producto.getCantidadInventario()));
+                    indiceNombres.actualizar(producto.getCodigo(), producto.getNombre());
+                    cambiosProductos.publicarAgregado(producto);
+                    resumen.registrarInsertado();
+                    continue;
+                }
+                cambio.aplicarDatos(producto);
+                Integer cantidad = cambio.getCantidadInventario();
+                if (cantidad != null && cantidad != producto.getCantidadInventario()) {
+                    int diferencia = cantidad - producto.getCantidadInventario();
+                    inventarioProductos.remove(producto);
+                    producto.setCantidadInventario(cantidad);
+                    inventarioProductos.add(producto);
+                    AtomicInteger disponible = inventarioDisponible.get(producto.getCodigo());
+                    if (disponible != null) {
+                        disponible.addAndGet(diferencia);
+                    }
+                }
+                indiceNombres.actualizar(producto.getCodigo(), producto.getNombre());
+                cambiosProductos.publicarActualizado(producto);
+                resumen.registrarActualizado();
+            } finally {
+                bloqueo.unlock();
+            }
+        }
+    }
+
+    /*
+    -----------------------------------------------------------------------------------------------------------
+    ----------------------------METODOS GESTIONAR CLIENTES-----------------------------------------------------
+    */
+
+    /**
+     * Agrega un cliente al sistema.
+     *
+     * @param cliente El cliente a agregar.
+     * @return true si el cliente se agregó correctamente, false de lo contrario.
+     * @throws ClienteException Si el cliente con el mismo número de identificación ya está registrado.
+     */
+    @Override
+    public Boolean agregarCliente(Cliente cliente) throws ClienteException {
+        if (listClientes.putIfAbsent(cliente.getNumIdentificacion(), cliente) != null) {
+            throw new ClienteException("El cliente con el ID " + cliente.getNumIdentificacion() + " ya está registrado.");
+        }
+        cambiosClientes.publicarAgregado(cliente);
+        return true;
+    }
+
+    /**
+     * Elimina un cliente del sistema.
+     *
+     * @param idCliente El ID del cliente a eliminar.
+     * @return true si el cliente se eliminó correctamente, false de lo contrario.
+     * @throws ClienteNoEncontradoException Si el cliente con el ID especificado no existe.
+     */
+    @Override
+    public Boolean eliminarCliente(String idCliente) throws ClienteNoEncontradoException {
+        Cliente cliente = listClientes.remove(idCliente);
+        if (cliente == null) {
+            throw new ClienteNoEncontradoException("El cliente con el ID " + idCliente + " no existe.");
+        }
+        cambiosClientes.publicarEliminado(cliente);
+        return true;
+    }
+
+    /**
+     * Edita los datos de un cliente en el sistema.
+     *
+     * @param cliente             El cliente con los datos actualizados.
+     * @param clienteSeleccionado El cliente a editar.
+     * @return true si el cliente se editó correctamente, false de lo contrario.
+     * @throws ClienteException Si hay un error al actualizar el cliente.
+     */
+    @Override
+    public boolean editarCliente(Cliente cliente, Cliente clienteSeleccionado) throws ClienteException {
+        if (listClientes.replace(clienteSeleccionado.getNumIdentificacion(), clienteSeleccionado, cliente)) {
+            cambiosClientes.publicarActualizado(cliente, clienteSeleccionado);
+            return true;
+        } else {
+            throw new ClienteException("Error al actualizar el cliente");
+        }
+    }
+
+    /**
+     * Busca un cliente en el sistema según su ID.
+     *
+     * @param idCliente El ID del cliente a buscar.
+     * @return El cliente encontrado.
+     * @throws ClienteNoEncontradoException Si el cliente con el ID especificado no existe.
+     */
+    @Override
+    public Cliente buscarCliente(String idCliente) throws ClienteNoEncontradoException {
+        Cliente cliente = listClientes.get(idCliente);
+        if (cliente == null) {
+            throw new ClienteNoEncontradoException("El cliente con el ID " + idCliente + " no existe.");
+        }
+        return cliente;
+    }
+
+    /**
+     * Obtiene la lista de clientes registrados en el sistema.
+     *
+     * @return Una lista con los clientes registrados.
+     */
+    @Override
+    public List<Cliente> obtenerListaClientes() {
+        return new ArrayList<>(listClientes.values());
+    }
+
+    /**
+     * Obtiene una lista de nombres de clientes disponibles para selección.
+     *
+     * @return Una lista de nombres de clientes disponibles para selección.
+     */
+    @Override
+    public List<String> obtenerClientes() {
+        List<String> list = new ArrayList<>();
+        list.add("Selecciona");
+        for (Cliente cliente : listClientes.values()) {
+            list.add(cliente.getNombre());
+        }
+        return list;
+    }
+
+
+    /*
+    -----------------------------------------------------------------------------------------------------------
+    ----------------------------METODOS GESTIONAR VENTAS---------------------------------------------
+    */
+
+    /**
+     * Obtiene la lista de ventas realizadas a un cliente específico, ordenada por fecha.
+     *
+     * @param idCliente El ID del cliente del cual se desean obtener las ventas.
+     * @return La lista de ventas del cliente especificado.
+     */
+    @Override
+    public List<Venta> obtenerVentasCliente(String idCliente) {
+        ConcurrentSkipListMap<LocalDate, ConcurrentLinkedDeque<Venta>> ventas = ventasPorCliente.get(idCliente);
+        if (ventas == null) {
+            return Collections.emptyList();
+        }
+        return aplanar(ventas);
+    }
+
+    /**
+     * Obtiene las ventas realizadas entre dos fechas, ambas incluidas, ordenadas por fecha.
+     *
+     * @param desde La fecha inicial del periodo.
+     * @param hasta La fecha final del periodo.
+     * @return Las ventas del periodo especificado.
+     */
+    @Override
+    public List<Venta> obtenerVentasEntreFechas(LocalDate desde, LocalDate hasta) {
+        if (desde.isAfter(hasta)) {
+            return Collections.emptyList();
+        }
+        return aplanar(historicoVentas.subMap(desde, true, hasta, true));
+    }
+
+    /**
+     * Obtiene las ventas realizadas a un cliente entre dos fechas, ambas incluidas, ordenadas por fecha.
+     *
+     * @param idCliente El ID del cliente del cual se desean obtener las ventas.
+     * @param desde     La fecha inicial del periodo.
+     * @param hasta     La fecha final del periodo.
+     * @return Las ventas del cliente en el periodo especificado.
+     */
+    @Override
+    public List<Venta> obtenerVentasClienteEntreFechas(String idCliente, LocalDate desde, LocalDate hasta) {
+        ConcurrentSkipListMap<LocalDate, ConcurrentLinkedDeque<Venta>> ventas = ventasPorCliente.get(idCliente);
+        if (ventas == null || desde.isAfter(hasta)) {
+            return Collections.emptyList();
+        }
+        return aplanar(ventas.subMap(desde, true, hasta, true));
+    }
+
+    /**
+     * Realiza una venta y la agrega al historial de ventas.
+     *
+     * @param venta La venta a realizar.
+     * @return true si la venta se realizó correctamente, false de lo contrario.
+     */
+    @Override
+    public Boolean realizarVenta(Venta venta) {
+        return agregarVentaAlHistorico(venta);
+    }
+
+    /**
+     * Realiza un lote de ventas en una sola pasada. El inventario de todo el lote se reserva de una
+     * vez; si algún producto no alcanza no se aplica ninguna venta. Luego se descuenta una sola vez
+     * la cantidad total de cada producto y las ventas se agregan en bloque al historial, agrupadas por día.
+     *
+     * @param ventas Las ventas a realizar.
+     * @return La cantidad de ventas realizadas.
+     * @throws InventarioInsuficienteException Si algún producto no tiene unidades disponibles suficientes para el lote.
+     */
+    @Override
+    public int realizarVentas(List<Venta> ventas) throws InventarioInsuficienteException {
+        List<DetalleVenta> detallesVenta = new ArrayList<>();
+        for (Venta venta : ventas) {
+            detallesVenta.addAll(venta.getDetallesVenta());
+        }
+        ReservaInventario reserva = reservarInventario(detallesVenta);
+        reserva.finalizar();
+        MapaObjetoEntero<String> cantidades = reserva.getCantidadesPorProducto();
+        for (int i = 0; i < cantidades.tamanio(); i++) {
+            descontarInventario(cantidades.clave(i), null, cantidades.valor(i));
+        }
+
+        Map<LocalDate, List<Venta>> ventasPorDia = new TreeMap<>();
+        Map<String, Map<LocalDate, List<Venta>>> ventasPorDiaCliente = new HashMap<>();
+        for (Venta venta : ventas) {
+            indiceVentas.putIfAbsent(venta.getCodigo(), venta);
+            ventasPorDia.computeIfAbsent(venta.getFecha(), fecha -> new ArrayList<>()).add(venta);
+            registrarProductosVendidos(venta);
+            if (venta.getCliente() != null) {
+                ventasPorDiaCliente.computeIfAbsent(venta.getCliente().getNumIdentificacion(), id -> new TreeMap<>())
+                        .computeIfAbsent(venta.getFecha(), fecha -> new ArrayList<>()).add(venta);
+            }
+        }
+        for (Map.Entry<LocalDate, List<Venta>> ventasDia : ventasPorDia.entrySet()) {
+            agregarAlHistorico(ventasDia.getKey(), ventasDia.getValue());
+        }
+        for (Venta venta : ventas) {
+            cambiosVentas.publicarAgregado(venta);
+        }
+        for (Map.Entry<String, Map<LocalDate, List<Venta>>> ventasCliente : ventasPorDiaCliente.entrySet()) {
+            agregarPorFecha(ventasPorCliente.computeIfAbsent(ventasCliente.getKey(), id -> new ConcurrentSkipListMap<>()), ventasCliente.getValue());
+        }
+        return ventas.size();
+    }
+
+    /**
+     * Agrega una venta al historial de ventas y a los índices por código y por cliente.
+     * Solo las ventas del mismo día se turnan para agregarse a su cola del historial.
+     *
+     * @param venta La venta a agregar.
+     * @return true si la venta se agregó correctamente al historial, false de lo contrario.
+     */
+    @Override
+    public boolean agregarVentaAlHistorico(Venta venta) {
+        agregarAlHistorico(venta.getFecha(), List.of(venta));
+        indiceVentas.putIfAbsent(venta.getCodigo(), venta);
+        if (venta.getCliente() != null) {
+            agregarPorFecha(ventasPorCliente.computeIfAbsent(venta.getCliente().getNumIdentificacion(), id -> new ConcurrentSkipListMap<>()), venta);
+        }
+        registrarProductosVendidos(venta);
+        cambiosVentas.publicarAgregado(venta);
+        return true;
+    }
+
+    /**
+     * Obtiene el historial de ventas ordenado por fecha en orden descendente.
+     * Dentro de un mismo día, las ventas más recientes aparecen primero.
+     * Devuelve una vista de solo lectura que recorre las colas de cada día sin copiarlas; igual que
+     * en {@link #recorrerHistoricoVentas(Consumer)}, el recorrido puede incluir o no las ventas que se
+     * agreguen mientras avanza. El acceso por posición busca la venta como una página de tamaño uno.
+     *
+     * @return La lista de ventas del historial, ordenada por fecha de manera descendente.
+     */
+    @Override
+    public List<Venta> obtenerHistoricoVentas() {
+        return new AbstractList<>() {
+            @Override
+            public Venta get(int indice) {
+                List<Venta> pagina = obtenerPaginaHistoricoVentas(indice, 1);
+                if (indice < 0 || pagina.isEmpty()) {
+                    throw new IndexOutOfBoundsException(indice);
+                }
+                return pagina.get(0);
+            }
+
+            @Override
+            public int size() {
+                return cantidadVentas.get();
+            }
+
+            @Override
+            public Iterator<Venta> iterator() {
+                Iterator<ConcurrentLinkedDeque<Venta>> dias = historicoVentas.descendingMap().values().iterator();
+                return new Iterator<>() {
+                    private Iterator<Venta> ventasDia = Collections.emptyIterator();
+
+                    @Override
+                    public boolean hasNext() {
+                        while (!ventasDia.hasNext() && dias.hasNext()) {
+                            ventasDia = dias.next().descendingIterator();
+                        }
+                        return ventasDia.hasNext();
+                    }
+
+                    @Override
+                    public Venta next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        return ventasDia.next();
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * Obtiene una página del historial de ventas en el mismo orden de {@link #obtenerHistoricoVentas()}.
+     * Los días anteriores a la página se saltan con sus contadores, sin recorrer sus ventas. El contador
+     * de cada día se lee junto con el inicio de su recorrido bajo el mismo bloqueo con que se agregan sus
+     * ventas, así que una venta que se está agregando no puede desplazar la página.
+     *
+     * @param inicio   La posición de la primera venta, empezando por la más reciente.
+     * @param cantidad La cantidad máxima de ventas.
+     * @return Las ventas de la página; vacía si el inicio está después del final del historial.
+     */
+    @Override
+    public List<Venta> obtenerPaginaHistoricoVentas(int inicio, int cantidad) {
+        List<Venta> pagina = new ArrayList<>(cantidad);
+        int saltar = inicio;
+        for (Map.Entry<LocalDate, ConcurrentLinkedDeque<Venta>> ventasDia : historicoVentas.descendingMap().entrySet()) {
+            if (pagina.size() == cantidad) {
+                break;
+            }
+            int ventasEnDia;
+            Iterator<Venta> ventas;
+            synchronized (ventasDia.getValue()) {
+                AtomicInteger contador = cantidadVentasDia.get(ventasDia.getKey());
+                ventasEnDia = contador == null ? 0 : contador.get();
+                ventas = ventasDia.getValue().descendingIterator();
+            }
+            if (saltar > 0 && saltar >= ventasEnDia) {
+                saltar -= ventasEnDia;
+                continue;
+            }
+            while (ventas.hasNext() && pagina.size() < cantidad) {
+                Venta venta = ventas.next();
+                if (saltar > 0) {
+                    saltar--;
+                } else {
+                    pagina.add(venta);
+                }
+            }
+        }
+        return pagina;
+    }
+
+    /**
+     * Obtiene la cantidad de ventas del historial.
+     *
+     * @return La cantidad de ventas.
+     */
+    @Override
+    public int contarVentas() {
+        return cantidadVentas.get();
+    }
+
+    /**
+     * Recorre el historial de ventas por fecha en orden ascendente, sin copiarlo. El recorrido
+     * puede incluir o no las ventas que se agreguen mientras avanza.
+     *
+     * @param accion La acción a aplicar a cada venta.
+     */
+    @Override
+    public void recorrerHistoricoVentas(Consumer<? super Venta> accion) {
+        for (ConcurrentLinkedDeque<Venta> ventasDia : historicoVentas.values()) {
+            ventasDia.forEach(accion);
+        }
+    }
+
+    /**
+     * Busca una venta en el historial de ventas por su código usando el índice de ventas.
+     *
+     * @param codigo El código de la venta a buscar.
+     * @return La venta encontrada, o null si no se encuentra ninguna venta con el código especificado.
+     */
+    @Override
+    public Venta buscarVenta(String codigo) {
+        return indiceVentas.get(codigo);
+    }
+
+    /**
+     * Obtiene los productos más vendidos según las unidades de las ventas registradas. La consulta
+     * usa un contador de memoria acotada, por lo que no recorre el historial; las unidades de cada
+     * producto pueden estar sobrestimadas a lo sumo en el error que se reporta con ellas.
+     *
+     * @param cantidad La cantidad máxima de productos a devolver.
+     * @return Los códigos de los productos con sus unidades estimadas, de mayor a menor.
+     */
+    @Override
+    public List<ContadorFrecuentes.Frecuencia<String>> obtenerProductosFrecuentes(int cantidad) {
+        return productosFrecuentes.obtenerMasFrecuentes(cantidad);
+    }
+
+    /**
+     * Registra las unidades vendidas de cada producto de una venta en el contador de productos frecuentes.
+     *
+     * @param venta La venta registrada.
+     */
+    private void registrarProductosVendidos(Venta venta) {
+        for (DetalleVenta detalle : venta.getDetallesVenta()) {
+            if (detalle.getProducto() != null) {
+                productosFrecuentes.agregar(detalle.getProducto().getCodigo(), detalle.getCantidad());
+            }
+        }
+    }
+
+    /**
+     * Agrega una venta a un mapa de ventas agrupadas por día.
+     *
+     * @param ventasPorFecha El mapa de ventas agrupadas por fecha.
+     * @param venta          La venta a agregar.
+     */
+    private void agregarPorFecha(ConcurrentSkipListMap<LocalDate, ConcurrentLinkedDeque<Venta>> ventasPorFecha, Venta venta) {
+        ventasPorFecha.computeIfAbsent(venta.getFecha(), fecha -> new ConcurrentLinkedDeque<>()).add(venta);
+    }
+
+    /**
+     * Agrega ventas de un mismo día al historial y las suma a sus contadores. Las colas de cada día
+     * no llevan su tamaño, por lo que estos contadores permiten saltar días completos al paginar el
+     * historial; la cola y su contador cambian juntos bajo el bloqueo de la cola del día, de modo que
+     * quien pagina nunca ve una venta que todavía no está contada.
+     *
+     * @param fecha  La fecha de las ventas.
+     * @param ventas Las ventas a agregar.
+     */
+    private void agregarAlHistorico(LocalDate fecha, List<Venta> ventas) {
+        ConcurrentLinkedDeque<Venta> ventasDia = historicoVentas.computeIfAbsent(fecha, dia -> new ConcurrentLinkedDeque<>());
+        AtomicInteger contador = cantidadVentasDia.computeIfAbsent(fecha, dia -> new AtomicInteger());
+        synchronized (ventasDia) {
+            ventasDia.addAll(ventas);
+            contador.addAndGet(ventas.size());
+        }
+        cantidadVentas.addAndGet(ventas.size());
+    }
+
+    /**
+     * Agrega bloques de ventas de un mismo día a un mapa de ventas agrupadas por día.
+     *
+     * @param ventasPorFecha El mapa de ventas agrupadas por fecha.
+     * @param ventasPorDia   Las ventas a agregar agrupadas por fecha.
+     */
+    private void agregarPorFecha(ConcurrentSkipListMap<LocalDate, ConcurrentLinkedDeque<Venta>> ventasPorFecha, Map<LocalDate, List<Venta>> ventasPorDia) {
+        for (Map.Entry<LocalDate, List<Venta>> ventasDia : ventasPorDia.entrySet()) {
+            ventasPorFecha.computeIfAbsent(ventasDia.getKey(), fecha -> new ConcurrentLinkedDeque<>()).addAll(ventasDia.getValue());
+        }
+    }
+
+    /**
+     * Convierte un mapa de ventas agrupadas por día en una lista ordenada por fecha.
+     *
+     * @param ventasPorFecha El mapa de ventas agrupadas por fecha.
+     * @return Una lista de solo lectura con las ventas en orden ascendente de fecha.
+     */
+    private List<Venta> aplanar(NavigableMap<LocalDate, ConcurrentLinkedDeque<Venta>> ventasPorFecha) {
+        List<Venta> ventas = new ArrayList<>();
+        for (ConcurrentLinkedDeque<Venta> ventasDia : ventasPorFecha.values()) {
+            ventas.addAll(ventasDia);
+        }
+        return Collections.unmodifiableList(ventas);
+    }
+
+
+    /*
+    -----------------------------------------------------------------------------------------------------------
+    ----------------------------OTROS METODOS---------------------------------------------
+    */
+
+
+    /**
+     * Obtiene un conjunto ordenado de productos con inventario bajo.
+     * Devuelve una vista de solo lectura del índice de inventario, sin copiarlo.
+     *
+     * @return Un conjunto ordenado de productos con inventario bajo.
+     */
+    @Override
+    public SortedSet<Producto> obtenerProductosConInventarioBajo() {
+        return Collections.unmodifiableSortedSet(inventarioProductos);
+    }
+
+    /**
+     * Obtiene los productos cuya cantidad en inventario es menor al umbral indicado,
+     * ordenados de menor a mayor inventario.
+     *
+     * @param umbral La cantidad mínima de inventario que se considera suficiente.
+     * @return Una vista ordenada de los productos con inventario menor al umbral.
+     */
+    @Override
+    public SortedSet<Producto> obtenerProductosInventarioMenorA(int umbral) {
+        return Collections.unmodifiableSortedSet(inventarioProductos.headSet(new Producto("", "", 0, umbral), false));
+    }
+
+    /**
+     * Obtiene una página de los productos en el orden de {@link #obtenerProductosConInventarioBajo()}.
+     * El índice se recorre sin bloquearlo, así que una página puede reflejar en parte los cambios
+     * de inventario que ocurran mientras se arma.
+     *
+     * @param inicio   La posición del primer producto.
+     * @param cantidad La cantidad máxima de productos.
+     * @return Los productos de la página; vacía si el inicio está después del último producto.
+     */
+    @Override
+    public List<Producto> obtenerPaginaProductos(int inicio, int cantidad) {
+        List<Producto> pagina = new ArrayList<>(cantidad);
+        Iterator<Producto> productos = inventarioProductos.iterator();
+        for (int i = 0; i < inicio && productos.hasNext(); i++) {
+            productos.next();
+        }
+        while (pagina.size() < cantidad && productos.hasNext()) {
+            pagina.add(productos.next());
+        }
+        return pagina;
+    }
+
+    /**
+     * Obtiene la cantidad de productos de la tienda.
+     *
+     * @return La cantidad de productos.
+     */
+    @Override
+    public int contarProductos() {
+        return listProductos.size();
+    }
+
+    /**
+     * Agrega un producto al carrito de compras de una sesión con la cantidad especificada.
+     *
+     * @param idSesion       El identificador de la sesión o terminal.
+     * @param codigoProducto El código del producto a agregar al carrito.
+     * @param cantidad       La cantidad del producto a agregar al carrito.
+     */
+    @Override
+    public void agregarProductoCarrito(String idSesion, String codigoProducto, int cantidad) {
+        carritos.obtenerCarrito(idSesion).agregarProducto(codigoProducto, cantidad);
+    }
+
+    /**
+     * Obtiene el contenido actual del carrito de compras de una sesión.
+     *
+     * @param idSesion El identificador de la sesión o terminal.
+     * @return El carrito de la sesión, con los productos y sus cantidades.
+     */
+    @Override
+    public CarritoCompras obtenerCarrito(String idSesion) {
+        return carritos.obtenerCarrito(idSesion);
+    }
+
+    /**
+     * Obtiene una copia del contenido de los carritos abiertos de todas las sesiones.
+     *
+     * @return Un mapa con los productos y cantidades del carrito de cada sesión.
+     */
+    @Override
+    public Map<String, MapaObjetoEntero<String>> obtenerCarritos() {
+        Map<String, MapaObjetoEntero<String>> copia = new HashMap<>();
+        carritos.obtenerCarritos().forEach((idSesion, carrito) -> copia.put(idSesion, carrito.copiarProductos()));
+        return copia;
+    }
+
+    /**
+     * Vacía el contenido del carrito de compras de una sesión y lo retira del registro.
+     *
+     * @param idSesion El identificador de la sesión o terminal.
+     */
+    @Override
+    public void vaciarCarrito(String idSesion) {
+        CarritoCompras carrito = carritos.eliminarCarrito(idSesion);
+        if (carrito != null) {
+            carrito.limpiar();
+        }
+    }
+
+    /**
+     * Actualiza el inventario de productos según los detalles de una venta, sin reserva previa.
+     * Las unidades disponibles para reservar no bajan de cero aunque la venta supere lo disponible.
+     *
+     * @param detallesVenta Los detalles de la venta que afectarán al inventario.
+     */
+    @Override
+    public void actualizarInventario(List<DetalleVenta> detallesVenta) {
+        for (DetalleVenta detalleVenta : detallesVenta) {
+            if (detalleVenta.getProducto() == null) {
+                continue;
+            }
+            AtomicInteger disponible = inventarioDisponible.get(detalleVenta.getProducto().getCodigo());
+            if (disponible != null) {
+                disponible.updateAndGet(actual -> Math.max(0, actual - detalleVenta.getCantidad()));
+            }
+            descontarInventario(detalleVenta.getProducto().getCodigo(), detalleVenta.getProducto(), detalleVenta.getCantidad());
+        }
+    }
+
+    /**
+     * Reserva el inventario de todos los detalles de una venta. Las unidades de cada producto se
+     * apartan con una operación de comparar e intercambiar sobre su contador; si algún producto no
+     * tiene unidades suficientes se devuelven las ya apartadas y la reserva falla de inmediato,
+     * sin bloquear las ventas de otros productos.
+     *
+     * @param detallesVenta Los detalles de la venta a reservar.
+     * @return La reserva creada.
+     * @throws InventarioInsuficienteException Si algún producto no tiene unidades disponibles suficientes.
+     */
+    @Override
+    public ReservaInventario reservarInventario(List<DetalleVenta> detallesVenta) throws InventarioInsuficienteException {
+        ReservaInventario reserva = new ReservaInventario(detallesVenta);
+        MapaObjetoEntero<String> cantidades = reserva.getCantidadesPorProducto();
+        for (int i = 0; i < cantidades.tamanio(); i++) {
+            AtomicInteger disponible = inventarioDisponible.get(cantidades.clave(i));
+            if (disponible == null || !apartar(disponible, cantidades.valor(i))) {
+                for (int j = 0; j < i; j++) {
+                    devolver(cantidades.clave(j), cantidades.valor(j));
+                }
+                throw new InventarioInsuficienteException("No hay inventario suficiente del producto " + cantidades.clave(i));
+            }
+        }
+        return reserva;
+    }
+
+    /**
+     * Confirma una reserva descontando del inventario las unidades reservadas.
+     *
+     * @param reserva La reserva a confirmar.
+     */
+    @Override
+    public void confirmarReserva(ReservaInventario reserva) {
+        if (reserva.finalizar()) {
+            for (DetalleVenta detalleVenta : reserva.getDetallesVenta()) {
+                if (detalleVenta.getProducto() == null) {
+                    continue;
+                }
+                descontarInventario(detalleVenta.getProducto().getCodigo(), detalleVenta.getProducto(), detalleVenta.getCantidad());
+            }
+        }
+    }
+
+    /**
+     * Libera una reserva devolviendo las unidades reservadas al inventario disponible.
+     *
+     * @param reserva La reserva a liberar.
+     */
+    @Override
+    public void liberarReserva(ReservaInventario reserva) {
+        if (reserva.finalizar()) {
+            MapaObjetoEntero<String> cantidades = reserva.getCantidadesPorProducto();
+            for (int i = 0; i < cantidades.tamanio(); i++) {
+                devolver(cantidades.clave(i), cantidades.valor(i));
+            }
+        }
+    }
+
+    /**
+     * Aparta unidades de un contador de inventario disponible si alcanzan.
+     *
+     * @param disponible El contador de unidades disponibles del producto.
+     * @param cantidad   La cantidad a apartar.
+     * @return true si se apartaron las unidades, false si no había suficientes.
+     */
+    private boolean apartar(AtomicInteger disponible, int cantidad) {
+        while (true) {
+            int actual = disponible.get();
+            if (actual < cantidad) {
+                return false;
+            }
+            if (disponible.compareAndSet(actual, actual - cantidad)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Devuelve unidades apartadas al contador de inventario disponible de un producto.
+     *
+     * @param codigoProducto El código del producto.
+     * @param cantidad       La cantidad a devolver.
+     */
+    private void devolver(String codigoProducto, int cantidad) {
+        AtomicInteger disponible = inventarioDisponible.get(codigoProducto);
+        if (disponible != null) {
+            disponible.addAndGet(cantidad);
+        }
+    }
+
+    /**
+     * Descuenta unidades del inventario de un producto bajo el bloqueo de su franja, de modo que
+     * dos ventas del mismo producto nunca pierden un descuento y las de productos distintos avanzan en paralelo.
+     *
+     * @param codigoProducto El código del producto.
+     * @param productoVenta  El producto tal como aparece en la venta, usado si ya no está en el inventario; puede ser null.
+     * @param cantidad       La cantidad a descontar.
+     */
+    private void descontarInventario(String codigoProducto, Producto productoVenta, int cantidad) {
+        ReentrantLock bloqueo = bloqueoProducto(codigoProducto);
+        bloqueo.lock();
+        try {
+            Producto producto = listProductos.getOrDefault(codigoProducto, productoVenta);
+            if (producto == null) {
+                return;
+            }
+            boolean indexado = inventarioProductos.remove(producto);
+            producto.setCantidadInventario(producto.getCantidadInventario() - cantidad);
+            if (indexado) {
+                inventarioProductos.add(producto);
+                cambiosProductos.publicarActualizado(producto);
+            }
+        } finally {
+            bloqueo.unlock();
+        }
+    }
+
+    /**
+     * Obtiene el bloqueo de la franja a la que pertenece un código de producto.
+     *
+     * @param codigoProducto El código del producto.
+     * @return El bloqueo que protege los cambios de inventario del producto.
+     */
+    private ReentrantLock bloqueoProducto(String codigoProducto) {
+        int hash = codigoProducto.hashCode();
+        hash ^= (hash >>> 16);
+        return bloqueosProductos[hash & (bloqueosProductos.length - 1)];
+    }
+
+    /**
+     * Crea las franjas de bloqueo, redondeando su número a la siguiente potencia de dos.
+     *
+     * @param cantidadMinima La cantidad mínima de franjas.
+     * @return El arreglo de bloqueos.
+     */
+    private static ReentrantLock[] crearBloqueos(int cantidadMinima) {
+        int cantidad = Integer.highestOneBit(Math.max(cantidadMinima - 1, 1)) << 1;
+        ReentrantLock[] bloqueos = new ReentrantLock[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            bloqueos[i] = new ReentrantLock();
+        }
+        return bloqueos;
+    }
+
+}
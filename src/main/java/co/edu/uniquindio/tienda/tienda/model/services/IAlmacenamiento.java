@@ -0,0 +1,44 @@
+package co.edu.uniquindio.tienda.tienda.model.services;
+
+import co.edu.uniquindio.tienda.tienda.exception.AlmacenamientoException;
+import co.edu.uniquindio.tienda.tienda.model.Cliente;
+import co.edu.uniquindio.tienda.tienda.model.Producto;
+import co.edu.uniquindio.tienda.tienda.model.Venta;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Almacenamiento persistente de los productos, clientes y ventas de una tienda. Las operaciones
+ * de guardar reciben colecciones para que cada implementación pueda escribirlas en lote.
+ * Los productos se identifican por su código, los clientes por su número de identificación
+ * y las ventas por su código; guardar un registro existente lo reemplaza.
+ */
+@SuppressWarnings("ALL")
+public interface IAlmacenamiento extends AutoCloseable {
+    // Métodos para gestionar productos
+    public void guardarProductos(Collection<Producto> productos) throws AlmacenamientoException;
+    public boolean eliminarProducto(String codigoProducto) throws AlmacenamientoException;
+    public Producto buscarProducto(String codigoProducto) throws AlmacenamientoException;
+    public List<Producto> obtenerProductos() throws AlmacenamientoException;
+
+    // Métodos para gestionar clientes
+    public void guardarClientes(Collection<Cliente> clientes) throws AlmacenamientoException;
+    public boolean eliminarCliente(String idCliente) throws AlmacenamientoException;
+    public Cliente buscarCliente(String idCliente) throws AlmacenamientoException;
+    public List<Cliente> obtenerClientes() throws AlmacenamientoException;
+
+    // Métodos para gestionar ventas
+    public void guardarVentas(Collection<Venta> ventas) throws AlmacenamientoException;
+    public Venta buscarVenta(String codigo) throws AlmacenamientoException;
+    public List<Venta> obtenerVentas() throws AlmacenamientoException;
+    public List<Venta> obtenerVentasEntreFechas(LocalDate desde, LocalDate hasta) throws AlmacenamientoException;
+    public List<Venta> obtenerVentasCliente(String idCliente) throws AlmacenamientoException;
+
+    // Método para dejar el contenido completo del almacenamiento igual al de la tienda, escribiendo solo las diferencias
+    public void sincronizar(Collection<Producto> productos, Collection<Cliente> clientes, Collection<Venta> ventas) throws AlmacenamientoException;
+
+    @Override
+    public void close() throws AlmacenamientoException;
+}
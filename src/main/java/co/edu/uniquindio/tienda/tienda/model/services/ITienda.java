@@ -2,15 +2,26 @@ package co.edu.uniquindio.tienda.tienda.model.services;
 
 import co.edu.uniquindio.tienda.tienda.exception.ClienteException;
 import co.edu.uniquindio.tienda.tienda.exception.ClienteNoEncontradoException;
+import co.edu.uniquindio.tienda.tienda.exception.InventarioInsuficienteException;
 import co.edu.uniquindio.tienda.tienda.exception.ProductoException;
 import co.edu.uniquindio.tienda.tienda.exception.ProductoNoEncontradoException;
+import co.edu.uniquindio.tienda.tienda.model.CambioProducto;
+import co.edu.uniquindio.tienda.tienda.model.CarritoCompras;
 import co.edu.uniquindio.tienda.tienda.model.Cliente;
+import co.edu.uniquindio.tienda.tienda.model.DetalleVenta;
+import co.edu.uniquindio.tienda.tienda.model.ObservadoresCambios;
 import co.edu.uniquindio.tienda.tienda.model.Producto;
+import co.edu.uniquindio.tienda.tienda.model.ReservaInventario;
+import co.edu.uniquindio.tienda.tienda.model.ResumenImportacion;
 import co.edu.uniquindio.tienda.tienda.model.Venta;
+import co.edu.uniquindio.tienda.tienda.util.ContadorFrecuentes;
+import co.edu.uniquindio.tienda.tienda.util.MapaObjetoEntero;
 
-import java.util.Date;
+import java.time.LocalDate;
 import java.util.List;
-import java.util.TreeSet;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.function.Consumer;
 
 @SuppressWarnings("ALL")
 public interface ITienda {
@@ -18,22 +29,73 @@ public interface ITienda {
     public Boolean agregarProducto(Producto producto) throws ProductoException;
     public Boolean eliminarProducto(String codigoProducto) throws ProductoNoEncontradoException;
     public Producto buscarProducto(String codigoProducto) throws ProductoNoEncontradoException;
+    public Producto obtenerProducto(String codigoProducto);
+    public void recorrerProductos(Consumer<? super Producto> accion);
+    public void aplicarCambiosProductos(List<CambioProducto> cambios, ResumenImportacion resumen);
+    public List<String> buscarCodigosPorNombre(String texto, int limite);
 
     // Métodos para gestionar clientes
     public Boolean agregarCliente(Cliente cliente) throws ClienteException;
     public Boolean eliminarCliente(String idCliente) throws ClienteNoEncontradoException;
     public Cliente buscarCliente(String idCliente) throws ClienteNoEncontradoException;
+    public List<Cliente> obtenerListaClientes();
+    public List<String> obtenerClientes();
 
     // Métodos para gestionar ventas
     public Boolean realizarVenta(Venta venta);
+    public int realizarVentas(List<Venta> ventas) throws InventarioInsuficienteException;
     public List<Venta> obtenerVentasCliente(String idCliente);
 
     // Métodos para gestionar historial de ventas
     public boolean agregarVentaAlHistorico(Venta venta);
+    // Puede ser una vista del historial: no se deben agregar ventas mientras se lee
     public List<Venta> obtenerHistoricoVentas();
+    public List<Venta> obtenerPaginaHistoricoVentas(int inicio, int cantidad);
+    public int contarVentas();
+    public void recorrerHistoricoVentas(Consumer<? super Venta> accion);
+    public List<Venta> obtenerVentasEntreFechas(LocalDate desde, LocalDate hasta);
+    public List<Venta> obtenerVentasClienteEntreFechas(String idCliente, LocalDate desde, LocalDate hasta);
+    public Venta buscarVenta(String codigo);
+
+    // Métodos para consultar los productos más vendidos con memoria acotada
+    public static final int PRODUCTOS_FRECUENTES_VIGILADOS = 500;
+    public List<ContadorFrecuentes.Frecuencia<String>> obtenerProductosFrecuentes(int cantidad);
+
+    // Métodos para gestionar los carritos de compras, uno por sesión o terminal
+    public static final String SESION_PRINCIPAL = "principal";
+    public void agregarProductoCarrito(String idSesion, String codigoProducto, int cantidad);
+    public CarritoCompras obtenerCarrito(String idSesion);
+    public void vaciarCarrito(String idSesion);
+    public Map<String, MapaObjetoEntero<String>> obtenerCarritos();
+
+    public default void agregarProductoCarrito(String codigoProducto, int cantidad) {
+        agregarProductoCarrito(SESION_PRINCIPAL, codigoProducto, cantidad);
+    }
+
+    public default CarritoCompras obtenerCarrito() {
+        return obtenerCarrito(SESION_PRINCIPAL);
+    }
+
+    public default void vaciarCarrito() {
+        vaciarCarrito(SESION_PRINCIPAL);
+    }
 
     // Métodos para gestionar inventario bajo
-    public TreeSet<Producto> obtenerProductosConInventarioBajo();
+    public SortedSet<Producto> obtenerProductosConInventarioBajo();
+    public SortedSet<Producto> obtenerProductosInventarioMenorA(int umbral);
+    public List<Producto> obtenerPaginaProductos(int inicio, int cantidad);
+    public int contarProductos();
+    public void actualizarInventario(List<DetalleVenta> detallesVenta);
+
+    // Métodos para reservar inventario
+    public ReservaInventario reservarInventario(List<DetalleVenta> detallesVenta) throws InventarioInsuficienteException;
+    public void confirmarReserva(ReservaInventario reserva);
+    public void liberarReserva(ReservaInventario reserva);
+
+    // Métodos para observar los cambios de productos, clientes y ventas
+    public ObservadoresCambios<Producto> getCambiosProductos();
+    public ObservadoresCambios<Cliente> getCambiosClientes();
+    public ObservadoresCambios<Venta> getCambiosVentas();
 
     boolean editarCliente(Cliente cliente, Cliente clienteSeleccionado) throws ClienteException;
 
@@ -0,0 +1,550 @@
+package co.edu.uniquindio.tienda.tienda.persistencia;
+
+
+import co.edu.uniquindio.tienda.tienda.exception.AlmacenamientoException;
+import co.edu.uniquindio.tienda.tienda.model.Cliente;
+import co.edu.uniquindio.tienda.tienda.model.DetalleVenta;
+import co.edu.uniquindio.tienda.tienda.model.Producto;
+import co.edu.uniquindio.tienda.tienda.model.Venta;
+import co.edu.uniquindio.tienda.tienda.model.services.IAlmacenamiento;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Almacenamiento en una base de datos SQL embebida, como H2 o SQLite, a través de JDBC.
+ * <p>
+ * Las tablas se crean al abrir el almacenamiento si no existen. Los productos, clientes y ventas
+ * usan su código o identificación como llave primaria, por lo que las búsquedas por llave usan
+ * el índice de la llave; las ventas tienen además índices por fecha y por cliente. Las fechas
+ * se guardan como texto ISO (aaaa-mm-dd), que se ordena igual que la fecha en cualquier motor.
+ * <p>
+ * Las escrituras se agrupan en lotes de sentencias preparadas dentro de una transacción, y las
+ * conexiones se toman de un {@link PoolConexiones}. Al sincronizar con la tienda se comparan los
+ * registros guardados con los nuevos por su llave primaria y solo se escriben las diferencias.
+ * Se usan UPDATE e INSERT por separado en lugar de MERGE porque cada motor escribe MERGE distinto.
+ */
+@SuppressWarnings("ALL")
+public class AlmacenamientoJdbc implements IAlmacenamiento {
+
+    private static final int TAMANIO_LOTE = 1000;
+
+    private static final String[] ESQUEMA = {
+            "CREATE TABLE IF NOT EXISTS productos (codigo VARCHAR(255) PRIMARY KEY, nombre VARCHAR(255), "
+                    + "precio DOUBLE PRECISION NOT NULL, cantidad_inventario INTEGER NOT NULL)",
+            "CREATE TABLE IF NOT EXISTS clientes (num_identificacion VARCHAR(255) PRIMARY KEY, nombre VARCHAR(255), "
+                    + "direccion VARCHAR(255))",
+            "CREATE TABLE IF NOT EXISTS ventas (codigo VARCHAR(255) PRIMARY KEY, fecha VARCHAR(10) NOT NULL, "
+                    + "total DOUBLE PRECISION, id_cliente VARCHAR(255))",
+            "CREATE TABLE IF NOT EXISTS detalles_venta (codigo_venta VARCHAR(255) NOT NULL, posicion INTEGER NOT NULL, "
+                    + "codigo_producto VARCHAR(255) NOT NULL, cantidad INTEGER NOT NULL, subtotal DOUBLE PRECISION, "
+                    + "PRIMARY KEY (codigo_venta, posicion))",
+            "CREATE INDEX IF NOT EXISTS idx_ventas_fecha ON ventas (fecha)",
+            "CREATE INDEX IF NOT EXISTS idx_ventas_cliente ON ventas (id_cliente)"
+    };
+
+    private static final String INSERTAR_PRODUCTO = "INSERT INTO productos (codigo, nombre, precio, cantidad_inventario) VALUES (?, ?, ?, ?)";
+    private static final String ACTUALIZAR_PRODUCTO = "UPDATE productos SET nombre = ?, precio = ?, cantidad_inventario = ? WHERE codigo = ?";
+    private static final String ELIMINAR_PRODUCTO = "DELETE FROM productos WHERE codigo = ?";
+    private static final String SELECCIONAR_PRODUCTOS = "SELECT codigo, nombre, precio, cantidad_inventario FROM productos";
+
+    private static final String INSERTAR_CLIENTE = "INSERT INTO clientes (num_identificacion, nombre, direccion) VALUES (?, ?, ?)";
+    private static final String ACTUALIZAR_CLIENTE = "UPDATE clientes SET nombre = ?, direccion = ? WHERE num_identificacion = ?";
+    private static final String ELIMINAR_CLIENTE = "DELETE FROM clientes WHERE num_identificacion = ?";
+    private static final String SELECCIONAR_CLIENTES = "SELECT num_identificacion, nombre, direccion FROM clientes";
+
+    private static final String INSERTAR_VENTA = "INSERT INTO ventas (codigo, fecha, total, id_cliente) VALUES (?, ?, ?, ?)";
+    private static final String ELIMINAR_VENTA = "DELETE FROM ventas WHERE codigo = ?";
+    private static final String INSERTAR_DETALLE = "INSERT INTO detalles_venta (codigo_venta, posicion, codigo_producto, cantidad, subtotal) VALUES (?, ?, ?, ?, ?)";
+    private static final String ELIMINAR_DETALLES = "DELETE FROM detalles_venta WHERE codigo_venta = ?";
+    private static final String SELECCIONAR_CODIGOS_VENTAS = "SELECT codigo FROM ventas";
+    private static final String SELECCIONAR_VENTAS = "SELECT v.codigo, v.fecha, v.total, v.id_cliente, c.nombre, c.direccion "
+            + "FROM ventas v LEFT JOIN clientes c ON c.num_identificacion = v.id_cliente";
+    private static final String SELECCIONAR_DETALLES = "SELECT d.codigo_venta, d.codigo_producto, d.cantidad, d.subtotal, "
+            + "p.nombre, p.precio, p.cantidad_inventario FROM detalles_venta d LEFT JOIN productos p ON p.codigo = d.codigo_producto";
+
+    private final PoolConexiones pool;
+
+    /**
+     * Abre un almacenamiento sobre una base de datos, creando las tablas que falten.
+     *
+     * @param url        La URL JDBC de la base de datos, por ejemplo {@code jdbc:h2:./datos/tienda}.
+     * @param conexiones La cantidad máxima de conexiones abiertas a la vez.
+     * @throws AlmacenamientoException Si no se puede conectar a la base de datos o crear las tablas.
+     */
+    public AlmacenamientoJdbc(String url, int conexiones) throws AlmacenamientoException {
+        this(new PoolConexiones(url, null, null, conexiones));
+    }
+
+    public AlmacenamientoJdbc(PoolConexiones pool) throws AlmacenamientoException {
+        this.pool = pool;
+        enTransaccion("crear las tablas", conexion -> {
+            try (Statement sentencia = conexion.createStatement()) {
+                for (String sql : ESQUEMA) {
+                    sentencia.addBatch(sql);
+                }
+                sentencia.executeBatch();
+            }
+        });
+    }
+
+    /*
+    -----------------------------------------------------------------------------------------------------------
+    ----------------------------PRODUCTOS----------------------------------------------------------------------
+    */
+
+    @Override
+    public void guardarProductos(Collection<Producto> productos) throws AlmacenamientoException {
+        enTransaccion("guardar los productos", conexion -> {
+            eliminarPorLlave(conexion, ELIMINAR_PRODUCTO, productos.stream().map(Producto::getCodigo).toList());
+            insertarProductos(conexion, productos);
+        });
+    }
+
+    @Override
+    public boolean eliminarProducto(String codigoProducto) throws AlmacenamientoException {
+        return actualizar("eliminar el producto " + codigoProducto, ELIMINAR_PRODUCTO, codigoProducto) > 0;
+    }
+
+    @Override
+    public Producto buscarProducto(String codigoProducto) throws AlmacenamientoException {
+        List<Producto> productos = consultar("buscar el producto " + codigoProducto,
+                SELECCIONAR_PRODUCTOS + " WHERE codigo = ?", AlmacenamientoJdbc::leerProducto, codigoProducto);
+        return productos.isEmpty() ? null : productos.get(0);
+    }
+
+    @Override
+    public List<Producto> obtenerProductos() throws AlmacenamientoException {
+        return consultar("leer los productos", SELECCIONAR_PRODUCTOS, AlmacenamientoJdbc::leerProducto);
+    }
+
+    /*
+    -----------------------------------------------------------------------------------------------------------
+    ----------------------------CLIENTES-----------------------------------------------------------------------
+    */
+
+    @Override
+    public void guardarClientes(Collection<Cliente> clientes) throws AlmacenamientoException {
+        enTransaccion("guardar los clientes", conexion -> {
+            eliminarPorLlave(conexion, ELIMINAR_CLIENTE, clientes.stream().map(Cliente::getNumIdentificacion).toList());
+            insertarClientes(conexion, clientes);
+        });
+    }
+
+    @Override
+    public boolean eliminarCliente(String idCliente) throws AlmacenamientoException {
+        return actualizar("eliminar el cliente " + idCliente, ELIMINAR_CLIENTE, idCliente) > 0;
+    }
+
+    @Override
+    public Cliente buscarCliente(String idCliente) throws AlmacenamientoException {
+        List<Cliente> clientes = consultar("buscar el cliente " + idCliente,
+                SELECCIONAR_CLIENTES + " WHERE num_identificacion = ?", AlmacenamientoJdbc::leerCliente, idCliente);
+        return clientes.isEmpty() ? null : clientes.get(0);
+    }
+
+    @Override
+    public List<Cliente> obtenerClientes() throws AlmacenamientoException {
+        return consultar("leer los clientes", SELECCIONAR_CLIENTES, AlmacenamientoJdbc::leerCliente);
+    }
+
+    /*
+    -----------------------------------------------------------------------------------------------------------
+    ----------------------------VENTAS-------------------------------------------------------------------------
+    */
+
+    @Override
+    public void guardarVentas(Collection<Venta> ventas) throws AlmacenamientoException {
+        enTransaccion("guardar las ventas", conexion -> {
+            List<String> codigos = ventas.stream().map(Venta::getCodigo).toList();
+            eliminarPorLlave(conexion, ELIMINAR_DETALLES, codigos);
+            eliminarPorLlave(conexion, ELIMINAR_VENTA, codigos);
+            insertarVentas(conexion, ventas);
+        });
+    }
+
+    @Override
+    public Venta buscarVenta(String codigo) throws AlmacenamientoException {
+        List<Venta> ventas = consultarVentas("buscar la venta " + codigo, "codigo = ?", codigo);
+        return ventas.isEmpty() ? null : ventas.get(0);
+    }
+
+    @Override
+    public List<Venta> obtenerVentas() throws AlmacenamientoException {
+        return consultarVentas("leer las ventas", null);
+    }
+
+    @Override
+    public List<Venta> obtenerVentasEntreFechas(LocalDate desde, LocalDate hasta) throws AlmacenamientoException {
+        return consultarVentas("leer las ventas entre fechas", "fecha BETWEEN ? AND ?", desde.toString(), hasta.toString());
+    }
+
+    @Override
+    public List<Venta> obtenerVentasCliente(String idCliente) throws AlmacenamientoException {
+        return consultarVentas("leer las ventas del cliente " + idCliente, "id_cliente = ?", idCliente);
+    }
+
+    /*
+    -----------------------------------------------------------------------------------------------------------
+    ----------------------------OTROS METODOS------------------------------------------------------------------
+    */
+
+    /**
+     * Deja la base de datos con los registros recibidos en una sola transacción. Se leen los
+     * productos y clientes guardados y los códigos de las ventas, y solo se actualizan los
+     * registros que cambiaron, se insertan los nuevos y se eliminan los que ya no están. Las ventas
+     * no cambian una vez registradas, así que de ellas solo se insertan las nuevas.
+     */
+    @Override
+    public void sincronizar(Collection<Producto> productos, Collection<Cliente> clientes, Collection<Venta> ventas) throws AlmacenamientoException {
+        enTransaccion("sincronizar el contenido", conexion -> {
+            Map<String, Producto> productosGuardados = new HashMap<>();
+            for (Producto producto : consultar(conexion, SELECCIONAR_PRODUCTOS, AlmacenamientoJdbc::leerProducto)) {
+                productosGuardados.put(producto.getCodigo(), producto);
+            }
+            List<Producto> productosNuevos = new ArrayList<>();
+            List<Producto> productosCambiados = new ArrayList<>();
+            for (Producto producto : productos) {
+                Producto guardado = productosGuardados.remove(producto.getCodigo());
+                if (guardado == null) {
+                    productosNuevos.add(producto);
+                } else if (!guardado.equals(producto)) {
+                    productosCambiados.add(producto);
+                }
+            }
+            eliminarPorLlave(conexion, ELIMINAR_PRODUCTO, new ArrayList<>(productosGuardados.keySet()));
+            actualizarProductos(conexion, productosCambiados);
+            insertarProductos(conexion, productosNuevos);
+
+            Map<String, Cliente> clientesGuardados = new HashMap<>();
+            for (Cliente cliente : consultar(conexion, SELECCIONAR_CLIENTES, AlmacenamientoJdbc::leerCliente)) {
+                clientesGuardados.put(cliente.getNumIdentificacion(), cliente);
+            }
+            List<Cliente> clientesNuevos = new ArrayList<>();
+            List<Cliente> clientesCambiados = new ArrayList<>();
+            for (Cliente cliente : clientes) {
+                Cliente guardado = clientesGuardados.remove(cliente.getNumIdentificacion());
+                if (guardado == null) {
+                    clientesNuevos.add(cliente);
+                } else if (!guardado.equals(cliente)) {
+                    clientesCambiados.add(cliente);
+                }
+            }
+            eliminarPorLlave(conexion, ELIMINAR_CLIENTE, new ArrayList<>(clientesGuardados.keySet()));
+            actualizarClientes(conexion, clientesCambiados);
+            insertarClientes(conexion, clientesNuevos);
+
+            Set<String> codigosGuardados = new HashSet<>(consultar(conexion, SELECCIONAR_CODIGOS_VENTAS, resultado -> resultado.getString(1)));
+            List<Venta> ventasNuevas = new ArrayList<>();
+            for (Venta venta : ventas) {
+                if (!codigosGuardados.remove(venta.getCodigo())) {
+                    ventasNuevas.add(venta);
+                }
+            }
+            List<String> ventasEliminadas = new ArrayList<>(codigosGuardados);
+            eliminarPorLlave(conexion, ELIMINAR_DETALLES, ventasEliminadas);
+            eliminarPorLlave(conexion, ELIMINAR_VENTA, ventasEliminadas);
+            insertarVentas(conexion, ventasNuevas);
+        });
+    }
+
+    @Override
+    public void close() {
+        pool.close();
+    }
+
+    /*
+    -----------------------------------------------------------------------------------------------------------
+    ----------------------------ESCRITURA EN LOTES-------------------------------------------------------------
+    */
+
+    private static void insertarProductos(Connection conexion, Collection<Producto> productos) throws SQLException {
+        try (PreparedStatement sentencia = conexion.prepareStatement(INSERTAR_PRODUCTO)) {
+            int pendientes = 0;
+            for (Producto producto : productos) {
+                sentencia.setString(1, producto.getCodigo());
+                sentencia.setString(2, producto.getNombre());
+                sentencia.setDouble(3, producto.getPrecio());
+                sentencia.setInt(4, producto.getCantidadInventario());
+                pendientes = agregarAlLote(sentencia, pendientes);
+            }
+            sentencia.executeBatch();
+        }
+    }
+
+    private static void actualizarProductos(Connection conexion, Collection<Producto> productos) throws SQLException {
+        try (PreparedStatement sentencia = conexion.prepareStatement(ACTUALIZAR_PRODUCTO)) {
+            int pendientes = 0;
+            for (Producto producto : productos) {
+                sentencia.setString(1, producto.getNombre());
+                sentencia.setDouble(2, producto.getPrecio());
+                sentencia.setInt(3, producto.getCantidadInventario());
+                sentencia.setString(4, producto.getCodigo());
+                pendientes = agregarAlLote(sentencia, pendientes);
+            }
+            sentencia.executeBatch();
+        }
+    }
+
+    private static void insertarClientes(Connection conexion, Collection<Cliente> clientes) throws SQLException {
+        try (PreparedStatement sentencia = conexion.prepareStatement(INSERTAR_CLIENTE)) {
+            int pendientes = 0;
+            for (Cliente cliente : clientes) {
+                sentencia.setString(1, cliente.getNumIdentificacion());
+                sentencia.setString(2, cliente.getNombre());
+                sentencia.setString(3, cliente.getDireccion());
+                pendientes = agregarAlLote(sentencia, pendientes);
+            }
+            sentencia.executeBatch();
+        }
+    }
+
+    private static void actualizarClientes(Connection conexion, Collection<Cliente> clientes) throws SQLException {
+        try (PreparedStatement sentencia = conexion.prepareStatement(ACTUALIZAR_CLIENTE)) {
+            int pendientes = 0;
+            for (Cliente cliente : clientes) {
+                sentencia.setString(1, cliente.getNombre());
+                sentencia.setString(2, cliente.getDireccion());
+                sentencia.setString(3, cliente.getNumIdentificacion());
+                pendientes = agregarAlLote(sentencia, pendientes);
+            }
+            sentencia.executeBatch();
+        }
+    }
+
+    private static void insertarVentas(Connection conexion, Collection<Venta> ventas) throws SQLException {
+        try (PreparedStatement sentenciaVenta = conexion.prepareStatement(INSERTAR_VENTA);
+             PreparedStatement sentenciaDetalle = conexion.prepareStatement(INSERTAR_DETALLE)) {
+            int ventasPendientes = 0;
+            int detallesPendientes = 0;
+            for (Venta venta : ventas) {
+                sentenciaVenta.setString(1, venta.getCodigo());
+                sentenciaVenta.setString(2, venta.getFecha().toString());
+                establecerDecimal(sentenciaVenta, 3, venta.getTotal());
+                sentenciaVenta.setString(4, venta.getCliente() == null ? null : venta.getCliente().getNumIdentificacion());
+                ventasPendientes = agregarAlLote(sentenciaVenta, ventasPendientes);
+
+                List<DetalleVenta> detallesVenta = venta.getDetallesVenta();
+                for (int i = 0; detallesVenta != null && i < detallesVenta.size(); i++) {
+                    DetalleVenta detalleVenta = detallesVenta.get(i);
+                    if (detalleVenta.getProducto() == null) {
+                        continue;
+                    }
+                    sentenciaDetalle.setString(1, venta.getCodigo());
+                    sentenciaDetalle.setInt(2, i);
+                    sentenciaDetalle.setString(3, detalleVenta.getProducto().getCodigo());
+                    sentenciaDetalle.setInt(4, detalleVenta.getCantidad());
+                    establecerDecimal(sentenciaDetalle, 5, detalleVenta.getSubTotal());
+                    detallesPendientes = agregarAlLote(sentenciaDetalle, detallesPendientes);
+                }
+            }
+            sentenciaVenta.executeBatch();
+            sentenciaDetalle.executeBatch();
+        }
+    }
+
+    private static void eliminarPorLlave(Connection conexion, String sql, List<String> llaves) throws SQLException {
+        try (PreparedStatement sentencia = conexion.prepareStatement(sql)) {
+            int pendientes = 0;
+            for (String llave : llaves) {
+                sentencia.setString(1, llave);
+                pendientes = agregarAlLote(sentencia, pendientes);
+            }
+            sentencia.executeBatch();
+        }
+    }
+
+    /**
+     * Agrega la fila actual al lote y lo envía cuando alcanza su tamaño máximo, para no acumular
+     * en memoria todas las filas de una colección grande.
+     *
+     * @return La cantidad de filas que quedan pendientes en el lote.
+     */
+    private static int agregarAlLote(PreparedStatement sentencia, int pendientes) throws SQLException {
+        sentencia.addBatch();
+        if (++pendientes == TAMANIO_LOTE) {
+            sentencia.executeBatch();
+            return 0;
+        }
+        return pendientes;
+    }
+
+    private static void establecerDecimal(PreparedStatement sentencia, int indice, Double valor) throws SQLException {
+        if (valor == null) {
+            sentencia.setNull(indice, Types.DOUBLE);
+        } else {
+            sentencia.setDouble(indice, valor);
+        }
+    }
+
+    /*
+    -----------------------------------------------------------------------------------------------------------
+    ----------------------------LECTURA------------------------------------------------------------------------
+    */
+
+    /**
+     * Consulta las ventas que cumplen una condición junto con sus detalles. Se hacen dos consultas,
+     * una para las ventas y otra para los detalles de esas mismas ventas, en lugar de una por venta.
+     *
+     * @param accion     La descripción de la operación, para el mensaje de error.
+     * @param condicion  La condición sobre la tabla de ventas, o null para leerlas todas.
+     * @param parametros Los parámetros de la condición.
+     * @return Las ventas encontradas, ordenadas por fecha.
+     */
+    private List<Venta> consultarVentas(String accion, String condicion, String... parametros) throws AlmacenamientoException {
+        String filtroVentas = condicion == null ? "" : " WHERE " + condicion;
+        String filtroDetalles = condicion == null ? "" : " WHERE d.codigo_venta IN (SELECT codigo FROM ventas WHERE " + condicion + ")";
+        try (Connection conexion = pool.obtener()) {
+            Map<String, Venta> ventas = new LinkedHashMap<>();
+            for (Venta venta : consultar(conexion, SELECCIONAR_VENTAS + filtroVentas + " ORDER BY v.fecha, v.codigo",
+                    AlmacenamientoJdbc::leerVenta, parametros)) {
+                ventas.put(venta.getCodigo(), venta);
+            }
+            if (!ventas.isEmpty()) {
+                try (PreparedStatement sentencia = conexion.prepareStatement(SELECCIONAR_DETALLES + filtroDetalles
+                        + " ORDER BY d.codigo_venta, d.posicion")) {
+                    establecerParametros(sentencia, parametros);
+                    try (ResultSet resultado = sentencia.executeQuery()) {
+                        while (resultado.next()) {
+                            Venta venta = ventas.get(resultado.getString(1));
+                            if (venta != null) {
+                                venta.getDetallesVenta().add(leerDetalle(resultado));
+                            }
+                        }
+                    }
+                }
+            }
+            return new ArrayList<>(ventas.values());
+        } catch (SQLException e) {
+            throw new AlmacenamientoException("Error al " + accion + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static Producto leerProducto(ResultSet resultado) throws SQLException {
+        return new Producto(resultado.getString(2), resultado.getString(1), resultado.getDouble(3), resultado.getInt(4));
+    }
+
+    private static Cliente leerCliente(ResultSet resultado) throws SQLException {
+        return new Cliente(resultado.getString(2), resultado.getString(1), resultado.getString(3));
+    }
+
+    /**
+     * Lee una venta sin sus detalles. Si el cliente ya no está registrado se conserva solo su identificación.
+     */
+    private static Venta leerVenta(ResultSet resultado) throws SQLException {
+        Cliente cliente = null;
+        String idCliente = resultado.getString(4);
+        if (idCliente != null) {
+            String nombre = resultado.getString(5);
+            cliente = new Cliente(nombre == null ? "" : nombre, idCliente, nombre == null ? "" : resultado.getString(6));
+        }
+        return new Venta(resultado.getString(1), LocalDate.parse(resultado.getString(2)), leerDecimal(resultado, 3),
+                cliente, new ArrayList<>());
+    }
+
+    /**
+     * Lee un detalle de venta. Si el producto ya no está registrado se conserva solo su código.
+     */
+    private static DetalleVenta leerDetalle(ResultSet resultado) throws SQLException {
+        String codigo = resultado.getString(2);
+        String nombre = resultado.getString(5);
+        Producto producto = nombre == null
+                ? new Producto("", codigo, 0, 0)
+                : new Producto(nombre, codigo, resultado.getDouble(6), resultado.getInt(7));
+        return new DetalleVenta(resultado.getInt(3), producto, leerDecimal(resultado, 4));
+    }
+
+    private static Double leerDecimal(ResultSet resultado, int indice) throws SQLException {
+        double valor = resultado.getDouble(indice);
+        return resultado.wasNull() ? null : valor;
+    }
+
+    /*
+    -----------------------------------------------------------------------------------------------------------
+    ----------------------------CONEXIONES---------------------------------------------------------------------
+    */
+
+    /**
+     * Operación que se ejecuta con una conexión.
+     */
+    @FunctionalInterface
+    private interface OperacionSql {
+        void ejecutar(Connection conexion) throws SQLException;
+    }
+
+    /**
+     * Función que convierte la fila actual de un resultado en un objeto.
+     */
+    @FunctionalInterface
+    private interface LectorFila<T> {
+        T leer(ResultSet resultado) throws SQLException;
+    }
+
+    /**
+     * Ejecuta una operación en una transacción: se confirma si termina bien y se deshace si falla.
+     */
+    private void enTransaccion(String accion, OperacionSql operacion) throws AlmacenamientoException {
+        try (Connection conexion = pool.obtener()) {
+            conexion.setAutoCommit(false);
+            try {
+                operacion.ejecutar(conexion);
+                conexion.commit();
+            } catch (SQLException | RuntimeException e) {
+                conexion.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new AlmacenamientoException("Error al " + accion + ": " + e.getMessage(), e);
+        }
+    }
+
+    private int actualizar(String accion, String sql, String... parametros) throws AlmacenamientoException {
+        try (Connection conexion = pool.obtener();
+             PreparedStatement sentencia = conexion.prepareStatement(sql)) {
+            establecerParametros(sentencia, parametros);
+            return sentencia.executeUpdate();
+        } catch (SQLException e) {
+            throw new AlmacenamientoException("Error al " + accion + ": " + e.getMessage(), e);
+        }
+    }
+
+    private <T> List<T> consultar(String accion, String sql, LectorFila<T> lector, String... parametros) throws AlmacenamientoException {
+        try (Connection conexion = pool.obtener()) {
+            return consultar(conexion, sql, lector, parametros);
+        } catch (SQLException e) {
+            throw new AlmacenamientoException("Error al " + accion + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static <T> List<T> consultar(Connection conexion, String sql, LectorFila<T> lector, String... parametros) throws SQLException {
+        try (PreparedStatement sentencia = conexion.prepareStatement(sql)) {
+            establecerParametros(sentencia, parametros);
+            List<T> lista = new ArrayList<>();
+            try (ResultSet resultado = sentencia.executeQuery()) {
+                while (resultado.next()) {
+                    lista.add(lector.leer(resultado));
+                }
+            }
+            return lista;
+        }
+    }
+
+    private static void establecerParametros(PreparedStatement sentencia, String... parametros) throws SQLException {
+        for (int i = 0; i < parametros.length; i++) {
+            sentencia.setString(i + 1, parametros[i]);
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package co.edu.uniquindio.tienda.tienda.persistencia;
+
+
+import co.edu.uniquindio.tienda.tienda.model.Cliente;
+import co.edu.uniquindio.tienda.tienda.model.Producto;
+
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Carga los catálogos de texto separados por comas (productos y clientes).
+ * El archivo se mapea en memoria y se decodifica una sola vez; luego se divide en bloques
+ * de líneas completas que se interpretan en paralelo, recorriendo los caracteres sin usar
+ * expresiones regulares. Las líneas que no se pueden interpretar se reportan en el resultado
+ * en lugar de detener la carga.
+ */
+@SuppressWarnings("ALL")
+public class CargadorCatalogo {
+
+    private static final int TAMANIO_MINIMO_BLOQUE = 1 << 16;
+
+    /**
+     * Interpreta los campos de una línea ya separados.
+     *
+     * @param <T> El tipo de registro construido.
+     */
+    @FunctionalInterface
+    private interface LectorRegistro<T> {
+        T leer(CharBuffer texto, int[] inicios, int[] fines);
+    }
+
+    /**
+     * Bloque de líneas interpretado de forma independiente.
+     */
+    private static class Bloque<T> {
+        private final List<T> registros = new ArrayList<>();
+        private final List<String> errores = new ArrayList<>();
+        private final List<Integer> lineasErrores = new ArrayList<>();
+        private int lineas;
+    }
+
+    /**
+     * Carga los productos de un archivo con el formato {@code nombre,codigo,precio,cantidad}.
+     *
+     * @param ruta La ruta del archivo de productos.
+     * @return Los productos leídos y las líneas con errores.
+     * @throws IOException Si el archivo no se puede leer.
+     */
+    public static ResultadoCarga<Producto> cargarProductos(Path ruta) throws IOException {
+        return cargar(ruta, 4, (texto, inicios, fines) -> new Producto(
+                texto.subSequence(inicios[0], fines[0]).toString(),
+                texto.subSequence(inicios[1], fines[1]).toString(),
+                leerDecimal(texto, inicios[2], fines[2]),
+                leerEntero(texto, inicios[3], fines[3])));
+    }
+
+    /**
+     * Carga los clientes de un archivo con el formato {@code nombre,identificacion,direccion}.
+     *
+     * @param ruta La ruta del archivo de clientes.
+     * @return Los clientes leídos y las líneas con errores.
+     * @throws IOException Si el archivo no se puede leer.
+     */
+    public static ResultadoCarga<Cliente> cargarClientes(Path ruta) throws IOException {
+        return cargar(ruta, 3, (texto, inicios, fines) -> new Cliente(
+                texto.subSequence(inicios[0], fines[0]).toString(),
+                texto.subSequence(inicios[1], fines[1]).toString(),
+                texto.subSequence(inicios[2], fines[2]).toString()));
+    }
+
+    /**
+     * Lee un archivo de registros separados por comas, interpretando sus bloques en paralelo.
+     *
+     * @param ruta    La ruta del archivo.
+     * @param campos  La cantidad exacta de campos de cada línea.
+     * @param lector  La función que construye un registro a partir de sus campos.
+     * @return Los registros en el orden del archivo y las líneas con errores.
+     * @throws IOException Si el archivo no se puede leer.
+     */
+    private static <T> ResultadoCarga<T> cargar(Path ruta, int campos, LectorRegistro<T> lector) throws IOException {
+        CharBuffer texto;
+        try (FileChannel canal = FileChannel.open(ruta, StandardOpenOption.READ)) {
+            MappedByteBuffer datos = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+            texto = StandardCharsets.UTF_8.decode(datos);
+        }
+
+        int[] limites = dividirEnBloques(texto);
+        List<Bloque<T>> bloques = IntStream.range(0, limites.length - 1)
+                .parallel()
+                .mapToObj(i -> leerBloque(texto, limites[i], limites[i + 1], campos, lector))
+                .toList();
+
+        List<T> registros = new ArrayList<>();
+        List<String> errores = new ArrayList<>();
+        int lineasPrevias = 0;
+        for (Bloque<T> bloque : bloques) {
+            registros.addAll(bloque.registros);
+            for (int i = 0; i < bloque.errores.size(); i++) {
+                errores.add("Línea " + (lineasPrevias + bloque.lineasErrores.get(i)) + ": " + bloque.errores.get(i));
+            }
+            lineasPrevias += bloque.lineas;
+        }
+        return new ResultadoCarga<>(registros, errores);
+    }
+
+    /**
+     * Divide el texto en bloques que terminan en un salto de línea, uno por procesador disponible.
+     *
+     * @param texto El contenido del archivo.
+     * @return Las posiciones de inicio de cada bloque, seguidas de la longitud del texto.
+     */
+    private static int[] dividirEnBloques(CharBuffer texto) {
+        int longitud = texto.limit();
+        int cantidad = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), longitud / TAMANIO_MINIMO_BLOQUE));
+        List<Integer> limites = new ArrayList<>();
+        limites.add(0);
+        for (int i = 1; i < cantidad; i++) {
+            int posicion = Math.max((int) ((long) longitud * i / cantidad), limites.get(limites.size() - 1));
+            while (posicion < longitud && texto.get(posicion) != '\n') {
+                posicion++;
+            }
+            if (posicion < longitud) {
+                limites.add(posicion + 1);
+            }
+        }
+        limites.add(longitud);
+        return limites.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Interpreta las líneas de un bloque del texto.
+     *
+     * @param texto   El contenido del archivo.
+     * @param inicio  La posición inicial del bloque.
+     * @param fin     La posición final del bloque, exclusiva.
+     * @param campos  La cantidad exacta de campos de cada línea.
+     * @param lector  La función que construye un registro a partir de sus campos.
+     * @return Los registros y errores del bloque, con números de línea relativos al bloque.
+     */
+    private static <T> Bloque<T> leerBloque(CharBuffer texto, int inicio, int fin, int campos, LectorRegistro<T> lector) {
+        Bloque<T> bloque = new Bloque<>();
+        int[] inicios = new int[campos];
+        int[] fines = new int[campos];
+        int posicion = inicio;
+        while (posicion < fin) {
+            int finLinea = posicion;
+            while (finLinea < fin && texto.get(finLinea) != '\n') {
+                finLinea++;
+            }
+            bloque.lineas++;
+            int finContenido = finLinea;
+            if (finContenido > posicion && texto.get(finContenido - 1) == '\r') {
+                finContenido--;
+            }
+            if (!esVacia(texto, posicion, finContenido)) {
+                leerLinea(texto, posicion, finContenido, inicios, fines, lector, bloque);
+            }
+            posicion = finLinea + 1;
+        }
+        return bloque;
+    }
+
+    /**
+     * Separa una línea en sus campos, sin espacios al inicio ni al final, y construye el registro.
+     * Si la cantidad de campos no es la esperada o un valor no es válido, registra el error.
+     */
+    private static <T> void leerLinea(CharBuffer texto, int inicio, int fin, int[] inicios, int[] fines, LectorRegistro<T> lector, Bloque<T> bloque) {
+        int campo = 0;
+        int inicioCampo = inicio;
+        for (int i = inicio; i <= fin; i++) {
+            if (i == fin || texto.get(i) == ',') {
+                if (campo == inicios.length) {
+                    registrarError(bloque, "se esperaban " + inicios.length + " campos");
+                    return;
+                }
+                int a = inicioCampo;
+                int b = i;
+                while (a < b && Character.isWhitespace(texto.get(a))) {
+                    a++;
+                }
+                while (b > a && Character.isWhitespace(texto.get(b - 1))) {
+                    b--;
+                }
+                inicios[campo] = a;
+                fines[campo] = b;
+                campo++;
+                inicioCampo = i + 1;
+            }
+        }
+        if (campo != inicios.length) {
+            registrarError(bloque, "se esperaban " + inicios.length + " campos");
+            return;
+        }
+        try {
+            bloque.registros.add(lector.leer(texto, inicios, fines));
+        } catch (NumberFormatException e) {
+            registrarError(bloque, e.getMessage());
+        }
+    }
+
+    private static void registrarError(Bloque<?> bloque, String mensaje) {
+        bloque.errores.add(mensaje);
+        bloque.lineasErrores.add(bloque.lineas);
+    }
+
+    private static boolean esVacia(CharBuffer texto, int inicio, int fin) {
+        for (int i = inicio; i < fin; i++) {
+            if (!Character.isWhitespace(texto.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Lee un número entero sin crear cadenas intermedias.
+     *
+     * @throws NumberFormatException Si el texto no es un entero válido.
+     */
+    static int leerEntero(CharSequence texto, int inicio, int fin) {
+        if (inicio >= fin) {
+            throw new NumberFormatException("valor entero vacío");
+        }
+        boolean negativo = texto.charAt(inicio) == '-';
+        int i = negativo || texto.charAt(inicio) == '+' ? inicio + 1 : inicio;
+        if (i >= fin) {
+            throw new NumberFormatException("valor entero inválido: " + texto.subSequence(inicio, fin));
+        }
+        long valor = 0;
+        for (; i < fin; i++) {
+            char c = texto.charAt(i);
+            if (c < '0' || c > '9') {
+                throw new NumberFormatException("valor entero inválido: " + texto.subSequence(inicio, fin));
+            }
+            valor = valor * 10 + (c - '0');
+            if (valor > (long) Integer.MAX_VALUE + 1) {
+                throw new NumberFormatException("valor entero fuera de rango: " + texto.subSequence(inicio, fin));
+            }
+        }
+        valor = negativo ? -valor : valor;
+        if (valor > Integer.MAX_VALUE) {
+            throw new NumberFormatException("valor entero fuera de rango: " + texto.subSequence(inicio, fin));
+        }
+        return (int) valor;
+    }
+
+    /**
+     * Lee un número decimal con punto como separador. Los valores con exponente o con
+     * demasiados dígitos se delegan a {@link Double#parseDouble(String)} para conservar la precisión.
+     *
+     * @throws NumberFormatException Si el texto no es un decimal válido.
+     */
+    static double leerDecimal(CharSequence texto, int inicio, int fin) {
+        if (inicio >= fin) {
+            throw new NumberFormatException("valor decimal vacío");
+        }
+        boolean negativo = texto.charAt(inicio) == '-';
+        int i = negativo || texto.charAt(inicio) == '+' ? inicio + 1 : inicio;
+        long mantisa = 0;
+        int digitos = 0;
+        int decimales = 0;
+        boolean punto = false;
+        for (; i < fin; i++) {
+            char c = texto.charAt(i);
+            if (c >= '0' && c <= '9') {
+                mantisa = mantisa * 10 + (c - '0');
+                digitos++;
+                if (punto) {
+                    decimales++;
+                }
+            } else if (c == '.' && !punto) {
+                punto = true;
+            } else {
+                break;
+            }
+        }
+        if (i < fin || digitos > 15) {
+            try {
+                return Double.parseDouble(texto.subSequence(inicio, fin).toString());
+            } catch (NumberFormatException e) {
+                throw new NumberFormatException("valor decimal inválido: " + texto.subSequence(inicio, fin));
+            }
+        }
+        if (digitos == 0) {
+            throw new NumberFormatException("valor decimal inválido: " + texto.subSequence(inicio, fin));
+        }
+        double valor = decimales == 0 ? mantisa : mantisa / Math.pow(10, decimales);
+        return negativo ? -valor : valor;
+    }
+}
@@ -0,0 +1,288 @@
+package co.edu.uniquindio.tienda.tienda.persistencia;
+
+
+import co.edu.uniquindio.tienda.tienda.model.Cliente;
+import co.edu.uniquindio.tienda.tienda.model.Producto;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Catálogo de productos o clientes en formato binario, pensado para leerse mapeado en memoria
+ * sin interpretar texto.
+ * <p>
+ * El archivo empieza con un encabezado de 16 bytes (número mágico, versión, tipo de registro y
+ * cantidad de registros), seguido de una tabla con la posición de cada registro ordenada por su
+ * clave (código del producto o identificación del cliente), y por último los registros. Cada
+ * registro guarda primero sus campos numéricos de ancho fijo y después sus textos en UTF-8,
+ * precedidos de su longitud, empezando por la clave.
+ */
+@SuppressWarnings("ALL")
+public class CatalogoBinario {
+
+    private static final int NUMERO_MAGICO = 0x54434154;
+    private static final short VERSION = 1;
+    private static final int TAMANIO_ENCABEZADO = 16;
+    private static final int LONGITUD_MAXIMA_TEXTO = 0xFFFF;
+
+    public static final byte TIPO_PRODUCTOS = 1;
+    public static final byte TIPO_CLIENTES = 2;
+
+    private final ByteBuffer datos;
+    private final byte tipo;
+    private final int cantidad;
+
+    private CatalogoBinario(ByteBuffer datos, byte tipo, int cantidad) {
+        this.datos = datos;
+        this.tipo = tipo;
+        this.cantidad = cantidad;
+    }
+
+    /*
+    -----------------------------------------------------------------------------------------------------------
+    ----------------------------LEER---------------------------------------------------------------------------
+    */
+
+    /**
+     * Abre un catálogo binario mapeándolo en memoria. Solo se lee el encabezado; los registros
+     * se leen cuando se solicitan.
+     *
+     * @param ruta La ruta del archivo.
+     * @return El catálogo abierto.
+     * @throws IOException Si el archivo no se puede leer o no es un catálogo binario válido.
+     */
+    public static CatalogoBinario abrir(Path ruta) throws IOException {
+        MappedByteBuffer datos;
+        try (FileChannel canal = FileChannel.open(ruta, StandardOpenOption.READ)) {
+            if (canal.size() < TAMANIO_ENCABEZADO || canal.size() > Integer.MAX_VALUE) {
+                throw new IOException("El archivo " + ruta + " no es un catálogo binario válido");
+            }
+            datos = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+        }
+        if (datos.getInt(0) != NUMERO_MAGICO) {
+            throw new IOException("El archivo " + ruta + " no es un catálogo binario válido");
+        }
+        if (datos.getShort(4) != VERSION) {
+            throw new IOException("Versión no soportada del catálogo binario " + ruta + ": " + datos.getShort(4));
+        }
+        byte tipo = datos.get(6);
+        int cantidad = datos.getInt(8);
+        if (cantidad < 0 || TAMANIO_ENCABEZADO + (long) cantidad * Integer.BYTES > datos.limit()) {
+            throw new IOException("El archivo " + ruta + " está incompleto");
+        }
+        return new CatalogoBinario(datos, tipo, cantidad);
+    }
+
+    /**
+     * Lee el producto en una posición de la tabla.
+     *
+     * @param indice La posición del producto, en orden de código.
+     * @return El producto leído.
+     */
+    public Producto leerProducto(int indice) {
+        validarTipo(TIPO_PRODUCTOS);
+        int posicion = posicionRegistro(indice);
+        double precio = datos.getDouble(posicion);
+        int cantidadInventario = datos.getInt(posicion + Double.BYTES);
+        posicion += Double.BYTES + Integer.BYTES;
+        String codigo = leerTexto(posicion);
+        posicion += longitudTexto(posicion);
+        String nombre = leerTexto(posicion);
+        return new Producto(nombre, codigo, precio, cantidadInventario);
+    }
+
+    /**
+     * Lee el cliente en una posición de la tabla.
+     *
+     * @param indice La posición del cliente, en orden de identificación.
+     * @return El cliente leído.
+     */
+    public Cliente leerCliente(int indice) {
+        validarTipo(TIPO_CLIENTES);
+        int posicion = posicionRegistro(indice);
+        String numIdentificacion = leerTexto(posicion);
+        posicion += longitudTexto(posicion);
+        String nombre = leerTexto(posicion);
+        posicion += longitudTexto(posicion);
+        String direccion = leerTexto(posicion);
+        return new Cliente(nombre, numIdentificacion, direccion);
+    }
+
+    private int posicionRegistro(int indice) {
+        if (indice < 0 || indice >= cantidad) {
+            throw new IndexOutOfBoundsException("Registro " + indice + " fuera del catálogo de " + cantidad + " registros");
+        }
+        return datos.getInt(TAMANIO_ENCABEZADO + indice * Integer.BYTES);
+    }
+
+    private String leerTexto(int posicion) {
+        int longitud = Short.toUnsignedInt(datos.getShort(posicion));
+        byte[] bytes = new byte[longitud];
+        datos.get(posicion + Short.BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private int longitudTexto(int posicion) {
+        return Short.BYTES + Short.toUnsignedInt(datos.getShort(posicion));
+    }
+
+    private void validarTipo(byte esperado) {
+        if (tipo != esperado) {
+            throw new IllegalStateException("El catálogo binario no contiene " + (esperado == TIPO_PRODUCTOS ? "productos" : "clientes"));
+        }
+    }
+
+    public byte getTipo() {
+        return tipo;
+    }
+
+    public int getCantidad() {
+        return cantidad;
+    }
+
+    /*
+    -----------------------------------------------------------------------------------------------------------
+    ----------------------------ESCRIBIR-----------------------------------------------------------------------
+    */
+
+    /**
+     * Escribe un catálogo binario de productos. Si hay códigos repetidos se conserva el primero.
+     *
+     * @param ruta      La ruta del archivo.
+     * @param productos Los productos a escribir.
+     * @throws IOException Si el archivo no se puede escribir.
+     */
+    public static void escribirProductos(Path ruta, Collection<Producto> productos) throws IOException {
+        escribir(ruta, TIPO_PRODUCTOS, productos, Producto::getCodigo, (producto, buffer) -> {
+            buffer.putDouble(producto.getPrecio());
+            buffer.putInt(producto.getCantidadInventario());
+            escribirTexto(buffer, producto.getCodigo());
+            escribirTexto(buffer, producto.getNombre());
+        });
+    }
+
+    /**
+     * Escribe un catálogo binario de clientes. Si hay identificaciones repetidas se conserva la primera.
+     *
+     * @param ruta     La ruta del archivo.
+     * @param clientes Los clientes a escribir.
+     * @throws IOException Si el archivo no se puede escribir.
+     */
+    public static void escribirClientes(Path ruta, Collection<Cliente> clientes) throws IOException {
+        escribir(ruta, TIPO_CLIENTES, clientes, Cliente::getNumIdentificacion, (cliente, buffer) -> {
+            escribirTexto(buffer, cliente.getNumIdentificacion());
+            escribirTexto(buffer, cliente.getNombre());
+            escribirTexto(buffer, cliente.getDireccion());
+        });
+    }
+
+    /**
+     * Convierte un archivo de productos de texto a un catálogo binario.
+     *
+     * @param txt     La ruta del archivo de texto.
+     * @param binario La ruta del catálogo binario a crear.
+     * @return El resultado de leer el archivo de texto, con las líneas que no se pudieron interpretar.
+     * @throws IOException Si alguno de los archivos no se puede leer o escribir.
+     */
+    public static ResultadoCarga<Producto> convertirProductos(Path txt, Path binario) throws IOException {
+        ResultadoCarga<Producto> resultado = CargadorCatalogo.cargarProductos(txt);
+        escribirProductos(binario, resultado.getRegistros());
+        return resultado;
+    }
+
+    /**
+     * Convierte un archivo de clientes de texto a un catálogo binario.
+     *
+     * @param txt     La ruta del archivo de texto.
+     * @param binario La ruta del catálogo binario a crear.
+     * @return El resultado de leer el archivo de texto, con las líneas que no se pudieron interpretar.
+     * @throws IOException Si alguno de los archivos no se puede leer o escribir.
+     */
+    public static ResultadoCarga<Cliente> convertirClientes(Path txt, Path binario) throws IOException {
+        ResultadoCarga<Cliente> resultado = CargadorCatalogo.cargarClientes(txt);
+        escribirClientes(binario, resultado.getRegistros());
+        return resultado;
+    }
+
+    /**
+     * Escribe los campos de un registro en el buffer.
+     */
+    @FunctionalInterface
+    private interface EscritorRegistro<T> {
+        void escribir(T registro, ByteBuffer buffer);
+    }
+
+    /**
+     * Escribe el encabezado, la tabla de posiciones ordenada por clave y los registros. El archivo
+     * se escribe primero con un nombre temporal y luego se reemplaza el anterior.
+     */
+    private static <T> void escribir(Path ruta, byte tipo, Collection<T> registros, Function<T, String> clave, EscritorRegistro<T> escritor) throws IOException {
+        Map<String, T> unicos = new LinkedHashMap<>();
+        for (T registro : registros) {
+            unicos.putIfAbsent(clave.apply(registro), registro);
+        }
+        List<String> claves = new ArrayList<>(unicos.keySet());
+        claves.sort(null);
+
+        List<byte[]> cuerpos = new ArrayList<>(claves.size());
+        long tamanio = TAMANIO_ENCABEZADO + (long) claves.size() * Integer.BYTES;
+        ByteBuffer temporal = ByteBuffer.allocate(Double.BYTES + Integer.BYTES + 3 * (Short.BYTES + LONGITUD_MAXIMA_TEXTO));
+        for (String llave : claves) {
+            temporal.clear();
+            escritor.escribir(unicos.get(llave), temporal);
+            byte[] cuerpo = new byte[temporal.position()];
+            temporal.flip().get(cuerpo);
+            cuerpos.add(cuerpo);
+            tamanio += cuerpo.length;
+        }
+        if (tamanio > Integer.MAX_VALUE) {
+            throw new IOException("El catálogo es demasiado grande para el formato binario");
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate((int) tamanio);
+        buffer.putInt(NUMERO_MAGICO).putShort(VERSION).put(tipo).put((byte) 0).putInt(cuerpos.size()).putInt(0);
+        int posicion = TAMANIO_ENCABEZADO + cuerpos.size() * Integer.BYTES;
+        for (byte[] cuerpo : cuerpos) {
+            buffer.putInt(posicion);
+            posicion += cuerpo.length;
+        }
+        for (byte[] cuerpo : cuerpos) {
+            buffer.put(cuerpo);
+        }
+        buffer.flip();
+
+        if (ruta.getParent() != null) {
+            Files.createDirectories(ruta.getParent());
+        }
+        Path archivoTemporal = ruta.resolveSibling(ruta.getFileName() + ".tmp");
+        try (FileChannel canal = FileChannel.open(archivoTemporal, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                canal.write(buffer);
+            }
+            canal.force(false);
+        }
+        Files.move(archivoTemporal, ruta, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void escribirTexto(ByteBuffer buffer, String texto) {
+        byte[] bytes = (texto == null ? "" : texto).getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > LONGITUD_MAXIMA_TEXTO) {
+            throw new IllegalArgumentException("Texto demasiado largo para el catálogo binario: " + bytes.length + " bytes");
+        }
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+}
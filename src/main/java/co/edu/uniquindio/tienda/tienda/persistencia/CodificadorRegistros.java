@@ -0,0 +1,453 @@
+package co.edu.uniquindio.tienda.tienda.persistencia;
+
+
+import co.edu.uniquindio.tienda.tienda.exception.ClienteNoEncontradoException;
+import co.edu.uniquindio.tienda.tienda.model.Cliente;
+import co.edu.uniquindio.tienda.tienda.model.DetalleVenta;
+import co.edu.uniquindio.tienda.tienda.model.Producto;
+import co.edu.uniquindio.tienda.tienda.model.Venta;
+import co.edu.uniquindio.tienda.tienda.model.services.ITienda;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+
+/**
+ * Convierte ventas, productos, clientes y cambios de inventario en líneas de texto y viceversa.
+ * Cada línea tiene la forma {@code crc|tipo|campo|campo...}, donde el CRC32 del resto de la línea
+ * permite descartar una línea escrita a medias. Los separadores que aparecen dentro de un valor
+ * se escapan con {@code %}.
+ */
+@SuppressWarnings("ALL")
+public class CodificadorRegistros {
+
+    public static final String TIPO_VENTA = "V";
+    public static final String TIPO_INVENTARIO = "I";
+    public static final String TIPO_COMPRA = "T";
+    public static final String TIPO_PRODUCTO = "P";
+    public static final String TIPO_CLIENTE = "C";
+    public static final String TIPO_CARRITO = "K";
+    public static final String TIPO_INSTANTANEA = "S";
+    public static final String TIPO_PRODUCTO_GUARDADO = "G";
+    public static final String TIPO_PRODUCTO_ELIMINADO = "E";
+    public static final String TIPO_CLIENTE_GUARDADO = "L";
+    public static final String TIPO_CLIENTE_ELIMINADO = "B";
+    public static final String TIPO_CARRITO_VACIADO = "Z";
+
+    private static final char SEPARADOR_CAMPO = '|';
+    private static final char SEPARADOR_ELEMENTO = ';';
+    private static final char SEPARADOR_VALOR = ':';
+
+    private CodificadorRegistros() {
+    }
+
+    /*
+    -----------------------------------------------------------------------------------------------------------
+    ----------------------------CODIFICAR----------------------------------------------------------------------
+    */
+
+    /**
+     * Codifica una venta con sus detalles.
+     *
+     * @param venta La venta a codificar.
+     * @return La línea con la venta, sin salto de línea.
+     */
+    public static String codificarVenta(Venta venta) {
+        return codificarVenta(TIPO_VENTA, venta);
+    }
+
+    /**
+     * Codifica una compra: una venta cuyo inventario se descontó junto con ella. La línea tiene los
+     * mismos campos que una venta, de modo que la venta y su descuento quedan en una sola entrada
+     * y nunca se reproduce uno sin el otro.
+     *
+     * @param venta La venta de la compra.
+     * @return La línea con la compra, sin salto de línea.
+     */
+    public static String codificarCompra(Venta venta) {
+        return codificarVenta(TIPO_COMPRA, venta);
+    }
+
+    /**
+     * Vuelve a codificar como venta una línea de venta o de compra ya leída, sin reconstruir la venta.
+     *
+     * @param campos Los campos de una línea de tipo venta o compra, tal como los devuelve {@link #leerCampos(String)}.
+     * @return La línea con la venta, sin salto de línea.
+     */
+    public static String codificarComoVenta(String[] campos) {
+        String[] valores = new String[campos.length - 1];
+        System.arraycopy(campos, 1, valores, 0, valores.length);
+        return linea(TIPO_VENTA, valores);
+    }
+
+    private static String codificarVenta(String tipo, Venta venta) {
+        String idCliente = venta.getCliente() == null ? "" : venta.getCliente().getNumIdentificacion();
+        return linea(tipo, escapar(venta.getCodigo()), String.valueOf(venta.getFecha()), texto(venta.getTotal()), escapar(idCliente),
+                codificarDetalles(venta.getDetallesVenta(), true));
+    }
+
+    /**
+     * Codifica un descuento de inventario.
+     *
+     * @param detallesVenta Los detalles con los productos y cantidades descontadas.
+     * @return La línea con el cambio de inventario, sin salto de línea.
+     */
+    public static String codificarInventario(List<DetalleVenta> detallesVenta) {
+        return linea(TIPO_INVENTARIO, codificarDetalles(detallesVenta, false));
+    }
+
+    /**
+     * Codifica un producto con su inventario actual.
+     *
+     * @param producto El producto a codificar.
+     * @return La línea con el producto, sin salto de línea.
+     */
+    public static String codificarProducto(Producto producto) {
+        return linea(TIPO_PRODUCTO, escapar(producto.getNombre()), escapar(producto.getCodigo()), String.valueOf(producto.getPrecio()), String.valueOf(producto.getCantidadInventario()));
+    }
+
+    /**
+     * Codifica un cliente.
+     *
+     * @param cliente El cliente a codificar.
+     * @return La línea con el cliente, sin salto de línea.
+     */
+    public static String codificarCliente(Cliente cliente) {
+        return linea(TIPO_CLIENTE, escapar(cliente.getNombre()), escapar(cliente.getNumIdentificacion()), escapar(cliente.getDireccion()));
+    }
+
+    /**
+     * Codifica un producto agregado o editado, con sus datos después del cambio.
+     *
+     * @param codigoAnterior El código que tenía el producto antes del cambio; para un producto nuevo, su propio código.
+     * @param producto       El producto con los datos actuales.
+     * @return La línea con el producto guardado, sin salto de línea.
+     */
+    public static String codificarProductoGuardado(String codigoAnterior, Producto producto) {
+        return linea(TIPO_PRODUCTO_GUARDADO, escapar(codigoAnterior), escapar(producto.getNombre()), escapar(producto.getCodigo()),
+                String.valueOf(producto.getPrecio()), String.valueOf(producto.getCantidadInventario()));
+    }
+
+    /**
+     * Codifica la eliminación de un producto.
+     *
+     * @param codigoProducto El código del producto eliminado.
+     * @return La línea con el producto eliminado, sin salto de línea.
+     */
+    public static String codificarProductoEliminado(String codigoProducto) {
+        return linea(TIPO_PRODUCTO_ELIMINADO, escapar(codigoProducto));
+    }
+
+    /**
+     * Codifica un cliente agregado o editado, con sus datos después del cambio.
+     *
+     * @param idAnterior La identificación que tenía el cliente antes del cambio; para un cliente nuevo, la suya.
+     * @param cliente    El cliente con los datos actuales.
+     * @return La línea con el cliente guardado, sin salto de línea.
+     */
+    public static String codificarClienteGuardado(String idAnterior, Cliente cliente) {
+        return linea(TIPO_CLIENTE_GUARDADO, escapar(idAnterior), escapar(cliente.getNombre()), escapar(cliente.getNumIdentificacion()),
+                escapar(cliente.getDireccion()));
+    }
+
+    /**
+     * Codifica la eliminación de un cliente.
+     *
+     * @param idCliente La identificación del cliente eliminado.
+     * @return La línea con el cliente eliminado, sin salto de línea.
+     */
+    public static String codificarClienteEliminado(String idCliente) {
+        return linea(TIPO_CLIENTE_ELIMINADO, escapar(idCliente));
+    }
+
+    /**
+     * Codifica un producto del carrito de una sesión.
+     *
+     * @param idSesion       El identificador de la sesión.
+     * @param codigoProducto El código del producto.
+     * @param cantidad       La cantidad en el carrito.
+     * @return La línea con el producto del carrito, sin salto de línea.
+     */
+    public static String codificarCarrito(String idSesion, String codigoProducto, int cantidad) {
+        return linea(TIPO_CARRITO, escapar(idSesion), escapar(codigoProducto), String.valueOf(cantidad));
+    }
+
+    /**
+     * Codifica el vaciado del carrito de una sesión.
+     *
+     * @param idSesion El identificador de la sesión.
+     * @return La línea con el carrito vaciado, sin salto de línea.
+     */
+    public static String codificarCarritoVaciado(String idSesion) {
+        return linea(TIPO_CARRITO_VACIADO, escapar(idSesion));
+    }
+
+    /**
+     * Codifica el encabezado de una instantánea de la tienda.
+     *
+     * @param segmento El primer segmento del registro de transacciones que no está incluido en la instantánea.
+     * @return La línea del encabezado, sin salto de línea.
+     */
+    public static String codificarInstantanea(long segmento) {
+        return linea(TIPO_INSTANTANEA, String.valueOf(segmento));
+    }
+
+    private static String codificarDetalles(List<DetalleVenta> detallesVenta, boolean incluirSubtotal) {
+        StringBuilder texto = new StringBuilder();
+        for (DetalleVenta detalleVenta : detallesVenta) {
+            if (!texto.isEmpty()) {
+                texto.append(SEPARADOR_ELEMENTO);
+            }
+            String codigo = detalleVenta.getProducto() == null ? null : detalleVenta.getProducto().getCodigo();
+            texto.append(escapar(codigo)).append(SEPARADOR_VALOR).append(detalleVenta.getCantidad());
+            if (incluirSubtotal) {
+                texto.append(SEPARADOR_VALOR).append(texto(detalleVenta.getSubTotal()));
+            }
+        }
+        return texto.toString();
+    }
+
+    /**
+     * Une el tipo y los campos, ya escapados, y antepone el CRC del contenido.
+     */
+    private static String linea(String tipo, String... campos) {
+        StringBuilder contenido = new StringBuilder(tipo);
+        for (String campo : campos) {
+            contenido.append(SEPARADOR_CAMPO).append(campo);
+        }
+        return Long.toHexString(crc(contenido)) + SEPARADOR_CAMPO + contenido;
+    }
+
+    /*
+    -----------------------------------------------------------------------------------------------------------
+    ----------------------------DECODIFICAR--------------------------------------------------------------------
+    */
+
+    /**
+     * Separa una línea en sus campos, verificando su CRC.
+     *
+     * @param linea La línea leída.
+     * @return Los campos de la línea, aún escapados y empezando por el tipo, o null si la línea está incompleta o dañada.
+     */
+    public static String[] leerCampos(String linea) {
+        int separador = linea.indexOf(SEPARADOR_CAMPO);
+        if (separador <= 0) {
+            return null;
+        }
+        String contenido = linea.substring(separador + 1);
+        try {
+            if (Long.parseLong(linea.substring(0, separador), 16) != crc(contenido)) {
+                return null;
+            }
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        return separarSinDesescapar(contenido, SEPARADOR_CAMPO).toArray(new String[0]);
+    }
+
+    /**
+     * Reconstruye una venta. Los productos y el cliente se buscan en la tienda; si ya no existen
+     * se crean con los datos disponibles en la línea.
+     *
+     * @param campos Los campos de una línea de tipo venta o compra.
+     * @param tienda La tienda en la que se buscan los productos y el cliente.
+     * @return La venta reconstruida.
+     */
+    public static Venta decodificarVenta(String[] campos, ITienda tienda) {
+        return decodificarVenta(campos, idCliente -> {
+            try {
+                return tienda.buscarCliente(idCliente);
+            } catch (ClienteNoEncontradoException e) {
+                return null;
+            }
+        }, tienda::obtenerProducto);
+    }
+
+    /**
+     * Reconstruye una venta sin buscar en una tienda: el cliente y los productos se crean solo con
+     * su identificación y su código, que es lo que se guarda de ellos en una venta.
+     *
+     * @param campos Los campos de una línea de tipo venta o compra.
+     * @return La venta reconstruida.
+     */
+    public static Venta decodificarVenta(String[] campos) {
+        return decodificarVenta(campos, idCliente -> null, codigo -> null);
+    }
+
+    private static Venta decodificarVenta(String[] campos, Function<String, Cliente> buscarCliente, Function<String, Producto> buscarProducto) {
+        Cliente cliente = null;
+        String idCliente = desescapar(campos[4]);
+        if (!idCliente.isEmpty()) {
+            cliente = buscarCliente.apply(idCliente);
+            if (cliente == null) {
+                cliente = new Cliente("", idCliente, "");
+            }
+        }
+        List<DetalleVenta> detallesVenta = decodificarDetalles(campos[5], buscarProducto, true);
+        return new Venta(desescapar(campos[1]), LocalDate.parse(campos[2]), decimal(campos[3]), cliente, detallesVenta);
+    }
+
+    /**
+     * Reconstruye los detalles de un descuento de inventario.
+     *
+     * @param campos Los campos de una línea de tipo inventario.
+     * @param tienda La tienda en la que se buscan los productos.
+     * @return Los detalles con los productos y cantidades descontadas.
+     */
+    public static List<DetalleVenta> decodificarInventario(String[] campos, ITienda tienda) {
+        return decodificarDetalles(campos[1], tienda::obtenerProducto, false);
+    }
+
+    /**
+     * Reconstruye los detalles de un descuento de inventario sin buscar en una tienda: los productos
+     * se crean solo con su código.
+     *
+     * @param campos Los campos de una línea de tipo inventario.
+     * @return Los detalles con los códigos y cantidades descontadas.
+     */
+    public static List<DetalleVenta> decodificarInventario(String[] campos) {
+        return decodificarDetalles(campos[1], codigo -> null, false);
+    }
+
+    /**
+     * Reconstruye un producto.
+     *
+     * @param campos Los campos de una línea de tipo producto.
+     * @return El producto reconstruido.
+     */
+    public static Producto decodificarProducto(String[] campos) {
+        return new Producto(desescapar(campos[1]), desescapar(campos[2]), Double.parseDouble(campos[3]), Integer.parseInt(campos[4]));
+    }
+
+    /**
+     * Reconstruye un cliente.
+     *
+     * @param campos Los campos de una línea de tipo cliente.
+     * @return El cliente reconstruido.
+     */
+    public static Cliente decodificarCliente(String[] campos) {
+        return new Cliente(desescapar(campos[1]), desescapar(campos[2]), desescapar(campos[3]));
+    }
+
+    /**
+     * Reconstruye los datos de un producto agregado o editado. El código anterior está en
+     * {@code campos[1]}.
+     *
+     * @param campos Los campos de una línea de tipo producto guardado.
+     * @return El producto con los datos posteriores al cambio.
+     */
+    public static Producto decodificarProductoGuardado(String[] campos) {
+        return new Producto(desescapar(campos[2]), desescapar(campos[3]), Double.parseDouble(campos[4]), Integer.parseInt(campos[5]));
+    }
+
+    /**
+     * Reconstruye los datos de un cliente agregado o editado. La identificación anterior está en
+     * {@code campos[1]}.
+     *
+     * @param campos Los campos de una línea de tipo cliente guardado.
+     * @return El cliente con los datos posteriores al cambio.
+     */
+    public static Cliente decodificarClienteGuardado(String[] campos) {
+        return new Cliente(desescapar(campos[2]), desescapar(campos[3]), desescapar(campos[4]));
+    }
+
+    private static List<DetalleVenta> decodificarDetalles(String texto, Function<String, Producto> buscarProducto, boolean incluyeSubtotal) {
+        List<DetalleVenta> detallesVenta = new ArrayList<>();
+        if (texto.isEmpty()) {
+            return detallesVenta;
+        }
+        for (String elemento : separarSinDesescapar(texto, SEPARADOR_ELEMENTO)) {
+            List<String> valores = separar(elemento, SEPARADOR_VALOR);
+            String codigo = valores.get(0);
+            int cantidad = Integer.parseInt(valores.get(1));
+            Double subTotal = incluyeSubtotal ? decimal(valores.get(2)) : null;
+            Producto producto = buscarProducto.apply(codigo);
+            if (producto == null) {
+                producto = new Producto("", codigo, 0, 0);
+            }
+            detallesVenta.add(new DetalleVenta(cantidad, producto, subTotal));
+        }
+        return detallesVenta;
+    }
+
+    /*
+    -----------------------------------------------------------------------------------------------------------
+    ----------------------------OTROS METODOS------------------------------------------------------------------
+    */
+
+    private static String texto(Double valor) {
+        return valor == null ? "" : String.valueOf(valor);
+    }
+
+    private static Double decimal(String texto) {
+        return texto.isEmpty() ? null : Double.valueOf(texto);
+    }
+
+    private static long crc(CharSequence contenido) {
+        CRC32 crc = new CRC32();
+        for (int i = 0; i < contenido.length(); i++) {
+            char c = contenido.charAt(i);
+            crc.update(c >>> 8);
+            crc.update(c);
+        }
+        return crc.getValue();
+    }
+
+    private static String escapar(String valor) {
+        if (valor == null) {
+            return "";
+        }
+        StringBuilder texto = new StringBuilder(valor.length());
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            switch (c) {
+                case '%' -> texto.append("%25");
+                case '|' -> texto.append("%7C");
+                case ';' -> texto.append("%3B");
+                case ':' -> texto.append("%3A");
+                case '\n' -> texto.append("%0A");
+                case '\r' -> texto.append("%0D");
+                default -> texto.append(c);
+            }
+        }
+        return texto.toString();
+    }
+
+    public static String desescapar(String valor) {
+        if (valor.indexOf('%') < 0) {
+            return valor;
+        }
+        StringBuilder texto = new StringBuilder(valor.length());
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            if (c == '%' && i + 2 < valor.length()) {
+                texto.append((char) Integer.parseInt(valor.substring(i + 1, i + 3), 16));
+                i += 2;
+            } else {
+                texto.append(c);
+            }
+        }
+        return texto.toString();
+    }
+
+    private static List<String> separar(String texto, char separador) {
+        List<String> partes = separarSinDesescapar(texto, separador);
+        partes.replaceAll(CodificadorRegistros::desescapar);
+        return partes;
+    }
+
+    private static List<String> separarSinDesescapar(String texto, char separador) {
+        List<String> partes = new ArrayList<>();
+        int inicio = 0;
+        for (int i = 0; i < texto.length(); i++) {
+            if (texto.charAt(i) == separador) {
+                partes.add(texto.substring(inicio, i));
+                inicio = i + 1;
+            }
+        }
+        partes.add(texto.substring(inicio));
+        return partes;
+    }
+}
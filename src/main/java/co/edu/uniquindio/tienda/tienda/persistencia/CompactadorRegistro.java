@@ -0,0 +1,327 @@
+package co.edu.uniquindio.tienda.tienda.persistencia;
+
+import co.edu.uniquindio.tienda.tienda.model.Cliente;
+import co.edu.uniquindio.tienda.tienda.model.DetalleVenta;
+import co.edu.uniquindio.tienda.tienda.model.Producto;
+import co.edu.uniquindio.tienda.tienda.util.MapaObjetoEntero;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Escribe una instantánea nueva a partir de la anterior y de los segmentos del registro de
+ * transacciones que la siguen, sin reconstruir la tienda en memoria. Solo se guardan los cambios de
+ * los segmentos: los productos y clientes guardados o eliminados en ellos y las unidades
+ * descontadas a los productos de la instantánea anterior; lo demás se copia línea por línea.
+ * <p>
+ * El resultado es el mismo que cargar la instantánea anterior y reproducirle los segmentos:
+ * los cambios que no se podrían aplicar, como eliminar un producto que no existe, se omiten igual.
+ */
+@SuppressWarnings("ALL")
+public class CompactadorRegistro {
+
+    private final Set<String> codigosInstantanea = new HashSet<>();
+    private final Set<String> idsInstantanea = new HashSet<>();
+    private final Set<String> codigosRetirados = new HashSet<>();
+    private final Set<String> idsRetirados = new HashSet<>();
+    private final Map<String, Producto> productosGuardados = new LinkedHashMap<>();
+    private final Map<String, Cliente> clientesGuardados = new LinkedHashMap<>();
+    private final MapaObjetoEntero<String> descuentos = new MapaObjetoEntero<>();
+    private final Map<String, MapaObjetoEntero<String>> carritos = new HashMap<>();
+
+    private int productos;
+    private int clientes;
+    private int ventas;
+
+    private CompactadorRegistro() {
+    }
+
+    /**
+     * Escribe en la ruta de la instantánea anterior una nueva que incluye los segmentos desde el
+     * primero que la anterior no incluía hasta uno dado. El archivo se escribe aparte y se mueve a su
+     * ruta al terminar, de modo que un fallo deja intacta la instantánea anterior.
+     *
+     * @param ruta       La ruta de la instantánea anterior, donde queda la nueva.
+     * @param directorio El directorio con los segmentos del registro.
+     * @param segmento   El primer segmento que no se incluye.
+     * @return La instantánea nueva, que lee sus datos del archivo al recorrerlos.
+     * @throws IOException Si la instantánea anterior no es válida o algún archivo no se puede leer o escribir.
+     */
+    public static InstantaneaTienda compactar(Path ruta, Path directorio, long segmento) throws IOException {
+        CompactadorRegistro compactador = new CompactadorRegistro();
+        long desde = compactador.leerInstantanea(ruta);
+        List<Path> segmentos = new ArrayList<>();
+        for (long anterior : RegistroTransacciones.listarSegmentos(directorio)) {
+            if (anterior >= desde && anterior < segmento) {
+                segmentos.add(RegistroTransacciones.rutaSegmento(directorio, anterior));
+            }
+        }
+        for (Path segmentoAnterior : segmentos) {
+            compactador.leerSegmento(segmentoAnterior);
+        }
+        compactador.escribir(ruta, segmentos, segmento);
+        return InstantaneaTienda.enArchivo(ruta, compactador.productos, compactador.clientes, compactador.ventas, compactador.carritos);
+    }
+
+    /*
+    -----------------------------------------------------------------------------------------------------------
+    ----------------------------LECTURA------------------------------------------------------------------------
+    */
+
+    /**
+     * Guarda las llaves de los productos y clientes de la instantánea anterior y sus carritos.
+     *
+     * @return El primer segmento que la instantánea anterior no incluye.
+     */
+    private long leerInstantanea(Path ruta) throws IOException {
+        try (BufferedReader lector = Files.newBufferedReader(ruta, StandardCharsets.UTF_8)) {
+            String[] encabezado = InstantaneaTienda.leerSiguiente(lector);
+            if (encabezado == null || !CodificadorRegistros.TIPO_INSTANTANEA.equals(encabezado[0])) {
+                throw new IOException("La instantánea anterior no es válida");
+            }
+            String[] campos;
+            while ((campos = InstantaneaTienda.leerSiguiente(lector)) != null) {
+                switch (campos[0]) {
+                    case CodificadorRegistros.TIPO_PRODUCTO -> codigosInstantanea.add(CodificadorRegistros.desescapar(campos[2]));
+                    case CodificadorRegistros.TIPO_CLIENTE -> idsInstantanea.add(CodificadorRegistros.desescapar(campos[2]));
+                    case CodificadorRegistros.TIPO_CARRITO -> ponerEnCarrito(campos);
+                    default -> {
+                    }
+                }
+            }
+            return Long.parseLong(encabezado[1]);
+        }
+    }
+
+    /**
+     * Acumula los cambios de un segmento, aplicando a cada entrada las mismas reglas que
+     * {@link RegistroTransacciones#reproducir(Path, co.edu.uniquindio.tienda.tienda.model.services.ITienda)}.
+     */
+    private void leerSegmento(Path ruta) throws IOException {
+        if (!Files.exists(ruta)) {
+            return;
+        }
+        try (BufferedReader lector = Files.newBufferedReader(ruta, StandardCharsets.UTF_8)) {
+            String[] campos;
+            while ((campos = InstantaneaTienda.leerSiguiente(lector)) != null) {
+                try {
+                    switch (campos[0]) {
+                        case CodificadorRegistros.TIPO_COMPRA -> descontar(CodificadorRegistros.decodificarVenta(campos).getDetallesVenta());
+                        case CodificadorRegistros.TIPO_INVENTARIO -> descontar(CodificadorRegistros.decodificarInventario(campos));
+                        case CodificadorRegistros.TIPO_PRODUCTO_GUARDADO -> guardarProducto(CodificadorRegistros.desescapar(campos[1]),
+                                CodificadorRegistros.decodificarProductoGuardado(campos));
+                        case CodificadorRegistros.TIPO_PRODUCTO_ELIMINADO -> retirarProducto(CodificadorRegistros.desescapar(campos[1]));
+                        case CodificadorRegistros.TIPO_CLIENTE_GUARDADO -> guardarCliente(CodificadorRegistros.desescapar(campos[1]),
+                                CodificadorRegistros.decodificarClienteGuardado(campos));
+                        case CodificadorRegistros.TIPO_CLIENTE_ELIMINADO -> retirarCliente(CodificadorRegistros.desescapar(campos[1]));
+                        case CodificadorRegistros.TIPO_CARRITO -> ponerEnCarrito(campos);
+                        case CodificadorRegistros.TIPO_CARRITO_VACIADO -> carritos.remove(CodificadorRegistros.desescapar(campos[1]));
+                        default -> {
+                        }
+                    }
+                } catch (RuntimeException e) {
+                    System.out.println("Se omitió una entrada dañada al compactar " + ruta.getFileName());
+                }
+            }
+        }
+    }
+
+    private void descontar(List<DetalleVenta> detallesVenta) {
+        for (DetalleVenta detalleVenta : detallesVenta) {
+            String codigo = detalleVenta.getProducto().getCodigo();
+            Producto guardado = productosGuardados.get(codigo);
+            if (guardado != null) {
+                guardado.setCantidadInventario(guardado.getCantidadInventario() - detalleVenta.getCantidad());
+            } else if (codigosInstantanea.contains(codigo) && !codigosRetirados.contains(codigo)) {
+                descuentos.sumar(codigo, detalleVenta.getCantidad());
+            }
+        }
+    }
+
+    /**
+     * Si el producto existe con su código anterior se reemplaza bajo ese código, como al editarlo;
+     * si no, se agrega cuando su código no está en uso.
+     */
+    private void guardarProducto(String codigoAnterior, Producto producto) {
+        if (existeProducto(codigoAnterior)) {
+            retirarProducto(codigoAnterior);
+            productosGuardados.put(codigoAnterior, producto);
+        } else if (!existeProducto(producto.getCodigo())) {
+            productosGuardados.put(producto.getCodigo(), producto);
+        }
+    }
+
+    private void retirarProducto(String codigo) {
+        if (productosGuardados.remove(codigo) == null && codigosInstantanea.contains(codigo)) {
+            codigosRetirados.add(codigo);
+            descuentos.eliminar(codigo);
+        }
+    }
+
+    private boolean existeProducto(String codigo) {
+        return productosGuardados.containsKey(codigo) || (codigosInstantanea.contains(codigo) && !codigosRetirados.contains(codigo));
+    }
+
+    private void guardarCliente(String idAnterior, Cliente cliente) {
+        if (existeCliente(idAnterior)) {
+            retirarCliente(idAnterior);
+            clientesGuardados.put(idAnterior, cliente);
+        } else if (!existeCliente(cliente.getNumIdentificacion())) {
+            clientesGuardados.put(cliente.getNumIdentificacion(), cliente);
+        }
+    }
+
+    private void retirarCliente(String id) {
+        if (clientesGuardados.remove(id) == null && idsInstantanea.contains(id)) {
+            idsRetirados.add(id);
+        }
+    }
+
+    private boolean existeCliente(String id) {
+        return clientesGuardados.containsKey(id) || (idsInstantanea.contains(id) && !idsRetirados.contains(id));
+    }
+
+    private void ponerEnCarrito(String[] campos) {
+        carritos.computeIfAbsent(CodificadorRegistros.desescapar(campos[1]), sesion -> new MapaObjetoEntero<>())
+                .poner(CodificadorRegistros.desescapar(campos[2]), Integer.parseInt(campos[3]));
+    }
+
+    /*
+    -----------------------------------------------------------------------------------------------------------
+    ----------------------------ESCRITURA----------------------------------------------------------------------
+    */
+
+    /**
+     * Copia la instantánea anterior aplicando los cambios acumulados y agrega las ventas de los
+     * segmentos y los carritos, en el orden en que {@link InstantaneaTienda#cargar} los espera.
+     */
+    private void escribir(Path ruta, List<Path> segmentos, long segmento) throws IOException {
+        Path temporal = ruta.resolveSibling(ruta.getFileName() + ".tmp");
+        try (FileOutputStream salida = new FileOutputStream(temporal.toFile());
+             BufferedWriter escritor = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8));
+             BufferedReader lector = Files.newBufferedReader(ruta, StandardCharsets.UTF_8)) {
+            InstantaneaTienda.escribirLinea(escritor, CodificadorRegistros.codificarInstantanea(segmento));
+            boolean productosEscritos = false;
+            boolean clientesEscritos = false;
+            String linea;
+            while ((linea = lector.readLine()) != null) {
+                String[] campos = CodificadorRegistros.leerCampos(linea);
+                if (campos == null) {
+                    continue;
+                }
+                switch (campos[0]) {
+                    case CodificadorRegistros.TIPO_PRODUCTO -> copiarProducto(escritor, linea, campos);
+                    case CodificadorRegistros.TIPO_CLIENTE -> {
+                        productosEscritos = escribirProductosGuardados(escritor, productosEscritos);
+                        copiarCliente(escritor, linea, campos);
+                    }
+                    case CodificadorRegistros.TIPO_VENTA -> {
+                        productosEscritos = escribirProductosGuardados(escritor, productosEscritos);
+                        clientesEscritos = escribirClientesGuardados(escritor, clientesEscritos);
+                        InstantaneaTienda.escribirLinea(escritor, linea);
+                        ventas++;
+                    }
+                    default -> {
+                    }
+                }
+            }
+            escribirProductosGuardados(escritor, productosEscritos);
+            escribirClientesGuardados(escritor, clientesEscritos);
+            for (Path segmentoAnterior : segmentos) {
+                copiarVentas(escritor, segmentoAnterior);
+            }
+            for (Map.Entry<String, MapaObjetoEntero<String>> carrito : carritos.entrySet()) {
+                MapaObjetoEntero<String> cantidades = carrito.getValue();
+                for (int i = 0; i < cantidades.tamanio(); i++) {
+                    InstantaneaTienda.escribirLinea(escritor, CodificadorRegistros.codificarCarrito(carrito.getKey(), cantidades.clave(i), cantidades.valor(i)));
+                }
+            }
+            escritor.flush();
+            salida.getFD().sync();
+        }
+        Files.move(temporal, ruta, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void copiarProducto(BufferedWriter escritor, String linea, String[] campos) throws IOException {
+        String codigo = CodificadorRegistros.desescapar(campos[2]);
+        if (codigosRetirados.contains(codigo)) {
+            return;
+        }
+        int descuento = descuentos.obtener(codigo, 0);
+        if (descuento == 0) {
+            InstantaneaTienda.escribirLinea(escritor, linea);
+        } else {
+            Producto producto = CodificadorRegistros.decodificarProducto(campos);
+            producto.setCantidadInventario(producto.getCantidadInventario() - descuento);
+            InstantaneaTienda.escribirLinea(escritor, CodificadorRegistros.codificarProducto(producto));
+        }
+        productos++;
+    }
+
+    private void copiarCliente(BufferedWriter escritor, String linea, String[] campos) throws IOException {
+        if (!idsRetirados.contains(CodificadorRegistros.desescapar(campos[2]))) {
+            InstantaneaTienda.escribirLinea(escritor, linea);
+            clientes++;
+        }
+    }
+
+    private boolean escribirProductosGuardados(BufferedWriter escritor, boolean escritos) throws IOException {
+        if (!escritos) {
+            for (Producto producto : productosGuardados.values()) {
+                InstantaneaTienda.escribirLinea(escritor, CodificadorRegistros.codificarProducto(producto));
+                productos++;
+            }
+        }
+        return true;
+    }
+
+    private boolean escribirClientesGuardados(BufferedWriter escritor, boolean escritos) throws IOException {
+        if (!escritos) {
+            for (Cliente cliente : clientesGuardados.values()) {
+                InstantaneaTienda.escribirLinea(escritor, CodificadorRegistros.codificarCliente(cliente));
+                clientes++;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Copia las ventas de un segmento; las compras se escriben como ventas porque su descuento de
+     * inventario ya está aplicado a los productos.
+     */
+    private void copiarVentas(BufferedWriter escritor, Path ruta) throws IOException {
+        if (!Files.exists(ruta)) {
+            return;
+        }
+        try (BufferedReader lector = Files.newBufferedReader(ruta, StandardCharsets.UTF_8)) {
+            String linea;
+            while ((linea = lector.readLine()) != null) {
+                String[] campos = CodificadorRegistros.leerCampos(linea);
+                if (campos == null) {
+                    continue;
+                }
+                if (CodificadorRegistros.TIPO_VENTA.equals(campos[0])) {
+                    InstantaneaTienda.escribirLinea(escritor, linea);
+                    ventas++;
+                } else if (CodificadorRegistros.TIPO_COMPRA.equals(campos[0])) {
+                    InstantaneaTienda.escribirLinea(escritor, CodificadorRegistros.codificarComoVenta(campos));
+                    ventas++;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,405 @@
+package co.edu.uniquindio.tienda.tienda.persistencia;
+
+
+import co.edu.uniquindio.tienda.tienda.model.DetalleVenta;
+import co.edu.uniquindio.tienda.tienda.model.Venta;
+import co.edu.uniquindio.tienda.tienda.util.MapaObjetoEntero;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Exporta ventas a un archivo a medida que se le entregan, sin armar antes las filas en memoria.
+ * Cada detalle de venta produce una fila con los datos de su venta; una venta sin
+ * detalles produce una fila con los campos del detalle vacíos.
+ * <p>
+ * Las filas se acumulan en un búfer fuera del heap que se escribe en un {@link FileChannel}
+ * cada vez que se llena, así que la memoria usada no depende del tamaño del historial. El archivo
+ * se escribe con otro nombre y solo se mueve a su ruta definitiva al invocar {@link #terminar()};
+ * si la exportación falla, {@link #close()} elimina el archivo incompleto.
+ * <p>
+ * Uso: se le entrega cada venta como a cualquier {@link Consumer}, por ejemplo pasándolo a
+ * {@code forEach} o a {@code recorrerHistoricoVentas}; después se invoca {@link #terminar()} y se
+ * cierra, preferiblemente con try-with-resources.
+ */
+@SuppressWarnings("ALL")
+public abstract class ExportadorVentas implements Consumer<Venta>, AutoCloseable {
+
+    private static final int TAMANIO_BUFER = 128 * 1024;
+
+    private final Path ruta;
+    private final Path temporal;
+    private final FileChannel canal;
+    private final ByteBuffer bufer;
+    private int ventasExportadas;
+    private boolean terminado;
+
+    protected ExportadorVentas(Path ruta) throws IOException {
+        if (ruta.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(ruta.toAbsolutePath().getParent());
+        }
+        this.ruta = ruta;
+        this.temporal = ruta.resolveSibling(ruta.getFileName() + ".tmp");
+        this.canal = FileChannel.open(temporal, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        this.bufer = ByteBuffer.allocateDirect(TAMANIO_BUFER);
+    }
+
+    /**
+     * Crea un exportador a CSV (RFC 4180, UTF-8) con las columnas
+     * {@code codigo_venta, fecha, id_cliente, total, posicion, codigo_producto, cantidad, subtotal}.
+     *
+     * @param ruta La ruta del archivo a escribir.
+     * @return El exportador.
+     * @throws IOException Si el archivo no se puede crear.
+     */
+    public static ExportadorVentas csv(Path ruta) throws IOException {
+        return new ExportadorCsv(ruta);
+    }
+
+    /**
+     * Crea un exportador al formato por columnas descrito en {@link ExportadorColumnar}.
+     *
+     * @param ruta La ruta del archivo a escribir.
+     * @return El exportador.
+     * @throws IOException Si el archivo no se puede crear.
+     */
+    public static ExportadorVentas columnar(Path ruta) throws IOException {
+        return new ExportadorColumnar(ruta);
+    }
+
+    /**
+     * Escribe las filas de una venta.
+     *
+     * @param venta La venta a exportar.
+     * @throws UncheckedIOException Si el archivo no se puede escribir.
+     */
+    @Override
+    public void accept(Venta venta) {
+        try {
+            escribirVenta(venta);
+            ventasExportadas++;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Escribe las filas pendientes, sincroniza el archivo con el disco y lo mueve a su ruta definitiva.
+     *
+     * @throws IOException Si el archivo no se puede escribir o mover.
+     */
+    public void terminar() throws IOException {
+        escribirPendientes();
+        vaciarBufer();
+        canal.force(false);
+        canal.close();
+        Files.move(temporal, ruta, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        terminado = true;
+    }
+
+    /**
+     * Cierra el archivo. Si la exportación no se terminó, elimina el archivo incompleto.
+     *
+     * @throws IOException Si el archivo no se puede cerrar o eliminar.
+     */
+    @Override
+    public void close() throws IOException {
+        if (!terminado) {
+            canal.close();
+            Files.deleteIfExists(temporal);
+        }
+    }
+
+    public int getVentasExportadas() {
+        return ventasExportadas;
+    }
+
+    protected abstract void escribirVenta(Venta venta) throws IOException;
+
+    /**
+     * Escribe lo que la exportación tenga acumulado antes de cerrar el archivo.
+     */
+    protected void escribirPendientes() throws IOException {
+    }
+
+    /*
+    -----------------------------------------------------------------------------------------------------------
+    ----------------------------BUFER--------------------------------------------------------------------------
+    */
+
+    /**
+     * Obtiene el búfer con al menos la cantidad de bytes libres indicada, escribiendo antes su
+     * contenido en el archivo si hace falta.
+     */
+    protected ByteBuffer reservar(int bytes) throws IOException {
+        if (bufer.remaining() < bytes) {
+            vaciarBufer();
+        }
+        return bufer;
+    }
+
+    /**
+     * Codifica un texto en UTF-8 directamente en el búfer, vaciándolo cuantas veces sea necesario.
+     */
+    protected void escribirTexto(CharSequence texto, CharsetEncoder codificador) throws IOException {
+        CharBuffer caracteres = CharBuffer.wrap(texto);
+        codificador.reset();
+        CoderResult resultado;
+        while ((resultado = codificador.encode(caracteres, bufer, true)).isOverflow()) {
+            vaciarBufer();
+        }
+        while (codificador.flush(bufer).isOverflow()) {
+            vaciarBufer();
+        }
+        if (resultado.isError()) {
+            resultado.throwException();
+        }
+    }
+
+    private void vaciarBufer() throws IOException {
+        bufer.flip();
+        while (bufer.hasRemaining()) {
+            canal.write(bufer);
+        }
+        bufer.clear();
+    }
+
+    /*
+    -----------------------------------------------------------------------------------------------------------
+    ----------------------------CSV----------------------------------------------------------------------------
+    */
+
+    private static final class ExportadorCsv extends ExportadorVentas {
+
+        private static final String ENCABEZADO = "codigo_venta,fecha,id_cliente,total,posicion,codigo_producto,cantidad,subtotal\r\n";
+
+        private final StringBuilder fila = new StringBuilder(256);
+        private final CharsetEncoder codificador = StandardCharsets.UTF_8.newEncoder();
+
+        private ExportadorCsv(Path ruta) throws IOException {
+            super(ruta);
+            escribirTexto(ENCABEZADO, codificador);
+        }
+
+        @Override
+        protected void escribirVenta(Venta venta) throws IOException {
+            List<DetalleVenta> detallesVenta = venta.getDetallesVenta();
+            if (detallesVenta == null || detallesVenta.isEmpty()) {
+                escribirFila(venta, -1, null);
+                return;
+            }
+            for (int i = 0; i < detallesVenta.size(); i++) {
+                escribirFila(venta, i, detallesVenta.get(i));
+            }
+        }
+
+        private void escribirFila(Venta venta, int posicion, DetalleVenta detalleVenta) throws IOException {
+            fila.setLength(0);
+            agregarCampo(venta.getCodigo()).append(',');
+            fila.append(venta.getFecha()).append(',');
+            agregarCampo(venta.getCliente() == null ? null : venta.getCliente().getNumIdentificacion()).append(',');
+            agregarNumero(venta.getTotal()).append(',');
+            if (detalleVenta != null) {
+                fila.append(posicion).append(',');
+                agregarCampo(detalleVenta.getProducto() == null ? null : detalleVenta.getProducto().getCodigo()).append(',');
+                fila.append(detalleVenta.getCantidad()).append(',');
+                agregarNumero(detalleVenta.getSubTotal());
+            } else {
+                fila.append(",,,");
+            }
+            fila.append("\r\n");
+            escribirTexto(fila, codificador);
+        }
+
+        /**
+         * Agrega un texto a la fila, entre comillas si contiene separadores, comillas o saltos de línea.
+         */
+        private StringBuilder agregarCampo(String valor) {
+            if (valor == null) {
+                return fila;
+            }
+            boolean citar = false;
+            for (int i = 0; i < valor.length() && !citar; i++) {
+                char c = valor.charAt(i);
+                citar = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!citar) {
+                return fila.append(valor);
+            }
+            fila.append('"');
+            for (int i = 0; i < valor.length(); i++) {
+                char c = valor.charAt(i);
+                if (c == '"') {
+                    fila.append('"');
+                }
+                fila.append(c);
+            }
+            return fila.append('"');
+        }
+
+        private StringBuilder agregarNumero(Double valor) {
+            return valor == null ? fila : fila.append(valor.doubleValue());
+        }
+    }
+
+    /*
+    -----------------------------------------------------------------------------------------------------------
+    ----------------------------COLUMNAR-----------------------------------------------------------------------
+    */
+
+    /**
+     * Formato binario por columnas para análisis. Todos los números son big-endian.
+     * <p>
+     * El archivo empieza con un encabezado de 8 bytes (número mágico {@code 0x54564E54}, versión y
+     * cantidad de columnas) seguido de grupos de hasta {@value #FILAS_POR_GRUPO} filas. Cada grupo
+     * empieza con su cantidad de filas y contiene las columnas una tras otra, en este orden:
+     * codigo_venta (texto), fecha (int, días desde 1970-01-01), id_cliente (texto), total (double),
+     * codigo_producto (texto), cantidad (int) y subtotal (double). Los valores ausentes son NaN en
+     * los double y el texto vacío en los textos. Un grupo con cero filas marca el final del archivo.
+     * <p>
+     * Las columnas de texto usan un diccionario por grupo: su cantidad de entradas, cada entrada
+     * como longitud (u16) y bytes UTF-8, el ancho en bytes de los índices (1, 2 o 4) y un índice
+     * por fila. Como una venta y sus productos se repiten en muchas filas, cada texto se guarda
+     * una sola vez por grupo.
+     */
+    private static final class ExportadorColumnar extends ExportadorVentas {
+
+        private static final int NUMERO_MAGICO = 0x54564E54;
+        private static final short VERSION = 1;
+        private static final short COLUMNAS = 7;
+        private static final int FILAS_POR_GRUPO = 4096;
+
+        private final int[] ventas = new int[FILAS_POR_GRUPO];
+        private final int[] fechas = new int[FILAS_POR_GRUPO];
+        private final int[] clientes = new int[FILAS_POR_GRUPO];
+        private final double[] totales = new double[FILAS_POR_GRUPO];
+        private final int[] productos = new int[FILAS_POR_GRUPO];
+        private final int[] cantidades = new int[FILAS_POR_GRUPO];
+        private final double[] subtotales = new double[FILAS_POR_GRUPO];
+        private final MapaObjetoEntero<String> diccionarioVentas = new MapaObjetoEntero<>(FILAS_POR_GRUPO);
+        private final MapaObjetoEntero<String> diccionarioClientes = new MapaObjetoEntero<>();
+        private final MapaObjetoEntero<String> diccionarioProductos = new MapaObjetoEntero<>();
+        private int filas;
+
+        private ExportadorColumnar(Path ruta) throws IOException {
+            super(ruta);
+            reservar(8).putInt(NUMERO_MAGICO).putShort(VERSION).putShort(COLUMNAS);
+        }
+
+        @Override
+        protected void escribirVenta(Venta venta) throws IOException {
+            List<DetalleVenta> detallesVenta = venta.getDetallesVenta();
+            if (detallesVenta == null || detallesVenta.isEmpty()) {
+                agregarFila(venta, null);
+                return;
+            }
+            for (DetalleVenta detalleVenta : detallesVenta) {
+                agregarFila(venta, detalleVenta);
+            }
+        }
+
+        @Override
+        protected void escribirPendientes() throws IOException {
+            escribirGrupo();
+            reservar(4).putInt(0);
+        }
+
+        private void agregarFila(Venta venta, DetalleVenta detalleVenta) throws IOException {
+            ventas[filas] = indiceDiccionario(diccionarioVentas, venta.getCodigo());
+            fechas[filas] = (int) venta.getFecha().toEpochDay();
+            clientes[filas] = indiceDiccionario(diccionarioClientes,
+                    venta.getCliente() == null ? null : venta.getCliente().getNumIdentificacion());
+            totales[filas] = venta.getTotal() == null ? Double.NaN : venta.getTotal();
+            if (detalleVenta != null) {
+                productos[filas] = indiceDiccionario(diccionarioProductos,
+                        detalleVenta.getProducto() == null ? null : detalleVenta.getProducto().getCodigo());
+                cantidades[filas] = detalleVenta.getCantidad();
+                subtotales[filas] = detalleVenta.getSubTotal() == null ? Double.NaN : detalleVenta.getSubTotal();
+            } else {
+                productos[filas] = indiceDiccionario(diccionarioProductos, null);
+                cantidades[filas] = 0;
+                subtotales[filas] = Double.NaN;
+            }
+            if (++filas == FILAS_POR_GRUPO) {
+                escribirGrupo();
+            }
+        }
+
+        private void escribirGrupo() throws IOException {
+            if (filas == 0) {
+                return;
+            }
+            reservar(4).putInt(filas);
+            escribirColumnaTexto(diccionarioVentas, ventas);
+            escribirColumna(fechas);
+            escribirColumnaTexto(diccionarioClientes, clientes);
+            escribirColumna(totales);
+            escribirColumnaTexto(diccionarioProductos, productos);
+            escribirColumna(cantidades);
+            escribirColumna(subtotales);
+            diccionarioVentas.limpiar();
+            diccionarioClientes.limpiar();
+            diccionarioProductos.limpiar();
+            filas = 0;
+        }
+
+        private void escribirColumna(int[] valores) throws IOException {
+            for (int i = 0; i < filas; i++) {
+                reservar(Integer.BYTES).putInt(valores[i]);
+            }
+        }
+
+        private void escribirColumna(double[] valores) throws IOException {
+            for (int i = 0; i < filas; i++) {
+                reservar(Double.BYTES).putDouble(valores[i]);
+            }
+        }
+
+        private void escribirColumnaTexto(MapaObjetoEntero<String> diccionario, int[] indices) throws IOException {
+            reservar(4).putInt(diccionario.tamanio());
+            for (int i = 0; i < diccionario.tamanio(); i++) {
+                byte[] bytes = diccionario.clave(i).getBytes(StandardCharsets.UTF_8);
+                if (bytes.length > 0xFFFF) {
+                    throw new IOException("Texto demasiado largo para exportar: " + bytes.length + " bytes");
+                }
+                reservar(2 + bytes.length).putShort((short) bytes.length).put(bytes);
+            }
+            int ancho = diccionario.tamanio() <= 0x100 ? 1 : diccionario.tamanio() <= 0x10000 ? 2 : 4;
+            reservar(1).put((byte) ancho);
+            for (int i = 0; i < filas; i++) {
+                ByteBuffer bufer = reservar(ancho);
+                switch (ancho) {
+                    case 1 -> bufer.put((byte) indices[i]);
+                    case 2 -> bufer.putShort((short) indices[i]);
+                    default -> bufer.putInt(indices[i]);
+                }
+            }
+        }
+
+        /**
+         * Obtiene el índice de un texto en el diccionario del grupo, agregándolo si es nuevo.
+         */
+        private static int indiceDiccionario(MapaObjetoEntero<String> diccionario, String texto) {
+            String valor = texto == null ? "" : texto;
+            int indice = diccionario.indice(valor);
+            if (indice < 0) {
+                indice = diccionario.tamanio();
+                diccionario.poner(valor, indice);
+            }
+            return indice;
+        }
+    }
+}
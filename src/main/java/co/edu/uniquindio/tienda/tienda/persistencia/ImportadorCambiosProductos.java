@@ -0,0 +1,120 @@
+package co.edu.uniquindio.tienda.tienda.persistencia;
+
+
+import co.edu.uniquindio.tienda.tienda.model.CambioProducto;
+import co.edu.uniquindio.tienda.tienda.model.ResumenImportacion;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Lee los archivos de novedades de productos que envían los proveedores y entrega los cambios
+ * en lotes, sin cargar el archivo completo en memoria.
+ * <p>
+ * Cada línea tiene el formato {@code codigo,nombre,precio,cantidad}. Un campo vacío conserva el
+ * valor actual del producto, por lo que un archivo de precios puede traer líneas como
+ * {@code 001,,3200,}. Las líneas vacías y las que empiezan con {@code #} se ignoran. Las líneas
+ * mal formadas, sin código o con precio o cantidad negativos se rechazan y se reportan en el resumen.
+ */
+@SuppressWarnings("ALL")
+public class ImportadorCambiosProductos {
+
+    public static final int TAMANIO_LOTE = 1000;
+    private static final int CAMPOS = 4;
+
+    /**
+     * Lee un archivo de novedades y entrega sus cambios en lotes.
+     *
+     * @param ruta    La ruta del archivo.
+     * @param resumen El resumen en el que se reportan las líneas rechazadas.
+     * @param lote    La acción que aplica cada lote de cambios; el lote no se conserva después de la llamada.
+     * @throws IOException Si el archivo no se puede leer.
+     */
+    public static void importar(Path ruta, ResumenImportacion resumen, Consumer<List<CambioProducto>> lote) throws IOException {
+        List<CambioProducto> cambios = new ArrayList<>(TAMANIO_LOTE);
+        int[] inicios = new int[CAMPOS];
+        int[] fines = new int[CAMPOS];
+        try (BufferedReader lector = Files.newBufferedReader(ruta, StandardCharsets.UTF_8)) {
+            String linea;
+            int numeroLinea = 0;
+            while ((linea = lector.readLine()) != null) {
+                numeroLinea++;
+                String contenido = linea.strip();
+                if (contenido.isEmpty() || contenido.charAt(0) == '#') {
+                    continue;
+                }
+                try {
+                    cambios.add(leerCambio(contenido, inicios, fines));
+                } catch (NumberFormatException e) {
+                    resumen.registrarRechazado("Línea " + numeroLinea + ": " + e.getMessage());
+                    continue;
+                }
+                if (cambios.size() == TAMANIO_LOTE) {
+                    lote.accept(cambios);
+                    cambios.clear();
+                }
+            }
+        }
+        if (!cambios.isEmpty()) {
+            lote.accept(cambios);
+        }
+    }
+
+    /**
+     * Interpreta una línea del archivo de novedades.
+     *
+     * @throws NumberFormatException Si la línea no tiene el formato esperado o sus valores no son válidos.
+     */
+    private static CambioProducto leerCambio(String linea, int[] inicios, int[] fines) {
+        int campo = 0;
+        int inicioCampo = 0;
+        for (int i = 0; i <= linea.length(); i++) {
+            if (i == linea.length() || linea.charAt(i) == ',') {
+                if (campo == CAMPOS) {
+                    throw new NumberFormatException("se esperaban " + CAMPOS + " campos");
+                }
+                int a = inicioCampo;
+                int b = i;
+                while (a < b && Character.isWhitespace(linea.charAt(a))) {
+                    a++;
+                }
+                while (b > a && Character.isWhitespace(linea.charAt(b - 1))) {
+                    b--;
+                }
+                inicios[campo] = a;
+                fines[campo] = b;
+                campo++;
+                inicioCampo = i + 1;
+            }
+        }
+        if (campo != CAMPOS) {
+            throw new NumberFormatException("se esperaban " + CAMPOS + " campos");
+        }
+        if (inicios[0] == fines[0]) {
+            throw new NumberFormatException("falta el código del producto");
+        }
+        String codigo = linea.substring(inicios[0], fines[0]);
+        String nombre = inicios[1] == fines[1] ? null : linea.substring(inicios[1], fines[1]);
+        Double precio = null;
+        if (inicios[2] < fines[2]) {
+            precio = CargadorCatalogo.leerDecimal(linea, inicios[2], fines[2]);
+            if (precio < 0 || precio.isNaN()) {
+                throw new NumberFormatException("precio inválido para el producto " + codigo + ": " + precio);
+            }
+        }
+        Integer cantidad = null;
+        if (inicios[3] < fines[3]) {
+            cantidad = CargadorCatalogo.leerEntero(linea, inicios[3], fines[3]);
+            if (cantidad < 0) {
+                throw new NumberFormatException("cantidad negativa para el producto " + codigo + ": " + cantidad);
+            }
+        }
+        return new CambioProducto(codigo, nombre, precio, cantidad);
+    }
+}
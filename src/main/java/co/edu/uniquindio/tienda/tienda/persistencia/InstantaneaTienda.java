@@ -0,0 +1,273 @@
+package co.edu.uniquindio.tienda.tienda.persistencia;
+
+
+import co.edu.uniquindio.tienda.tienda.exception.ClienteException;
+import co.edu.uniquindio.tienda.tienda.exception.ProductoException;
+import co.edu.uniquindio.tienda.tienda.model.Cliente;
+import co.edu.uniquindio.tienda.tienda.model.Producto;
+import co.edu.uniquindio.tienda.tienda.model.Venta;
+import co.edu.uniquindio.tienda.tienda.model.services.ITienda;
+import co.edu.uniquindio.tienda.tienda.util.MapaObjetoEntero;
+import lombok.Getter;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+
+/**
+ * Copia del estado completo de una tienda: productos con su inventario, clientes, historial de
+ * ventas y carritos abiertos. La copia se captura en memoria, lo que solo requiere recorrer las
+ * colecciones, y se escribe después en segundo plano mientras la tienda sigue vendiendo. Una
+ * instantánea escrita por {@link CompactadorRegistro} no se guarda en memoria: sus colecciones
+ * leen el archivo cada vez que se recorren.
+ * <p>
+ * El archivo empieza con el número del primer segmento del registro de transacciones que no está
+ * incluido en la instantánea; al recuperar la tienda solo se reproducen los segmentos desde ese número.
+ */
+@Getter
+@SuppressWarnings("ALL")
+public class InstantaneaTienda {
+
+    private final Collection<Producto> productos;
+    private final Collection<Cliente> clientes;
+    private final Collection<Venta> ventas;
+    private final Map<String, MapaObjetoEntero<String>> carritos;
+
+    private InstantaneaTienda(Collection<Producto> productos, Collection<Cliente> clientes, Collection<Venta> ventas, Map<String, MapaObjetoEntero<String>> carritos) {
+        this.productos = productos;
+        this.clientes = clientes;
+        this.ventas = ventas;
+        this.carritos = carritos;
+    }
+
+    /**
+     * Crea una instantánea que lee sus productos, clientes y ventas de un archivo ya escrito cada
+     * vez que se recorren, sin cargarlos en memoria. Las ventas se reconstruyen sin buscar en una
+     * tienda, solo con los códigos de su cliente y sus productos.
+     *
+     * @param ruta      La ruta del archivo de la instantánea.
+     * @param productos La cantidad de productos del archivo.
+     * @param clientes  La cantidad de clientes del archivo.
+     * @param ventas    La cantidad de ventas del archivo.
+     * @param carritos  Los carritos abiertos de la instantánea.
+     * @return La instantánea respaldada por el archivo.
+     */
+    static InstantaneaTienda enArchivo(Path ruta, int productos, int clientes, int ventas, Map<String, MapaObjetoEntero<String>> carritos) {
+        return new InstantaneaTienda(
+                new RegistrosArchivo<>(ruta, CodificadorRegistros.TIPO_PRODUCTO, productos, CodificadorRegistros::decodificarProducto),
+                new RegistrosArchivo<>(ruta, CodificadorRegistros.TIPO_CLIENTE, clientes, CodificadorRegistros::decodificarCliente),
+                new RegistrosArchivo<>(ruta, CodificadorRegistros.TIPO_VENTA, ventas, CodificadorRegistros::decodificarVenta),
+                carritos);
+    }
+
+    /**
+     * Captura el estado actual de una tienda. Los productos y clientes se copian porque se modifican
+     * en el lugar; las ventas no cambian una vez registradas y se conservan por referencia.
+     * Quien la invoca debe impedir que la tienda se modifique durante la captura.
+     *
+     * @param tienda La tienda a capturar.
+     * @return La instantánea de la tienda.
+     */
+    public static InstantaneaTienda capturar(ITienda tienda) {
+        List<Producto> productos = new ArrayList<>();
+        tienda.recorrerProductos(producto ->
+                productos.add(new Producto(producto.getNombre(), producto.getCodigo(), producto.getPrecio(), producto.getCantidadInventario())));
+        List<Cliente> clientes = new ArrayList<>();
+        for (Cliente cliente : tienda.obtenerListaClientes()) {
+            clientes.add(new Cliente(cliente.getNombre(), cliente.getNumIdentificacion(), cliente.getDireccion()));
+        }
+        List<Venta> ventas = new ArrayList<>(tienda.contarVentas());
+        tienda.recorrerHistoricoVentas(ventas::add);
+        return new InstantaneaTienda(productos, clientes, ventas, tienda.obtenerCarritos());
+    }
+
+    /**
+     * Escribe la instantánea en un archivo temporal, lo sincroniza con el disco y lo mueve a su
+     * ruta definitiva, de modo que un cierre inesperado nunca deja una instantánea incompleta.
+     *
+     * @param ruta     La ruta del archivo de la instantánea.
+     * @param segmento El primer segmento del registro de transacciones que no está incluido.
+     * @throws IOException Si el archivo no se puede escribir.
+     */
+    public void escribir(Path ruta, long segmento) throws IOException {
+        if (ruta.getParent() != null) {
+            Files.createDirectories(ruta.getParent());
+        }
+        Path temporal = ruta.resolveSibling(ruta.getFileName() + ".tmp");
+        try (FileOutputStream salida = new FileOutputStream(temporal.toFile());
+             BufferedWriter escritor = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8))) {
+            escribirLinea(escritor, CodificadorRegistros.codificarInstantanea(segmento));
+            for (Producto producto : productos) {
+                escribirLinea(escritor, CodificadorRegistros.codificarProducto(producto));
+            }
+            for (Cliente cliente : clientes) {
+                escribirLinea(escritor, CodificadorRegistros.codificarCliente(cliente));
+            }
+            for (Venta venta : ventas) {
+                escribirLinea(escritor, CodificadorRegistros.codificarVenta(venta));
+            }
+            for (Map.Entry<String, MapaObjetoEntero<String>> carrito : carritos.entrySet()) {
+                MapaObjetoEntero<String> cantidades = carrito.getValue();
+                for (int i = 0; i < cantidades.tamanio(); i++) {
+                    escribirLinea(escritor, CodificadorRegistros.codificarCarrito(carrito.getKey(), cantidades.clave(i), cantidades.valor(i)));
+                }
+            }
+            escritor.flush();
+            salida.getFD().sync();
+        }
+        Files.move(temporal, ruta, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Carga una instantánea sobre una tienda vacía.
+     *
+     * @param ruta   La ruta del archivo de la instantánea.
+     * @param tienda La tienda vacía en la que se cargan los datos.
+     * @return El primer segmento del registro de transacciones que se debe reproducir, o -1 si no hay
+     * una instantánea válida en la ruta.
+     * @throws IOException Si el archivo existe pero no se puede leer.
+     */
+    public static long cargar(Path ruta, ITienda tienda) throws IOException {
+        if (!Files.exists(ruta)) {
+            return -1;
+        }
+        try (BufferedReader lector = Files.newBufferedReader(ruta, StandardCharsets.UTF_8)) {
+            String[] encabezado = leerSiguiente(lector);
+            if (encabezado == null || !CodificadorRegistros.TIPO_INSTANTANEA.equals(encabezado[0])) {
+                return -1;
+            }
+            long segmento = Long.parseLong(encabezado[1]);
+            String[] campos;
+            while ((campos = leerSiguiente(lector)) != null) {
+                switch (campos[0]) {
+                    case CodificadorRegistros.TIPO_PRODUCTO -> agregarProducto(tienda, CodificadorRegistros.decodificarProducto(campos));
+                    case CodificadorRegistros.TIPO_CLIENTE -> agregarCliente(tienda, CodificadorRegistros.decodificarCliente(campos));
+                    case CodificadorRegistros.TIPO_VENTA -> tienda.agregarVentaAlHistorico(CodificadorRegistros.decodificarVenta(campos, tienda));
+                    case CodificadorRegistros.TIPO_CARRITO -> tienda.agregarProductoCarrito(CodificadorRegistros.desescapar(campos[1]),
+                            CodificadorRegistros.desescapar(campos[2]), Integer.parseInt(campos[3]));
+                    default -> {
+                    }
+                }
+            }
+            return segmento;
+        }
+    }
+
+    /**
+     * Lee la siguiente línea válida, omitiendo las dañadas.
+     *
+     * @return Los campos de la línea, o null al llegar al final del archivo.
+     */
+    static String[] leerSiguiente(BufferedReader lector) throws IOException {
+        String linea;
+        while ((linea = lector.readLine()) != null) {
+            String[] campos = CodificadorRegistros.leerCampos(linea);
+            if (campos != null) {
+                return campos;
+            }
+        }
+        return null;
+    }
+
+    static void escribirLinea(BufferedWriter escritor, String linea) throws IOException {
+        escritor.write(linea);
+        escritor.newLine();
+    }
+
+    private static void agregarProducto(ITienda tienda, Producto producto) {
+        try {
+            tienda.agregarProducto(producto);
+        } catch (ProductoException e) {
+            System.out.println("Producto repetido en la instantánea: " + producto.getCodigo());
+        }
+    }
+
+    private static void agregarCliente(ITienda tienda, Cliente cliente) {
+        try {
+            tienda.agregarCliente(cliente);
+        } catch (ClienteException e) {
+            System.out.println("Cliente repetido en la instantánea: " + cliente.getNumIdentificacion());
+        }
+    }
+
+    /**
+     * Colección de solo lectura con las líneas de un tipo de un archivo de instantánea. Cada recorrido
+     * abre el archivo y lo lee de principio a fin, reconstruyendo un elemento por línea.
+     */
+    private static class RegistrosArchivo<T> extends AbstractCollection<T> {
+        private final Path ruta;
+        private final String tipo;
+        private final int cantidad;
+        private final Function<String[], T> decodificador;
+
+        private RegistrosArchivo(Path ruta, String tipo, int cantidad, Function<String[], T> decodificador) {
+            this.ruta = ruta;
+            this.tipo = tipo;
+            this.cantidad = cantidad;
+            this.decodificador = decodificador;
+        }
+
+        @Override
+        public int size() {
+            return cantidad;
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            BufferedReader lector;
+            try {
+                lector = Files.newBufferedReader(ruta, StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return new Iterator<>() {
+                private T siguiente = avanzar();
+
+                private T avanzar() {
+                    try {
+                        String[] campos;
+                        while ((campos = leerSiguiente(lector)) != null) {
+                            if (tipo.equals(campos[0])) {
+                                return decodificador.apply(campos);
+                            }
+                        }
+                        lector.close();
+                        return null;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+
+                @Override
+                public boolean hasNext() {
+                    return siguiente != null;
+                }
+
+                @Override
+                public T next() {
+                    if (siguiente == null) {
+                        throw new NoSuchElementException();
+                    }
+                    T actual = siguiente;
+                    siguiente = avanzar();
+                    return actual;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package co.edu.uniquindio.tienda.tienda.persistencia;
+
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pool de conexiones JDBC de tamaño fijo. Las conexiones se abren a medida que se necesitan,
+ * hasta el máximo indicado, y se reutilizan: al cerrar la conexión que entrega el pool, la
+ * conexión real vuelve al pool en lugar de cerrarse. Si todas están en uso, quien pide una
+ * espera hasta que alguna se devuelva.
+ */
+@SuppressWarnings("ALL")
+public class PoolConexiones implements AutoCloseable {
+
+    private static final long SEGUNDOS_ESPERA = 30;
+
+    private final String url;
+    private final String usuario;
+    private final String contrasena;
+    private final Semaphore disponibles;
+    private final LinkedBlockingDeque<Connection> libres = new LinkedBlockingDeque<>();
+    private final List<Connection> abiertas = new ArrayList<>();
+    private volatile boolean cerrado;
+
+    public PoolConexiones(String url, String usuario, String contrasena, int maximo) {
+        if (maximo < 1) {
+            throw new IllegalArgumentException("El pool necesita al menos una conexión");
+        }
+        this.url = url;
+        this.usuario = usuario;
+        this.contrasena = contrasena;
+        this.disponibles = new Semaphore(maximo, true);
+    }
+
+    /**
+     * Obtiene una conexión del pool, abriendo una nueva si no hay libres y aún no se alcanza el máximo.
+     * La conexión se debe cerrar al terminar de usarla, preferiblemente con try-with-resources.
+     *
+     * @return Una conexión en modo de confirmación automática.
+     * @throws SQLException Si el pool está cerrado, la espera se agota o la conexión no se puede abrir.
+     */
+    public Connection obtener() throws SQLException {
+        if (cerrado) {
+            throw new SQLException("El pool de conexiones está cerrado");
+        }
+        try {
+            if (!disponibles.tryAcquire(SEGUNDOS_ESPERA, TimeUnit.SECONDS)) {
+                throw new SQLException("No hay conexiones disponibles después de " + SEGUNDOS_ESPERA + " segundos");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Se interrumpió la espera de una conexión", e);
+        }
+        try {
+            Connection conexion = libres.pollFirst();
+            while (conexion != null && conexion.isClosed()) {
+                olvidar(conexion);
+                conexion = libres.pollFirst();
+            }
+            if (conexion == null) {
+                conexion = DriverManager.getConnection(url, usuario, contrasena);
+                synchronized (abiertas) {
+                    abiertas.add(conexion);
+                }
+            }
+            return envolver(conexion);
+        } catch (SQLException | RuntimeException e) {
+            disponibles.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Cierra todas las conexiones del pool. Las conexiones en uso se cierran también, por lo que
+     * solo se debe invocar cuando no quedan operaciones pendientes.
+     */
+    @Override
+    public void close() {
+        cerrado = true;
+        synchronized (abiertas) {
+            for (Connection conexion : abiertas) {
+                try {
+                    conexion.close();
+                } catch (SQLException e) {
+                    System.out.println("Error al cerrar una conexión: " + e.getMessage());
+                }
+            }
+            abiertas.clear();
+        }
+        libres.clear();
+    }
+
+    /**
+     * Crea una conexión que delega en la conexión real y que, al cerrarse, la devuelve al pool.
+     */
+    private Connection envolver(Connection conexion) {
+        boolean[] devuelta = {false};
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, metodo, argumentos) -> {
+                    switch (metodo.getName()) {
+                        case "close" -> {
+                            if (!devuelta[0]) {
+                                devuelta[0] = true;
+                                devolver(conexion);
+                            }
+                            return null;
+                        }
+                        case "isClosed" -> {
+                            return devuelta[0] || conexion.isClosed();
+                        }
+                        default -> {
+                            if (devuelta[0]) {
+                                throw new SQLException("La conexión ya fue devuelta al pool");
+                            }
+                            try {
+                                return metodo.invoke(conexion, argumentos);
+                            } catch (InvocationTargetException e) {
+                                throw e.getCause();
+                            }
+                        }
+                    }
+                });
+    }
+
+    /**
+     * Devuelve una conexión al pool, deshaciendo una transacción que haya quedado abierta.
+     * Si la conexión quedó inservible se descarta.
+     */
+    private void devolver(Connection conexion) {
+        try {
+            if (!conexion.getAutoCommit()) {
+                conexion.rollback();
+                conexion.setAutoCommit(true);
+            }
+            if (cerrado) {
+                conexion.close();
+            } else {
+                libres.offerFirst(conexion);
+            }
+        } catch (SQLException e) {
+            olvidar(conexion);
+            try {
+                conexion.close();
+            } catch (SQLException ignorada) {
+            }
+        } finally {
+            disponibles.release();
+        }
+    }
+
+    private void olvidar(Connection conexion) {
+        synchronized (abiertas) {
+            abiertas.remove(conexion);
+        }
+    }
+}
@@ -0,0 +1,484 @@
+package co.edu.uniquindio.tienda.tienda.persistencia;
+
+
+import co.edu.uniquindio.tienda.tienda.exception.ClienteException;
+import co.edu.uniquindio.tienda.tienda.exception.ClienteNoEncontradoException;
+import co.edu.uniquindio.tienda.tienda.exception.ProductoException;
+import co.edu.uniquindio.tienda.tienda.exception.ProductoNoEncontradoException;
+import co.edu.uniquindio.tienda.tienda.model.Cliente;
+import co.edu.uniquindio.tienda.tienda.model.DetalleVenta;
+import co.edu.uniquindio.tienda.tienda.model.Producto;
+import co.edu.uniquindio.tienda.tienda.model.Venta;
+import co.edu.uniquindio.tienda.tienda.model.services.ITienda;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Registro de transacciones de solo escritura al final (write-ahead log) para las ventas, los
+ * cambios de inventario, los productos y clientes agregados, editados o eliminados y los cambios
+ * de los carritos, de modo que una instantánea más sus segmentos reproducen la tienda. Las entradas se encolan y un único hilo escritor las agrupa: todas las
+ * entradas que llegan mientras se escribe el grupo anterior se escriben juntas y se sincronizan
+ * con el disco con una sola llamada a {@link FileChannel#force(boolean)}. Cada entrada devuelve
+ * un futuro que se completa cuando su grupo ya es durable.
+ * <p>
+ * El registro se divide en segmentos numerados dentro de un directorio. Al tomar una instantánea
+ * de la tienda se pasa a un segmento nuevo, y los segmentos anteriores se pueden eliminar una vez
+ * que la instantánea está escrita.
+ */
+@SuppressWarnings("ALL")
+public class RegistroTransacciones {
+
+    private static final int TAMANIO_MAXIMO_GRUPO = 1024;
+    private static final String PREFIJO_SEGMENTO = "transacciones-";
+    private static final String EXTENSION_SEGMENTO = ".log";
+    private static final String MENSAJE_CERRADO = "El registro de transacciones está cerrado";
+
+    private final Path directorio;
+    private final AtomicLong segmento;
+    private FileChannel canal;
+    private final LinkedBlockingQueue<Entrada> pendientes;
+    private final Thread escritor;
+    private volatile boolean activo;
+
+    /**
+     * Entrada pendiente de escribir junto con el futuro que se completa al sincronizarla.
+     * Una entrada sin datos indica que se debe pasar al segmento siguiente.
+     */
+    private static class Entrada {
+        private final byte[] datos;
+        private final CompletableFuture<Void> confirmacion;
+
+        private Entrada(byte[] datos) {
+            this.datos = datos;
+            this.confirmacion = new CompletableFuture<>();
+        }
+    }
+
+    /**
+     * Abre un segmento del registro para agregar entradas al final, creándolo si no existe.
+     *
+     * @param directorio El directorio con los segmentos del registro.
+     * @param segmento   El número del segmento en el que se escriben las entradas.
+     * @throws IOException Si el archivo no se puede abrir.
+     */
+    public RegistroTransacciones(Path directorio, long segmento) throws IOException {
+        this.directorio = directorio;
+        this.segmento = new AtomicLong(segmento);
+        Files.createDirectories(directorio);
+        this.canal = abrirSegmento(directorio, segmento);
+        this.pendientes = new LinkedBlockingQueue<>();
+        this.activo = true;
+        this.escritor = new Thread(this::escribirGrupos, "registro-transacciones");
+        this.escritor.setDaemon(true);
+        this.escritor.start();
+    }
+
+    /**
+     * Registra una venta agregada al historial.
+     *
+     * @param venta La venta registrada.
+     * @return Un futuro que se completa cuando la entrada es durable.
+     */
+    public CompletableFuture<Void> registrarVenta(Venta venta) {
+        return registrar(CodificadorRegistros.codificarVenta(venta));
+    }
+
+    /**
+     * Registra un descuento de inventario.
+     *
+     * @param detallesVenta Los detalles con los productos y cantidades descontadas.
+     * @return Un futuro que se completa cuando la entrada es durable.
+     */
+    public CompletableFuture<Void> registrarInventario(List<DetalleVenta> detallesVenta) {
+        return registrar(CodificadorRegistros.codificarInventario(detallesVenta));
+    }
+
+    /**
+     * Registra una venta junto con el descuento del inventario de sus detalles, en una sola entrada.
+     *
+     * @param venta La venta registrada.
+     * @return Un futuro que se completa cuando la entrada es durable.
+     */
+    public CompletableFuture<Void> registrarCompra(Venta venta) {
+        return registrar(CodificadorRegistros.codificarCompra(venta));
+    }
+
+    /**
+     * Registra un producto agregado o editado.
+     *
+     * @param codigoAnterior El código que tenía el producto antes del cambio; para un producto nuevo, su propio código.
+     * @param producto       El producto con los datos actuales.
+     * @return Un futuro que se completa cuando la entrada es durable.
+     */
+    public CompletableFuture<Void> registrarProductoGuardado(String codigoAnterior, Producto producto) {
+        return registrar(CodificadorRegistros.codificarProductoGuardado(codigoAnterior, producto));
+    }
+
+    /**
+     * Registra la eliminación de un producto.
+     *
+     * @param codigoProducto El código del producto eliminado.
+     * @return Un futuro que se completa cuando la entrada es durable.
+     */
+    public CompletableFuture<Void> registrarProductoEliminado(String codigoProducto) {
+        return registrar(CodificadorRegistros.codificarProductoEliminado(codigoProducto));
+    }
+
+    /**
+     * Registra un cliente agregado o editado.
+     *
+     * @param idAnterior La identificación que tenía el cliente antes del cambio; para un cliente nuevo, la suya.
+     * @param cliente    El cliente con los datos actuales.
+     * @return Un futuro que se completa cuando la entrada es durable.
+     */
+    public CompletableFuture<Void> registrarClienteGuardado(String idAnterior, Cliente cliente) {
+        return registrar(CodificadorRegistros.codificarClienteGuardado(idAnterior, cliente));
+    }
+
+    /**
+     * Registra la eliminación de un cliente.
+     *
+     * @param idCliente La identificación del cliente eliminado.
+     * @return Un futuro que se completa cuando la entrada es durable.
+     */
+    public CompletableFuture<Void> registrarClienteEliminado(String idCliente) {
+        return registrar(CodificadorRegistros.codificarClienteEliminado(idCliente));
+    }
+
+    /**
+     * Registra la cantidad de un producto en el carrito de una sesión.
+     *
+     * @param idSesion       El identificador de la sesión.
+     * @param codigoProducto El código del producto.
+     * @param cantidad       La cantidad en el carrito.
+     * @return Un futuro que se completa cuando la entrada es durable.
+     */
+    public CompletableFuture<Void> registrarCarrito(String idSesion, String codigoProducto, int cantidad) {
+        return registrar(CodificadorRegistros.codificarCarrito(idSesion, codigoProducto, cantidad));
+    }
+
+    /**
+     * Registra el vaciado del carrito de una sesión.
+     *
+     * @param idSesion El identificador de la sesión.
+     * @return Un futuro que se completa cuando la entrada es durable.
+     */
+    public CompletableFuture<Void> registrarCarritoVaciado(String idSesion) {
+        return registrar(CodificadorRegistros.codificarCarritoVaciado(idSesion));
+    }
+
+    /**
+     * Pasa a escribir en un segmento nuevo. Las entradas registradas antes de esta llamada quedan
+     * en el segmento anterior y las registradas después, en el nuevo. Quien la invoca debe impedir
+     * que se registren entradas al mismo tiempo para que el corte coincida con el estado de la tienda.
+     *
+     * @return Un futuro que se completa con el número del segmento nuevo cuando el anterior ya está cerrado.
+     */
+    public CompletableFuture<Long> rotar() {
+        long nuevoSegmento = segmento.incrementAndGet();
+        Entrada marca = new Entrada(null);
+        pendientes.add(marca);
+        if (!activo && pendientes.remove(marca)) {
+            marca.confirmacion.completeExceptionally(new IllegalStateException(MENSAJE_CERRADO));
+        }
+        return marca.confirmacion.thenApply(resultado -> nuevoSegmento);
+    }
+
+    /**
+     * Obtiene el número del segmento en el que se escriben las entradas nuevas.
+     *
+     * @return El número del segmento actual.
+     */
+    public long getSegmento() {
+        return segmento.get();
+    }
+
+    /**
+     * Encola una línea para escribirla en el próximo grupo. Si el registro se cerró mientras se
+     * encolaba, la entrada se retira de la cola; si ya no está, la escribió el hilo escritor o la
+     * rechazó {@link #cerrar()}, y en los dos casos su futuro se completa.
+     *
+     * @param linea La línea a escribir, sin salto de línea.
+     * @return Un futuro que se completa cuando la línea es durable.
+     */
+    private CompletableFuture<Void> registrar(String linea) {
+        Entrada entrada = new Entrada((linea + "\n").getBytes(StandardCharsets.UTF_8));
+        if (!activo) {
+            entrada.confirmacion.completeExceptionally(new IllegalStateException(MENSAJE_CERRADO));
+            return entrada.confirmacion;
+        }
+        pendientes.add(entrada);
+        if (!activo && pendientes.remove(entrada)) {
+            entrada.confirmacion.completeExceptionally(new IllegalStateException(MENSAJE_CERRADO));
+        }
+        return entrada.confirmacion;
+    }
+
+    /**
+     * Ciclo del hilo escritor: toma todas las entradas pendientes, las escribe en una sola
+     * operación y sincroniza el archivo una vez por grupo.
+     */
+    private void escribirGrupos() {
+        List<Entrada> grupo = new ArrayList<>();
+        while (activo || !pendientes.isEmpty()) {
+            try {
+                Entrada primera = pendientes.poll(100, TimeUnit.MILLISECONDS);
+                if (primera == null) {
+                    continue;
+                }
+                grupo.add(primera);
+                pendientes.drainTo(grupo, TAMANIO_MAXIMO_GRUPO - 1);
+                escribirHastaRotaciones(grupo);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                grupo.clear();
+            }
+        }
+    }
+
+    /**
+     * Escribe un grupo de entradas, cambiando de segmento en cada marca de rotación.
+     *
+     * @param grupo Las entradas a escribir, en el orden en que se registraron.
+     */
+    private void escribirHastaRotaciones(List<Entrada> grupo) {
+        int inicio = 0;
+        for (int i = 0; i < grupo.size(); i++) {
+            Entrada entrada = grupo.get(i);
+            if (entrada.datos == null) {
+                escribir(grupo.subList(inicio, i));
+                try {
+                    canal.close();
+                    canal = abrirSegmento(directorio, segmento.get());
+                    entrada.confirmacion.complete(null);
+                } catch (IOException e) {
+                    entrada.confirmacion.completeExceptionally(e);
+                }
+                inicio = i + 1;
+            }
+        }
+        escribir(grupo.subList(inicio, grupo.size()));
+    }
+
+    /**
+     * Escribe y sincroniza un grupo de entradas, completando sus futuros.
+     *
+     * @param grupo Las entradas a escribir.
+     */
+    private void escribir(List<Entrada> grupo) {
+        if (grupo.isEmpty()) {
+            return;
+        }
+        int tamanio = 0;
+        for (Entrada entrada : grupo) {
+            tamanio += entrada.datos.length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(tamanio);
+        for (Entrada entrada : grupo) {
+            buffer.put(entrada.datos);
+        }
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                canal.write(buffer);
+            }
+            canal.force(false);
+            for (Entrada entrada : grupo) {
+                entrada.confirmacion.complete(null);
+            }
+        } catch (IOException e) {
+            for (Entrada entrada : grupo) {
+                entrada.confirmacion.completeExceptionally(e);
+            }
+        }
+    }
+
+    /**
+     * Cierra el registro después de escribir las entradas pendientes. Una entrada que se encola
+     * mientras el registro se cierra puede llegar cuando el escritor ya terminó; esas entradas no
+     * se escriben y sus futuros se completan con un error, para que nadie espere por ellas.
+     *
+     * @throws IOException Si el archivo no se puede cerrar.
+     */
+    public void cerrar() throws IOException {
+        activo = false;
+        try {
+            escritor.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<Entrada> rezagadas = new ArrayList<>();
+        pendientes.drainTo(rezagadas);
+        for (Entrada entrada : rezagadas) {
+            entrada.confirmacion.completeExceptionally(new IllegalStateException(MENSAJE_CERRADO));
+        }
+        canal.close();
+    }
+
+    /**
+     * Aplica sobre una tienda todas las entradas de un registro, en el orden en que se escribieron.
+     * Las ventas se agregan al historial, los descuentos de inventario se aplican a los productos, las
+     * compras hacen las dos cosas y los productos, clientes y carritos guardados o eliminados se vuelven
+     * a guardar o eliminar. Las líneas incompletas o dañadas, como la última línea tras un cierre
+     * inesperado, y las que pasan el CRC pero no se pueden interpretar se omiten y se cuentan, igual
+     * que los cambios que ya no se pueden aplicar, como eliminar un producto que no existe.
+     *
+     * @param ruta   La ruta del archivo del registro.
+     * @param tienda La tienda sobre la que se aplican las entradas.
+     * @return La cantidad de entradas aplicadas.
+     * @throws IOException Si el archivo existe pero no se puede leer.
+     */
+    public static int reproducir(Path ruta, ITienda tienda) throws IOException {
+        if (!Files.exists(ruta)) {
+            return 0;
+        }
+        int aplicadas = 0;
+        int omitidas = 0;
+        try (BufferedReader lector = Files.newBufferedReader(ruta, StandardCharsets.UTF_8)) {
+            String linea;
+            while ((linea = lector.readLine()) != null) {
+                String[] campos = CodificadorRegistros.leerCampos(linea);
+                if (campos == null) {
+                    omitidas++;
+                    continue;
+                }
+                try {
+                    switch (campos[0]) {
+                        case CodificadorRegistros.TIPO_VENTA -> tienda.agregarVentaAlHistorico(CodificadorRegistros.decodificarVenta(campos, tienda));
+                        case CodificadorRegistros.TIPO_COMPRA -> {
+                            Venta venta = CodificadorRegistros.decodificarVenta(campos, tienda);
+                            tienda.agregarVentaAlHistorico(venta);
+                            tienda.actualizarInventario(venta.getDetallesVenta());
+                        }
+                        case CodificadorRegistros.TIPO_INVENTARIO -> tienda.actualizarInventario(CodificadorRegistros.decodificarInventario(campos, tienda));
+                        case CodificadorRegistros.TIPO_PRODUCTO_GUARDADO -> guardarProducto(tienda,
+                                CodificadorRegistros.desescapar(campos[1]), CodificadorRegistros.decodificarProductoGuardado(campos));
+                        case CodificadorRegistros.TIPO_PRODUCTO_ELIMINADO -> tienda.eliminarProducto(CodificadorRegistros.desescapar(campos[1]));
+                        case CodificadorRegistros.TIPO_CLIENTE_GUARDADO -> guardarCliente(tienda,
+                                CodificadorRegistros.desescapar(campos[1]), CodificadorRegistros.decodificarClienteGuardado(campos));
+                        case CodificadorRegistros.TIPO_CLIENTE_ELIMINADO -> tienda.eliminarCliente(CodificadorRegistros.desescapar(campos[1]));
+                        case CodificadorRegistros.TIPO_CARRITO -> tienda.agregarProductoCarrito(CodificadorRegistros.desescapar(campos[1]),
+                                CodificadorRegistros.desescapar(campos[2]), Integer.parseInt(campos[3]));
+                        case CodificadorRegistros.TIPO_CARRITO_VACIADO -> tienda.vaciarCarrito(CodificadorRegistros.desescapar(campos[1]));
+                        default -> {
+                            continue;
+                        }
+                    }
+                } catch (ProductoException | ProductoNoEncontradoException | ClienteException | ClienteNoEncontradoException e) {
+                    continue;
+                } catch (RuntimeException e) {
+                    omitidas++;
+                    continue;
+                }
+                aplicadas++;
+            }
+        }
+        if (omitidas > 0) {
+            System.out.println("Se omitieron " + omitidas + " entradas dañadas del registro de transacciones " + ruta.getFileName());
+        }
+        return aplicadas;
+    }
+
+    /**
+     * Vuelve a guardar un producto: si existe con su código anterior se edita y, si no, se agrega.
+     */
+    private static void guardarProducto(ITienda tienda, String codigoAnterior, Producto producto) throws ProductoException {
+        Producto anterior = tienda.obtenerProducto(codigoAnterior);
+        if (anterior == null) {
+            tienda.agregarProducto(producto);
+        } else {
+            tienda.editarProducto(producto, anterior);
+        }
+    }
+
+    /**
+     * Vuelve a guardar un cliente: si existe con su identificación anterior se edita y, si no, se agrega.
+     */
+    private static void guardarCliente(ITienda tienda, String idAnterior, Cliente cliente) throws ClienteException {
+        Cliente anterior;
+        try {
+            anterior = tienda.buscarCliente(idAnterior);
+        } catch (ClienteNoEncontradoException e) {
+            tienda.agregarCliente(cliente);
+            return;
+        }
+        tienda.editarCliente(cliente, anterior);
+    }
+
+    /**
+     * Obtiene los números de los segmentos que existen en un directorio, en orden ascendente.
+     *
+     * @param directorio El directorio con los segmentos del registro.
+     * @return Los números de los segmentos.
+     * @throws IOException Si el directorio existe pero no se puede leer.
+     */
+    public static List<Long> listarSegmentos(Path directorio) throws IOException {
+        List<Long> segmentos = new ArrayList<>();
+        if (!Files.isDirectory(directorio)) {
+            return segmentos;
+        }
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            archivos.map(archivo -> archivo.getFileName().toString())
+                    .filter(nombre -> nombre.startsWith(PREFIJO_SEGMENTO) && nombre.endsWith(EXTENSION_SEGMENTO))
+                    .forEach(nombre -> {
+                        try {
+                            segmentos.add(Long.parseLong(nombre.substring(PREFIJO_SEGMENTO.length(), nombre.length() - EXTENSION_SEGMENTO.length())));
+                        } catch (NumberFormatException e) {
+                            // No es un segmento del registro
+                        }
+                    });
+        }
+        segmentos.sort(null);
+        return segmentos;
+    }
+
+    /**
+     * Elimina los segmentos anteriores a uno dado, cuyo contenido ya está incluido en una instantánea.
+     *
+     * @param directorio El directorio con los segmentos del registro.
+     * @param segmento   El primer segmento que se conserva.
+     * @throws IOException Si algún segmento no se puede eliminar.
+     */
+    public static void eliminarSegmentosAnteriores(Path directorio, long segmento) throws IOException {
+        for (long anterior : listarSegmentos(directorio)) {
+            if (anterior < segmento) {
+                Files.deleteIfExists(rutaSegmento(directorio, anterior));
+            }
+        }
+    }
+
+    /**
+     * Obtiene la ruta del archivo de un segmento.
+     *
+     * @param directorio El directorio con los segmentos del registro.
+     * @param segmento   El número del segmento.
+     * @return La ruta del archivo del segmento.
+     */
+    public static Path rutaSegmento(Path directorio, long segmento) {
+        return directorio.resolve(String.format("%s%08d%s", PREFIJO_SEGMENTO, segmento, EXTENSION_SEGMENTO));
+    }
+
+    private static FileChannel abrirSegmento(Path directorio, long segmento) throws IOException {
+        return FileChannel.open(rutaSegmento(directorio, segmento), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    public Path getDirectorio() {
+        return directorio;
+    }
+}
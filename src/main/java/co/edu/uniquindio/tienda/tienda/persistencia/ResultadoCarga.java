@@ -0,0 +1,31 @@
+package co.edu.uniquindio.tienda.tienda.persistencia;
+
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Resultado de cargar un archivo del catálogo: los registros leídos correctamente
+ * y la descripción de cada línea que no se pudo interpretar.
+ *
+ * @param <T> El tipo de registro cargado.
+ */
+@Getter
+@AllArgsConstructor
+@SuppressWarnings("ALL")
+public class ResultadoCarga<T> {
+
+    private final List<T> registros;
+    private final List<String> errores;
+
+    /**
+     * Indica si alguna línea del archivo no se pudo interpretar.
+     *
+     * @return true si hubo líneas con errores.
+     */
+    public boolean tieneErrores() {
+        return !errores.isEmpty();
+    }
+}
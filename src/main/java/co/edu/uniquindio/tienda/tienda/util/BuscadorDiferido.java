@@ -0,0 +1,88 @@
+package co.edu.uniquindio.tienda.tienda.util;
+
+
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
+import javafx.util.Duration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Ejecuta las búsquedas de un campo de texto mientras el usuario escribe sin trabar la interfaz.
+ * Cada tecla reinicia una espera corta y solo cuando el usuario hace una pausa se lanza la
+ * consulta, en un hilo aparte. El resultado se entrega en el hilo de la interfaz y se descarta si
+ * mientras tanto se escribió otra cosa, para que una consulta lenta no pise a una más reciente.
+ *
+ * @param <R> El tipo del resultado de la consulta.
+ */
+@SuppressWarnings("ALL")
+public final class BuscadorDiferido<R> {
+
+    private static final ExecutorService EJECUTOR = Executors.newSingleThreadExecutor(tarea -> {
+        Thread hilo = new Thread(tarea, "busqueda");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+
+    private final PauseTransition espera;
+    private final Function<String, R> consulta;
+    private final Consumer<R> alTerminar;
+    private final AtomicLong ultimaBusqueda = new AtomicLong();
+    private String texto = "";
+
+    /**
+     * @param retraso    La pausa que debe hacer el usuario antes de buscar.
+     * @param consulta   La búsqueda; se ejecuta fuera del hilo de la interfaz.
+     * @param alTerminar La acción que muestra el resultado; se ejecuta en el hilo de la interfaz.
+     */
+    public BuscadorDiferido(Duration retraso, Function<String, R> consulta, Consumer<R> alTerminar) {
+        this.consulta = consulta;
+        this.alTerminar = alTerminar;
+        this.espera = new PauseTransition(retraso);
+        this.espera.setOnFinished(evento -> buscarAhora(texto));
+    }
+
+    /**
+     * Programa una búsqueda para cuando el usuario deje de escribir. Se debe invocar desde el hilo de la interfaz.
+     *
+     * @param texto El texto escrito.
+     */
+    public void buscar(String texto) {
+        this.texto = texto;
+        ultimaBusqueda.incrementAndGet();
+        espera.playFromStart();
+    }
+
+    /**
+     * Lanza la búsqueda de inmediato. Se debe invocar desde el hilo de la interfaz.
+     *
+     * @param texto El texto a buscar.
+     */
+    public void buscarAhora(String texto) {
+        espera.stop();
+        long busqueda = ultimaBusqueda.incrementAndGet();
+        EJECUTOR.execute(() -> {
+            if (busqueda != ultimaBusqueda.get()) {
+                return;
+            }
+            R resultado = consulta.apply(texto);
+            Platform.runLater(() -> {
+                if (busqueda == ultimaBusqueda.get()) {
+                    alTerminar.accept(resultado);
+                }
+            });
+        });
+    }
+
+    /**
+     * Descarta la búsqueda pendiente y cualquier resultado que aún no se haya mostrado.
+     */
+    public void cancelar() {
+        espera.stop();
+        ultimaBusqueda.incrementAndGet();
+    }
+}
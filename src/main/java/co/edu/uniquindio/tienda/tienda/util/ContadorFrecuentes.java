@@ -0,0 +1,238 @@
+package co.edu.uniquindio.tienda.tienda.util;
+
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Encuentra los elementos más frecuentes de un flujo usando memoria acotada, con el algoritmo
+ * Space-Saving de Metwally, Agrawal y El Abbadi.
+ * <p>
+ * Se vigilan como máximo {@code capacidad} elementos. Cuando llega uno nuevo y no hay espacio,
+ * reemplaza al de menor conteo y hereda ese conteo como error, así que el conteo de cada elemento
+ * vigilado puede exceder el real a lo sumo en su error y nunca lo subestima. Todo elemento cuya
+ * frecuencia real supere {@code total / capacidad} está garantizado entre los vigilados, por lo
+ * que conviene una capacidad varias veces mayor que la cantidad de elementos que se consultan.
+ * <p>
+ * Los contadores forman un montículo de mínimos indexado por un {@link MapaObjetoEntero}, de modo
+ * que cada actualización cuesta O(log capacidad) y no crea objetos. Es seguro para varios hilos.
+ * Para repartir la contención entre hilos, los elementos se pueden distribuir por su hash en
+ * varias particiones, cada una con su propio montículo de {@code capacidad} contadores y su propio
+ * bloqueo. Un elemento siempre cae en la misma partición, así que sus conteos no se dividen y la
+ * garantía anterior se cumple dentro de cada partición.
+ *
+ * @param <K> El tipo de los elementos.
+ */
+@SuppressWarnings("ALL")
+public class ContadorFrecuentes<K> {
+
+    private final int capacidad;
+    private final Particion<K>[] particiones;
+
+    /**
+     * Frecuencia estimada de un elemento. La frecuencia real está entre {@code conteo - error} y {@code conteo}.
+     *
+     * @param <K> El tipo del elemento.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Frecuencia<K> {
+        private final K clave;
+        private final long conteo;
+        private final long error;
+    }
+
+    public ContadorFrecuentes(int capacidad) {
+        this(capacidad, 1);
+    }
+
+    /**
+     * Crea un contador repartido en particiones.
+     *
+     * @param capacidad   La cantidad de elementos que vigila cada partición.
+     * @param particiones La cantidad de particiones, por ejemplo la cantidad de procesadores.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public ContadorFrecuentes(int capacidad, int particiones) {
+        if (capacidad < 1) {
+            throw new IllegalArgumentException("La capacidad debe ser positiva");
+        }
+        if (particiones < 1) {
+            throw new IllegalArgumentException("La cantidad de particiones debe ser positiva");
+        }
+        this.capacidad = capacidad;
+        this.particiones = new Particion[particiones];
+        for (int i = 0; i < particiones; i++) {
+            this.particiones[i] = new Particion<>(capacidad);
+        }
+    }
+
+    /**
+     * Registra apariciones de un elemento. Solo se bloquea la partición del elemento.
+     *
+     * @param clave El elemento.
+     * @param peso  La cantidad de apariciones, por ejemplo las unidades vendidas.
+     */
+    public void agregar(K clave, long peso) {
+        if (peso <= 0) {
+            return;
+        }
+        particion(clave).agregar(clave, peso);
+    }
+
+    /**
+     * Obtiene los elementos con mayor conteo estimado. Cada partición se lee por separado, así que
+     * el resultado puede incluir o no las apariciones que se registran al mismo tiempo.
+     *
+     * @param cantidad La cantidad máxima de elementos a devolver.
+     * @return Los elementos de mayor a menor conteo.
+     */
+    public List<Frecuencia<K>> obtenerMasFrecuentes(int cantidad) {
+        List<Frecuencia<K>> frecuencias = new ArrayList<>();
+        for (Particion<K> particion : particiones) {
+            particion.copiarFrecuencias(frecuencias);
+        }
+        frecuencias.sort(Comparator.comparingLong((Frecuencia<K> frecuencia) -> frecuencia.conteo).reversed());
+        return frecuencias.size() > cantidad ? new ArrayList<>(frecuencias.subList(0, cantidad)) : frecuencias;
+    }
+
+    /**
+     * Obtiene el total de apariciones registradas, incluidas las de elementos que ya no se vigilan.
+     *
+     * @return El total de apariciones.
+     */
+    public long getTotal() {
+        long total = 0;
+        for (Particion<K> particion : particiones) {
+            total += particion.getTotal();
+        }
+        return total;
+    }
+
+    public int getCapacidad() {
+        return capacidad;
+    }
+
+    public int getParticiones() {
+        return particiones.length;
+    }
+
+    private Particion<K> particion(K clave) {
+        if (particiones.length == 1) {
+            return particiones[0];
+        }
+        int hash = clave.hashCode();
+        return particiones[((hash ^ (hash >>> 16)) & Integer.MAX_VALUE) % particiones.length];
+    }
+
+    /*
+    -----------------------------------------------------------------------------------------------------------
+    ----------------------------MONTICULO----------------------------------------------------------------------
+    */
+
+    /**
+     * Montículo de mínimos de una partición, con su propio bloqueo.
+     */
+    private static class Particion<K> {
+        private final int capacidad;
+        private final K[] claves;
+        private final long[] conteos;
+        private final long[] errores;
+        private final MapaObjetoEntero<K> posiciones;
+        private int tamanio;
+        private long total;
+
+        @SuppressWarnings("unchecked")
+        private Particion(int capacidad) {
+            this.capacidad = capacidad;
+            this.claves = (K[]) new Object[capacidad];
+            this.conteos = new long[capacidad];
+            this.errores = new long[capacidad];
+            this.posiciones = new MapaObjetoEntero<>(capacidad);
+        }
+
+        synchronized void agregar(K clave, long peso) {
+            total += peso;
+            int posicion = posiciones.obtener(clave, -1);
+            if (posicion >= 0) {
+                conteos[posicion] += peso;
+                bajar(posicion);
+                return;
+            }
+            if (tamanio < capacidad) {
+                posicion = tamanio++;
+                claves[posicion] = clave;
+                conteos[posicion] = peso;
+                errores[posicion] = 0;
+                posiciones.poner(clave, posicion);
+                subir(posicion);
+                return;
+            }
+            // El elemento nuevo reemplaza al de menor conteo, que está en la raíz del montículo.
+            posiciones.eliminar(claves[0]);
+            errores[0] = conteos[0];
+            conteos[0] += peso;
+            claves[0] = clave;
+            posiciones.poner(clave, 0);
+            bajar(0);
+        }
+
+        synchronized void copiarFrecuencias(List<Frecuencia<K>> frecuencias) {
+            for (int i = 0; i < tamanio; i++) {
+                frecuencias.add(new Frecuencia<>(claves[i], conteos[i], errores[i]));
+            }
+        }
+
+        synchronized long getTotal() {
+            return total;
+        }
+
+        private void subir(int posicion) {
+            while (posicion > 0) {
+                int padre = (posicion - 1) >>> 1;
+                if (conteos[padre] <= conteos[posicion]) {
+                    return;
+                }
+                intercambiar(posicion, padre);
+                posicion = padre;
+            }
+        }
+
+        private void bajar(int posicion) {
+            while (true) {
+                int menor = posicion;
+                int izquierdo = 2 * posicion + 1;
+                int derecho = izquierdo + 1;
+                if (izquierdo < tamanio && conteos[izquierdo] < conteos[menor]) {
+                    menor = izquierdo;
+                }
+                if (derecho < tamanio && conteos[derecho] < conteos[menor]) {
+                    menor = derecho;
+                }
+                if (menor == posicion) {
+                    return;
+                }
+                intercambiar(posicion, menor);
+                posicion = menor;
+            }
+        }
+
+        private void intercambiar(int a, int b) {
+            K clave = claves[a];
+            long conteo = conteos[a];
+            long error = errores[a];
+            claves[a] = claves[b];
+            conteos[a] = conteos[b];
+            errores[a] = errores[b];
+            claves[b] = clave;
+            conteos[b] = conteo;
+            errores[b] = error;
+            posiciones.poner(claves[a], a);
+            posiciones.poner(claves[b], b);
+        }
+    }
+}
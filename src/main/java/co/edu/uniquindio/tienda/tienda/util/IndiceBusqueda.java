@@ -0,0 +1,95 @@
+package co.edu.uniquindio.tienda.tienda.util;
+
+
+import co.edu.uniquindio.tienda.tienda.model.EventoCambio;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Function;
+
+/**
+ * Índice para buscar mientras se escribe por prefijo de la clave (el código de un producto o la
+ * identificación de un cliente). La búsqueda por nombre se hace con {@link IndiceTexto}.
+ * <p>
+ * Solo se guardan las claves, en un conjunto concurrente ordenado, así que las que empiezan por
+ * un prefijo forman un rango que se encuentra en O(log n) y se recorre hasta completar el límite.
+ * El índice devuelve claves: quien busca obtiene los elementos actuales de la tienda a partir de
+ * ellas, de modo que el índice nunca guarda copias desactualizadas.
+ * <p>
+ * Se mantiene al día con los eventos de cambio de la tienda y admite consultas desde otros hilos
+ * mientras se actualiza.
+ *
+ * @param <T> El tipo de los elementos indexados.
+ */
+@SuppressWarnings("ALL")
+public class IndiceBusqueda<T> {
+
+    private final ConcurrentSkipListSet<String> claves = new ConcurrentSkipListSet<>();
+    private final Function<? super T, String> clave;
+
+    /**
+     * @param clave La función que obtiene la clave de un elemento.
+     */
+    public IndiceBusqueda(Function<? super T, String> clave) {
+        this.clave = clave;
+    }
+
+    /**
+     * Vacía el índice, por ejemplo antes de indexar la tienda recién cargada.
+     */
+    public void limpiar() {
+        claves.clear();
+    }
+
+    /**
+     * Aplica un cambio de la tienda al índice.
+     *
+     * @param evento El cambio a aplicar.
+     */
+    public void aplicar(EventoCambio<? extends T> evento) {
+        switch (evento.getTipo()) {
+            case AGREGADO -> agregar(evento.getElemento());
+            case ACTUALIZADO -> {
+                claves.remove(clave.apply(evento.getAnterior()));
+                agregar(evento.getElemento());
+            }
+            case ELIMINADO -> claves.remove(clave.apply(evento.getElemento()));
+        }
+    }
+
+    /**
+     * Agrega la clave de un elemento al índice.
+     *
+     * @param elemento El elemento a indexar.
+     */
+    public void agregar(T elemento) {
+        claves.add(clave.apply(elemento));
+    }
+
+    /**
+     * Busca las claves que empiezan por el texto.
+     *
+     * @param texto  El texto escrito por el usuario.
+     * @param limite La cantidad máxima de resultados.
+     * @return Las claves encontradas, en orden.
+     */
+    public List<String> buscar(String texto, int limite) {
+        List<String> resultados = new ArrayList<>();
+        String prefijo = texto.strip();
+        if (prefijo.isEmpty()) {
+            return resultados;
+        }
+        for (String encontrada : claves.subSet(prefijo, true, prefijo + Character.MAX_VALUE, false)) {
+            if (resultados.size() == limite) {
+                break;
+            }
+            resultados.add(encontrada);
+        }
+        return resultados;
+    }
+
+    public int tamanio() {
+        return claves.size();
+    }
+}
@@ -0,0 +1,308 @@
+package co.edu.uniquindio.tienda.tienda.util;
+
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Índice invertido de texto con búsqueda aproximada, pensado para los nombres de los productos.
+ * <p>
+ * Cada texto se normaliza quitando tildes, mayúsculas y signos ("Azúcar" y "azucar" quedan
+ * iguales) y se parte en bigramas de letras por palabra, marcando el inicio y el fin de cada
+ * palabra con un espacio. Por cada bigrama se guarda la lista ordenada de los elementos que lo
+ * contienen. Una consulta se parte igual y se cuentan los bigramas que comparte con cada
+ * elemento, así que un error de digitación ("asucar", "galeta") solo hace perder los pocos
+ * bigramas que toca; con trigramas esos mismos errores dejan sin resultados a las palabras
+ * cortas. A la última palabra de la consulta no se le marca el fin, para encontrar las palabras
+ * que el usuario aún está escribiendo.
+ * <p>
+ * Los resultados se ordenan por la fracción de los bigramas de la consulta que aparecen en el
+ * elemento y, a igual cobertura, por el coeficiente de Dice, que favorece a los textos más
+ * parecidos en longitud. Se descartan los que no cubren al menos {@link #COBERTURA_MINIMA} de la
+ * consulta.
+ * <p>
+ * El índice se actualiza por elemento y es seguro para varios hilos: las consultas comparten un
+ * bloqueo de lectura y los cambios toman el de escritura.
+ *
+ * @param <K> El tipo de la clave de los elementos indexados, por ejemplo el código de un producto.
+ */
+@SuppressWarnings("ALL")
+public class IndiceTexto<K> {
+
+    public static final double COBERTURA_MINIMA = 0.5;
+    private static final int LONGITUD_GRAMA = 2;
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARADORES = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final HashMap<String, Lista> listas = new HashMap<>();
+    private final MapaObjetoEntero<K> identificadores = new MapaObjetoEntero<>();
+    private final ReadWriteLock bloqueo = new ReentrantReadWriteLock();
+    @SuppressWarnings("unchecked")
+    private K[] claves = (K[]) new Object[16];
+    private String[] textos = new String[16];
+    private int[] cantidadGramas = new int[16];
+    private int[] libres = new int[16];
+    private int cantidadLibres;
+    private int siguienteIdentificador;
+
+    /**
+     * Agrega un elemento al índice o, si ya estaba, vuelve a indexarlo cuando su texto cambió.
+     *
+     * @param clave La clave del elemento.
+     * @param texto El texto del elemento.
+     */
+    public void actualizar(K clave, String texto) {
+        String normalizado = normalizar(texto);
+        bloqueo.writeLock().lock();
+        try {
+            int identificador = identificadores.obtener(clave, -1);
+            if (identificador >= 0) {
+                if (textos[identificador].equals(normalizado)) {
+                    return;
+                }
+                desindexar(identificador);
+            } else {
+                identificador = nuevoIdentificador();
+                identificadores.poner(clave, identificador);
+                claves[identificador] = clave;
+            }
+            textos[identificador] = normalizado;
+            Set<String> gramas = gramas(normalizado, true);
+            cantidadGramas[identificador] = gramas.size();
+            for (String grama : gramas) {
+                listas.computeIfAbsent(grama, g -> new Lista()).agregar(identificador);
+            }
+        } finally {
+            bloqueo.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Quita un elemento del índice.
+     *
+     * @param clave La clave del elemento.
+     * @return true si el elemento estaba en el índice.
+     */
+    public boolean eliminar(K clave) {
+        bloqueo.writeLock().lock();
+        try {
+            int identificador = identificadores.obtener(clave, -1);
+            if (identificador < 0) {
+                return false;
+            }
+            desindexar(identificador);
+            identificadores.eliminar(clave);
+            claves[identificador] = null;
+            textos[identificador] = null;
+            if (cantidadLibres == libres.length) {
+                libres = Arrays.copyOf(libres, cantidadLibres * 2);
+            }
+            libres[cantidadLibres++] = identificador;
+            return true;
+        } finally {
+            bloqueo.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Vacía el índice.
+     */
+    public void limpiar() {
+        bloqueo.writeLock().lock();
+        try {
+            listas.clear();
+            identificadores.limpiar();
+            Arrays.fill(claves, null);
+            Arrays.fill(textos, null);
+            cantidadLibres = 0;
+            siguienteIdentificador = 0;
+        } finally {
+            bloqueo.writeLock().unlock();
+        }
+    }
+
+    public int tamanio() {
+        bloqueo.readLock().lock();
+        try {
+            return identificadores.tamanio();
+        } finally {
+            bloqueo.readLock().unlock();
+        }
+    }
+
+    /**
+     * Busca los elementos cuyo texto se parece a la consulta.
+     *
+     * @param consulta El texto buscado; puede tener tildes, mayúsculas o errores de digitación.
+     * @param limite   La cantidad máxima de resultados.
+     * @return Las claves de los elementos encontrados, de la más a la menos parecida. Si la
+     * consulta no tiene letras ni números, la lista está vacía.
+     */
+    public List<K> buscar(String consulta, int limite) {
+        Set<String> gramasConsulta = gramas(normalizar(consulta), false);
+        List<K> resultados = new ArrayList<>();
+        if (gramasConsulta.isEmpty() || limite <= 0) {
+            return resultados;
+        }
+        int minimo = (int) Math.ceil(gramasConsulta.size() * COBERTURA_MINIMA);
+        bloqueo.readLock().lock();
+        try {
+            int[] comunes = new int[siguienteIdentificador];
+            int[] candidatos = new int[64];
+            int cantidadCandidatos = 0;
+            for (String grama : gramasConsulta) {
+                Lista lista = listas.get(grama);
+                if (lista == null) {
+                    continue;
+                }
+                for (int i = 0; i < lista.tamanio; i++) {
+                    int identificador = lista.identificadores[i];
+                    if (comunes[identificador]++ == 0) {
+                        if (cantidadCandidatos == candidatos.length) {
+                            candidatos = Arrays.copyOf(candidatos, cantidadCandidatos * 2);
+                        }
+                        candidatos[cantidadCandidatos++] = identificador;
+                    }
+                }
+            }
+
+            Comparator<Coincidencia> orden = Comparator.comparingInt((Coincidencia c) -> c.comunes)
+                    .thenComparingDouble(c -> c.dice)
+                    .thenComparing((Coincidencia c) -> textos[c.identificador], Comparator.reverseOrder())
+                    .thenComparing((Coincidencia c) -> String.valueOf(claves[c.identificador]), Comparator.reverseOrder());
+            PriorityQueue<Coincidencia> mejores = new PriorityQueue<>(orden);
+            for (int i = 0; i < cantidadCandidatos; i++) {
+                int identificador = candidatos[i];
+                int cantidad = comunes[identificador];
+                if (cantidad < minimo) {
+                    continue;
+                }
+                double dice = 2.0 * cantidad / (gramasConsulta.size() + cantidadGramas[identificador]);
+                Coincidencia coincidencia = new Coincidencia(identificador, cantidad, dice);
+                if (mejores.size() < limite) {
+                    mejores.add(coincidencia);
+                } else if (orden.compare(coincidencia, mejores.peek()) > 0) {
+                    mejores.poll();
+                    mejores.add(coincidencia);
+                }
+            }
+            while (!mejores.isEmpty()) {
+                resultados.add(claves[mejores.poll().identificador]);
+            }
+        } finally {
+            bloqueo.readLock().unlock();
+        }
+        Collections.reverse(resultados);
+        return resultados;
+    }
+
+    /**
+     * Normaliza un texto para indexarlo o buscarlo: separa y quita las tildes, pasa a minúsculas y
+     * reemplaza por un espacio todo lo que no sea letra o número.
+     *
+     * @param texto El texto a normalizar.
+     * @return El texto normalizado.
+     */
+    public static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        String sinTildes = MARCAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return SEPARADORES.matcher(sinTildes.toLowerCase(Locale.ROOT)).replaceAll(" ").strip();
+    }
+
+    /**
+     * Parte un texto normalizado en los bigramas de sus palabras.
+     *
+     * @param texto         El texto normalizado.
+     * @param finalCompleto false para no marcar el fin de la última palabra, que puede estar incompleta.
+     * @return Los bigramas distintos del texto.
+     */
+    private static Set<String> gramas(String texto, boolean finalCompleto) {
+        Set<String> gramas = new LinkedHashSet<>();
+        if (texto.isEmpty()) {
+            return gramas;
+        }
+        String[] palabras = texto.split(" ");
+        for (int i = 0; i < palabras.length; i++) {
+            boolean marcarFin = finalCompleto || i < palabras.length - 1;
+            String palabra = " " + palabras[i] + (marcarFin ? " " : "");
+            for (int inicio = 0; inicio + LONGITUD_GRAMA <= palabra.length(); inicio++) {
+                gramas.add(palabra.substring(inicio, inicio + LONGITUD_GRAMA));
+            }
+        }
+        return gramas;
+    }
+
+    private int nuevoIdentificador() {
+        if (cantidadLibres > 0) {
+            return libres[--cantidadLibres];
+        }
+        if (siguienteIdentificador == claves.length) {
+            int capacidad = claves.length * 2;
+            claves = Arrays.copyOf(claves, capacidad);
+            textos = Arrays.copyOf(textos, capacidad);
+            cantidadGramas = Arrays.copyOf(cantidadGramas, capacidad);
+        }
+        return siguienteIdentificador++;
+    }
+
+    private void desindexar(int identificador) {
+        for (String grama : gramas(textos[identificador], true)) {
+            Lista lista = listas.get(grama);
+            if (lista != null && lista.eliminar(identificador) && lista.tamanio == 0) {
+                listas.remove(grama);
+            }
+        }
+    }
+
+    /**
+     * Elemento que comparte bigramas con la consulta.
+     */
+    private record Coincidencia(int identificador, int comunes, double dice) {
+    }
+
+    /**
+     * Lista ordenada de los identificadores de los elementos que contienen un bigrama.
+     */
+    private static class Lista {
+        private int[] identificadores = new int[4];
+        private int tamanio;
+
+        void agregar(int identificador) {
+            int posicion = Arrays.binarySearch(identificadores, 0, tamanio, identificador);
+            if (posicion >= 0) {
+                return;
+            }
+            posicion = -posicion - 1;
+            if (tamanio == identificadores.length) {
+                identificadores = Arrays.copyOf(identificadores, tamanio * 2);
+            }
+            System.arraycopy(identificadores, posicion, identificadores, posicion + 1, tamanio - posicion);
+            identificadores[posicion] = identificador;
+            tamanio++;
+        }
+
+        boolean eliminar(int identificador) {
+            int posicion = Arrays.binarySearch(identificadores, 0, tamanio, identificador);
+            if (posicion < 0) {
+                return false;
+            }
+            System.arraycopy(identificadores, posicion + 1, identificadores, posicion, tamanio - posicion - 1);
+            tamanio--;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package co.edu.uniquindio.tienda.tienda.util;
+
+
+import co.edu.uniquindio.tienda.tienda.model.EventoCambio;
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+
+import java.util.Collection;
+import java.util.function.Function;
+
+/**
+ * Lista observable para las tablas de la interfaz que recuerda la posición de cada elemento
+ * según su clave, de modo que un cambio de la tienda se aplica sobre una sola fila.
+ * <p>
+ * Agregar, actualizar y eliminar cuestan O(1): los elementos nuevos van al final y al eliminar
+ * uno su lugar lo ocupa el último, por lo que la lista no conserva un orden. Solo se debe
+ * modificar desde el hilo de la interfaz.
+ *
+ * @param <K> El tipo de la clave de los elementos.
+ * @param <T> El tipo de los elementos.
+ */
+@SuppressWarnings("ALL")
+public class ListaIndexada<K, T> {
+
+    private final ObservableList<T> elementos = FXCollections.observableArrayList();
+    private final MapaObjetoEntero<K> posiciones = new MapaObjetoEntero<>();
+    private final Function<? super T, ? extends K> clave;
+
+    /**
+     * @param clave La función que obtiene la clave de un elemento, por ejemplo el código de un producto.
+     */
+    public ListaIndexada(Function<? super T, ? extends K> clave) {
+        this.clave = clave;
+    }
+
+    public ObservableList<T> getElementos() {
+        return elementos;
+    }
+
+    /**
+     * Reemplaza todo el contenido de la lista, por ejemplo al terminar la carga de la tienda.
+     *
+     * @param nuevos Los elementos nuevos.
+     */
+    public void reemplazarTodo(Collection<? extends T> nuevos) {
+        posiciones.limpiar();
+        int posicion = 0;
+        for (T elemento : nuevos) {
+            posiciones.poner(clave.apply(elemento), posicion++);
+        }
+        elementos.setAll(nuevos);
+    }
+
+    /**
+     * Aplica un cambio de la tienda. Las actualizaciones y eliminaciones de elementos que no
+     * están en la lista se ignoran.
+     *
+     * @param evento El cambio a aplicar.
+     */
+    public void aplicar(EventoCambio<? extends T> evento) {
+        switch (evento.getTipo()) {
+            case AGREGADO -> agregar(evento.getElemento());
+            case ACTUALIZADO -> actualizar(evento.getElemento(), evento.getAnterior());
+            case ELIMINADO -> eliminar(evento.getElemento());
+        }
+    }
+
+    /**
+     * Agrega un elemento al final, o reemplaza el que tenga la misma clave.
+     *
+     * @param elemento El elemento a agregar.
+     */
+    public void agregar(T elemento) {
+        K llave = clave.apply(elemento);
+        int posicion = posiciones.obtener(llave, -1);
+        if (posicion >= 0) {
+            elementos.set(posicion, elemento);
+            return;
+        }
+        posiciones.poner(llave, elementos.size());
+        elementos.add(elemento);
+    }
+
+    /**
+     * Reemplaza la fila de un elemento. Si la actualización cambió su clave, el elemento ocupa
+     * la fila que tenía con la clave anterior.
+     *
+     * @param elemento El elemento actualizado.
+     * @param anterior El elemento antes del cambio; puede ser el mismo objeto.
+     */
+    public void actualizar(T elemento, T anterior) {
+        K llave = clave.apply(elemento);
+        K llaveAnterior = clave.apply(anterior);
+        int posicion = posiciones.obtener(llaveAnterior, -1);
+        if (posicion < 0) {
+            return;
+        }
+        if (!llave.equals(llaveAnterior)) {
+            posiciones.eliminar(llaveAnterior);
+            posiciones.poner(llave, posicion);
+        }
+        elementos.set(posicion, elemento);
+    }
+
+    /**
+     * Elimina un elemento moviendo el último a su fila.
+     *
+     * @param elemento El elemento a eliminar.
+     */
+    public void eliminar(T elemento) {
+        K llave = clave.apply(elemento);
+        int posicion = posiciones.obtener(llave, -1);
+        if (posicion < 0) {
+            return;
+        }
+        posiciones.eliminar(llave);
+        int ultima = elementos.size() - 1;
+        if (posicion < ultima) {
+            T ultimo = elementos.get(ultima);
+            posiciones.poner(clave.apply(ultimo), posicion);
+            elementos.set(posicion, ultimo);
+        }
+        elementos.remove(ultima);
+    }
+
+    /**
+     * Ejecuta una acción en el hilo de la interfaz: de inmediato si ya se está en él, o en la
+     * siguiente pasada si el cambio llegó desde otro hilo, como una importación o una venta en segundo plano.
+     *
+     * @param accion La acción a ejecutar.
+     */
+    public static void enHiloInterfaz(Runnable accion) {
+        if (Platform.isFxApplicationThread()) {
+            accion.run();
+        } else {
+            Platform.runLater(accion);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package co.edu.uniquindio.tienda.tienda.util;
+
+
+import javafx.application.Platform;
+import javafx.collections.ObservableListBase;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.IntSupplier;
+
+/**
+ * Lista observable de solo lectura que trae sus elementos por páginas a medida que la tabla los
+ * pide, para mostrar listas muy grandes sin copiarlas. Las tablas de JavaFX solo consultan las
+ * filas visibles, así que en memoria quedan las últimas {@code paginasEnMemoria} páginas usadas.
+ * <p>
+ * El tamaño se toma al recargar y se ajusta con {@link #insertado(int)}; quien la usa debe
+ * avisar así cada elemento que se agregue a la fuente, o con {@link #cambiarDespues(boolean)} si no
+ * conoce su posición. Solo se debe usar desde el hilo de la interfaz.
+ *
+ * @param <T> El tipo de los elementos.
+ */
+@SuppressWarnings("ALL")
+public class ListaPaginada<T> extends ObservableListBase<T> {
+
+    private final int tamanioPagina;
+    private final BiFunction<Integer, Integer, List<T>> cargarPagina;
+    private final IntSupplier contar;
+    private final LinkedHashMap<Integer, List<T>> paginas;
+    private int tamanio;
+    private boolean recargaPendiente;
+    private boolean refrescoPendiente;
+
+    /**
+     * @param tamanioPagina    La cantidad de elementos de cada página.
+     * @param paginasEnMemoria La cantidad máxima de páginas que se conservan.
+     * @param cargarPagina     La consulta que recibe la posición inicial y la cantidad y devuelve los elementos.
+     * @param contar           La consulta del total de elementos de la fuente.
+     */
+    public ListaPaginada(int tamanioPagina, int paginasEnMemoria, BiFunction<Integer, Integer, List<T>> cargarPagina, IntSupplier contar) {
+        this.tamanioPagina = tamanioPagina;
+        this.cargarPagina = cargarPagina;
+        this.contar = contar;
+        this.paginas = new LinkedHashMap<>(paginasEnMemoria * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<T>> pagina) {
+                return size() > paginasEnMemoria;
+            }
+        };
+        this.tamanio = contar.getAsInt();
+    }
+
+    /**
+     * Obtiene un elemento, trayendo su página si no está en memoria.
+     *
+     * @param indice La posición del elemento.
+     * @return El elemento, o null si la fuente tiene menos elementos de los esperados.
+     */
+    @Override
+    public T get(int indice) {
+        if (indice < 0 || indice >= tamanio) {
+            throw new IndexOutOfBoundsException("Índice " + indice + " fuera de la lista de tamaño " + tamanio);
+        }
+        int numeroPagina = indice / tamanioPagina;
+        List<T> pagina = paginas.get(numeroPagina);
+        if (pagina == null) {
+            pagina = cargarPagina.apply(numeroPagina * tamanioPagina, tamanioPagina);
+            paginas.put(numeroPagina, pagina);
+        }
+        int posicion = indice % tamanioPagina;
+        return posicion < pagina.size() ? pagina.get(posicion) : null;
+    }
+
+    @Override
+    public int size() {
+        return tamanio;
+    }
+
+    /**
+     * Descarta las páginas en memoria y vuelve a contar los elementos de la fuente, por ejemplo
+     * cuando la fuente se reemplaza por completo.
+     */
+    public void recargar() {
+        paginas.clear();
+        int anterior = tamanio;
+        tamanio = contar.getAsInt();
+        beginChange();
+        nextRemove(0, Collections.nCopies(anterior, null));
+        nextAdd(0, tamanio);
+        endChange();
+    }
+
+    /**
+     * Descarta las páginas en memoria y avisa a la tabla que sus elementos pudieron cambiar, sin
+     * cambiar el tamaño. Solo se avisan las posiciones de las páginas descartadas, que son las que
+     * la tabla consultó; las demás se traen ya actualizadas cuando se pidan.
+     */
+    public void refrescar() {
+        if (paginas.isEmpty()) {
+            return;
+        }
+        List<Integer> numerosPagina = List.copyOf(paginas.keySet());
+        paginas.clear();
+        beginChange();
+        for (int numeroPagina : numerosPagina) {
+            int fin = Math.min(tamanio, (numeroPagina + 1) * tamanioPagina);
+            for (int i = numeroPagina * tamanioPagina; i < fin; i++) {
+                nextUpdate(i);
+            }
+        }
+        endChange();
+    }
+
+    /**
+     * Programa una recarga o un refresco para la siguiente pasada del hilo de la interfaz, de modo
+     * que una ráfaga de cambios de la fuente, como una importación, se aplica una sola vez.
+     *
+     * @param cambiaTamanio true si la fuente ganó o perdió elementos y hay que recargarla.
+     */
+    public void cambiarDespues(boolean cambiaTamanio) {
+        boolean programado = recargaPendiente || refrescoPendiente;
+        recargaPendiente |= cambiaTamanio;
+        refrescoPendiente |= !cambiaTamanio;
+        if (programado) {
+            return;
+        }
+        Platform.runLater(() -> {
+            boolean recargar = recargaPendiente;
+            recargaPendiente = false;
+            refrescoPendiente = false;
+            if (recargar) {
+                recargar();
+            } else {
+                refrescar();
+            }
+        });
+    }
+
+    /**
+     * Registra un elemento agregado a la fuente. Las páginas en memoria se descartan porque los
+     * elementos posteriores se corrieron una posición; la tabla vuelve a pedir solo las filas visibles.
+     *
+     * @param posicion La posición del elemento nuevo.
+     */
+    public void insertado(int posicion) {
+        paginas.clear();
+        tamanio++;
+        beginChange();
+        nextAdd(posicion, posicion + 1);
+        endChange();
+    }
+}
@@ -0,0 +1,300 @@
+package co.edu.uniquindio.tienda.tienda.util;
+
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Mapa de claves a enteros primitivos, sin entradas ni {@link Integer} envueltos.
+ * <p>
+ * Las claves y los valores se guardan en arreglos compactos, en orden de inserción, y una tabla
+ * de direccionamiento abierto con sondeo lineal guarda la posición de cada clave en esos arreglos.
+ * Las posiciones van de 0 a {@link #tamanio()} - 1, así que el mapa se puede recorrer con un ciclo
+ * {@code for} usando {@link #clave(int)} y {@link #valor(int)}. Al eliminar una clave, la última
+ * pasa a ocupar su posición.
+ * <p>
+ * No admite claves nulas y no es seguro para varios hilos.
+ *
+ * @param <K> El tipo de las claves.
+ */
+@SuppressWarnings("ALL")
+public class MapaObjetoEntero<K> {
+
+    private static final int CAPACIDAD_INICIAL = 8;
+
+    private K[] claves;
+    private int[] valores;
+    private int[] dispersiones;
+    private int tamanio;
+
+    private int[] tabla;
+
+    public MapaObjetoEntero() {
+        this(CAPACIDAD_INICIAL);
+    }
+
+    @SuppressWarnings("unchecked")
+    public MapaObjetoEntero(int capacidad) {
+        int inicial = Math.max(CAPACIDAD_INICIAL, capacidad);
+        claves = (K[]) new Object[inicial];
+        valores = new int[inicial];
+        dispersiones = new int[inicial];
+        tabla = new int[Integer.highestOneBit(inicial * 2 - 1) << 1];
+    }
+
+    /*
+    -----------------------------------------------------------------------------------------------------------
+    ----------------------------CONSULTAR----------------------------------------------------------------------
+    */
+
+    /**
+     * Obtiene el valor de una clave.
+     *
+     * @param clave      La clave a buscar.
+     * @param porDefecto El valor a devolver si la clave no existe.
+     * @return El valor de la clave, o el valor por defecto.
+     */
+    public int obtener(K clave, int porDefecto) {
+        int indice = indice(clave);
+        return indice < 0 ? porDefecto : valores[indice];
+    }
+
+    /**
+     * Indica si el mapa contiene una clave.
+     *
+     * @param clave La clave a buscar.
+     * @return true si la clave existe.
+     */
+    public boolean contiene(K clave) {
+        return indice(clave) >= 0;
+    }
+
+    /**
+     * Obtiene la posición de una clave en el orden del mapa.
+     *
+     * @param clave La clave a buscar.
+     * @return La posición de la clave, o -1 si no existe.
+     */
+    public int indice(K clave) {
+        int dispersion = dispersar(clave);
+        int mascara = tabla.length - 1;
+        for (int i = dispersion & mascara; tabla[i] != 0; i = (i + 1) & mascara) {
+            int indice = tabla[i] - 1;
+            if (dispersiones[indice] == dispersion && claves[indice].equals(clave)) {
+                return indice;
+            }
+        }
+        return -1;
+    }
+
+    public K clave(int indice) {
+        return claves[verificarIndice(indice)];
+    }
+
+    public int valor(int indice) {
+        return valores[verificarIndice(indice)];
+    }
+
+    public int tamanio() {
+        return tamanio;
+    }
+
+    public boolean estaVacio() {
+        return tamanio == 0;
+    }
+
+    /*
+    -----------------------------------------------------------------------------------------------------------
+    ----------------------------MODIFICAR----------------------------------------------------------------------
+    */
+
+    /**
+     * Asigna el valor de una clave, agregándola si no existe.
+     *
+     * @param clave La clave.
+     * @param valor El valor a asignar.
+     */
+    public void poner(K clave, int valor) {
+        int indice = indiceOAgregar(clave);
+        valores[indice] = valor;
+    }
+
+    /**
+     * Suma una cantidad al valor de una clave. Si la clave no existe se agrega con la cantidad.
+     *
+     * @param clave    La clave.
+     * @param cantidad La cantidad a sumar.
+     * @return El valor resultante.
+     */
+    public int sumar(K clave, int cantidad) {
+        int indice = indiceOAgregar(clave);
+        valores[indice] += cantidad;
+        return valores[indice];
+    }
+
+    public void setValor(int indice, int valor) {
+        valores[verificarIndice(indice)] = valor;
+    }
+
+    /**
+     * Elimina una clave.
+     *
+     * @param clave La clave a eliminar.
+     * @return true si la clave existía.
+     */
+    public boolean eliminar(K clave) {
+        int dispersion = dispersar(clave);
+        int mascara = tabla.length - 1;
+        int i = dispersion & mascara;
+        while (tabla[i] != 0) {
+            int indice = tabla[i] - 1;
+            if (dispersiones[indice] == dispersion && claves[indice].equals(clave)) {
+                quitarDeTabla(i);
+                moverUltimo(indice);
+                return true;
+            }
+            i = (i + 1) & mascara;
+        }
+        return false;
+    }
+
+    /**
+     * Elimina todas las claves conservando la capacidad.
+     */
+    public void limpiar() {
+        Arrays.fill(claves, 0, tamanio, null);
+        Arrays.fill(tabla, 0);
+        tamanio = 0;
+    }
+
+    /**
+     * Crea una copia del mapa con valores envueltos, para las vistas y los formatos que esperan un {@link Map}.
+     *
+     * @return Un mapa en el mismo orden.
+     */
+    public Map<K, Integer> aMapa() {
+        Map<K, Integer> mapa = new LinkedHashMap<>();
+        for (int i = 0; i < tamanio; i++) {
+            mapa.put(claves[i], valores[i]);
+        }
+        return mapa;
+    }
+
+    /**
+     * Crea una copia independiente del mapa.
+     *
+     * @return La copia.
+     */
+    public MapaObjetoEntero<K> copiar() {
+        MapaObjetoEntero<K> copia = new MapaObjetoEntero<>(0);
+        copia.claves = Arrays.copyOf(claves, claves.length);
+        copia.valores = Arrays.copyOf(valores, valores.length);
+        copia.dispersiones = Arrays.copyOf(dispersiones, dispersiones.length);
+        copia.tabla = Arrays.copyOf(tabla, tabla.length);
+        copia.tamanio = tamanio;
+        return copia;
+    }
+
+    @Override
+    public String toString() {
+        return aMapa().toString();
+    }
+
+    /*
+    -----------------------------------------------------------------------------------------------------------
+    ----------------------------TABLA--------------------------------------------------------------------------
+    */
+
+    private int indiceOAgregar(K clave) {
+        if (clave == null) {
+            throw new NullPointerException("La clave no puede ser nula");
+        }
+        int dispersion = dispersar(clave);
+        int mascara = tabla.length - 1;
+        int i = dispersion & mascara;
+        while (tabla[i] != 0) {
+            int indice = tabla[i] - 1;
+            if (dispersiones[indice] == dispersion && claves[indice].equals(clave)) {
+                return indice;
+            }
+            i = (i + 1) & mascara;
+        }
+        if (tamanio == claves.length) {
+            int capacidad = claves.length * 2;
+            claves = Arrays.copyOf(claves, capacidad);
+            valores = Arrays.copyOf(valores, capacidad);
+            dispersiones = Arrays.copyOf(dispersiones, capacidad);
+        }
+        int indice = tamanio++;
+        claves[indice] = clave;
+        valores[indice] = 0;
+        dispersiones[indice] = dispersion;
+        if (tamanio * 2 > tabla.length) {
+            reconstruirTabla(tabla.length * 2);
+        } else {
+            tabla[i] = indice + 1;
+        }
+        return indice;
+    }
+
+    /**
+     * Mueve la última entrada a una posición liberada y actualiza su referencia en la tabla.
+     */
+    private void moverUltimo(int liberado) {
+        int ultimo = --tamanio;
+        if (liberado != ultimo) {
+            claves[liberado] = claves[ultimo];
+            valores[liberado] = valores[ultimo];
+            dispersiones[liberado] = dispersiones[ultimo];
+            int mascara = tabla.length - 1;
+            int i = dispersiones[liberado] & mascara;
+            while (tabla[i] != ultimo + 1) {
+                i = (i + 1) & mascara;
+            }
+            tabla[i] = liberado + 1;
+        }
+        claves[ultimo] = null;
+    }
+
+    /**
+     * Vacía una casilla de la tabla desplazando hacia atrás las siguientes del mismo grupo,
+     * para no dejar marcas de borrado.
+     */
+    private void quitarDeTabla(int casilla) {
+        int mascara = tabla.length - 1;
+        int hueco = casilla;
+        for (int j = (hueco + 1) & mascara; tabla[j] != 0; j = (j + 1) & mascara) {
+            int ideal = dispersiones[tabla[j] - 1] & mascara;
+            if (((j - ideal) & mascara) >= ((j - hueco) & mascara)) {
+                tabla[hueco] = tabla[j];
+                hueco = j;
+            }
+        }
+        tabla[hueco] = 0;
+    }
+
+    private void reconstruirTabla(int capacidad) {
+        tabla = new int[capacidad];
+        int mascara = capacidad - 1;
+        for (int indice = 0; indice < tamanio; indice++) {
+            int i = dispersiones[indice] & mascara;
+            while (tabla[i] != 0) {
+                i = (i + 1) & mascara;
+            }
+            tabla[i] = indice + 1;
+        }
+    }
+
+    private int verificarIndice(int indice) {
+        if (indice < 0 || indice >= tamanio) {
+            throw new IndexOutOfBoundsException("Posición " + indice + " fuera del mapa de " + tamanio + " claves");
+        }
+        return indice;
+    }
+
+    private static int dispersar(Object clave) {
+        int h = clave.hashCode();
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,20 @@
+package co.edu.uniquindio.tienda.tienda.viewController;
+
+import co.edu.uniquindio.tienda.tienda.TiendaApplication;
+import javafx.stage.Stage;
+
+/**
+ * Controlador de una pantalla que se muestra en el panel derecho de la ventana de inicio.
+ * Las pantallas se cargan una sola vez y se reutilizan, por lo que cada vez que se vuelve a
+ * mostrar una se le pide que refresque los datos que pudieron cambiar mientras estaba oculta.
+ */
+@SuppressWarnings("ALL")
+public interface IPanelDerecho {
+    public void setAplicacion(TiendaApplication aplicacion);
+    public void setVentana(Stage ventana);
+
+    /**
+     * Refresca los datos de la pantalla antes de volver a mostrarla.
+     */
+    public void actualizarVista();
+}
@@ -2,11 +2,15 @@ package co.edu.uniquindio.tienda.tienda.viewController;
 
 import co.edu.uniquindio.tienda.tienda.TiendaApplication;
 import co.edu.uniquindio.tienda.tienda.controller.ModelFactoryController;
+import co.edu.uniquindio.tienda.tienda.exception.InventarioInsuficienteException;
+import co.edu.uniquindio.tienda.tienda.model.CarritoCompras;
 import co.edu.uniquindio.tienda.tienda.model.Cliente;
 import co.edu.uniquindio.tienda.tienda.model.DetalleVenta;
 import co.edu.uniquindio.tienda.tienda.model.Producto;
+import co.edu.uniquindio.tienda.tienda.model.ReservaInventario;
 import co.edu.uniquindio.tienda.tienda.model.Venta;
 import co.edu.uniquindio.tienda.tienda.util.Alertas;
+import javafx.application.Platform;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -20,13 +24,12 @@ import lombok.Data;
 import java.net.URL;
 import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.ResourceBundle;
 
 @SuppressWarnings("All")
 @Data
-public class VentanaCarritoController implements Initializable {
+public class VentanaCarritoController implements Initializable, IPanelDerecho {
 
     @FXML
     private Button btnAceptar;
@@ -63,7 +66,7 @@ public class VentanaCarritoController implements Initializable {
     private ModelFactoryController modelFactoryController;
     private ObservableList<String> listaClientesNombres = FXCollections.observableArrayList();
     private List<Cliente> listClientes = new ArrayList<>();
-    private HashMap<String, Integer> productosCarrito = new HashMap<>();
+    private CarritoCompras carrito = new CarritoCompras();
     private ObservableList<Producto> listaProductos = FXCollections.observableArrayList();
 
     public VentanaCarritoController() {
@@ -84,6 +87,19 @@ public class VentanaCarritoController implements Initializable {
         obtenerProductos();
         actualizarTabla();
         calcularTotalVenta();
+        modelFactoryController.alCompletarCarga(() -> Platform.runLater(this::actualizarClientes));
+    }
+
+    /**
+     * Refresca los productos del carrito, el total y los clientes cuando se vuelve a mostrar la
+     * pantalla, pues el carrito se llena desde la pantalla de ventas.
+     */
+    @Override
+    public void actualizarVista() {
+        listaProductos.clear();
+        obtenerProductos();
+        calcularTotalVenta();
+        actualizarClientes();
     }
 
     /**
@@ -111,6 +127,14 @@ public class VentanaCarritoController implements Initializable {
         cbSelecCliente.setOnShowing(event -> actualizarComboBox());
     }
 
+    /**
+     * Actualiza la lista de clientes y el ComboBox de selección de cliente, por ejemplo cuando termina la carga de datos.
+     */
+    private void actualizarClientes() {
+        listClientes = modelFactoryController.obtenerListaClientes();
+        actualizarComboBox();
+    }
+
     /**
      * Actualiza el ComboBox de selección de cliente con la lista de clientes actualizada.
      */
@@ -125,7 +149,7 @@ public class VentanaCarritoController implements Initializable {
      * Obtiene los productos del carrito del controlador de modelo y los configura en la tabla del carrito.
      */
     public void obtenerProductos() {
-        productosCarrito = modelFactoryController.obtenerCarrito();
+        carrito = modelFactoryController.obtenerCarrito();
         obtenerProductosCarrito();
     }
 
@@ -154,7 +178,7 @@ public class VentanaCarritoController implements Initializable {
      */
     private String calcularTotal(Producto producto) {
         String codigoProducto = producto.getCodigo();
-        int cantidad = productosCarrito.get(codigoProducto); // Obtiene la cantidad asociada al código del producto en el carrito
+        int cantidad = carrito.obtenerCantidad(codigoProducto); // Obtiene la cantidad asociada al código del producto en el carrito
         double precio = producto.getPrecio(); // Obtiene el precio del producto
         double total = cantidad * precio; // Calcula el total multiplicando la cantidad por el precio
         return String.valueOf(total); // Devuelve el total como una cadena
@@ -168,7 +192,7 @@ public class VentanaCarritoController implements Initializable {
      */
     private String obtenerCantidad(Producto producto) {
         String codigoProducto = producto.getCodigo(); // Obtén el código del producto
-        int cantidad = productosCarrito.get(codigoProducto); // Obtiene la cantidad asociada al código del producto en el carrito
+        int cantidad = carrito.obtenerCantidad(codigoProducto); // Obtiene la cantidad asociada al código del producto en el carrito
         return String.valueOf(cantidad); // Devuelve la cantidad como una cadena
     }
 
@@ -179,15 +203,16 @@ public class VentanaCarritoController implements Initializable {
      * Utiliza el código de cada producto en el carrito para obtener la información completa del producto y agregarlo a la lista de productos del carrito.
      */
     private void obtenerProductosCarrito() {
-        for(String codigo: productosCarrito.keySet()){
+        for(String codigo: carrito.obtenerCodigos()){
             listaProductos.addAll(modelFactoryController.obtenerProductoPorCodigo(codigo));
         }
     }
 
     /**
      * Realiza la compra si hay productos en el carrito y se ha seleccionado un cliente.
-     * Crea una venta con los detalles de venta obtenidos del carrito y la información del cliente seleccionado.
-     * Agrega la venta al historial de ventas, vacía el carrito, actualiza el inventario y limpia los campos.
+     * Reserva el inventario de los productos del carrito y crea una venta con los detalles de venta y la información del cliente seleccionado.
+     * Agrega la venta al historial de ventas y confirma la reserva de inventario en una sola operación, vacía el carrito y limpia los campos.
+     * Muestra una alerta de error si no hay inventario suficiente para algún producto.
      * Muestra una alerta de éxito si la venta se agrega correctamente al historial.
      * Muestra una alerta de error si ocurre algún problema al agregar la venta al historial.
      */
@@ -195,11 +220,24 @@ public class VentanaCarritoController implements Initializable {
     void realizarCompra(ActionEvent event) {
         if (!tableCarrito.getItems().isEmpty() && cbSelecCliente.getValue() != null && !cbSelecCliente.getValue().equals(cbSelecCliente.getItems().get(0))) {
             List<DetalleVenta> detallesVenta = obtenerDetallesVenta();
+            ReservaInventario reserva;
+            try {
+                reserva = modelFactoryController.reservarInventario(detallesVenta);
+            } catch (InventarioInsuficienteException e) {
+                Alertas.mostrarAlertaError(e.getMessage());
+                return;
+            }
             Venta venta = new Venta(generarCodigo(), LocalDate.now(), Double.parseDouble(txtTotal.getText()), obtenerCliente(), detallesVenta);
-            if(modelFactoryController.agregarVenta(venta)){
+            boolean realizada;
+            try {
+                realizada = modelFactoryController.realizarCompra(venta, reserva);
+            } catch (IllegalStateException e) {
+                Alertas.mostrarAlertaError(e.getMessage());
+                return;
+            }
+            if (realizada) {
                 Alertas.mostrarAlertaInformacion("Se agregó la venta al historial");
                 modelFactoryController.vaciarCarrito();
-                modelFactoryController.actulizarInventario(detallesVenta);
                 limpiarCampos();
             } else {
                 Alertas.mostrarAlertaError("Error al añadir la venta al historial");
@@ -244,7 +282,7 @@ public class VentanaCarritoController implements Initializable {
         List<DetalleVenta> detallesVenta = new ArrayList<>();
         for (Producto producto : listaProductos) {
             String codigoProducto = producto.getCodigo();
-            int cantidad = productosCarrito.get(codigoProducto); // Obtiene la cantidad asociada al código del producto en el carrito
+            int cantidad = carrito.obtenerCantidad(codigoProducto); // Obtiene la cantidad asociada al código del producto en el carrito
             double precio = producto.getPrecio(); // Obtiene el precio del producto
             double subTotal = cantidad * precio; // Calcula el subtotal multiplicando la cantidad por el precio
             DetalleVenta detalleVenta = new DetalleVenta(cantidad, producto, subTotal);
@@ -5,10 +5,12 @@ import co.edu.uniquindio.tienda.tienda.controller.ModelFactoryController;
 import co.edu.uniquindio.tienda.tienda.exception.ClienteException;
 import co.edu.uniquindio.tienda.tienda.exception.ClienteNoEncontradoException;
 import co.edu.uniquindio.tienda.tienda.model.Cliente;
+import co.edu.uniquindio.tienda.tienda.model.EventoCambio;
 import co.edu.uniquindio.tienda.tienda.util.Alertas;
+import co.edu.uniquindio.tienda.tienda.util.BuscadorDiferido;
+import co.edu.uniquindio.tienda.tienda.util.ListaIndexada;
+import javafx.application.Platform;
 import javafx.beans.property.SimpleStringProperty;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.TableColumn;
@@ -17,18 +19,27 @@ import javafx.scene.control.TextField;
 import javafx.scene.image.ImageView;
 import javafx.scene.input.MouseEvent;
 import javafx.stage.Stage;
+import javafx.util.Duration;
 import lombok.Data;
 
 import java.net.URL;
+import java.util.List;
 import java.util.ResourceBundle;
 
 @SuppressWarnings("All")
 @Data
-public class VentanaClientesController implements Initializable {
+public class VentanaClientesController implements Initializable, IPanelDerecho {
 
-    ObservableList<Cliente> listaClientes = FXCollections.observableArrayList();
+    private static final Duration RETRASO_BUSQUEDA = Duration.millis(250);
+    private static final int MAXIMO_RESULTADOS = 1000;
+
+    ListaIndexada<String, Cliente> listaClientes = new ListaIndexada<>(Cliente::getNumIdentificacion);
+    private boolean filtrado;
     Cliente clienteSeleccionado;
     ModelFactoryController modelFactoryController;
+    private final BuscadorDiferido<List<String>> buscador = new BuscadorDiferido<>(RETRASO_BUSQUEDA,
+            texto -> modelFactoryController.buscarClientes(texto, MAXIMO_RESULTADOS),
+            identificaciones -> mostrarResultados(modelFactoryController.obtenerClientes(identificaciones)));
 
     @FXML
     private ImageView btnBuscar;
@@ -84,26 +95,66 @@ public class VentanaClientesController implements Initializable {
         actualizarLista();
         listenerSelection();
         inicializarCampos();
+        modelFactoryController.alCompletarCarga(() -> Platform.runLater(this::actualizarLista));
+        modelFactoryController.suscribirCambiosClientes(evento -> ListaIndexada.enHiloInterfaz(() -> aplicarCambio(evento)));
     }
 
     /**
      * Inicializa los campos de la interfaz de usuario.
-     * Establece un validador para el campo de búsqueda que permite solo números.
+     * El campo de búsqueda filtra la tabla mientras se escribe, por prefijo de identificación o por una
+     * parte del nombre. La consulta se lanza cuando el usuario hace una pausa y se resuelve fuera
+     * del hilo de la interfaz; al borrar el campo se vuelve a mostrar la lista completa.
      */
     private void inicializarCampos() {
         txtBuscar.textProperty().addListener((observable, oldValue, newValue) -> {
-            if (!newValue.matches("\\d*")) {
-                txtBuscar.setText(newValue.replaceAll("[^\\d]", ""));
+            if (newValue.isBlank()) {
+                buscador.cancelar();
+                if (filtrado) {
+                    actualizarLista();
+                }
+            } else {
+                buscador.buscar(newValue);
             }
         });
     }
 
+    /**
+     * Muestra en la tabla el resultado de la búsqueda mientras se escribe.
+     *
+     * @param resultados Los clientes encontrados.
+     */
+    private void mostrarResultados(List<Cliente> resultados) {
+        filtrado = true;
+        listaClientes.reemplazarTodo(resultados);
+    }
+
+    /**
+     * La lista de clientes se mantiene al día con los cambios que publica la tienda, por lo que
+     * no hay que volver a consultarla al mostrar la pantalla.
+     */
+    @Override
+    public void actualizarVista() {
+    }
+
+    /**
+     * Aplica a la tabla un cambio de la tienda, tocando solo la fila del cliente que cambió.
+     * Mientras se muestra el resultado de una búsqueda no se agregan filas nuevas.
+     *
+     * @param evento El cambio a aplicar.
+     */
+    private void aplicarCambio(EventoCambio<Cliente> evento) {
+        if (filtrado && evento.getTipo() == EventoCambio.Tipo.AGREGADO) {
+            return;
+        }
+        listaClientes.aplicar(evento);
+    }
+
     /**
      * Actualiza la lista de clientes en la tabla de la interfaz de usuario.
      */
     private void actualizarLista() {
-        tablaClientes.getItems().clear();
-        obtenerListaClientes();
+        filtrado = false;
+        listaClientes.reemplazarTodo(modelFactoryController.obtenerListaClientes());
         actualizarTabla();
     }
 
@@ -111,14 +162,7 @@ public class VentanaClientesController implements Initializable {
      * Actualiza la tabla de clientes en la interfaz de usuario.
      */
     private void actualizarTabla() {
-        tablaClientes.setItems(listaClientes);
-    }
-
-    /**
-     * Obtiene la lista de clientes desde el controlador y la agrega a la lista observable.
-     */
-    private void obtenerListaClientes() {
-        listaClientes.addAll(modelFactoryController.obtenerListaClientes());
+        tablaClientes.setItems(listaClientes.getElementos());
     }
 
     /**
@@ -189,7 +233,6 @@ public class VentanaClientesController implements Initializable {
         try {
             if (modelFactoryController.agregarCliente(cliente)) {
                 Alertas.mostrarAlertaInformacion("El cliente se registró con éxito");
-                actualizarLista();
             }
         } catch (ClienteException e) {
             Alertas.mostrarAlertaError(e.getMessage());
@@ -252,7 +295,6 @@ public class VentanaClientesController implements Initializable {
         try {
             if (modelFactoryController.editarCliente(cliente, clienteSeleccionado)) {
                 Alertas.mostrarAlertaInformacion("Se editó correctamente el cliente");
-                actualizarLista();
             }
         } catch (ClienteException e) {
             Alertas.mostrarAlertaError(e.getMessage());
@@ -288,7 +330,6 @@ public class VentanaClientesController implements Initializable {
         try {
             if (modelFactoryController.eliminarCliente(clienteSeleccionado)) {
                 Alertas.mostrarAlertaInformacion("Se eliminó correctamente el cliente");
-                actualizarLista();
             }
         } catch (ClienteNoEncontradoException e) {
             Alertas.mostrarAlertaError(e.getMessage());
@@ -314,6 +355,7 @@ public class VentanaClientesController implements Initializable {
      * En caso de no encontrar ningún cliente con el ID especificado, muestra una alerta de error.
      */
     private void buscarCliente() {
+        buscador.cancelar();
         String id = txtBuscar.getText();
 
         if (id.isEmpty()) {
@@ -325,9 +367,8 @@ public class VentanaClientesController implements Initializable {
             Cliente cliente = modelFactoryController.buscarCliente(id);
 
             if (cliente != null) {
-                listaClientes.clear();
-                listaClientes.add(cliente);
-                actualizarTabla();
+                filtrado = true;
+                listaClientes.reemplazarTodo(List.of(cliente));
             }
         } catch (ClienteNoEncontradoException e) {
             Alertas.mostrarAlertaError(e.getMessage());
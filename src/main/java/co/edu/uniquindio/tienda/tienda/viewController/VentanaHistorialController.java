@@ -2,9 +2,13 @@ package co.edu.uniquindio.tienda.tienda.viewController;
 import co.edu.uniquindio.tienda.tienda.TiendaApplication;
 import co.edu.uniquindio.tienda.tienda.controller.ModelFactoryController;
 import co.edu.uniquindio.tienda.tienda.exception.ProductoNoEncontradoException;
+import co.edu.uniquindio.tienda.tienda.model.EventoCambio;
 import co.edu.uniquindio.tienda.tienda.model.Producto;
 import co.edu.uniquindio.tienda.tienda.model.Venta;
 import co.edu.uniquindio.tienda.tienda.util.Alertas;
+import co.edu.uniquindio.tienda.tienda.util.ListaIndexada;
+import co.edu.uniquindio.tienda.tienda.util.ListaPaginada;
+import javafx.application.Platform;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -19,10 +23,12 @@ import javafx.stage.Stage;
 import lombok.Data;
 
 import java.net.URL;
+import java.time.LocalDate;
 import java.util.ResourceBundle;
+import java.util.function.Function;
 @SuppressWarnings("All")
 @Data
-public class VentanaHistorialController implements Initializable {
+public class VentanaHistorialController implements Initializable, IPanelDerecho {
 
     @FXML
     private ImageView btnBuscar;
@@ -48,12 +54,16 @@ public class VentanaHistorialController implements Initializable {
     private Stage ventana;
     private TiendaApplication aplicacion;
     ModelFactoryController modelFactoryController;
-    ObservableList<Venta> listVentas = FXCollections.observableArrayList();
-
+    ListaPaginada<Venta> listVentas;
+    ObservableList<Venta> resultadoBusqueda = FXCollections.observableArrayList();
 
+    private static final int VENTAS_POR_PAGINA = 200;
+    private static final int PAGINAS_EN_MEMORIA = 10;
 
     public VentanaHistorialController() {
         modelFactoryController = ModelFactoryController.getInstance();
+        listVentas = new ListaPaginada<>(VENTAS_POR_PAGINA, PAGINAS_EN_MEMORIA,
+                (inicio, cantidad) -> modelFactoryController.obtenerPaginaVentas(inicio, cantidad), () -> modelFactoryController.contarVentas());
     }
 
     /**
@@ -85,9 +95,8 @@ public class VentanaHistorialController implements Initializable {
         Venta venta = modelFactoryController.buscarVenta(codigo);
 
         if (venta != null) {
-            listVentas.clear();
-            listVentas.add(venta);
-            actualizarTabla();
+            resultadoBusqueda.setAll(venta);
+            tbProductos.setItems(resultadoBusqueda);
             return;
         }
         Alertas.mostrarAlertaInformacion("No se encontró una venta con el código ingresado");
@@ -105,14 +114,50 @@ public class VentanaHistorialController implements Initializable {
     public void initialize(URL url, ResourceBundle resourceBundle) {
         initDataBinding();
         actualizarLista();
+        modelFactoryController.alCompletarCarga(() -> Platform.runLater(this::actualizarLista));
+        modelFactoryController.suscribirCambiosVentas(evento -> ListaIndexada.enHiloInterfaz(() -> aplicarCambio(evento)));
     }
 
     /**
-     * Actualiza la lista de ventas en la tabla de la interfaz de usuario.
+     * La lista de ventas se mantiene al día con las ventas que publica la tienda, por lo que
+     * no hay que volver a consultarla al mostrar la pantalla.
+     */
+    @Override
+    public void actualizarVista() {
+    }
+
+    /**
+     * Avisa a la tabla de una venta nueva en su lugar según la fecha, sin volver a cargar el historial.
+     * Las ventas del día quedan primero, igual que en {@link ModelFactoryController#obtenerPaginaVentas(int, int)}.
+     * La posición se busca por bisección, trayendo solo las páginas que consulta la búsqueda.
+     *
+     * @param evento El cambio a aplicar.
+     */
+    private void aplicarCambio(EventoCambio<Venta> evento) {
+        if (evento.getTipo() != EventoCambio.Tipo.AGREGADO) {
+            return;
+        }
+        LocalDate fecha = evento.getElemento().getFecha();
+        int inicio = 0;
+        int fin = listVentas.size();
+        while (inicio < fin) {
+            int medio = (inicio + fin) >>> 1;
+            Venta venta = listVentas.get(medio);
+            if (venta != null && venta.getFecha().isAfter(fecha)) {
+                inicio = medio + 1;
+            } else {
+                fin = medio;
+            }
+        }
+        listVentas.insertado(inicio);
+    }
+
+    /**
+     * Actualiza la lista de ventas en la tabla de la interfaz de usuario. Las ventas no se copian:
+     * la tabla trae por páginas solo las que muestra.
      */
     private void actualizarLista() {
-        tbProductos.getItems().clear();
-        obtenerListaClientes();
+        listVentas.recargar();
         actualizarTabla();
     }
 
@@ -124,21 +169,26 @@ public class VentanaHistorialController implements Initializable {
     }
 
     /**
-     * Obtiene la lista de ventas desde el controlador y la agrega a la lista observable.
+     * Configura el enlace de datos para las columnas de la tabla de ventas.
      */
-    private void obtenerListaClientes() {
-        listVentas.addAll(modelFactoryController.obtenerListaVentas());
+    private void initDataBinding() {
+        // Configura el enlace de datos para las columnas de la tabla
+        tcFecha.setCellValueFactory(cellData -> texto(cellData.getValue(), venta -> venta.getFecha()));
+        tcCodigo.setCellValueFactory(cellData -> texto(cellData.getValue(), venta -> venta.getCodigo()));
+        tcValorTotal.setCellValueFactory(cellData -> texto(cellData.getValue(), venta -> venta.getTotal()));
+        tcClienteID.setCellValueFactory(cellData -> texto(cellData.getValue(), venta -> venta.getCliente().getNumIdentificacion()));
     }
 
     /**
-     * Configura el enlace de datos para las columnas de la tabla de ventas.
+     * Crea el valor de una celda. Una fila puede no tener venta por un instante si el historial
+     * cambió mientras se traía su página; en ese caso la celda queda vacía.
+     *
+     * @param venta La venta de la fila, o null.
+     * @param campo El dato de la venta a mostrar.
+     * @return El texto de la celda.
      */
-    private void initDataBinding() {
-        // Configura el enlace de datos para las columnas de la tabla
-        tcFecha.setCellValueFactory(cellData -> new SimpleStringProperty(String.valueOf(cellData.getValue().getFecha())));
-        tcCodigo.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().getCodigo()));
-        tcValorTotal.setCellValueFactory(cellData -> new SimpleStringProperty(String.valueOf(cellData.getValue().getTotal())));
-        tcClienteID.setCellValueFactory(cellData -> new SimpleStringProperty(String.valueOf(cellData.getValue().getCliente().getNumIdentificacion())));
+    private SimpleStringProperty texto(Venta venta, Function<Venta, Object> campo) {
+        return new SimpleStringProperty(venta == null ? "" : String.valueOf(campo.apply(venta)));
     }
 
 }
@@ -1,19 +1,33 @@
 package co.edu.uniquindio.tienda.tienda.viewController;
 import co.edu.uniquindio.tienda.tienda.TiendaApplication;
 import co.edu.uniquindio.tienda.tienda.controller.ModelFactoryController;
+import co.edu.uniquindio.tienda.tienda.util.Alertas;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
 import javafx.scene.Node;
 import javafx.scene.layout.AnchorPane;
 import javafx.stage.Stage;
+import lombok.AllArgsConstructor;
 import lombok.Data;
 
+import java.io.IOException;
 import java.net.URL;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.ResourceBundle;
 @Data
 public class VentanaInicioController implements Initializable {
 
+    private static final String VENTANA_PRODUCTOS = "ventanas/VentanaProductos.fxml";
+    private static final String VENTANA_HISTORIAL = "ventanas/VentanaHistorial.fxml";
+    private static final String VENTANA_VENTAS = "ventanas/VentanaVentas.fxml";
+    private static final String VENTANA_CLIENTES = "ventanas/VentanaClientes.fxml";
+    private static final String VENTANA_CARRITO = "ventanas/VentanaCarrito.fxml";
+    private static final List<String> PANELES = List.of(VENTANA_PRODUCTOS, VENTANA_VENTAS, VENTANA_CARRITO, VENTANA_HISTORIAL, VENTANA_CLIENTES);
+
     @FXML
     private AnchorPane barraOpciones;
 
@@ -26,14 +40,23 @@ public class VentanaInicioController implements Initializable {
     private TiendaApplication aplicacion;
     private Stage ventana;
     ModelFactoryController modelFactoryController;
+    private final Map<String, PanelCargado> paneles = new HashMap<>();
 
     public VentanaInicioController() {
         modelFactoryController = ModelFactoryController.getInstance();
     }
 
+    /**
+     * Deshabilita las pantallas mientras se cargan los datos de la tienda, pues la tienda no acepta
+     * cambios hasta que la carga termina; si la carga falla siguen deshabilitadas.
+     */
     @Override
     public void initialize(URL url, ResourceBundle resourceBundle) {
-
+        panelDerecho.setDisable(true);
+        modelFactoryController.alCompletarCarga(() -> Platform.runLater(() ->
+                panelDerecho.setDisable(modelFactoryController.cargaFallida())));
+        modelFactoryController.alFallarCarga(error -> Platform.runLater(() ->
+                Alertas.mostrarAlertaError("No se pudieron cargar los datos de la tienda: " + error.getMessage())));
     }
 
     public void mostrarBarraOpciones() {
@@ -50,90 +73,92 @@ public class VentanaInicioController implements Initializable {
     }
 
     public void mostrarPanelDerecho() {
-        try {
-            panelDerecho.getChildren().clear();
-            FXMLLoader loader = new FXMLLoader(TiendaApplication.class.getResource("ventanas/VentanaProductos.fxml"));
-            Node node = loader.load();
-            panelDerecho.getChildren().add(node);
-            VentanaProductosController controlador = loader.getController();
-            controlador.setAplicacion(this.aplicacion);
-        } catch (Exception e) {
-            System.out.println(e.getMessage());
-        }
+        mostrarPanelDerechoProductos();
     }
 
     public void mostrarPanelDerechoHistorial() {
-        try {
-            panelDerecho.getChildren().clear();
-            FXMLLoader loader = new FXMLLoader(TiendaApplication.class.getResource("ventanas/VentanaHistorial.fxml"));
-            Node node = loader.load();
-            panelDerecho.getChildren().add(node);
-            VentanaHistorialController controlador = loader.getController();
-            controlador.setAplicacion(this.aplicacion);
-            controlador.setVentana(ventana);
-
-        } catch (Exception e) {
-            System.out.println(e.getMessage());
-        }
+        mostrarPanel(VENTANA_HISTORIAL);
     }
 
     public void mostrarPanelDerechoVentas() {
-        try {
-            panelDerecho.getChildren().clear();
-            FXMLLoader loader = new FXMLLoader(TiendaApplication.class.getResource("ventanas/VentanaVentas.fxml"));
-            Node node = loader.load();
-            panelDerecho.getChildren().add(node);
-            VentanaVentasController controlador = loader.getController();
-            controlador.setAplicacion(this.aplicacion);
-            controlador.setVentana(ventana);
-
-        } catch (Exception e) {
-            System.out.println(e.getMessage());
-        }
+        mostrarPanel(VENTANA_VENTAS);
     }
 
     public void mostrarPanelDerechoClientes() {
-        try {
-            panelDerecho.getChildren().clear();
-            FXMLLoader loader = new FXMLLoader(TiendaApplication.class.getResource("ventanas/VentanaClientes.fxml"));
-            Node node = loader.load();
-            panelDerecho.getChildren().add(node);
-            VentanaClientesController controlador = loader.getController();
-            controlador.setAplicacion(this.aplicacion);
-            controlador.setVentana(ventana);
+        mostrarPanel(VENTANA_CLIENTES);
+    }
 
-        } catch (Exception e) {
-            System.out.println(e.getMessage());
+    public void mostrarPanelDerechoCarrito() {
+        mostrarPanel(VENTANA_CARRITO);
+    }
+
+    public void mostrarPanelDerechoProductos(){
+        mostrarPanel(VENTANA_PRODUCTOS);
+    }
+
+    /**
+     * Carga en segundo plano las pantallas que aún no se han mostrado, para que la primera vez que
+     * se abran no haya que leer su FXML. Cada pantalla se carga en una tarea aparte del hilo de la
+     * interfaz, de modo que los eventos del usuario se atienden entre una carga y otra.
+     */
+    public void precargarPaneles() {
+        for (String ruta : PANELES) {
+            Platform.runLater(() -> {
+                if (!paneles.containsKey(ruta)) {
+                    try {
+                        cargarPanel(ruta);
+                    } catch (Exception e) {
+                        System.out.println(e.getMessage());
+                    }
+                }
+            });
         }
     }
 
-    public void mostrarPanelDerechoCarrito() {
+    /**
+     * Muestra una pantalla en el panel derecho. La pantalla se carga la primera vez que se pide;
+     * después se reutilizan su nodo y su controlador y solo se refrescan sus datos.
+     *
+     * @param ruta La ruta del FXML de la pantalla, relativa a {@link TiendaApplication}.
+     */
+    private void mostrarPanel(String ruta) {
         try {
-            panelDerecho.getChildren().clear();
-            FXMLLoader loader = new FXMLLoader(TiendaApplication.class.getResource("ventanas/VentanaCarrito.fxml"));
-            Node node = loader.load();
-            panelDerecho.getChildren().add(node);
-            VentanaCarritoController controlador = loader.getController();
-            controlador.setAplicacion(this.aplicacion);
-            controlador.setVentana(ventana);
-
+            PanelCargado panel = paneles.get(ruta);
+            if (panel == null) {
+                panel = cargarPanel(ruta);
+            } else {
+                panel.controlador.actualizarVista();
+            }
+            panelDerecho.getChildren().setAll(panel.nodo);
         } catch (Exception e) {
             System.out.println(e.getMessage());
         }
     }
 
-    public void mostrarPanelDerechoProductos(){
-        try {
-            panelDerecho.getChildren().clear();
-            FXMLLoader loader = new FXMLLoader(TiendaApplication.class.getResource("ventanas/VentanaProductos.fxml"));
-            Node node = loader.load();
-            panelDerecho.getChildren().add(node);
-            VentanaProductosController controlador = loader.getController();
-            controlador.setAplicacion(this.aplicacion);
-            controlador.setVentana(ventana);
+    /**
+     * Lee el FXML de una pantalla, configura su controlador y la guarda para reutilizarla.
+     *
+     * @param ruta La ruta del FXML de la pantalla, relativa a {@link TiendaApplication}.
+     * @return La pantalla cargada.
+     * @throws IOException Si el FXML no se puede leer.
+     */
+    private PanelCargado cargarPanel(String ruta) throws IOException {
+        FXMLLoader loader = new FXMLLoader(TiendaApplication.class.getResource(ruta));
+        Node node = loader.load();
+        IPanelDerecho controlador = loader.getController();
+        controlador.setAplicacion(this.aplicacion);
+        controlador.setVentana(ventana);
+        PanelCargado panel = new PanelCargado(node, controlador);
+        paneles.put(ruta, panel);
+        return panel;
+    }
 
-        }catch (Exception e){
-            System.out.println(e.getMessage());
-        }
+    /**
+     * Pantalla del panel derecho ya cargada: su nodo raíz y su controlador.
+     */
+    @AllArgsConstructor
+    private static class PanelCargado {
+        private final Node nodo;
+        private final IPanelDerecho controlador;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,108 @@
+package co.edu.uniquindio.tienda.tienda.viewController;
+import co.edu.uniquindio.tienda.tienda.controller.ModelFactoryController;
+import co.edu.uniquindio.tienda.tienda.model.Producto;
+import co.edu.uniquindio.tienda.tienda.util.ContadorFrecuentes;
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.application.Platform;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.fxml.FXML;
+import javafx.fxml.Initializable;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.util.Duration;
+import lombok.Data;
+
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.ResourceBundle;
+
+/**
+ * Panel que acompaña al historial de ventas con los productos más vendidos. Los datos salen del
+ * contador de memoria acotada de la tienda, así que refrescar el panel no recorre el historial;
+ * se refresca cada pocos segundos mientras el panel está en pantalla.
+ */
+@SuppressWarnings("All")
+@Data
+public class VentanaMasVendidosController implements Initializable {
+
+    private static final int CANTIDAD_PRODUCTOS = 50;
+    private static final Duration INTERVALO_ACTUALIZACION = Duration.seconds(3);
+
+    @FXML
+    private TableView<ContadorFrecuentes.Frecuencia<String>> tbMasVendidos;
+
+    @FXML
+    private TableColumn<ContadorFrecuentes.Frecuencia<String>, String> tcProducto;
+
+    @FXML
+    private TableColumn<ContadorFrecuentes.Frecuencia<String>, String> tcUnidades;
+
+    ModelFactoryController modelFactoryController;
+    ObservableList<ContadorFrecuentes.Frecuencia<String>> listProductos = FXCollections.observableArrayList();
+    private final Map<String, String> nombresProductos = new HashMap<>();
+    private final Timeline actualizacion = new Timeline(new KeyFrame(INTERVALO_ACTUALIZACION, evento -> actualizarLista()));
+
+    public VentanaMasVendidosController() {
+        modelFactoryController = ModelFactoryController.getInstance();
+    }
+
+    /**
+     * Inicializa la vista al cargar la URL.
+     * Configura el enlace de datos, carga los productos más vendidos y programa su actualización
+     * mientras el panel forme parte de una escena.
+     *
+     * @param url             La URL de la ubicación utilizada para inicializar el controlador.
+     * @param resourceBundle El ResourceBundle que se puede usar para localizar objetos de texto.
+     */
+    @Override
+    public void initialize(URL url, ResourceBundle resourceBundle) {
+        initDataBinding();
+        tbMasVendidos.setItems(listProductos);
+        actualizarLista();
+        modelFactoryController.alCompletarCarga(() -> Platform.runLater(this::actualizarLista));
+
+        actualizacion.setCycleCount(Animation.INDEFINITE);
+        tbMasVendidos.sceneProperty().addListener((observable, anterior, escena) -> {
+            if (escena == null) {
+                actualizacion.stop();
+            } else {
+                actualizacion.play();
+            }
+        });
+    }
+
+    /**
+     * Reemplaza el contenido de la tabla con los productos más vendidos. Los nombres se vuelven a
+     * buscar en cada actualización, una vez por producto, para reflejar los productos editados.
+     */
+    private void actualizarLista() {
+        nombresProductos.clear();
+        listProductos.setAll(modelFactoryController.obtenerProductosFrecuentes(CANTIDAD_PRODUCTOS));
+    }
+
+    /**
+     * Configura el enlace de datos para las columnas de la tabla. Si un producto ya no existe se
+     * muestra su código. Cuando las unidades son una estimación se muestra cuánto pueden exceder a las reales.
+     */
+    private void initDataBinding() {
+        tcProducto.setCellValueFactory(cellData -> {
+            String codigo = cellData.getValue().getClave();
+            return new SimpleStringProperty(nombresProductos.computeIfAbsent(codigo, this::nombreProducto));
+        });
+        tcUnidades.setCellValueFactory(cellData -> {
+            ContadorFrecuentes.Frecuencia<String> frecuencia = cellData.getValue();
+            String unidades = String.valueOf(frecuencia.getConteo());
+            return new SimpleStringProperty(frecuencia.getError() == 0 ? unidades : unidades + " (-" + frecuencia.getError() + ")");
+        });
+    }
+
+    private String nombreProducto(String codigo) {
+        Producto producto = modelFactoryController.obtenerProductoPorCodigo(codigo);
+        return producto == null ? codigo : producto.getNombre();
+    }
+}
@@ -4,11 +4,14 @@ import co.edu.uniquindio.tienda.tienda.TiendaApplication;
 import co.edu.uniquindio.tienda.tienda.controller.ModelFactoryController;
 import co.edu.uniquindio.tienda.tienda.exception.ProductoException;
 import co.edu.uniquindio.tienda.tienda.exception.ProductoNoEncontradoException;
+import co.edu.uniquindio.tienda.tienda.model.EventoCambio;
 import co.edu.uniquindio.tienda.tienda.model.Producto;
 import co.edu.uniquindio.tienda.tienda.util.Alertas;
+import co.edu.uniquindio.tienda.tienda.util.BuscadorDiferido;
+import co.edu.uniquindio.tienda.tienda.util.ListaIndexada;
+import co.edu.uniquindio.tienda.tienda.util.ListaPaginada;
+import javafx.application.Platform;
 import javafx.beans.property.SimpleStringProperty;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.TableColumn;
@@ -17,14 +20,21 @@ import javafx.scene.control.TextField;
 import javafx.scene.image.ImageView;
 import javafx.scene.input.MouseEvent;
 import javafx.stage.Stage;
+import javafx.util.Duration;
 import lombok.Data;
 
 import java.net.URL;
+import java.util.List;
 import java.util.ResourceBundle;
 
 @SuppressWarnings("All")
 @Data
-public class VentanaProductosController implements Initializable {
+public class VentanaProductosController implements Initializable, IPanelDerecho {
+
+    private static final Duration RETRASO_BUSQUEDA = Duration.millis(250);
+    private static final int MAXIMO_RESULTADOS = 1000;
+    private static final int PRODUCTOS_POR_PAGINA = 200;
+    private static final int PAGINAS_EN_MEMORIA = 10;
 
     @FXML
     private ImageView btnBuscar;
@@ -72,12 +82,19 @@ public class VentanaProductosController implements Initializable {
     private TiendaApplication aplicacion;
 
 
-    ObservableList<Producto> listProductos = FXCollections.observableArrayList();
+    ListaPaginada<Producto> listProductos;
+    ListaIndexada<String, Producto> resultadoBusqueda = new ListaIndexada<>(Producto::getCodigo);
+    private boolean filtrado;
     Producto productoSeleccionado;
     ModelFactoryController modelFactoryController;
+    private final BuscadorDiferido<List<String>> buscador = new BuscadorDiferido<>(RETRASO_BUSQUEDA,
+            texto -> modelFactoryController.buscarProductos(texto, MAXIMO_RESULTADOS),
+            codigos -> mostrarResultados(modelFactoryController.obtenerProductos(codigos)));
 
     public VentanaProductosController() {
         modelFactoryController = ModelFactoryController.getInstance();
+        listProductos = new ListaPaginada<>(PRODUCTOS_POR_PAGINA, PAGINAS_EN_MEMORIA,
+                (inicio, cantidad) -> modelFactoryController.obtenerPaginaProductos(inicio, cantidad), () -> modelFactoryController.contarProductos());
     }
 
     @FXML
@@ -92,26 +109,71 @@ public class VentanaProductosController implements Initializable {
         actualizarLista();
         listenerSelection();
         inicializarCampos();
+        modelFactoryController.alCompletarCarga(() -> Platform.runLater(this::actualizarLista));
+        modelFactoryController.suscribirCambiosProductos(evento -> ListaIndexada.enHiloInterfaz(() -> aplicarCambio(evento)));
     }
 
     /**
      * Inicializa los campos de la interfaz de usuario.
-     * Establece un validador para el campo de búsqueda que permite solo números.
+     * El campo de búsqueda filtra la tabla mientras se escribe, por prefijo de código o por una
+     * parte del nombre. La consulta se lanza cuando el usuario hace una pausa y se resuelve fuera
+     * del hilo de la interfaz; al borrar el campo se vuelve a mostrar la lista completa.
      */
     private void inicializarCampos() {
         txtBuscar.textProperty().addListener((observable, oldValue, newValue) -> {
-            if (!newValue.matches("\\d*")) {
-                txtBuscar.setText(newValue.replaceAll("[^\\d]", ""));
+            if (newValue.isBlank()) {
+                buscador.cancelar();
+                if (filtrado) {
+                    actualizarLista();
+                }
+            } else {
+                buscador.buscar(newValue);
             }
         });
     }
 
+    /**
+     * Muestra en la tabla el resultado de la búsqueda mientras se escribe.
+     *
+     * @param resultados Los productos encontrados.
+     */
+    private void mostrarResultados(List<Producto> resultados) {
+        filtrado = true;
+        resultadoBusqueda.reemplazarTodo(resultados);
+        tbProductos.setItems(resultadoBusqueda.getElementos());
+    }
+
+    /**
+     * La lista de productos se mantiene al día con los cambios que publica la tienda, por lo que
+     * no hay que volver a consultarla al mostrar la pantalla.
+     */
+    @Override
+    public void actualizarVista() {
+    }
+
+    /**
+     * Aplica a la tabla un cambio de la tienda. En el resultado de una búsqueda se toca solo la fila
+     * del producto que cambió y no se agregan filas nuevas; en la lista completa se vuelven a pedir
+     * las filas visibles, o se recarga la lista si cambió la cantidad de productos.
+     *
+     * @param evento El cambio a aplicar.
+     */
+    private void aplicarCambio(EventoCambio<Producto> evento) {
+        if (filtrado) {
+            if (evento.getTipo() != EventoCambio.Tipo.AGREGADO) {
+                resultadoBusqueda.aplicar(evento);
+            }
+            return;
+        }
+        listProductos.cambiarDespues(evento.getTipo() != EventoCambio.Tipo.ACTUALIZADO);
+    }
+
     /**
      * Actualiza la lista de productos en la tabla de la interfaz de usuario.
      */
     private void actualizarLista() {
-        tbProductos.getItems().clear();
-        obtenerListaProductos();
+        filtrado = false;
+        listProductos.recargar();
         actualizarTabla();
     }
 
@@ -122,13 +184,6 @@ public class VentanaProductosController implements Initializable {
         tbProductos.setItems(listProductos);
     }
 
-    /**
-     * Obtiene la lista de productos desde el controlador y la agrega a la lista observable.
-     */
-    private void obtenerListaProductos() {
-        listProductos.addAll(modelFactoryController.obtenerListaProductos());
-    }
-
     /**
      * Configura el enlace de datos para las columnas de la tabla de productos.
      */
@@ -202,7 +257,6 @@ public class VentanaProductosController implements Initializable {
         try {
             if (modelFactoryController.editarProducto(producto, productoSeleccionado)) {
                 Alertas.mostrarAlertaInformacion("Se editó correctamente el producto");
-                actualizarLista();
             }
         } catch (ProductoException e) {
             Alertas.mostrarAlertaError(e.getMessage());
@@ -235,7 +289,6 @@ public class VentanaProductosController implements Initializable {
         try {
             if (modelFactoryController.eliminarProducto(productoSeleccionado)) {
                 Alertas.mostrarAlertaInformacion("Se eliminó correctamente el producto");
-                actualizarLista();
             }
         } catch (ProductoNoEncontradoException e) {
             Alertas.mostrarAlertaError(e.getMessage());
@@ -261,6 +314,7 @@ public class VentanaProductosController implements Initializable {
      * Muestra una alerta de error si el producto no se encuentra.
      */
     private void buscarProducto() {
+        buscador.cancelar();
         String codigo = txtBuscar.getText();
 
         if (codigo.isEmpty()) {
@@ -272,9 +326,7 @@ public class VentanaProductosController implements Initializable {
             Producto producto = modelFactoryController.buscarProducto(codigo);
 
             if (producto != null) {
-                listProductos.clear();
-                listProductos.add(producto);
-                actualizarTabla();
+                mostrarResultados(List.of(producto));
             }
         } catch (ProductoNoEncontradoException e) {
             Alertas.mostrarAlertaError(e.getMessage());
@@ -309,7 +361,6 @@ public class VentanaProductosController implements Initializable {
         try {
             if (modelFactoryController.agregarProducto(producto)) {
                 Alertas.mostrarAlertaInformacion("El producto se registró con éxito");
-                actualizarLista();
             }
         } catch (ProductoException e) {
             Alertas.mostrarAlertaError(e.getMessage());
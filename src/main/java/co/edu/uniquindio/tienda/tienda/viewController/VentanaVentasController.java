@@ -3,11 +3,14 @@ package co.edu.uniquindio.tienda.tienda.viewController;
 import co.edu.uniquindio.tienda.tienda.TiendaApplication;
 import co.edu.uniquindio.tienda.tienda.controller.ModelFactoryController;
 import co.edu.uniquindio.tienda.tienda.exception.ProductoNoEncontradoException;
+import co.edu.uniquindio.tienda.tienda.model.EventoCambio;
 import co.edu.uniquindio.tienda.tienda.model.Producto;
 import co.edu.uniquindio.tienda.tienda.util.Alertas;
+import co.edu.uniquindio.tienda.tienda.util.BuscadorDiferido;
+import co.edu.uniquindio.tienda.tienda.util.ListaIndexada;
+import co.edu.uniquindio.tienda.tienda.util.ListaPaginada;
+import javafx.application.Platform;
 import javafx.beans.property.SimpleStringProperty;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.TableColumn;
@@ -16,15 +19,22 @@ import javafx.scene.control.TextField;
 import javafx.scene.image.ImageView;
 import javafx.scene.input.MouseEvent;
 import javafx.stage.Stage;
+import javafx.util.Duration;
 import lombok.Data;
 
 import java.net.URL;
 import java.util.HashMap;
+import java.util.List;
 import java.util.ResourceBundle;
 
 @SuppressWarnings("All")
 @Data
-public class VentanaVentasController implements Initializable {
+public class VentanaVentasController implements Initializable, IPanelDerecho {
+
+    private static final Duration RETRASO_BUSQUEDA = Duration.millis(250);
+    private static final int MAXIMO_RESULTADOS = 50;
+    private static final int PRODUCTOS_POR_PAGINA = 200;
+    private static final int PAGINAS_EN_MEMORIA = 10;
 
     @FXML
     private ImageView btnAgregar;
@@ -74,9 +84,14 @@ public class VentanaVentasController implements Initializable {
     private Stage ventana;
     private TiendaApplication aplicacion;
 
-    ObservableList<Producto> listProductos = FXCollections.observableArrayList();
+    ListaPaginada<Producto> listProductos;
+    ListaIndexada<String, Producto> resultadoBusqueda = new ListaIndexada<>(Producto::getCodigo);
+    private boolean filtrado;
     Producto productoSeleccionado;
     ModelFactoryController modelFactoryController;
+    private final BuscadorDiferido<List<String>> buscador = new BuscadorDiferido<>(RETRASO_BUSQUEDA,
+            texto -> modelFactoryController.buscarProductosPorNombre(texto, MAXIMO_RESULTADOS),
+            codigos -> mostrarResultados(modelFactoryController.obtenerProductos(codigos)));
 
     int contador = 0;
 
@@ -86,6 +101,8 @@ public class VentanaVentasController implements Initializable {
      */
     public VentanaVentasController() {
         modelFactoryController = ModelFactoryController.getInstance();
+        listProductos = new ListaPaginada<>(PRODUCTOS_POR_PAGINA, PAGINAS_EN_MEMORIA,
+                (inicio, cantidad) -> modelFactoryController.obtenerPaginaProductos(inicio, cantidad), () -> modelFactoryController.contarProductos());
     }
 
     /**
@@ -99,26 +116,75 @@ public class VentanaVentasController implements Initializable {
         actualizarLista();
         listenerSelection();
         inicializarCampos();
+        modelFactoryController.alCompletarCarga(() -> Platform.runLater(this::actualizarLista));
+        modelFactoryController.suscribirCambiosProductos(evento -> ListaIndexada.enHiloInterfaz(() -> aplicarCambio(evento)));
     }
 
     /**
      * Inicializa los campos de la interfaz de usuario.
-     * Establece un validador para el campo de búsqueda que permite solo números.
+     * El campo de búsqueda busca por nombre mientras se escribe, tolerando tildes y errores de
+     * digitación; los resultados se muestran del más al menos parecido. Un texto de solo números
+     * se toma como código y se busca con el botón de buscar.
      */
     private void inicializarCampos() {
         txtBuscar.textProperty().addListener((observable, oldValue, newValue) -> {
-            if (!newValue.matches("\\d*")) {
-                txtBuscar.setText(newValue.replaceAll("[^\\d]", ""));
+            if (newValue.isBlank()) {
+                buscador.cancelar();
+                if (filtrado) {
+                    actualizarLista();
+                }
+            } else if (!esCodigo(newValue)) {
+                buscador.buscar(newValue);
             }
         });
     }
 
+    /**
+     * Muestra en la tabla el resultado de la búsqueda por nombre.
+     *
+     * @param resultados Los productos encontrados, del más al menos parecido.
+     */
+    private void mostrarResultados(List<Producto> resultados) {
+        filtrado = true;
+        resultadoBusqueda.reemplazarTodo(resultados);
+        tbProductos.setItems(resultadoBusqueda.getElementos());
+    }
+
+    private static boolean esCodigo(String texto) {
+        return texto.strip().matches("\\d+");
+    }
+
+    /**
+     * La lista de productos se mantiene al día con los cambios que publica la tienda, por lo que
+     * no hay que volver a consultarla al mostrar la pantalla.
+     */
+    @Override
+    public void actualizarVista() {
+    }
+
+    /**
+     * Aplica a la tabla un cambio de la tienda. En el resultado de una búsqueda se toca solo la fila
+     * del producto que cambió y no se agregan filas nuevas; en la lista completa se vuelven a pedir
+     * las filas visibles, o se recarga la lista si cambió la cantidad de productos.
+     *
+     * @param evento El cambio a aplicar.
+     */
+    private void aplicarCambio(EventoCambio<Producto> evento) {
+        if (filtrado) {
+            if (evento.getTipo() != EventoCambio.Tipo.AGREGADO) {
+                resultadoBusqueda.aplicar(evento);
+            }
+            return;
+        }
+        listProductos.cambiarDespues(evento.getTipo() != EventoCambio.Tipo.ACTUALIZADO);
+    }
+
     /**
      * Actualiza la lista de productos en la tabla de la interfaz de usuario.
      */
     private void actualizarLista() {
-        tbProductos.getItems().clear();
-        obtenerListaClientes();
+        filtrado = false;
+        listProductos.recargar();
         actualizarTabla();
     }
 
@@ -129,13 +195,6 @@ public class VentanaVentasController implements Initializable {
         tbProductos.setItems(listProductos);
     }
 
-    /**
-     * Obtiene la lista de productos desde el controlador y la agrega a la lista observable.
-     */
-    private void obtenerListaClientes() {
-        listProductos.addAll(modelFactoryController.obtenerListaProductos());
-    }
-
     /**
      * Configura el enlace de datos para las columnas de la tabla de productos.
      */
@@ -184,7 +243,7 @@ public class VentanaVentasController implements Initializable {
     /**
      * Maneja el evento de búsqueda de un producto.
      * Se llama cuando se hace clic en el botón de buscar producto.
-     * Llama al método para buscar un producto por su código.
+     * Si el texto es un código busca el producto con ese código; si no, busca por nombre de inmediato.
      *
      * @param mouseEvent El evento de ratón asociado al clic.
      */
@@ -193,17 +252,23 @@ public class VentanaVentasController implements Initializable {
         String codigo = txtBuscar.getText();
 
         if (codigo.isEmpty()) {
+            buscador.cancelar();
             actualizarLista();
             return;
         }
 
+        if (!esCodigo(codigo)) {
+            buscador.buscarAhora(codigo);
+            return;
+        }
+        buscador.cancelar();
+        codigo = codigo.strip();
+
         try {
             Producto producto = modelFactoryController.buscarProducto(codigo);
 
             if (producto != null) {
-                listProductos.clear();
-                listProductos.add(producto);
-                actualizarTabla();
+                mostrarResultados(List.of(producto));
             }
         } catch (ProductoNoEncontradoException e) {
             Alertas.mostrarAlertaError(e.getMessage());
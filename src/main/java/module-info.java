@@ -11,6 +11,7 @@ module co.edu.uniquindio.tienda.tienda {
     requires eu.hansolo.tilesfx;
     requires com.almasb.fxgl.all;
     requires static lombok;
+    requires java.sql;
 
     opens co.edu.uniquindio.tienda.tienda to javafx.fxml;
     exports co.edu.uniquindio.tienda.tienda;
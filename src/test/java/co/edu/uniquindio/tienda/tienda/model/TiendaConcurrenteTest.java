@@ -0,0 +1,172 @@
+package co.edu.uniquindio.tienda.tienda.model;
+
+import co.edu.uniquindio.tienda.tienda.exception.InventarioInsuficienteException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TiendaConcurrenteTest {
+
+    private static final int HILOS = 8;
+
+    private static Venta venta(String codigo, LocalDate fecha, Producto producto) {
+        List<DetalleVenta> detalles = new ArrayList<>();
+        detalles.add(new DetalleVenta(1, producto, producto.getPrecio()));
+        return new Venta(codigo, fecha, producto.getPrecio(), null, detalles);
+    }
+
+    @Test
+    void lasVentasEnParaleloNoVendenMasDeLoQueHay() throws Exception {
+        TiendaConcurrente tienda = new TiendaConcurrente();
+        Producto arroz = new Producto("Arroz", "A1", 2500, 100);
+        tienda.agregarProducto(arroz);
+        AtomicInteger vendidas = new AtomicInteger();
+        AtomicInteger rechazadas = new AtomicInteger();
+        CountDownLatch salida = new CountDownLatch(1);
+
+        ExecutorService ejecutor = Executors.newFixedThreadPool(HILOS);
+        List<Future<?>> tareas = new ArrayList<>();
+        for (int hilo = 0; hilo < HILOS; hilo++) {
+            int numero = hilo;
+            tareas.add(ejecutor.submit(() -> {
+                salida.await();
+                for (int i = 0; i < 40; i++) {
+                    Venta venta = venta("V" + numero + "-" + i, LocalDate.of(2024, 3, 5), arroz);
+                    try {
+                        ReservaInventario reserva = tienda.reservarInventario(venta.getDetallesVenta());
+                        tienda.confirmarReserva(reserva);
+                        tienda.agregarVentaAlHistorico(venta);
+                        vendidas.incrementAndGet();
+                    } catch (InventarioInsuficienteException e) {
+                        rechazadas.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        salida.countDown();
+        for (Future<?> tarea : tareas) {
+            tarea.get();
+        }
+        ejecutor.shutdown();
+        assertTrue(ejecutor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(100, vendidas.get());
+        assertEquals(HILOS * 40 - 100, rechazadas.get());
+        assertEquals(0, arroz.getCantidadInventario());
+        assertEquals(100, tienda.contarVentas());
+        assertEquals(0, tienda.getInventarioDisponible().get("A1").get());
+    }
+
+    @Test
+    void actualizarInventarioNoDejaDisponibleNegativo() throws Exception {
+        TiendaConcurrente tienda = new TiendaConcurrente();
+        Producto arroz = new Producto("Arroz", "A1", 2500, 2);
+        tienda.agregarProducto(arroz);
+        List<DetalleVenta> detalles = new ArrayList<>();
+        detalles.add(new DetalleVenta(5, arroz, 12500.0));
+        detalles.add(new DetalleVenta(1, null, null));
+
+        tienda.actualizarInventario(detalles);
+
+        assertEquals(0, tienda.getInventarioDisponible().get("A1").get());
+    }
+
+    @Test
+    void laReservaOmiteLosDetallesSinProducto() throws Exception {
+        TiendaConcurrente tienda = new TiendaConcurrente();
+        Producto arroz = new Producto("Arroz", "A1", 2500, 3);
+        tienda.agregarProducto(arroz);
+        List<DetalleVenta> detalles = new ArrayList<>();
+        detalles.add(new DetalleVenta(1, null, null));
+        detalles.add(new DetalleVenta(2, arroz, 5000.0));
+
+        ReservaInventario reserva = tienda.reservarInventario(detalles);
+        tienda.confirmarReserva(reserva);
+
+        assertEquals(1, reserva.getCantidadesPorProducto().tamanio());
+        assertEquals(1, arroz.getCantidadInventario());
+        assertEquals(1, tienda.getInventarioDisponible().get("A1").get());
+    }
+
+    @Test
+    void lasPaginasSiguenContiguasMientrasSeAgreganVentas() throws Exception {
+        TiendaConcurrente tienda = new TiendaConcurrente();
+        Producto arroz = new Producto("Arroz", "A1", 2500, 0);
+        LocalDate ayer = LocalDate.of(2024, 3, 4);
+        LocalDate hoy = ayer.plusDays(1);
+        int ventasAyer = 200;
+        for (int i = 0; i < ventasAyer; i++) {
+            tienda.agregarVentaAlHistorico(venta(String.format("A%03d", i), ayer, arroz));
+        }
+        int ventasHoy = 4_000;
+        CountDownLatch salida = new CountDownLatch(1);
+
+        ExecutorService ejecutor = Executors.newFixedThreadPool(HILOS);
+        List<Future<?>> tareas = new ArrayList<>();
+        for (int hilo = 0; hilo < HILOS / 2; hilo++) {
+            int numero = hilo;
+            tareas.add(ejecutor.submit(() -> {
+                salida.await();
+                for (int i = 0; i < ventasHoy / (HILOS / 2); i++) {
+                    tienda.agregarVentaAlHistorico(venta("H" + numero + "-" + i, hoy, arroz));
+                }
+                return null;
+            }));
+        }
+        for (int hilo = 0; hilo < HILOS / 2; hilo++) {
+            tareas.add(ejecutor.submit(() -> {
+                salida.await();
+                for (int vuelta = 0; vuelta < 2_000; vuelta++) {
+                    int inicio = tienda.contarVentas() - ventasAyer + vuelta % 50;
+                    List<Venta> pagina = tienda.obtenerPaginaHistoricoVentas(Math.max(0, inicio), 25);
+                    Set<String> codigos = new HashSet<>();
+                    int anterior = -1;
+                    for (Venta venta : pagina) {
+                        assertTrue(codigos.add(venta.getCodigo()));
+                        if (venta.getFecha().equals(ayer)) {
+                            int numeroAyer = Integer.parseInt(venta.getCodigo().substring(1));
+                            assertTrue(anterior == -1 || numeroAyer == anterior - 1);
+                            anterior = numeroAyer;
+                        } else {
+                            assertEquals(-1, anterior);
+                        }
+                    }
+                }
+                return null;
+            }));
+        }
+        salida.countDown();
+        for (Future<?> tarea : tareas) {
+            tarea.get();
+        }
+        ejecutor.shutdown();
+        assertTrue(ejecutor.awaitTermination(10, TimeUnit.SECONDS));
+
+        int total = ventasHoy + ventasAyer;
+        assertEquals(total, tienda.contarVentas());
+        List<String> paginado = new ArrayList<>();
+        for (int inicio = 0; inicio < total; inicio += 37) {
+            tienda.obtenerPaginaHistoricoVentas(inicio, 37).forEach(venta -> paginado.add(venta.getCodigo()));
+        }
+        List<String> recorrido = new ArrayList<>();
+        tienda.obtenerHistoricoVentas().forEach(venta -> recorrido.add(venta.getCodigo()));
+        assertEquals(total, paginado.size());
+        assertEquals(recorrido, paginado);
+        assertEquals("A199", paginado.get(ventasHoy));
+        assertEquals("A000", paginado.get(total - 1));
+    }
+}
@@ -0,0 +1,109 @@
+package co.edu.uniquindio.tienda.tienda.persistencia;
+
+import co.edu.uniquindio.tienda.tienda.model.Cliente;
+import co.edu.uniquindio.tienda.tienda.model.DetalleVenta;
+import co.edu.uniquindio.tienda.tienda.model.Producto;
+import co.edu.uniquindio.tienda.tienda.model.Tienda;
+import co.edu.uniquindio.tienda.tienda.model.Venta;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class CodificadorRegistrosTest {
+
+    @Test
+    void ventaCodificadaSeReconstruyeConLosProductosYElClienteDeLaTienda() throws Exception {
+        Tienda tienda = new Tienda();
+        Producto arroz = new Producto("Arroz", "A|1", 2500, 10);
+        Cliente cliente = new Cliente("Ana", "c;1", "Calle 1");
+        tienda.agregarProducto(arroz);
+        tienda.agregarCliente(cliente);
+        Venta venta = new Venta("V:1", LocalDate.of(2024, 3, 5), 5000.0, cliente, List.of(new DetalleVenta(2, arroz, 5000.0)));
+
+        String[] campos = CodificadorRegistros.leerCampos(CodificadorRegistros.codificarVenta(venta));
+
+        assertNotNull(campos);
+        assertEquals(CodificadorRegistros.TIPO_VENTA, campos[0]);
+        Venta leida = CodificadorRegistros.decodificarVenta(campos, tienda);
+        assertEquals("V:1", leida.getCodigo());
+        assertEquals(LocalDate.of(2024, 3, 5), leida.getFecha());
+        assertEquals(5000.0, leida.getTotal());
+        assertSame(cliente, leida.getCliente());
+        assertEquals(1, leida.getDetallesVenta().size());
+        assertSame(arroz, leida.getDetallesVenta().get(0).getProducto());
+        assertEquals(2, leida.getDetallesVenta().get(0).getCantidad());
+        assertEquals(5000.0, leida.getDetallesVenta().get(0).getSubTotal());
+    }
+
+    @Test
+    void productoQueYaNoExisteSeReconstruyeConSuCodigo() {
+        String linea = CodificadorRegistros.codificarInventario(List.of(new DetalleVenta(3, new Producto("Sal", "S1", 900, 4), null)));
+
+        List<DetalleVenta> detalles = CodificadorRegistros.decodificarInventario(CodificadorRegistros.leerCampos(linea), new Tienda());
+
+        assertEquals(1, detalles.size());
+        assertEquals("S1", detalles.get(0).getProducto().getCodigo());
+        assertEquals(3, detalles.get(0).getCantidad());
+    }
+
+    @Test
+    void detalleSinProductoSeCodificaConCodigoVacio() {
+        List<DetalleVenta> detalles = new ArrayList<>();
+        detalles.add(new DetalleVenta(2, null, null));
+        String linea = CodificadorRegistros.codificarInventario(detalles);
+
+        List<DetalleVenta> leidos = CodificadorRegistros.decodificarInventario(CodificadorRegistros.leerCampos(linea), new Tienda());
+
+        assertEquals(1, leidos.size());
+        assertEquals("", leidos.get(0).getProducto().getCodigo());
+        assertEquals(2, leidos.get(0).getCantidad());
+    }
+
+    @Test
+    void losSeparadoresDentroDeLosValoresSeEscapan() {
+        Producto producto = new Producto("Café 50% | grano; molido: 500g\n", "P-1", 12.5, 7);
+
+        String[] campos = CodificadorRegistros.leerCampos(CodificadorRegistros.codificarProductoGuardado("P-0", producto));
+
+        assertEquals(6, campos.length);
+        assertEquals("P-0", CodificadorRegistros.desescapar(campos[1]));
+        Producto leido = CodificadorRegistros.decodificarProductoGuardado(campos);
+        assertEquals(producto.getNombre(), leido.getNombre());
+        assertEquals("P-1", leido.getCodigo());
+        assertEquals(12.5, leido.getPrecio());
+        assertEquals(7, leido.getCantidadInventario());
+    }
+
+    @Test
+    void clienteGuardadoYEliminadoSeLeenIgual() {
+        Cliente cliente = new Cliente("Luis", "c2", "Cra 3 # 4");
+
+        String[] guardado = CodificadorRegistros.leerCampos(CodificadorRegistros.codificarClienteGuardado("c1", cliente));
+        String[] eliminado = CodificadorRegistros.leerCampos(CodificadorRegistros.codificarClienteEliminado("c2"));
+
+        assertEquals(CodificadorRegistros.TIPO_CLIENTE_GUARDADO, guardado[0]);
+        assertEquals("c1", CodificadorRegistros.desescapar(guardado[1]));
+        assertEquals(cliente.getDireccion(), CodificadorRegistros.decodificarClienteGuardado(guardado).getDireccion());
+        assertArrayEquals(new String[]{CodificadorRegistros.TIPO_CLIENTE_ELIMINADO, "c2"}, eliminado);
+    }
+
+    @Test
+    void unaLineaCortadaODanadaSeDescarta() {
+        String linea = CodificadorRegistros.codificarProducto(new Producto("Arroz", "A1", 2500, 10));
+
+        assertNotNull(CodificadorRegistros.leerCampos(linea));
+        assertNull(CodificadorRegistros.leerCampos(linea.substring(0, linea.length() - 1)));
+        assertNull(CodificadorRegistros.leerCampos(linea.replace("Arroz", "Arroy")));
+        assertNull(CodificadorRegistros.leerCampos(linea.substring(0, linea.indexOf('|'))));
+        assertNull(CodificadorRegistros.leerCampos("zz|P|x"));
+        assertNull(CodificadorRegistros.leerCampos(""));
+    }
+}
@@ -0,0 +1,111 @@
+package co.edu.uniquindio.tienda.tienda.persistencia;
+
+import co.edu.uniquindio.tienda.tienda.model.Cliente;
+import co.edu.uniquindio.tienda.tienda.model.DetalleVenta;
+import co.edu.uniquindio.tienda.tienda.model.Producto;
+import co.edu.uniquindio.tienda.tienda.model.Tienda;
+import co.edu.uniquindio.tienda.tienda.model.Venta;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CompactadorRegistroTest {
+
+    @Test
+    void compactarDaLoMismoQueCargarYReproducirLosSegmentos(@TempDir Path directorio) throws Exception {
+        Path ruta = directorio.resolve("instantanea.dat");
+        Tienda inicial = new Tienda();
+        Producto arroz = new Producto("Arroz", "A1", 2500, 10);
+        Producto sal = new Producto("Sal", "B1", 900, 4);
+        Producto cafe = new Producto("Café", "C1", 8000, 7);
+        inicial.agregarProducto(arroz);
+        inicial.agregarProducto(sal);
+        inicial.agregarProducto(cafe);
+        Cliente ana = new Cliente("Ana", "c1", "Calle 1");
+        inicial.agregarCliente(ana);
+        inicial.agregarCliente(new Cliente("Luis", "c2", "Calle 2"));
+        inicial.agregarVentaAlHistorico(new Venta("V0", LocalDate.of(2024, 1, 1), 2500.0, ana, detalles(1, arroz)));
+        inicial.agregarProductoCarrito("s1", "A1", 2);
+        inicial.agregarProductoCarrito("s2", "B1", 1);
+        InstantaneaTienda.capturar(inicial).escribir(ruta, 0);
+
+        RegistroTransacciones registro = new RegistroTransacciones(directorio, 0);
+        registro.registrarCompra(new Venta("V1", LocalDate.of(2024, 1, 2), 5000.0, ana, detalles(2, arroz))).join();
+        registro.registrarInventario(detalles(3, cafe)).join();
+        registro.registrarProductoGuardado("C1", new Producto("Café molido", "C1", 8500, 4)).join();
+        registro.registrarInventario(detalles(1, cafe)).join();
+        registro.registrarProductoEliminado("B1").join();
+        registro.registrarProductoGuardado("D1", new Producto("Azúcar", "D1", 3000, 6)).join();
+        registro.registrarProductoGuardado("A1", new Producto("Arroz integral", "A1", 2600, 6)).join();
+        registro.registrarProductoEliminado("NO-EXISTE").join();
+        registro.rotar().join();
+        registro.registrarVenta(new Venta("V2", LocalDate.of(2024, 1, 3), null, null, new ArrayList<>())).join();
+        registro.registrarInventario(detalles(2, new Producto("", "D1", 0, 0))).join();
+        registro.registrarClienteEliminado("c2").join();
+        registro.registrarClienteGuardado("c1", new Cliente("Ana María", "c1", "Calle 3")).join();
+        registro.registrarClienteGuardado("c3", new Cliente("Eva", "c3", "Calle 4")).join();
+        registro.registrarCarritoVaciado("s2").join();
+        registro.registrarCarrito("s1", "D1", 5).join();
+        long segmento = registro.rotar().join();
+        registro.registrarProductoEliminado("A1").join();
+        registro.cerrar();
+
+        Tienda esperada = new Tienda();
+        long desde = InstantaneaTienda.cargar(ruta, esperada);
+        for (long anterior = desde; anterior < segmento; anterior++) {
+            RegistroTransacciones.reproducir(RegistroTransacciones.rutaSegmento(directorio, anterior), esperada);
+        }
+
+        InstantaneaTienda instantanea = CompactadorRegistro.compactar(ruta, directorio, segmento);
+        Tienda compactada = new Tienda();
+
+        assertEquals(segmento, InstantaneaTienda.cargar(ruta, compactada));
+        assertEquals(contenido(esperada), contenido(compactada));
+        assertEquals(3, instantanea.getProductos().size());
+        assertEquals(2, instantanea.getClientes().size());
+        assertEquals(3, instantanea.getVentas().size());
+        List<String> productos = new ArrayList<>();
+        instantanea.getProductos().forEach(producto -> productos.add(CodificadorRegistros.codificarProducto(producto)));
+        assertEquals(3, productos.size());
+        assertEquals(3, compactada.obtenerProducto("C1").getCantidadInventario());
+        assertEquals(6, compactada.obtenerProducto("A1").getCantidadInventario());
+        assertEquals(4, compactada.obtenerProducto("D1").getCantidadInventario());
+    }
+
+    @Test
+    void sinInstantaneaAnteriorFalla(@TempDir Path directorio) {
+        assertThrows(IOException.class, () -> CompactadorRegistro.compactar(directorio.resolve("instantanea.dat"), directorio, 1));
+    }
+
+    private static List<DetalleVenta> detalles(int cantidad, Producto producto) {
+        List<DetalleVenta> detalles = new ArrayList<>();
+        detalles.add(new DetalleVenta(cantidad, producto, cantidad * producto.getPrecio()));
+        return detalles;
+    }
+
+    /**
+     * Describe el estado de una tienda con las mismas líneas con que se guarda en una instantánea.
+     */
+    private static List<String> contenido(Tienda tienda) {
+        List<String> lineas = new ArrayList<>();
+        Map<String, String> productos = new TreeMap<>();
+        tienda.recorrerProductos(producto -> productos.put(producto.getCodigo(), CodificadorRegistros.codificarProducto(producto)));
+        lineas.addAll(productos.values());
+        Map<String, String> clientes = new TreeMap<>();
+        tienda.obtenerListaClientes().forEach(cliente -> clientes.put(cliente.getNumIdentificacion(), CodificadorRegistros.codificarCliente(cliente)));
+        lineas.addAll(clientes.values());
+        tienda.recorrerHistoricoVentas(venta -> lineas.add(CodificadorRegistros.codificarVenta(venta)));
+        tienda.obtenerCarritos().forEach((sesion, cantidades) -> lineas.add(sesion + "=" + cantidades.aMapa()));
+        return lineas;
+    }
+}
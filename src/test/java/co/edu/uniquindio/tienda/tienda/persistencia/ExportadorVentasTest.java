@@ -0,0 +1,109 @@
+package co.edu.uniquindio.tienda.tienda.persistencia;
+
+import co.edu.uniquindio.tienda.tienda.model.Cliente;
+import co.edu.uniquindio.tienda.tienda.model.DetalleVenta;
+import co.edu.uniquindio.tienda.tienda.model.Producto;
+import co.edu.uniquindio.tienda.tienda.model.Venta;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExportadorVentasTest {
+
+    @TempDir
+    Path directorio;
+
+    private static List<Venta> ventas() {
+        Producto arroz = new Producto("Arroz", "A1", 2500, 10);
+        Cliente cliente = new Cliente("Ana", "C,1", "Calle 1");
+        List<DetalleVenta> detalles = new ArrayList<>();
+        detalles.add(new DetalleVenta(2, arroz, 5000.0));
+        detalles.add(new DetalleVenta(1, null, null));
+        return List.of(
+                new Venta("V1", LocalDate.of(2024, 3, 5), 5000.0, cliente, detalles),
+                new Venta("V2", LocalDate.of(2024, 3, 6), null, null, new ArrayList<>()));
+    }
+
+    @Test
+    void csvEscribeUnaFilaPorDetalleYDejaVacioElProductoAusente() throws Exception {
+        Path ruta = directorio.resolve("ventas.csv");
+        try (ExportadorVentas exportador = ExportadorVentas.csv(ruta)) {
+            ventas().forEach(exportador);
+            exportador.terminar();
+            assertEquals(2, exportador.getVentasExportadas());
+        }
+
+        List<String> lineas = Files.readAllLines(ruta, StandardCharsets.UTF_8);
+        assertEquals("codigo_venta,fecha,id_cliente,total,posicion,codigo_producto,cantidad,subtotal", lineas.get(0));
+        assertEquals("V1,2024-03-05,\"C,1\",5000.0,0,A1,2,5000.0", lineas.get(1));
+        assertEquals("V1,2024-03-05,\"C,1\",5000.0,1,,1,", lineas.get(2));
+        assertEquals("V2,2024-03-06,,,,,,", lineas.get(3));
+        assertEquals(4, lineas.size());
+    }
+
+    @Test
+    void columnarEscribeEncabezadoGrupoConDiccionariosYMarcaDeFin() throws Exception {
+        Path ruta = directorio.resolve("ventas.col");
+        try (ExportadorVentas exportador = ExportadorVentas.columnar(ruta)) {
+            ventas().forEach(exportador);
+            exportador.terminar();
+        }
+
+        ByteBuffer bufer = ByteBuffer.wrap(Files.readAllBytes(ruta));
+        assertEquals(0x54564E54, bufer.getInt());
+        assertEquals(1, bufer.getShort());
+        assertEquals(7, bufer.getShort());
+        assertEquals(3, bufer.getInt());
+
+        assertEquals(List.of("V1", "V1", "V2"), leerColumnaTexto(bufer, 3));
+        assertEquals((int) LocalDate.of(2024, 3, 5).toEpochDay(), bufer.getInt());
+        assertEquals((int) LocalDate.of(2024, 3, 5).toEpochDay(), bufer.getInt());
+        assertEquals((int) LocalDate.of(2024, 3, 6).toEpochDay(), bufer.getInt());
+        assertEquals(List.of("C,1", "C,1", ""), leerColumnaTexto(bufer, 3));
+        assertEquals(5000.0, bufer.getDouble());
+        assertEquals(5000.0, bufer.getDouble());
+        assertTrue(Double.isNaN(bufer.getDouble()));
+        assertEquals(List.of("A1", "", ""), leerColumnaTexto(bufer, 3));
+        assertEquals(2, bufer.getInt());
+        assertEquals(1, bufer.getInt());
+        assertEquals(0, bufer.getInt());
+        assertEquals(5000.0, bufer.getDouble());
+        assertTrue(Double.isNaN(bufer.getDouble()));
+        assertTrue(Double.isNaN(bufer.getDouble()));
+
+        assertEquals(0, bufer.getInt());
+        assertFalse(bufer.hasRemaining());
+    }
+
+    private static List<String> leerColumnaTexto(ByteBuffer bufer, int filas) {
+        List<String> diccionario = new ArrayList<>();
+        int entradas = bufer.getInt();
+        for (int i = 0; i < entradas; i++) {
+            byte[] bytes = new byte[Short.toUnsignedInt(bufer.getShort())];
+            bufer.get(bytes);
+            diccionario.add(new String(bytes, StandardCharsets.UTF_8));
+        }
+        int ancho = bufer.get();
+        List<String> valores = new ArrayList<>();
+        for (int i = 0; i < filas; i++) {
+            int indice = switch (ancho) {
+                case 1 -> Byte.toUnsignedInt(bufer.get());
+                case 2 -> Short.toUnsignedInt(bufer.getShort());
+                default -> bufer.getInt();
+            };
+            valores.add(diccionario.get(indice));
+        }
+        return valores;
+    }
+}
@@ -0,0 +1,172 @@
+package co.edu.uniquindio.tienda.tienda.persistencia;
+
+import co.edu.uniquindio.tienda.tienda.model.Cliente;
+import co.edu.uniquindio.tienda.tienda.model.DetalleVenta;
+import co.edu.uniquindio.tienda.tienda.model.Producto;
+import co.edu.uniquindio.tienda.tienda.model.Tienda;
+import co.edu.uniquindio.tienda.tienda.model.Venta;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RegistroTransaccionesTest {
+
+    @Test
+    void reproduceLasVentasYLosDescuentosDeInventarioEnOrden(@TempDir Path directorio) throws Exception {
+        Producto arroz = new Producto("Arroz", "A1", 2500, 10);
+        RegistroTransacciones registro = new RegistroTransacciones(directorio, 0);
+        List<DetalleVenta> detalles = List.of(new DetalleVenta(3, arroz, 7500.0));
+        registro.registrarVenta(new Venta("V1", LocalDate.of(2024, 1, 2), 7500.0, null, detalles)).join();
+        registro.registrarInventario(detalles).join();
+        registro.registrarInventario(List.of(new DetalleVenta(2, arroz, null))).join();
+        registro.cerrar();
+
+        Tienda tienda = tiendaCon(new Producto("Arroz", "A1", 2500, 10));
+        int aplicadas = RegistroTransacciones.reproducir(RegistroTransacciones.rutaSegmento(directorio, 0), tienda);
+
+        assertEquals(3, aplicadas);
+        assertEquals(5, tienda.obtenerProducto("A1").getCantidadInventario());
+        assertNotNull(tienda.buscarVenta("V1"));
+    }
+
+    @Test
+    void omiteLaUltimaLineaEscritaAMedias(@TempDir Path directorio) throws Exception {
+        RegistroTransacciones registro = new RegistroTransacciones(directorio, 0);
+        registro.registrarInventario(List.of(new DetalleVenta(1, new Producto("", "A1", 0, 0), null))).join();
+        registro.cerrar();
+        Path segmento = RegistroTransacciones.rutaSegmento(directorio, 0);
+        String cortada = CodificadorRegistros.codificarInventario(List.of(new DetalleVenta(4, new Producto("", "A1", 0, 0), null)));
+        Files.writeString(segmento, cortada.substring(0, cortada.length() - 2), StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        Tienda tienda = tiendaCon(new Producto("Arroz", "A1", 2500, 10));
+        int aplicadas = RegistroTransacciones.reproducir(segmento, tienda);
+
+        assertEquals(1, aplicadas);
+        assertEquals(9, tienda.obtenerProducto("A1").getCantidadInventario());
+    }
+
+    @Test
+    void omiteUnaLineaDanadaYSigueConLasDemas(@TempDir Path directorio) throws Exception {
+        Producto arroz = new Producto("", "A1", 0, 0);
+        String primera = CodificadorRegistros.codificarInventario(List.of(new DetalleVenta(1, arroz, null)));
+        String danada = CodificadorRegistros.codificarInventario(List.of(new DetalleVenta(5, arroz, null))).replace(":5", ":6");
+        String ultima = CodificadorRegistros.codificarInventario(List.of(new DetalleVenta(2, arroz, null)));
+        Path segmento = RegistroTransacciones.rutaSegmento(directorio, 0);
+        Files.writeString(segmento, primera + "\n" + danada + "\n" + ultima + "\n", StandardCharsets.UTF_8);
+
+        Tienda tienda = tiendaCon(new Producto("Arroz", "A1", 2500, 10));
+
+        assertEquals(2, RegistroTransacciones.reproducir(segmento, tienda));
+        assertEquals(7, tienda.obtenerProducto("A1").getCantidadInventario());
+    }
+
+    @Test
+    void unaCompraAgregaLaVentaYDescuentaSuInventarioEnUnaSolaEntrada(@TempDir Path directorio) throws Exception {
+        Producto arroz = new Producto("Arroz", "A1", 2500, 10);
+        RegistroTransacciones registro = new RegistroTransacciones(directorio, 0);
+        registro.registrarCompra(new Venta("V1", LocalDate.of(2024, 1, 2), 7500.0, null, List.of(new DetalleVenta(3, arroz, 7500.0)))).join();
+        registro.cerrar();
+
+        Path segmento = RegistroTransacciones.rutaSegmento(directorio, 0);
+        Tienda tienda = tiendaCon(new Producto("Arroz", "A1", 2500, 10));
+
+        assertEquals(1, Files.readAllLines(segmento, StandardCharsets.UTF_8).size());
+        assertEquals(1, RegistroTransacciones.reproducir(segmento, tienda));
+        assertEquals(7, tienda.obtenerProducto("A1").getCantidadInventario());
+        assertNotNull(tienda.buscarVenta("V1"));
+    }
+
+    @Test
+    void omiteUnaLineaConCrcValidoQueNoSePuedeInterpretar(@TempDir Path directorio) throws Exception {
+        Method linea = CodificadorRegistros.class.getDeclaredMethod("linea", String.class, String[].class);
+        linea.setAccessible(true);
+        Producto arroz = new Producto("", "A1", 0, 0);
+        String primera = CodificadorRegistros.codificarInventario(List.of(new DetalleVenta(1, arroz, null)));
+        String cantidadInvalida = (String) linea.invoke(null, CodificadorRegistros.TIPO_INVENTARIO, new String[]{"A1:muchas"});
+        String sinCampos = (String) linea.invoke(null, CodificadorRegistros.TIPO_VENTA, new String[]{"V9"});
+        String ultima = CodificadorRegistros.codificarInventario(List.of(new DetalleVenta(2, arroz, null)));
+        Path segmento = RegistroTransacciones.rutaSegmento(directorio, 0);
+        Files.writeString(segmento, String.join("\n", primera, cantidadInvalida, sinCampos, ultima) + "\n", StandardCharsets.UTF_8);
+
+        Tienda tienda = tiendaCon(new Producto("Arroz", "A1", 2500, 10));
+
+        assertEquals(2, RegistroTransacciones.reproducir(segmento, tienda));
+        assertEquals(7, tienda.obtenerProducto("A1").getCantidadInventario());
+        assertNull(tienda.buscarVenta("V9"));
+    }
+
+    @Test
+    void reproduceLosCambiosDeProductosYClientes(@TempDir Path directorio) throws Exception {
+        RegistroTransacciones registro = new RegistroTransacciones(directorio, 0);
+        registro.registrarProductoGuardado("B1", new Producto("Sal", "B1", 900, 4)).join();
+        registro.registrarProductoGuardado("A1", new Producto("Arroz blanco", "A1", 2700, 8)).join();
+        registro.registrarProductoEliminado("B1").join();
+        registro.registrarProductoEliminado("NO-EXISTE").join();
+        registro.registrarClienteGuardado("c1", new Cliente("Ana", "c1", "Calle 1")).join();
+        registro.registrarClienteGuardado("c1", new Cliente("Ana María", "c1", "Calle 2")).join();
+        registro.cerrar();
+
+        Tienda tienda = tiendaCon(new Producto("Arroz", "A1", 2500, 10));
+        int aplicadas = RegistroTransacciones.reproducir(RegistroTransacciones.rutaSegmento(directorio, 0), tienda);
+
+        assertEquals(5, aplicadas);
+        assertEquals("Arroz blanco", tienda.obtenerProducto("A1").getNombre());
+        assertEquals(8, tienda.obtenerProducto("A1").getCantidadInventario());
+        assertNull(tienda.obtenerProducto("B1"));
+        assertEquals("Calle 2", tienda.buscarCliente("c1").getDireccion());
+        assertEquals(1, tienda.obtenerListaClientes().size());
+    }
+
+    @Test
+    void rotarSeparaLosSegmentos(@TempDir Path directorio) throws Exception {
+        RegistroTransacciones registro = new RegistroTransacciones(directorio, 0);
+        Producto arroz = new Producto("", "A1", 0, 0);
+        registro.registrarInventario(List.of(new DetalleVenta(1, arroz, null))).join();
+        long nuevo = registro.rotar().join();
+        registro.registrarInventario(List.of(new DetalleVenta(2, arroz, null))).join();
+        registro.cerrar();
+
+        assertEquals(1, nuevo);
+        assertEquals(List.of(0L, 1L), RegistroTransacciones.listarSegmentos(directorio));
+        RegistroTransacciones.eliminarSegmentosAnteriores(directorio, nuevo);
+        assertEquals(List.of(1L), RegistroTransacciones.listarSegmentos(directorio));
+
+        Tienda tienda = tiendaCon(new Producto("Arroz", "A1", 2500, 10));
+        RegistroTransacciones.reproducir(RegistroTransacciones.rutaSegmento(directorio, nuevo), tienda);
+        assertEquals(8, tienda.obtenerProducto("A1").getCantidadInventario());
+    }
+
+    @Test
+    void registrarDespuesDeCerrarFallaEnLugarDeQuedarEsperando(@TempDir Path directorio) throws Exception {
+        RegistroTransacciones registro = new RegistroTransacciones(directorio, 0);
+        registro.cerrar();
+
+        CompletableFuture<Void> entrada = registro.registrarProductoEliminado("A1");
+
+        assertTrue(entrada.isCompletedExceptionally());
+        assertThrows(CompletionException.class, entrada::join);
+        assertFalse(Files.readString(RegistroTransacciones.rutaSegmento(directorio, 0)).contains("A1"));
+    }
+
+    private static Tienda tiendaCon(Producto producto) throws Exception {
+        Tienda tienda = new Tienda();
+        tienda.agregarProducto(producto);
+        return tienda;
+    }
+}
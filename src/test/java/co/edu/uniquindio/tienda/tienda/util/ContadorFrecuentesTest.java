@@ -0,0 +1,74 @@
+package co.edu.uniquindio.tienda.tienda.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ContadorFrecuentesTest {
+
+    @Test
+    void conEspacioSuficienteLosConteosSonExactos() {
+        ContadorFrecuentes<String> contador = new ContadorFrecuentes<>(10);
+        contador.agregar("a", 3);
+        contador.agregar("b", 5);
+        contador.agregar("a", 4);
+        contador.agregar("c", 0);
+
+        List<ContadorFrecuentes.Frecuencia<String>> frecuentes = contador.obtenerMasFrecuentes(5);
+
+        assertEquals(2, frecuentes.size());
+        assertEquals("a", frecuentes.get(0).getClave());
+        assertEquals(7, frecuentes.get(0).getConteo());
+        assertEquals(0, frecuentes.get(0).getError());
+        assertEquals("b", frecuentes.get(1).getClave());
+        assertEquals(12, contador.getTotal());
+    }
+
+    @Test
+    void elNuevoElementoReemplazaAlDeMenorConteoYHeredaSuError() {
+        ContadorFrecuentes<String> contador = new ContadorFrecuentes<>(2);
+        contador.agregar("a", 5);
+        contador.agregar("b", 2);
+        contador.agregar("c", 1);
+
+        List<ContadorFrecuentes.Frecuencia<String>> frecuentes = contador.obtenerMasFrecuentes(2);
+
+        assertEquals("a", frecuentes.get(0).getClave());
+        assertEquals("c", frecuentes.get(1).getClave());
+        assertEquals(3, frecuentes.get(1).getConteo());
+        assertEquals(2, frecuentes.get(1).getError());
+        assertEquals(8, contador.getTotal());
+    }
+
+    @Test
+    void losConteosNuncaSubestimanYLosFrecuentesSiempreSeVigilan() {
+        for (int particiones : new int[]{1, 4}) {
+            ContadorFrecuentes<Integer> contador = new ContadorFrecuentes<>(20, particiones);
+            Map<Integer, Long> reales = new HashMap<>();
+            Random aleatorio = new Random(7);
+            for (int i = 0; i < 20_000; i++) {
+                int clave = aleatorio.nextInt(10) < 5 ? aleatorio.nextInt(5) : aleatorio.nextInt(1_000);
+                contador.agregar(clave, 1);
+                reales.merge(clave, 1L, Long::sum);
+            }
+
+            List<ContadorFrecuentes.Frecuencia<Integer>> frecuentes = contador.obtenerMasFrecuentes(Integer.MAX_VALUE);
+            for (ContadorFrecuentes.Frecuencia<Integer> frecuencia : frecuentes) {
+                long real = reales.get(frecuencia.getClave());
+                assertTrue(frecuencia.getConteo() >= real);
+                assertTrue(frecuencia.getConteo() - frecuencia.getError() <= real);
+            }
+            List<Integer> vigilados = frecuentes.stream().map(ContadorFrecuentes.Frecuencia::getClave).toList();
+            for (int clave = 0; clave < 5; clave++) {
+                assertTrue(vigilados.contains(clave));
+            }
+            assertEquals(20_000, contador.getTotal());
+        }
+    }
+}
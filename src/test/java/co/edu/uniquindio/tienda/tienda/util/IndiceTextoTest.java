@@ -0,0 +1,60 @@
+package co.edu.uniquindio.tienda.tienda.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IndiceTextoTest {
+
+    private IndiceTexto<String> indice;
+
+    @BeforeEach
+    void crearIndice() {
+        indice = new IndiceTexto<>();
+        indice.actualizar("001", "Azúcar morena");
+        indice.actualizar("002", "Azúcar");
+        indice.actualizar("003", "Galletas de avena");
+        indice.actualizar("004", "Arroz");
+    }
+
+    @Test
+    void ignoraTildesMayusculasYErroresDeDigitacion() {
+        assertEquals("002", indice.buscar("AZUCAR", 5).get(0));
+        assertEquals("002", indice.buscar("asucar", 5).get(0));
+        assertEquals(List.of("003"), indice.buscar("galeta", 5));
+    }
+
+    @Test
+    void aIgualCoberturaPrefiereElTextoDeLongitudMasParecida() {
+        assertEquals(List.of("002", "001"), indice.buscar("azúcar", 5));
+    }
+
+    @Test
+    void encuentraLaPalabraQueAunSeEstaEscribiendo() {
+        assertEquals("001", indice.buscar("azucar mor", 5).get(0));
+    }
+
+    @Test
+    void respetaElLimiteYDescartaLosPocoParecidos() {
+        assertEquals(1, indice.buscar("azucar", 1).size());
+        assertTrue(indice.buscar("xyz", 5).isEmpty());
+        assertTrue(indice.buscar("  ", 5).isEmpty());
+    }
+
+    @Test
+    void reindexaAlCambiarElTextoYOlvidaLosEliminados() {
+        indice.actualizar("004", "Arroz integral");
+        assertEquals(List.of("004"), indice.buscar("integral", 5));
+
+        assertTrue(indice.eliminar("002"));
+        assertEquals(List.of("001"), indice.buscar("azucar", 5));
+        assertEquals(3, indice.tamanio());
+
+        indice.actualizar("005", "Azúcar");
+        assertEquals("005", indice.buscar("azucar", 5).get(0));
+    }
+}
@@ -0,0 +1,88 @@
+package co.edu.uniquindio.tienda.tienda.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MapaObjetoEnteroTest {
+
+    /**
+     * Clave con una dispersión elegida, para forzar colisiones en la tabla.
+     */
+    private record Clave(int id, int dispersion) {
+        @Override
+        public int hashCode() {
+            return dispersion;
+        }
+    }
+
+    @Test
+    void eliminarEnMedioDeUnGrupoDeColisionesConservaLasDemasClaves() {
+        MapaObjetoEntero<Clave> mapa = new MapaObjetoEntero<>();
+        Clave[] claves = new Clave[5];
+        for (int i = 0; i < claves.length; i++) {
+            claves[i] = new Clave(i, 3);
+            mapa.poner(claves[i], i * 10);
+        }
+
+        assertTrue(mapa.eliminar(claves[1]));
+        assertTrue(mapa.eliminar(claves[3]));
+        assertFalse(mapa.eliminar(claves[3]));
+
+        assertEquals(3, mapa.tamanio());
+        assertEquals(0, mapa.obtener(claves[0], -1));
+        assertEquals(20, mapa.obtener(claves[2], -1));
+        assertEquals(40, mapa.obtener(claves[4], -1));
+        assertEquals(-1, mapa.obtener(claves[1], -1));
+        for (int i = 0; i < mapa.tamanio(); i++) {
+            assertEquals(i, mapa.indice(mapa.clave(i)));
+        }
+    }
+
+    @Test
+    void coincideConUnHashMapTrasOperacionesAleatoriasConColisiones() {
+        MapaObjetoEntero<Clave> mapa = new MapaObjetoEntero<>();
+        Map<Clave, Integer> esperado = new HashMap<>();
+        Random aleatorio = new Random(11);
+        for (int paso = 0; paso < 50_000; paso++) {
+            Clave clave = new Clave(aleatorio.nextInt(300), aleatorio.nextInt(40));
+            switch (aleatorio.nextInt(3)) {
+                case 0 -> {
+                    int valor = aleatorio.nextInt(1000);
+                    mapa.poner(clave, valor);
+                    esperado.put(clave, valor);
+                }
+                case 1 -> {
+                    mapa.sumar(clave, 2);
+                    esperado.merge(clave, 2, Integer::sum);
+                }
+                default -> assertEquals(esperado.remove(clave) != null, mapa.eliminar(clave));
+            }
+        }
+
+        assertEquals(esperado.size(), mapa.tamanio());
+        assertEquals(esperado, mapa.aMapa());
+        for (Map.Entry<Clave, Integer> entrada : esperado.entrySet()) {
+            assertEquals(entrada.getValue(), mapa.obtener(entrada.getKey(), -1));
+        }
+    }
+
+    @Test
+    void laCopiaEsIndependiente() {
+        MapaObjetoEntero<String> mapa = new MapaObjetoEntero<>();
+        mapa.poner("a", 1);
+        MapaObjetoEntero<String> copia = mapa.copiar();
+        copia.sumar("a", 5);
+        copia.poner("b", 2);
+
+        assertEquals(1, mapa.obtener("a", 0));
+        assertFalse(mapa.contiene("b"));
+        assertEquals(6, copia.obtener("a", 0));
+    }
+}